@@ -0,0 +1,15 @@
+/**
+ * an enum holding the ways MesonetColumns can store the values of a parameter
+ */
+public enum ColumnStorage
+{
+    /** a double per value */
+    DOUBLE,
+
+    /**
+     * a scaled short per value, or a scaled int when the values do not fit, for
+     * parameters with a scale in ParameterScales. A column falls back to doubles
+     * if a value cannot be decoded exactly.
+     */
+    QUANTIZED;
+}
@@ -0,0 +1,98 @@
+/**
+ * Class holding the reduction of one column: the number of valid values, their
+ * sum and squared deviations from the mean, and the smallest and largest value
+ * with the first row holding each.
+ */
+public class ColumnSummary
+{
+    /** the number of valid values */
+    int count;
+
+    /** the sum of the valid values */
+    double sum;
+
+    /** the sum of the squared deviations of the valid values from their mean */
+    double m2;
+
+    /** the smallest valid value */
+    double min = Double.NaN;
+
+    /** the first row holding the smallest value, -1 without valid values */
+    int minRow = -1;
+
+    /** the largest valid value */
+    double max = Double.NaN;
+
+    /** the first row holding the largest value, -1 without valid values */
+    int maxRow = -1;
+
+    /**
+     * Method to get the number of valid values
+     *
+     * @return int the number of valid values
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Method to get the sum of the valid values
+     *
+     * @return double the sum
+     */
+    public double getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * Method to get the sum of the squared deviations from the mean
+     *
+     * @return double the second central moment times the count
+     */
+    public double getM2()
+    {
+        return m2;
+    }
+
+    /**
+     * Method to get the smallest valid value
+     *
+     * @return double the smallest value, NaN without valid values
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Method to get the first row holding the smallest value
+     *
+     * @return int the row, -1 without valid values
+     */
+    public int getMinRow()
+    {
+        return minRow;
+    }
+
+    /**
+     * Method to get the largest valid value
+     *
+     * @return double the largest value, NaN without valid values
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Method to get the first row holding the largest value
+     *
+     * @return int the row, -1 without valid values
+     */
+    public int getMaxRow()
+    {
+        return maxRow;
+    }
+}
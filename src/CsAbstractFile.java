@@ -58,6 +58,16 @@ public abstract class CsAbstractFile implements TimeComparable
         return file.lastModified();
     }
 
+    /**
+     * Method to check the size of the file
+     * 
+     * @return long the length of the file in bytes
+     */
+    public long getSize()
+    {
+        return file.length();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -1,93 +1,481 @@
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.EnumMap;
-import java.util.GregorianCalendar;
-import java.util.HashMap;
+import java.util.Set;
 
 /**
- * Class for finding and storing the maximum, minimum, and average temperatures
- * and solar radiation.
+ * Class for finding and storing the maximum, minimum, average, total, variance,
+ * standard deviation, count, median and percentiles of every parameter of a
+ * day's data, and a StatisticsAggregate of each that can be merged with other
+ * days. Invalid values are left out. The rows of every hour are aggregated as
+ * well, in the same pass, for the hourly buckets of a RollupCube.
  */
-public class DayDataStatistics
+public class DayDataStatistics implements MesonetRowVisitor
 {
+    /** the registry numbering the parameters of the data */
+    private ParameterRegistry registry;
+
     /**
-     * HashMap to hold parameter name and an EnumMap that maps StatType objects to a
-     * StatMeasurement object
+     * the mergeable statistics of every parameter, indexed by the registry, null
+     * for parameters without valid values
      */
-    private HashMap<String, EnumMap<StatType, StatMeasurement>> paramStats;
-
-    /** The set of data. */
-    private ArrayList<TimeData> data;
+    private StatisticsAggregate[] aggregates;
 
     /** Station ID */
     private String stationId = "nada";
 
+    /** the index of the station in the network registry, looked up when needed */
+    private int stationIndex = StationRegistry.UNKNOWN;
+
+    /** the year of the first row */
+    private int year;
+
+    /** the month of the first row */
+    private int month;
+
+    /** the day of the first row */
+    private int day;
+
+    /** the running statistics of every parameter, kept so rows can be added */
+    private StatisticsAccumulator running;
+
+    /** the running statistics of every hour of the day, null for hours without rows */
+    private ArrayList<StatisticsAccumulator> hourRunning;
+
+    /**
+     * the mergeable statistics of every hour and parameter, indexed by hour and
+     * then by the registry, null for hours or parameters without valid values
+     */
+    private StatisticsAggregate[][] hourAggregates;
+
+    /** the parameter ids streamed from the file, or null for all of them */
+    private Set<String> params;
+
+    /** whether streamed rows arrived since the StatMeasurements were built */
+    private boolean runningChanged;
+
+    /** whether the valid values are kept for exact order statistics */
+    private boolean keepSamples;
+
+    /** the scratch buffer exact order statistics are selected in */
+    private OrderStatistics selector;
+
     /**
      * Constructor for the DayDataStatistics class. Calls private helper methods to
      * calculate the statistics.
      * 
      * @param inData
-     *            an ArrayList of time data objects
+     *            an ArrayList of time data objects from one file, sharing its
+     *            parameter registry
      */
     public DayDataStatistics(ArrayList<TimeData> inData)
     {
-        data = inData;
-        stationId = inData.get(0).getStationID();
-        paramStats = new HashMap<String, EnumMap<StatType, StatMeasurement>>();
-        paramStats.put("TAIR", new EnumMap<StatType, StatMeasurement>(StatType.class));
-        paramStats.put("TA9M", new EnumMap<StatType, StatMeasurement>(StatType.class));
-        paramStats.put("SRAD", new EnumMap<StatType, StatMeasurement>(StatType.class));
+        TimeData first = inData.get(0);
+        stationId = first.getStationID();
+        year = first.getYear();
+        month = first.getMonth();
+        day = first.getDay();
+        registry = first.getRegistry();
 
-        calculateStatistics("TAIR");
-        calculateStatistics("TA9M");
-        calculateStatistics("SRAD");
+        // express every row as minutes after midnight of the first row's day
+        long midnight = EpochMinutes.getEpochDay(first.getEpochMinute()) * EpochMinutes.MINUTES_PER_DAY;
+        int[] minutes = new int[inData.size()];
+        for (int row = 0; row < minutes.length; ++row)
+        {
+            minutes[row] = (int) (inData.get(row).getEpochMinute() - midnight);
+        }
+
+        // one pass over the rows for all parameters; parameters that were left
+        // out when parsing are NaN and get no statistics
+        running = new StatisticsAccumulator(registry.size());
+        hourRunning = new ArrayList<StatisticsAccumulator>();
+        double[] values = new double[registry.size()];
+        for (int row = 0; row < minutes.length; ++row)
+        {
+            TimeData timeData = inData.get(row);
+            for (int param = 0; param < values.length; ++param)
+            {
+                Measurement measurement = timeData.getMeasurement(param);
+                values[param] = measurement == null ? Double.NaN : measurement.getValue();
+            }
+            running.addRow(minutes[row], values);
+            addHourRow(minutes[row], values);
+        }
+        publishRunningStatistics();
     }
 
     /**
-     * Method to calculate statistics
+     * Constructor for the DayDataStatistics class that reads the columns of a
+     * parsed file directly.
      * 
-     * @param paramName
-     *            the name of parameter to calculate
+     * @param columns
+     *            the columns of a Mesonet Time File
      */
-    private void calculateStatistics(String paramName)
+    public DayDataStatistics(MesonetColumns columns)
     {
-        ArrayList<Double> timeDataVals = new ArrayList<Double>();
+        stationId = columns.getStationID();
+        year = columns.getYear();
+        month = columns.getMonth();
+        day = columns.getDay();
+        registry = columns.getRegistry();
+
+        // invalid rows are skipped from the validity bitmaps
+        running = new StatisticsAccumulator(registry.size());
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            running.addColumn(param, columns.getColumn(param), columns.getValidity(param), columns.getMinutes(),
+                    columns.getRowCount());
+        }
 
-        // loop through data and add elements to ArrayList
-        for (TimeData time : data)
+        // the hours are short, so their rows are added one at a time
+        hourRunning = new ArrayList<StatisticsAccumulator>();
+        int[] minutes = columns.getMinutes();
+        double[] values = new double[registry.size()];
+        for (int row = 0; row < columns.getRowCount(); ++row)
         {
-            timeDataVals.add(time.getMeasurement(paramName).getValue());
+            for (int param = 0; param < values.length; ++param)
+            {
+                values[param] = columns.getValue(param, row);
+            }
+            addHourRow(minutes[row], values);
         }
+        publishRunningStatistics();
+    }
 
-        // find the average, sum, min, and max
-        Double average = timeDataVals.stream().mapToDouble(val -> val).average().getAsDouble();
-        Double sum = timeDataVals.stream().mapToDouble(val -> val).sum();
-        Double max = timeDataVals.stream().mapToDouble(val -> val).max().getAsDouble();
-        Double min = timeDataVals.stream().mapToDouble(val -> val).min().getAsDouble();
+    /**
+     * Constructor for the DayDataStatistics class that streams the rows of a file
+     * and aggregates them as they arrive. No rows are kept, so memory use does not
+     * depend on the length of the file.
+     * 
+     * @param file
+     *            the Mesonet Time File to read
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public DayDataStatistics(MesonetTimeFile file) throws IOException, WrongCopyrightException
+    {
+        this(file, null);
+    }
 
-        // find the TimeData object in order to get the time
-        TimeData maxTime = data.get(timeDataVals.indexOf(max));
-        TimeData minTime = data.get(timeDataVals.indexOf(min));
+    /**
+     * Constructor for the DayDataStatistics class that streams the requested
+     * parameters of a file and aggregates them as they arrive.
+     * 
+     * @param file
+     *            the Mesonet Time File to read
+     * @param params
+     *            the parameter ids to calculate, in any case, or null for all of
+     *            them
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public DayDataStatistics(MesonetTimeFile file, Set<String> params) throws IOException, WrongCopyrightException
+    {
+        this(file, params, false);
+    }
+
+    /**
+     * Constructor for the DayDataStatistics class that streams the requested
+     * parameters of a file and can keep their valid values, so exact medians and
+     * percentiles can be found with getExactStatMeasurement.
+     * 
+     * @param file
+     *            the Mesonet Time File to read
+     * @param params
+     *            the parameter ids to calculate, in any case, or null for all of
+     *            them
+     * @param inKeepSamples
+     *            true to keep the valid values of every parameter
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public DayDataStatistics(MesonetTimeFile file, Set<String> params, boolean inKeepSamples)
+            throws IOException, WrongCopyrightException
+    {
+        // read through parseNewRows so that update can continue where it stopped
+        this.params = params;
+        keepSamples = inKeepSamples;
+        file.resetNewRows();
+        file.parseNewRows(params, this);
+        if (running == null)
+        {
+            // the header is not complete yet, update reads it once it is
+            registry = ParameterRegistry.of();
+            running = new StatisticsAccumulator(0);
+            hourRunning = new ArrayList<StatisticsAccumulator>();
+        }
+        publishRunningStatistics();
+    }
+
+    /**
+     * Constructor for the DayDataStatistics class that takes statistics found
+     * before, as kept by a SummaryStore. No rows are kept, so update and
+     * getExactStatMeasurement cannot be used.
+     * 
+     * @param inRegistry
+     *            the registry numbering the parameters
+     * @param inStationId
+     *            the station ID
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @param inAggregates
+     *            the statistics of every parameter, indexed by the registry, null
+     *            for parameters without valid values
+     * @param inHourAggregates
+     *            the statistics of every hour and parameter, indexed by hour and
+     *            then by the registry, null for hours or parameters without valid
+     *            values, or null if the hours were not read
+     */
+    public DayDataStatistics(ParameterRegistry inRegistry, String inStationId, long midnight,
+            StatisticsAggregate[] inAggregates, StatisticsAggregate[][] inHourAggregates)
+    {
+        registry = inRegistry;
+        stationId = inStationId;
+        int civilDate = EpochMinutes.getCivilDate(midnight);
+        year = EpochMinutes.getCivilYear(civilDate);
+        month = EpochMinutes.getCivilMonth(civilDate);
+        day = EpochMinutes.getCivilDay(civilDate);
+        aggregates = inAggregates.clone();
+        hourAggregates = inHourAggregates == null ? null : inHourAggregates.clone();
+    }
+
+    /**
+     * Method to get the statistics of some of the parameters, with their hours
+     * and quantile sketches. Like statistics read from a SummaryStore, the
+     * result keeps no rows, so update and getExactStatMeasurement cannot be
+     * used.
+     * 
+     * @param params
+     *            the upper case parameter ids to keep
+     * @return DayDataStatistics the statistics of the parameters among them
+     *         that these statistics have
+     */
+    public synchronized DayDataStatistics project(Set<String> params)
+    {
+        ArrayList<String> ids = new ArrayList<String>();
+        ArrayList<Integer> kept = new ArrayList<Integer>();
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            if (params.contains(registry.getParamId(param)))
+            {
+                ids.add(registry.getParamId(param));
+                kept.add(param);
+            }
+        }
+
+        StatisticsAggregate[] projected = new StatisticsAggregate[kept.size()];
+        StatisticsAggregate[][] hourProjected =
+                hourAggregates == null ? null : new StatisticsAggregate[hourAggregates.length][kept.size()];
+        for (int index = 0; index < kept.size(); ++index)
+        {
+            projected[index] = aggregates[kept.get(index)];
+            for (int hour = 0; hourProjected != null && hour < hourAggregates.length; ++hour)
+            {
+                hourProjected[hour][index] = hourAggregates[hour][kept.get(index)];
+            }
+        }
+        return new DayDataStatistics(ParameterRegistry.of(ids.toArray(new String[ids.size()])), stationId,
+                getStartEpochMinute(), projected, hourProjected);
+    }
+
+    /**
+     * Method that adds the rows appended to a growing file since it was last read
+     * to the statistics, without reading the earlier rows again. The file must be
+     * the one these statistics were built from, or a new MesonetTimeFile of the
+     * same path, in which case its first call reads the whole file again.
+     * 
+     * @param file
+     *            the Mesonet Time File to read
+     * @return int the number of new rows
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public synchronized int update(MesonetTimeFile file) throws IOException, WrongCopyrightException
+    {
+        if (running == null)
+        {
+            throw new IllegalStateException("Statistics of " + stationId + " have no running statistics");
+        }
+        int rows = file.parseNewRows(params, this);
+        if (rows > 0)
+        {
+            publishRunningStatistics();
+        }
+        return rows;
+    }
+
+    /**
+     * Method that drops the running statistics once no more rows will be added,
+     * keeping only the aggregates of the day and of its hours. Like statistics
+     * read from a SummaryStore, the statistics then cannot be updated and
+     * getExactStatMeasurement cannot be used.
+     */
+    public synchronized void compact()
+    {
+        if (runningChanged)
+        {
+            publishRunningStatistics();
+        }
+        running = null;
+        hourRunning = null;
+        selector = null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see MesonetRowVisitor#visitHeader(ParameterRegistry, int, int, int)
+     */
+    /**
+     * Method that starts the running statistics for a streamed file
+     * 
+     * @param inRegistry
+     *            the registry numbering the parameters of the rows
+     * @param inYear
+     *            the year of the file
+     * @param inMonth
+     *            the month of the file
+     * @param inDay
+     *            the day of the file
+     */
+    @Override
+    public void visitHeader(ParameterRegistry inRegistry, int inYear, int inMonth, int inDay)
+    {
+        registry = inRegistry;
+        year = inYear;
+        month = inMonth;
+        day = inDay;
+
+        running = new StatisticsAccumulator(registry.size());
+        running.setKeepSamples(keepSamples);
+        hourRunning = new ArrayList<StatisticsAccumulator>();
+
+        // a rewritten file starts again, even if it has no rows yet or is of
+        // another station
+        stationId = "nada";
+        stationIndex = StationRegistry.UNKNOWN;
+        runningChanged = true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see MesonetRowVisitor#visitRow(java.lang.String, int, double[])
+     */
+    /**
+     * Method that adds a streamed row to the running statistics
+     * 
+     * @param inStationId
+     *            the station ID of the row
+     * @param minute
+     *            the minute offset of the row
+     * @param values
+     *            the values of the row, indexed by the registry
+     */
+    @Override
+    public void visitRow(String inStationId, int minute, double[] values)
+    {
+        if (running == null)
+        {
+            throw new IllegalStateException("Row streamed before the header");
+        }
+        if (stationId.equals("nada"))
+        {
+            stationId = inStationId;
+        }
+
+        running.addRow(minute, values);
+        addHourRow(minute, values);
+        runningChanged = true;
+    }
+
+    /**
+     * Private helper method that adds a row to the running statistics of its
+     * hour. The hours keep no quantile sketches. A row at the next midnight or
+     * later is added to the last hour of the day, so it is not counted again in
+     * the first hour of the next day.
+     * 
+     * @param minute
+     *            the minute offset of the row
+     * @param values
+     *            the values of the row, indexed by the registry
+     */
+    private void addHourRow(int minute, double[] values)
+    {
+        int hour = Math.min(Math.floorDiv(minute, 60), EpochMinutes.MINUTES_PER_DAY / 60 - 1);
+        if (hour < 0)
+        {
+            return;
+        }
+        while (hourRunning.size() <= hour)
+        {
+            hourRunning.add(null);
+        }
+        if (hourRunning.get(hour) == null)
+        {
+            hourRunning.set(hour, new StatisticsAccumulator(values.length, false));
+        }
+        hourRunning.get(hour).addRow(minute, values);
+    }
+
+    /**
+     * Private helper method that builds the aggregates and StatMeasurements of
+     * the running statistics. Parameters without any valid values get no
+     * statistics.
+     */
+    private void publishRunningStatistics()
+    {
+        aggregates = new StatisticsAggregate[running.size()];
 
-        // create calendars for the StatMeasurement objects
-        GregorianCalendar maxCal = new GregorianCalendar(maxTime.getYear(), maxTime.getMonth(), maxTime.getDay(),
-                maxTime.getMeasurementDateTime().get(Calendar.HOUR_OF_DAY), maxTime.getMinute());
-        GregorianCalendar minCal = new GregorianCalendar(minTime.getYear(), minTime.getMonth(), minTime.getDay(),
-                minTime.getMeasurementDateTime().get(Calendar.HOUR_OF_DAY), minTime.getMinute());
-        GregorianCalendar avgCal = new GregorianCalendar(maxTime.getYear(), maxTime.getMonth(), maxTime.getDay(), 0, 0,
-                0);
+        // the timestamps of the StatMeasurement objects, the other types than the
+        // minimum and maximum at midnight
+        long midnight = EpochMinutes.of(year, month, day, 0);
+        for (int param = 0; param < running.size(); ++param)
+        {
+            if (running.getCount(param) > 0)
+            {
+                aggregates[param] = toAggregate(running, param, midnight, midnight);
+            }
+        }
 
-        // create the StatMeasurement objects
-        StatMeasurement maxStat = new StatMeasurement(max, maxCal, stationId, paramName, StatType.MAX);
-        StatMeasurement minStat = new StatMeasurement(min, minCal, stationId, paramName, StatType.MIN);
-        StatMeasurement avgStat = new StatMeasurement(average, avgCal, stationId, paramName, StatType.AVG);
-        StatMeasurement sumStat = new StatMeasurement(sum, avgCal, stationId, paramName, StatType.TOT);
+        hourAggregates = new StatisticsAggregate[hourRunning.size()][];
+        for (int hour = 0; hour < hourAggregates.length; ++hour)
+        {
+            StatisticsAccumulator hourStats = hourRunning.get(hour);
+            if (hourStats == null)
+            {
+                continue;
+            }
+            hourAggregates[hour] = new StatisticsAggregate[hourStats.size()];
+            for (int param = 0; param < hourStats.size(); ++param)
+            {
+                if (hourStats.getCount(param) > 0)
+                {
+                    hourAggregates[hour][param] = toAggregate(hourStats, param, midnight, midnight + hour * 60L);
+                }
+            }
+        }
+        runningChanged = false;
+    }
 
-        // add the StatMeasurement objects to the HashMap
-        paramStats.get(paramName).put(StatType.MAX, maxStat);
-        paramStats.get(paramName).put(StatType.MIN, minStat);
-        paramStats.get(paramName).put(StatType.AVG, avgStat);
-        paramStats.get(paramName).put(StatType.TOT, sumStat);
+    /**
+     * Private helper method that builds the aggregate of one parameter of
+     * running statistics
+     * 
+     * @param stats
+     *            the running statistics, with valid values of the parameter
+     * @param param
+     *            the registry index of the parameter
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @param start
+     *            the start of the period, as minutes since the epoch
+     * @return StatisticsAggregate the aggregate of the parameter
+     */
+    private StatisticsAggregate toAggregate(StatisticsAccumulator stats, int param, long midnight, long start)
+    {
+        return new StatisticsAggregate(stats.getCount(param), stats.getSum(param), stats.getM2(param),
+                stats.getMin(param), midnight + stats.getMinMinute(param), stats.getMax(param),
+                midnight + stats.getMaxMinute(param), start, stationId, stats.getSketch(param));
     }
 
     /**
@@ -97,15 +485,190 @@ public class DayDataStatistics
      *            string representing name of parameter
      * @param stat
      *            a StatType object representing the StatType to be measured
-     * @return StatMeasurement a StatMeasurement Object
+     * @return StatMeasurement a StatMeasurement Object, or null if the parameter
+     *         was not parsed
      */
     public StatMeasurement getStatMeasurement(String parameter, StatType stat)
     {
-        // Capitalize the parameter String for consistency
-        parameter = parameter.toUpperCase();
+        int param = registry.indexOf(parameter);
+        return param < 0 ? null : getStatMeasurement(param, stat);
+    }
 
-        // return the appropriate StatMeasurement object
-        return paramStats.get(parameter).get(stat);
+    /**
+     * Method to get a particular StatMeasurement Object by registry index
+     * 
+     * @param param
+     *            the registry index of the parameter
+     * @param stat
+     *            a StatType object representing the StatType to be measured
+     * @return StatMeasurement a StatMeasurement Object, or null if the parameter
+     *         was not parsed
+     */
+    public synchronized StatMeasurement getStatMeasurement(int param, StatType stat)
+    {
+        // built from the aggregate on every call, so none are kept
+        StatisticsAggregate aggregate = getAggregate(param);
+        return aggregate == null ? null : aggregate.toStatMeasurement(registry.getParamId(param), stat);
+    }
+
+    /**
+     * Method to get an exact StatMeasurement. MEDIAN, P05 and P95 are selected
+     * from the valid values of the day (by nearest rank, equal values ordered by
+     * time) and carry the time of the selected value; the other types are those
+     * of getStatMeasurement.
+     * 
+     * @param parameter
+     *            string representing name of parameter
+     * @param stat
+     *            a StatType object representing the StatType to be measured
+     * @return StatMeasurement a StatMeasurement Object, or null if the parameter
+     *         was not parsed
+     * @throws IllegalStateException
+     *             if the valid values were not kept
+     */
+    public synchronized StatMeasurement getExactStatMeasurement(String parameter, StatType stat)
+    {
+        double fraction;
+        if (stat == StatType.MEDIAN)
+        {
+            fraction = 0.5;
+        }
+        else if (stat == StatType.P05)
+        {
+            fraction = 0.05;
+        }
+        else if (stat == StatType.P95)
+        {
+            fraction = 0.95;
+        }
+        else
+        {
+            return getStatMeasurement(parameter, stat);
+        }
+
+        if (running == null || !running.isKeepingSamples())
+        {
+            throw new IllegalStateException("The values of " + parameter + " were not kept");
+        }
+        int param = registry.indexOf(parameter);
+        if (param < 0 || running.getCount(param) == 0)
+        {
+            return null;
+        }
+
+        // select in the scratch buffer, so the kept values stay in row order
+        if (selector == null)
+        {
+            selector = new OrderStatistics();
+        }
+        int count = running.getCount(param);
+        selector.load(running.getSampleValues(param), running.getSampleMinutes(param), count);
+        int rank = selector.select(OrderStatistics.rankOf(fraction, count));
+
+        long midnight = EpochMinutes.of(year, month, day, 0);
+        return new StatMeasurement(selector.getValue(rank), midnight + selector.getMinute(rank), stationId,
+                registry.getParamId(param), stat);
+    }
+
+    /**
+     * Method to get the mergeable statistics of a parameter by registry index
+     * 
+     * @param param
+     *            the registry index of the parameter
+     * @return StatisticsAggregate the statistics of the day, or null if the
+     *         parameter has no valid values
+     */
+    public synchronized StatisticsAggregate getAggregate(int param)
+    {
+        if (runningChanged)
+        {
+            publishRunningStatistics();
+        }
+        return aggregates[param];
+    }
+
+    /**
+     * Method to get the number of hours the rows of the day reach into
+     * 
+     * @return int one more than the last hour with a row, 0 if the hours were
+     *         not read
+     */
+    public synchronized int getHourCount()
+    {
+        if (runningChanged)
+        {
+            publishRunningStatistics();
+        }
+        return hourAggregates == null ? 0 : hourAggregates.length;
+    }
+
+    /**
+     * Method to check whether the statistics have their hours. Statistics read
+     * from a SummaryStore without their hours have only the day of every
+     * parameter.
+     * 
+     * @return boolean true if the hourly aggregates are known
+     */
+    public synchronized boolean hasHourlyAggregates()
+    {
+        return hourAggregates != null;
+    }
+
+    /**
+     * Method to get the mergeable statistics of a parameter over one hour of the
+     * day. Hourly aggregates keep no quantile sketch.
+     * 
+     * @param hour
+     *            the hour of the day, from 0
+     * @param param
+     *            the registry index of the parameter
+     * @return StatisticsAggregate the statistics of the hour, or null if the
+     *         parameter has no valid values in it
+     */
+    public synchronized StatisticsAggregate getHourlyAggregate(int hour, int param)
+    {
+        if (runningChanged)
+        {
+            publishRunningStatistics();
+        }
+        if (hourAggregates == null || hour < 0 || hour >= hourAggregates.length || hourAggregates[hour] == null)
+        {
+            return null;
+        }
+        return hourAggregates[hour][param];
+    }
+
+    /**
+     * Method to get the start of the day of the statistics
+     * 
+     * @return long the minutes since the epoch of midnight
+     */
+    public long getStartEpochMinute()
+    {
+        return EpochMinutes.of(year, month, day, 0);
+    }
+
+    /**
+     * Method to get the registry numbering the parameters
+     * 
+     * @return ParameterRegistry the registry
+     */
+    public ParameterRegistry getRegistry()
+    {
+        return registry;
+    }
+
+    /**
+     * Method to check whether statistics were calculated for a parameter
+     * 
+     * @param parameter
+     *            string representing name of parameter
+     * @return boolean true if the parameter was parsed
+     */
+    public boolean hasParameter(String parameter)
+    {
+        int param = registry.indexOf(parameter);
+        return param >= 0 && getStatMeasurement(param, StatType.MAX) != null;
     }
 
     /**
@@ -118,6 +681,21 @@ public class DayDataStatistics
         return stationId;
     }
 
+    /**
+     * Method to get the index of the station in the network registry
+     * 
+     * @return int the index of the station, or StationRegistry.UNKNOWN before a
+     *         row was read
+     */
+    public int getStationIndex()
+    {
+        if (stationIndex == StationRegistry.UNKNOWN && !stationId.equals("nada"))
+        {
+            stationIndex = StationRegistry.NETWORK.intern(stationId);
+        }
+        return stationIndex;
+    }
+
     /**
      * toString method that describes DayStatistics
      * 
@@ -125,23 +703,38 @@ public class DayDataStatistics
      */
     public String toString()
     {
-        double tairMinValue = paramStats.get("TAIR").get(StatType.MIN).getValue();
-        double tairMaxValue = paramStats.get("TAIR").get(StatType.MAX).getValue();
-        double tairAvgValue = paramStats.get("TAIR").get(StatType.AVG).getValue();
+        double tairMinValue = getValue("TAIR", StatType.MIN);
+        double tairMaxValue = getValue("TAIR", StatType.MAX);
+        double tairAvgValue = getValue("TAIR", StatType.AVG);
 
-        double ta9mMinValue = paramStats.get("TA9M").get(StatType.MIN).getValue();
-        double ta9mMaxValue = paramStats.get("TA9M").get(StatType.MAX).getValue();
-        double ta9mAvgValue = paramStats.get("TA9M").get(StatType.AVG).getValue();
+        double ta9mMinValue = getValue("TA9M", StatType.MIN);
+        double ta9mMaxValue = getValue("TA9M", StatType.MAX);
+        double ta9mAvgValue = getValue("TA9M", StatType.AVG);
 
-        double sradMinValue = paramStats.get("SRAD").get(StatType.MIN).getValue();
-        double sradMaxValue = paramStats.get("SRAD").get(StatType.MAX).getValue();
-        double sradAvgValue = paramStats.get("SRAD").get(StatType.AVG).getValue();
-        double sradTotValue = paramStats.get("SRAD").get(StatType.TOT).getValue();
+        double sradMinValue = getValue("SRAD", StatType.MIN);
+        double sradMaxValue = getValue("SRAD", StatType.MAX);
+        double sradAvgValue = getValue("SRAD", StatType.AVG);
+        double sradTotValue = getValue("SRAD", StatType.TOT);
 
         return String.format("%d-%02d-%02d, %s:\n Air Temperature[1.5m] = [%.4f, %.4f, %.4f],\n"
                 + " Air Temperature[9m] = [%.4f, %.4f, %.4f],\n" + " Solar Radiation = [%.4f, %.4f, %.4f, %.4f]",
-                data.get(0).getYear(), data.get(0).getMonth(), data.get(0).getDay(), stationId.toUpperCase(),
+                year, month, day, stationId.toUpperCase(),
                 tairMinValue, tairAvgValue, tairMaxValue, ta9mMinValue, ta9mAvgValue, ta9mMaxValue, sradMinValue,
                 sradAvgValue, sradMaxValue, sradTotValue);
     }
-}
\ No newline at end of file
+
+    /**
+     * Private helper method for toString to get a statistic's value
+     * 
+     * @param parameter
+     *            the upper case parameter name
+     * @param stat
+     *            the StatType to get
+     * @return double the value, or NaN if the parameter was not parsed
+     */
+    private double getValue(String parameter, StatType stat)
+    {
+        StatMeasurement measurement = getStatMeasurement(parameter, stat);
+        return measurement == null ? Double.NaN : measurement.getValue();
+    }
+}
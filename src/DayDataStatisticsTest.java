@@ -1,6 +1,12 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.Before;
@@ -200,4 +206,314 @@ public class DayDataStatisticsTest
                 + " Solar Radiation = [-3.7000, 73.0333, 210.8000, 219.1000]";
         Assert.assertEquals("Check your string, fool!", expected, actual);
     }
-}
\ No newline at end of file
+
+    /**
+     * Method to test that statistics from columns match those from TimeData
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void columnsConstructorTest() throws IOException, WrongCopyrightException
+    {
+        String fileName = "data/mesonet/20180102okce.mts";
+        DayDataStatistics expected = new DayDataStatistics(new MesonetTimeFile(fileName).parseFile());
+        DayDataStatistics actual = new DayDataStatistics(new MesonetTimeFile(fileName).parseColumns());
+
+        Assert.assertEquals("Incorrect station ID returned!", expected.getStationID(), actual.getStationID());
+        Assert.assertEquals("Incorrect string returned!", expected.toString(), actual.toString());
+        for (String param : new String[] { "TAIR", "TA9M", "SRAD" })
+        {
+            for (StatType type : StatType.values())
+            {
+                StatMeasurement expectedStat = expected.getStatMeasurement(param, type);
+                StatMeasurement actualStat = actual.getStatMeasurement(param, type);
+                Assert.assertEquals("Incorrect value returned!", expectedStat.getValue(), actualStat.getValue(),
+                        0.0001);
+                Assert.assertEquals("Incorrect date returned!", expectedStat.getDateTimeOfMeasurment(),
+                        actualStat.getDateTimeOfMeasurment());
+            }
+        }
+    }
+
+    /**
+     * Method to test that streamed statistics match those from TimeData
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void streamingConstructorTest() throws IOException, WrongCopyrightException
+    {
+        String fileName = "data/mesonet/20180101nrmn.mts";
+        DayDataStatistics expected = new DayDataStatistics(new MesonetTimeFile(fileName).parseFile());
+        DayDataStatistics actual = new DayDataStatistics(new MesonetTimeFile(fileName));
+
+        Assert.assertEquals("Incorrect station ID returned!", expected.getStationID(), actual.getStationID());
+        Assert.assertEquals("Incorrect string returned!", expected.toString(), actual.toString());
+        for (String param : expected.getRegistry().getParamIds())
+        {
+            for (StatType type : StatType.values())
+            {
+                StatMeasurement expectedStat = expected.getStatMeasurement(param, type);
+                StatMeasurement actualStat = actual.getStatMeasurement(param, type);
+                Assert.assertEquals("Incorrect value returned!", expectedStat.getValue(), actualStat.getValue(),
+                        0.0001);
+                Assert.assertEquals("Incorrect date returned!", expectedStat.getDateTimeOfMeasurment(),
+                        actualStat.getDateTimeOfMeasurment());
+            }
+        }
+    }
+
+    /**
+     * Method to test that rows appended to a growing file update the statistics
+     * in place
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void updateTest() throws IOException, WrongCopyrightException
+    {
+        String fileName = "data/mesonet/20180101nrmn.mts";
+        List<String> lines = Files.readAllLines(new File(fileName).toPath());
+        File growing = File.createTempFile("20180101nrmn", ".mts");
+        growing.deleteOnExit();
+
+        // the header and the first 100 rows, then part of the next row
+        Files.write(growing.toPath(), lines.subList(0, 103));
+        String partial = lines.get(103).substring(0, 20);
+        Files.write(growing.toPath(), partial.getBytes(), StandardOpenOption.APPEND);
+
+        MesonetTimeFile file = new MesonetTimeFile(growing.getPath());
+        DayDataStatistics actual = new DayDataStatistics(file);
+        Assert.assertEquals("Incorrect value returned!", 0, actual.update(file));
+
+        // finish the row and append the rest of the day
+        Files.write(growing.toPath(), (lines.get(103).substring(20) + "\n").getBytes(), StandardOpenOption.APPEND);
+        Files.write(growing.toPath(), lines.subList(104, lines.size()), StandardOpenOption.APPEND);
+        Assert.assertEquals("Incorrect value returned!", lines.size() - 103, actual.update(file));
+        Assert.assertEquals("Incorrect value returned!", 0, actual.update(file));
+
+        DayDataStatistics expected = new DayDataStatistics(new MesonetTimeFile(fileName));
+        Assert.assertEquals("Incorrect string returned!", expected.toString(), actual.toString());
+        for (String param : expected.getRegistry().getParamIds())
+        {
+            for (StatType type : StatType.values())
+            {
+                Assert.assertEquals("Incorrect value returned!", expected.getStatMeasurement(param, type).getValue(),
+                        actual.getStatMeasurement(param, type).getValue(), 0.0001);
+                Assert.assertEquals("Incorrect date returned!",
+                        expected.getStatMeasurement(param, type).getDateTimeOfMeasurment(),
+                        actual.getStatMeasurement(param, type).getDateTimeOfMeasurment());
+            }
+        }
+    }
+
+    /**
+     * Method to test that a file rewritten in place at a larger size is read
+     * again from the start
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void rewriteTest() throws IOException, WrongCopyrightException
+    {
+        List<String> lines = Files.readAllLines(new File("data/mesonet/20180101nrmn.mts").toPath());
+        File rewritten = File.createTempFile("20180101okce", ".mts");
+        rewritten.deleteOnExit();
+        Files.write(rewritten.toPath(), lines.subList(0, 103));
+
+        MesonetTimeFile file = new MesonetTimeFile(rewritten.getPath());
+        DayDataStatistics actual = new DayDataStatistics(file);
+
+        // another station's whole day replaces the rows read so far
+        Files.copy(new File("data/mesonet/20180101okce.mts").toPath(), rewritten.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        DayDataStatistics expected = new DayDataStatistics(new MesonetTimeFile("data/mesonet/20180101okce.mts"));
+        Assert.assertEquals("Incorrect value returned!", lines.size() - 3, actual.update(file));
+        Assert.assertEquals("Incorrect value returned!", expected.getStatMeasurement("TAIR", StatType.COUNT).getValue(),
+                actual.getStatMeasurement("TAIR", StatType.COUNT).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", expected.getStatMeasurement("TAIR", StatType.MAX).getValue(),
+                actual.getStatMeasurement("TAIR", StatType.MAX).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 0, actual.update(file));
+    }
+
+    /**
+     * Method to test that a file without its whole header yet is left for later
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void partialHeaderTest() throws IOException, WrongCopyrightException
+    {
+        List<String> lines = Files.readAllLines(new File("data/mesonet/20180101nrmn.mts").toPath());
+        File growing = File.createTempFile("20180101nrmn", ".mts");
+        growing.deleteOnExit();
+        Files.write(growing.toPath(), lines.subList(0, 2));
+
+        MesonetTimeFile file = new MesonetTimeFile(growing.getPath());
+        DayDataStatistics actual = new DayDataStatistics(file);
+        Assert.assertEquals("Incorrect value returned!", 0, file.getTailOffset());
+        Assert.assertFalse("Incorrect value returned!", actual.hasParameter("TAIR"));
+
+        Files.write(growing.toPath(), lines.subList(2, lines.size()), StandardOpenOption.APPEND);
+        Assert.assertEquals("Incorrect value returned!", lines.size() - 3, actual.update(file));
+        DayDataStatistics expected = new DayDataStatistics(new MesonetTimeFile("data/mesonet/20180101nrmn.mts"));
+        Assert.assertEquals("Incorrect string returned!", expected.toString(), actual.toString());
+    }
+
+    /**
+     * Method to test that invalid values are left out of the statistics
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void invalidValuesTest() throws IOException, WrongCopyrightException
+    {
+        inData.add(new TimeData("Riften", 2018, 01, 01, 20, new Measurement(-995), new Measurement(-999),
+                new Measurement(-996)));
+        DayDataStatistics dayTest = new DayDataStatistics(inData);
+
+        Assert.assertEquals("Incorrect value returned!", 1.0, dayTest.getStatMeasurement("TAIR", StatType.MIN).value,
+                0.0001);
+        Assert.assertEquals("Incorrect value returned!", -15.0,
+                dayTest.getStatMeasurement("TA9M", StatType.MIN).value, 0.0001);
+        Assert.assertEquals("Incorrect value returned!", 89.0 / 3, dayTest.getStatMeasurement("TAIR", StatType.AVG).value,
+                0.0001);
+        Assert.assertEquals("Incorrect value returned!", 219.1, dayTest.getStatMeasurement("SRAD", StatType.TOT).value,
+                0.0001);
+
+        // a parameter without any valid value gets no statistics
+        ArrayList<TimeData> missing = new ArrayList<TimeData>();
+        missing.add(new TimeData("Riften", 2018, 01, 01, 0, new Measurement(-995), new Measurement(5),
+                new Measurement(-995)));
+        dayTest = new DayDataStatistics(missing);
+        Assert.assertFalse("Incorrect value returned!", dayTest.hasParameter("TAIR"));
+        Assert.assertNull("Incorrect value returned!", dayTest.getStatMeasurement("SRAD", StatType.MIN));
+        Assert.assertTrue("Incorrect value returned!", dayTest.hasParameter("TA9M"));
+
+        // soil temperatures are missing two rows out of three
+        String fileName = "data/mesonet/20180102stil.mts";
+        MesonetColumns columns = new MesonetTimeFile(fileName).parseColumns();
+        DayDataStatistics streamed = new DayDataStatistics(new MesonetTimeFile(fileName));
+        DayDataStatistics fromColumns = new DayDataStatistics(columns);
+        double[] ts10 = columns.getColumn("TS10");
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < columns.getRowCount(); ++row)
+        {
+            if (columns.isValid(columns.indexOf("TS10"), row))
+            {
+                min = Math.min(min, ts10[row]);
+            }
+        }
+        Assert.assertEquals("Incorrect value returned!", min, streamed.getStatMeasurement("TS10", StatType.MIN).value,
+                0.0);
+        Assert.assertEquals("Incorrect value returned!", min,
+                fromColumns.getStatMeasurement("TS10", StatType.MIN).value, 0.0);
+    }
+
+    /**
+     * Method to test the variance, standard deviation, count and quantiles of a
+     * day
+     */
+    @Test
+    public void momentsTest()
+    {
+        DayDataStatistics dayTest = new DayDataStatistics(inData);
+
+        // TAIR is 10, 1 and 78
+        double mean = 89.0 / 3;
+        double variance = ((10 - mean) * (10 - mean) + (1 - mean) * (1 - mean) + (78 - mean) * (78 - mean)) / 3;
+        Assert.assertEquals("Incorrect value returned!", variance,
+                dayTest.getStatMeasurement("TAIR", StatType.VARIANCE).getValue(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", Math.sqrt(variance),
+                dayTest.getStatMeasurement("TAIR", StatType.STDDEV).getValue(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", 3.0,
+                dayTest.getStatMeasurement("TAIR", StatType.COUNT).getValue(), 0.0);
+        Assert.assertEquals("Incorrect type returned!", StatType.STDDEV,
+                dayTest.getStatMeasurement("TAIR", StatType.STDDEV).getStatType());
+
+        // three values are exact in the sketch
+        Assert.assertEquals("Incorrect value returned!", 10.0,
+                dayTest.getStatMeasurement("TAIR", StatType.MEDIAN).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", -3.7,
+                dayTest.getStatMeasurement("SRAD", StatType.P05).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 110.0,
+                dayTest.getStatMeasurement("TA9M", StatType.P95).getValue(), 0.0);
+
+        // invalid values are not counted
+        inData.add(new TimeData("Riften", 2018, 01, 01, 20, new Measurement(-995), new Measurement(-999),
+                new Measurement(-996)));
+        dayTest = new DayDataStatistics(inData);
+        Assert.assertEquals("Incorrect value returned!", 3.0,
+                dayTest.getStatMeasurement("SRAD", StatType.COUNT).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", variance,
+                dayTest.getStatMeasurement("TAIR", StatType.VARIANCE).getValue(), 1e-9);
+    }
+
+    /**
+     * Method to test the exact median and percentiles of a day against a sort
+     * of the valid values
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void exactQuantilesTest() throws IOException, WrongCopyrightException
+    {
+        String fileName = "data/mesonet/20180102stil.mts";
+        MesonetColumns columns = new MesonetTimeFile(fileName).parseColumns();
+        DayDataStatistics dayTest = new DayDataStatistics(new MesonetTimeFile(fileName), null, true);
+
+        long midnight = EpochMinutes.of(2018, 1, 2, 0);
+        for (String param : new String[] { "TAIR", "SRAD", "TS10" })
+        {
+            // sort the valid values by value, then time
+            int column = columns.indexOf(param);
+            ArrayList<long[]> samples = new ArrayList<long[]>();
+            for (int row = 0; row < columns.getRowCount(); ++row)
+            {
+                if (columns.isValid(column, row))
+                {
+                    samples.add(new long[] { Math.round(columns.getValue(column, row) * 100),
+                            columns.getMinutes()[row] });
+                }
+            }
+            samples.sort((first, second) -> first[0] != second[0] ? Long.compare(first[0], second[0])
+                    : Long.compare(first[1], second[1]));
+
+            StatType[] types = { StatType.P05, StatType.MEDIAN, StatType.P95 };
+            double[] fractions = { 0.05, 0.5, 0.95 };
+            for (int index = 0; index < types.length; ++index)
+            {
+                long[] expected = samples.get((int) Math.ceil(fractions[index] * samples.size()) - 1);
+                StatMeasurement actual = dayTest.getExactStatMeasurement(param, types[index]);
+                Assert.assertEquals("Incorrect value returned!", expected[0] / 100.0, actual.getValue(), 1e-9);
+                Assert.assertEquals("Incorrect date returned!", midnight + expected[1], actual.getEpochMinute());
+                Assert.assertEquals("Incorrect type returned!", types[index], actual.getStatType());
+            }
+        }
+
+        // SRAD is 0 all night, so of the tied rows the 5th percentile (rank 15 of
+        // 288) is the 15th, at 01:10
+        Assert.assertEquals("Incorrect date returned!", midnight + 70,
+                dayTest.getExactStatMeasurement("SRAD", StatType.P05).getEpochMinute());
+        Assert.assertEquals("Incorrect value returned!", dayTest.getStatMeasurement("TAIR", StatType.MAX).getValue(),
+                dayTest.getExactStatMeasurement("TAIR", StatType.MAX).getValue(), 0.0);
+
+        boolean throwException = false;
+        try
+        {
+            new DayDataStatistics(new MesonetTimeFile(fileName)).getExactStatMeasurement("TAIR", StatType.MEDIAN);
+        }
+        catch (IllegalStateException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+}
@@ -2,176 +2,1400 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * Class for assigning day data statistics. Creates ArrayLists for all the
- * maximum, minimum, average, and totals, storing them in the lists. Provides
- * methods to find the maximum and minimum of a particular data (e.g. Tair
- * Minimum).
+ * Class for assigning day data statistics. The StatisticsAggregate of every
+ * day is merged into one aggregate per parameter, and one per parameter and
+ * station, as its file is read; the day and its hours are put in a RollupCube,
+ * and only the station and date of the file are kept. Provides methods to find
+ * the maximum and minimum of a particular data (e.g. Tair Minimum). The cube
+ * rolls the hours and days of every station up into months, so the statistics
+ * of any range of time, to the hour, are found without reading the files
+ * again. The station-days with
+ * the largest maximums and smallest minimums of every parameter are kept in
+ * bounded heaps, for top-K and bottom-K queries, and the stations can be
+ * merged into a network-wide series.
  */
 public class DaysStatistics extends StatisticsAbstract
 {
     /** an ArrayList that stores the files */
     private ArrayList<String> files;
 
-    /** HashMap for the tairs */
-    HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>> tairList;
+    /** the upper case parameter ids to calculate statistics for, or null for all */
+    private Set<String> params;
 
-    /** HashMap for the ta9ms */
-    HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>> ta9mList;
+    /** the cache of day statistics shared by instances not given their own */
+    private static final ParseCache<DayDataStatistics> SHARED_CACHE = new ParseCache<DayDataStatistics>();
 
-    /** HashMap for the srads */
-    HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>> sradList;
+    /** the cache of day statistics, so unchanged files are not parsed again */
+    private ParseCache<DayDataStatistics> cache;
+
+    /** the store the statistics of files are kept in between runs, or null */
+    private SummaryStore store;
+
+    /** the number of files parsed at the same time, 1 for sequential */
+    private int parallelism = 1;
+
+    /** HashMap from upper case parameter id to the statistics of every day */
+    private HashMap<String, StatisticsAggregate> paramAggregates = new HashMap<String, StatisticsAggregate>();
+
+    /** HashMap from file name to the station and date of the file */
+    private HashMap<String, FileDay> fileDays = new HashMap<String, FileDay>();
+
+    /**
+     * LinkedHashMap from file name to the running statistics of a refreshed file
+     * that can still grow, the newest day of its station. Open days are in the
+     * cube but not in the merged aggregates and heaps; they are merged with them
+     * when asked for.
+     */
+    private LinkedHashMap<String, DayDataStatistics> openStats = new LinkedHashMap<String, DayDataStatistics>();
+
+    /** HashMap from file name to the file the rows appended to an open day are read from */
+    private HashMap<String, MesonetTimeFile> openFiles = new HashMap<String, MesonetTimeFile>();
+
+    /**
+     * HashMaps from upper case parameter id to the statistics of the days of one
+     * station, indexed by the station's network index
+     */
+    private ArrayList<HashMap<String, StatisticsAggregate>> stationAggregates =
+            new ArrayList<HashMap<String, StatisticsAggregate>>();
+
+    /**
+     * whether a day that was merged already was replaced or removed, so the
+     * aggregates have to be merged again from the days in the cube
+     */
+    private boolean listsChanged;
+
+    /** the hourly, daily and monthly statistics of every station */
+    private RollupCube cube = new RollupCube();
+
+    /**
+     * HashMap from the upper case station and date of a day put in the cube
+     * without its hours, as read from the summary store, to the file its hours
+     * are read from when a range asks for them
+     */
+    private HashMap<FileDay, String> hourlessDays = new HashMap<FileDay, String>();
+
+    /** the number of extreme station-days kept of every parameter */
+    private int extremeDayCount = 10;
+
+    /** HashMap from upper case parameter id to the station-days of largest maximum */
+    private HashMap<String, ExtremeDays> topDays = new HashMap<String, ExtremeDays>();
+
+    /** HashMap from upper case parameter id to the station-days of smallest minimum */
+    private HashMap<String, ExtremeDays> bottomDays = new HashMap<String, ExtremeDays>();
+
+    /**
+     * whether a kept station-day was replaced or removed, or more are to be kept,
+     * so the heaps have to be filled again from the days in the cube
+     */
+    private boolean extremesChanged;
+
+    /**
+     * Class holding the station and date of a file, all that is kept of a file
+     * once its statistics are merged and put in the cube
+     */
+    private static class FileDay
+    {
+        /** the station ID, "nada" for a file without rows */
+        private String stationId;
+
+        /** the start of the day, as minutes since the epoch */
+        private long midnight;
+
+        /**
+         * Constructor for FileDay
+         * 
+         * @param dataStats
+         *            the statistics of the file
+         */
+        private FileDay(DayDataStatistics dataStats)
+        {
+            this(dataStats.getStationID(), dataStats.getStartEpochMinute());
+        }
+
+        /**
+         * Constructor for FileDay
+         * 
+         * @param inStationId
+         *            the station ID
+         * @param inMidnight
+         *            the start of the day, as minutes since the epoch
+         */
+        private FileDay(String inStationId, long inMidnight)
+        {
+            stationId = inStationId;
+            midnight = inMidnight;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof FileDay))
+            {
+                return false;
+            }
+            FileDay day = (FileDay) other;
+            return stationId.equals(day.stationId) && midnight == day.midnight;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode()
+        {
+            return stationId.hashCode() * 31 + Long.hashCode(midnight);
+        }
+    }
+
+    /**
+     * Constructor for the DayStatistics class that calculates every parameter of
+     * the files
+     * 
+     * @param files
+     *            a string array of files
+     */
+    public DaysStatistics(String[] files)
+    {
+        this(files, null);
+    }
+
+    /**
+     * Constructor for the DayStatistics class that only parses and calculates the
+     * given parameters
+     * 
+     * @param files
+     *            a string array of files
+     * @param inParams
+     *            the parameter ids to calculate statistics for, in any case, or
+     *            null for all of them
+     */
+    public DaysStatistics(String[] files, Set<String> inParams)
+    {
+        this(files, inParams, SHARED_CACHE);
+    }
+
+    /**
+     * Constructor for the DayStatistics class that calculates every parameter of
+     * the files matched by a catalog query
+     * 
+     * @param query
+     *            the query selecting the files (stations and dates)
+     */
+    public DaysStatistics(MesonetCatalog.CatalogQuery query)
+    {
+        this(query, null);
+    }
+
+    /**
+     * Constructor for the DayStatistics class that only parses and calculates the
+     * given parameters of the files matched by a catalog query
+     * 
+     * @param query
+     *            the query selecting the files (stations and dates)
+     * @param inParams
+     *            the parameter ids to calculate statistics for, in any case, or
+     *            null for all of them
+     */
+    public DaysStatistics(MesonetCatalog.CatalogQuery query, Set<String> inParams)
+    {
+        this(query.getFiles().toArray(new String[0]), inParams);
+    }
+
+    /**
+     * Constructor for the DayStatistics class that keeps the day statistics of
+     * the files in the given cache
+     * 
+     * @param files
+     *            a string array of files
+     * @param inParams
+     *            the parameter ids to calculate statistics for, in any case, or
+     *            null for all of them
+     * @param inCache
+     *            the cache of day statistics to use
+     */
+    public DaysStatistics(String[] files, Set<String> inParams, ParseCache<DayDataStatistics> inCache)
+    {
+        cache = inCache;
+
+        // assign the 'files' variable to the argument passed in
+        this.files = new ArrayList<String>(Arrays.asList(files));
+
+        if (inParams != null)
+        {
+            params = new HashSet<String>();
+            for (String param : inParams)
+            {
+                params.add(param.toUpperCase());
+            }
+        }
+    }
+
+    /**
+     * Method for finding the statistics
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     */
+    public synchronized void findStatistics() throws IOException, WrongCopyrightException, ParseException
+    {
+        fileDays.clear();
+        openStats.clear();
+        openFiles.clear();
+        cube.clear();
+        hourlessDays.clear();
+        paramAggregates.clear();
+        stationAggregates.clear();
+        topDays.clear();
+        bottomDays.clear();
+        listsChanged = false;
+        extremesChanged = false;
+
+        // the files are merged in file order, so a later file of the same day
+        // wins in the cube
+        if (parallelism > 1 && files.size() > 1)
+        {
+            // the files are summarized concurrently but merged in file order, so
+            // the results are the same as in sequential mode
+            ArrayList<DayDataStatistics> results = loadInParallel();
+            for (int index = 0; index < files.size(); ++index)
+            {
+                putDay(files.get(index), results.get(index));
+            }
+        }
+        else
+        {
+            for (String fileName : files)
+            {
+                putDay(fileName, loadStatistics(fileName));
+            }
+        }
+    }
+
+    /**
+     * Method that recomputes the statistics of one new or changed file, leaving
+     * the other files alone. A file that is not among the files yet is added
+     * after them. The newest day of a station is kept open: its running
+     * statistics are kept, so the next refresh only reads the appended rows,
+     * unless the file was rewritten. It is merged into the aggregates once a
+     * later day of the station is refreshed. A refreshed file of an older day is
+     * read again whole and merged at once.
+     * 
+     * @param fileName
+     *            the file that was created or changed
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public void refresh(String fileName) throws IOException, WrongCopyrightException
+    {
+        DayDataStatistics current;
+        MesonetTimeFile mtsFile;
+        synchronized (this)
+        {
+            current = openStats.get(fileName);
+            mtsFile = openFiles.get(fileName);
+        }
+
+        // parse outside the lock so that other files can be refreshed meanwhile
+        if (current != null && mtsFile != null)
+        {
+            current.update(mtsFile);
+        }
+        else
+        {
+            // a fresh summary, not the cached one, since it is updated in place
+            mtsFile = new MesonetTimeFile(fileName);
+            current = new DayDataStatistics(mtsFile, params);
+        }
+
+        synchronized (this)
+        {
+            if (!files.contains(fileName))
+            {
+                files.add(fileName);
+            }
+            boolean wasOpen = openStats.remove(fileName) != null;
+            openFiles.remove(fileName);
+
+            // a file rewritten with another station or date leaves its old day
+            FileDay day = new FileDay(current);
+            FileDay previous = fileDays.remove(fileName);
+            if (previous != null && !previous.equals(day))
+            {
+                dropDay(previous, !wasOpen);
+                wasOpen = false;
+            }
+
+            if (isNewestDay(day))
+            {
+                putOpenDay(fileName, current, mtsFile, wasOpen);
+            }
+            else
+            {
+                putDay(fileName, current);
+            }
+        }
+    }
+
+    /**
+     * Method that drops the statistics of a file that was deleted, leaving the
+     * other files alone. If another file holds the same station and day, it is
+     * read again to take its place in the cube.
+     * 
+     * @param fileName
+     *            the file that was deleted
+     * @return boolean true if the file was among the files
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public synchronized boolean remove(String fileName) throws IOException, WrongCopyrightException
+    {
+        boolean wasOpen = openStats.remove(fileName) != null;
+        openFiles.remove(fileName);
+        if (!files.remove(fileName))
+        {
+            return false;
+        }
+
+        FileDay day = fileDays.remove(fileName);
+        if (day != null)
+        {
+            dropDay(day, !wasOpen);
+        }
+        return true;
+    }
+
+    /**
+     * Private helper method that puts the statistics of a file in the cube and
+     * merges them into the aggregates, unless a day of the same station and date
+     * was merged already, in which case the aggregates are merged again from the
+     * cube when next asked for
+     * 
+     * @param fileName
+     *            the file
+     * @param dataStats
+     *            the statistics of the file
+     */
+    private void putDay(String fileName, DayDataStatistics dataStats)
+    {
+        FileDay day = new FileDay(dataStats);
+        fileDays.put(fileName, day);
+        HashMap<String, StatisticsAggregate> previous = cube.getDay(day.stationId, day.midnight);
+        boolean replaced = putInCube(fileName, dataStats);
+        if (replaced)
+        {
+            listsChanged = true;
+            dropExtremes(previous);
+        }
+
+        mergeDay(dataStats);
+    }
+
+    /**
+     * Private helper method that merges the statistics of a file into the
+     * aggregates and heaps, unless they are to be merged again from the cube
+     * anyway
+     * 
+     * @param dataStats
+     *            the statistics of the file
+     */
+    private void mergeDay(DayDataStatistics dataStats)
+    {
+        ParameterRegistry registry = dataStats.getRegistry();
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            StatisticsAggregate aggregate = dataStats.getAggregate(param);
+            if (aggregate == null)
+            {
+                continue;
+            }
+            if (!listsChanged)
+            {
+                assignStats(dataStats.getStationID(), registry.getParamId(param), aggregate);
+            }
+            if (!extremesChanged)
+            {
+                offerExtremes(registry.getParamId(param), aggregate);
+            }
+        }
+    }
+
+    /**
+     * Private helper method that puts the statistics of a file that can still
+     * grow in the cube and keeps them open. A merged day of the same station and
+     * date is taken out of the aggregates, and the older open days of the
+     * station, which can no longer grow, are merged.
+     * 
+     * @param fileName
+     *            the file
+     * @param dataStats
+     *            the running statistics of the file
+     * @param mtsFile
+     *            the file appended rows are read from
+     * @param wasOpen
+     *            true if the day was open before, so the cube holds it already
+     */
+    private void putOpenDay(String fileName, DayDataStatistics dataStats, MesonetTimeFile mtsFile,
+            boolean wasOpen)
+    {
+        FileDay day = new FileDay(dataStats);
+        fileDays.put(fileName, day);
+        openStats.put(fileName, dataStats);
+        openFiles.put(fileName, mtsFile);
+
+        HashMap<String, StatisticsAggregate> previous = cube.getDay(day.stationId, day.midnight);
+        if (putInCube(fileName, dataStats) && !wasOpen)
+        {
+            listsChanged = true;
+            dropExtremes(previous);
+        }
+
+        Iterator<Map.Entry<String, DayDataStatistics>> open = openStats.entrySet().iterator();
+        while (open.hasNext())
+        {
+            Map.Entry<String, DayDataStatistics> entry = open.next();
+            FileDay openDay = fileDays.get(entry.getKey());
+            if (openDay.stationId.equals(day.stationId) && openDay.midnight < day.midnight)
+            {
+                open.remove();
+                openFiles.remove(entry.getKey());
+                mergeDay(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Private helper method to check whether no file holds a later day of the
+     * same station, so a file of the day can still grow
+     * 
+     * @param day
+     *            the station and date of the file
+     * @return boolean true if the day is the newest of its station
+     */
+    private boolean isNewestDay(FileDay day)
+    {
+        for (FileDay other : fileDays.values())
+        {
+            if (other.stationId.equals(day.stationId) && other.midnight > day.midnight)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Private helper method that takes the day of a file out of the cube. The
+     * last of the other files with the same station and date, if any, is read
+     * again to take its place, as findStatistics would have left it.
+     * 
+     * @param day
+     *            the station and date of the file
+     * @param merged
+     *            true if the day is merged into the aggregates, false if it was
+     *            open
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private void dropDay(FileDay day, boolean merged) throws IOException, WrongCopyrightException
+    {
+        HashMap<String, StatisticsAggregate> dropped = cube.getDay(day.stationId, day.midnight);
+        hourlessDays.remove(new FileDay(day.stationId.toUpperCase(), day.midnight));
+        if (!cube.removeDay(day.stationId, day.midnight))
+        {
+            return;
+        }
+        if (merged)
+        {
+            listsChanged = true;
+            dropExtremes(dropped);
+        }
+
+        String replacement = null;
+        for (String name : files)
+        {
+            if (day.equals(fileDays.get(name)))
+            {
+                replacement = name;
+            }
+        }
+        if (replacement == null)
+        {
+            return;
+        }
+        DayDataStatistics dataStats = openStats.get(replacement);
+        if (dataStats != null)
+        {
+            putInCube(replacement, dataStats);
+            return;
+        }
+        dataStats = loadStatistics(replacement);
+        putInCube(replacement, dataStats);
+        mergeDay(dataStats);
+    }
+
+    /**
+     * Private helper method that puts the statistics of a file in the cube,
+     * noting where the hours of a day read without them are to be read from
+     * 
+     * @param fileName
+     *            the file
+     * @param dataStats
+     *            the statistics of the file
+     * @return boolean true if the station already had statistics at that date
+     */
+    private boolean putInCube(String fileName, DayDataStatistics dataStats)
+    {
+        FileDay day = new FileDay(dataStats.getStationID().toUpperCase(), dataStats.getStartEpochMinute());
+        if (dataStats.hasHourlyAggregates())
+        {
+            hourlessDays.remove(day);
+        }
+        else
+        {
+            hourlessDays.put(day, fileName);
+        }
+        return cube.putDay(dataStats);
+    }
+
+    /**
+     * Private helper method that puts the hours of a day that was put in the
+     * cube without them, read from the hours file of its summary, or from the
+     * file itself if the summary went stale
+     * 
+     * @param inStationId
+     *            the station ID, in any case
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private void loadHours(String inStationId, long midnight) throws IOException, WrongCopyrightException
+    {
+        String fileName = hourlessDays.remove(new FileDay(inStationId.toUpperCase(), midnight));
+        if (fileName == null)
+        {
+            return;
+        }
+
+        MesonetTimeFile mtsFile = new MesonetTimeFile(fileName);
+        SummaryStore summaryStore = store;
+        DayDataStatistics dataStats = summaryStore == null ? null : summaryStore.read(mtsFile, params, true);
+        if (dataStats == null)
+        {
+            dataStats = new DayDataStatistics(mtsFile, params);
+            dataStats.compact();
+        }
+        cube.putHours(dataStats);
+    }
+
+    /**
+     * Private helper method that drops the maximums and minimums of a day that is
+     * replaced or removed from the heaps. If a heap kept one, the heaps are
+     * filled again from the cube when next asked for.
+     * 
+     * @param day
+     *            map from upper case parameter id to the statistics of the day
+     */
+    private void dropExtremes(HashMap<String, StatisticsAggregate> day)
+    {
+        for (Map.Entry<String, StatisticsAggregate> entry : day.entrySet())
+        {
+            String paramId = entry.getKey();
+            if (!topDays.containsKey(paramId))
+            {
+                continue;
+            }
+            boolean droppedTop = topDays.get(paramId).remove(entry.getValue().toStatMeasurement(paramId, StatType.MAX));
+            boolean droppedBottom =
+                    bottomDays.get(paramId).remove(entry.getValue().toStatMeasurement(paramId, StatType.MIN));
+            if (droppedTop || droppedBottom)
+            {
+                extremesChanged = true;
+            }
+        }
+    }
+
+    /**
+     * Private helper method that offers the maximum and minimum of a parameter
+     * over a day to its heaps
+     * 
+     * @param paramId
+     *            the upper case parameter id
+     * @param aggregate
+     *            the statistics of the parameter over the day, or null if it has
+     *            no valid values
+     */
+    private void offerExtremes(String paramId, StatisticsAggregate aggregate)
+    {
+        if (aggregate == null)
+        {
+            return;
+        }
+        if (!topDays.containsKey(paramId))
+        {
+            topDays.put(paramId, new ExtremeDays(extremeDayCount, true));
+            bottomDays.put(paramId, new ExtremeDays(extremeDayCount, false));
+        }
+        topDays.get(paramId).offer(aggregate.toStatMeasurement(paramId, StatType.MAX));
+        bottomDays.get(paramId).offer(aggregate.toStatMeasurement(paramId, StatType.MIN));
+    }
+
+    /**
+     * Method to get the files the statistics are calculated for
+     * 
+     * @return ArrayList<String> the file names, in order
+     */
+    public synchronized ArrayList<String> getFiles()
+    {
+        return new ArrayList<String>(files);
+    }
+
+    /**
+     * Method to set the number of files parsed at the same time
+     * 
+     * @param inParallelism
+     *            the number of worker threads, 1 to parse one file at a time
+     */
+    public void setParallelism(int inParallelism)
+    {
+        if (inParallelism < 1)
+        {
+            throw new IllegalArgumentException("Parallelism must be positive: " + inParallelism);
+        }
+        parallelism = inParallelism;
+    }
+
+    /**
+     * Method to get the number of files parsed at the same time
+     * 
+     * @return int the number of worker threads
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Method to set the number of extreme station-days kept of every parameter,
+     * the largest count getTopDays and getBottomDays can be asked for
+     * 
+     * @param count
+     *            the number of station-days, at least one
+     */
+    public synchronized void setExtremeDayCount(int count)
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        if (count > extremeDayCount)
+        {
+            // the days that would fill the larger heaps were not kept
+            extremesChanged = true;
+        }
+        else
+        {
+            trimExtremes(topDays, count);
+            trimExtremes(bottomDays, count);
+        }
+        extremeDayCount = count;
+    }
+
+    /**
+     * Private helper method that keeps fewer station-days in the heaps
+     * 
+     * @param extremes
+     *            the top or bottom days of every parameter
+     * @param count
+     *            the number of station-days to keep
+     */
+    private static void trimExtremes(HashMap<String, ExtremeDays> extremes, int count)
+    {
+        for (Map.Entry<String, ExtremeDays> entry : extremes.entrySet())
+        {
+            ExtremeDays days = entry.getValue();
+            ExtremeDays trimmed = new ExtremeDays(count, days.isLargest());
+            for (StatMeasurement day : days.getDays(Math.min(count, days.getCapacity())))
+            {
+                trimmed.offer(day);
+            }
+            entry.setValue(trimmed);
+        }
+    }
+
+    /**
+     * Method to get the number of extreme station-days kept of every parameter
+     * 
+     * @return int the number of station-days
+     */
+    public synchronized int getExtremeDayCount()
+    {
+        return extremeDayCount;
+    }
 
     /**
-     * Constructor for the DayStatistics class
+     * Method to set the store the statistics of files are kept in between runs.
+     * Files with an up to date summary are not parsed. The summaries of the
+     * files that are parsed are written when every parameter is asked for, so
+     * every summary serves any later query; statistics of a few parameters are
+     * parsed for those alone and not written. Statistics read from the store
+     * have no median or percentiles, and their hours are only read when a range
+     * needs them.
      * 
-     * @param files
-     *            a string array of files
+     * @param inStore
+     *            the summary store, or null to parse every file
      */
-    public DaysStatistics(String[] files)
+    public void setSummaryStore(SummaryStore inStore)
     {
-        // assign the 'files' variable to the argument passed in
-        this.files = new ArrayList<String>(Arrays.asList(files));
+        store = inStore;
+    }
+
+    /**
+     * Method to get the store the statistics of files are kept in between runs
+     * 
+     * @return SummaryStore the summary store, or null if there is none
+     */
+    public SummaryStore getSummaryStore()
+    {
+        return store;
+    }
+
+    /**
+     * Private helper method that parses and summarizes one file, or gets its
+     * summary from the cache
+     * 
+     * @param fileName
+     *            the file to summarize
+     * @return DayDataStatistics the statistics of the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private DayDataStatistics loadStatistics(String fileName) throws IOException, WrongCopyrightException
+    {
+        // the rows are aggregated as they are read and never kept
+        final MesonetTimeFile mtsFile = new MesonetTimeFile(fileName);
+        return cache.get(mtsFile, params, () -> summarize(mtsFile));
+    }
+
+    /**
+     * Private helper method that reads the statistics of a file from the
+     * summary store, or parses the file and writes its summary
+     * 
+     * @param mtsFile
+     *            the file to summarize
+     * @return DayDataStatistics the statistics of the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private DayDataStatistics summarize(MesonetTimeFile mtsFile) throws IOException, WrongCopyrightException
+    {
+        // the cache keeps the aggregates, not the running statistics
+        SummaryStore summaryStore = store;
+        if (summaryStore == null)
+        {
+            DayDataStatistics dataStats = new DayDataStatistics(mtsFile, params);
+            dataStats.compact();
+            return dataStats;
+        }
 
-        // initialize the tair fields
-        tairList = new HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>>();
-        tairList.put("TAIR", new EnumMap<StatType, ArrayList<StatMeasurement>>(StatType.class));
-        tairList.get("TAIR").put(StatType.MAX, new ArrayList<StatMeasurement>());
-        tairList.get("TAIR").put(StatType.MIN, new ArrayList<StatMeasurement>());
-        tairList.get("TAIR").put(StatType.AVG, new ArrayList<StatMeasurement>());
+        DayDataStatistics dataStats = summaryStore.read(mtsFile, params);
+        if (dataStats != null)
+        {
+            return dataStats;
+        }
 
-        // initialize the ta9m fields
-        ta9mList = new HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>>();
-        ta9mList.put("TA9M", new EnumMap<StatType, ArrayList<StatMeasurement>>(StatType.class));
-        ta9mList.get("TA9M").put(StatType.MAX, new ArrayList<StatMeasurement>());
-        ta9mList.get("TA9M").put(StatType.MIN, new ArrayList<StatMeasurement>());
-        ta9mList.get("TA9M").put(StatType.AVG, new ArrayList<StatMeasurement>());
+        // the source is stamped as it was before parsing, so rows appended
+        // meanwhile make the summary stale
+        long modified = mtsFile.getDateModified();
+        long size = mtsFile.getSize();
 
-        // initialize the srad fields
-        sradList = new HashMap<String, EnumMap<StatType, ArrayList<StatMeasurement>>>();
-        sradList.put("SRAD", new EnumMap<StatType, ArrayList<StatMeasurement>>(StatType.class));
-        sradList.get("SRAD").put(StatType.MAX, new ArrayList<StatMeasurement>());
-        sradList.get("SRAD").put(StatType.MIN, new ArrayList<StatMeasurement>());
-        sradList.get("SRAD").put(StatType.AVG, new ArrayList<StatMeasurement>());
-        sradList.get("SRAD").put(StatType.TOT, new ArrayList<StatMeasurement>());
+        // only a summary of every parameter serves any later query
+        dataStats = new DayDataStatistics(mtsFile, params);
+        dataStats.compact();
+        if (params == null)
+        {
+            summaryStore.write(mtsFile, modified, size, dataStats);
+        }
+        return dataStats;
     }
 
     /**
-     * Method for finding the statistics
+     * Private helper method that summarizes the files on a ForkJoinPool
      * 
+     * @return ArrayList<DayDataStatistics> the statistics, in file order
      * @throws IOException
      * @throws WrongCopyrightException
-     * @throws ParseException
      */
-    public void findStatistics() throws IOException, WrongCopyrightException, ParseException
+    private ArrayList<DayDataStatistics> loadInParallel() throws IOException, WrongCopyrightException
     {
+        ArrayList<Callable<DayDataStatistics>> tasks = new ArrayList<Callable<DayDataStatistics>>();
         for (String fileName : files)
         {
-            MesonetTimeFile mtsFile = new MesonetTimeFile(fileName);
-            mtsFile.parseFile();
-            ArrayList<TimeData> data = mtsFile.parseFile();
-            DayDataStatistics dataStats = new DayDataStatistics(data);
+            tasks.add(() -> loadStatistics(fileName));
+        }
 
-            assignStats(dataStats);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            List<Future<DayDataStatistics>> futures = pool.invokeAll(tasks);
+            ArrayList<DayDataStatistics> results = new ArrayList<DayDataStatistics>();
+            for (Future<DayDataStatistics> future : futures)
+            {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing files", e);
+        }
+        catch (ExecutionException e)
+        {
+            // hand back the exception the file would have thrown sequentially
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof WrongCopyrightException)
+            {
+                throw (WrongCopyrightException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            pool.shutdown();
         }
     }
 
     /**
-     * Private helper method for assigning the stats to the relevant ArrayLists
+     * Method to get the hourly, daily and monthly statistics of every station.
+     * Days read from the summary store have no hours in the cube until
+     * getRangeAggregate reads them.
      * 
-     * @param dataStats
-     *            a DayDataStatics Object
-     * @throws ParseException
+     * @return RollupCube the cube, filled by findStatistics and refresh
      */
-    private void assignStats(DayDataStatistics dataStats) throws ParseException
+    public RollupCube getRollupCube()
     {
-        // assign the stats to the appropriate ArrayList
-        tairList.get("TAIR").get(StatType.MAX).add(dataStats.getStatMeasurement("Tair", StatType.MAX));
-        tairList.get("TAIR").get(StatType.MIN).add(dataStats.getStatMeasurement("Tair", StatType.MIN));
-        tairList.get("TAIR").get(StatType.AVG).add(dataStats.getStatMeasurement("Tair", StatType.AVG));
+        return cube;
+    }
 
-        ta9mList.get("TA9M").get(StatType.MAX).add(dataStats.getStatMeasurement("Ta9m", StatType.MAX));
-        ta9mList.get("TA9M").get(StatType.MIN).add(dataStats.getStatMeasurement("Ta9m", StatType.MIN));
-        ta9mList.get("TA9M").get(StatType.AVG).add(dataStats.getStatMeasurement("Ta9m", StatType.AVG));
+    /**
+     * Method to get the cache shared by instances not given their own
+     * 
+     * @return ParseCache<DayDataStatistics> the shared cache
+     */
+    public static ParseCache<DayDataStatistics> getSharedCache()
+    {
+        return SHARED_CACHE;
+    }
 
-        sradList.get("SRAD").get(StatType.MAX).add(dataStats.getStatMeasurement("Srad", StatType.MAX));
-        sradList.get("SRAD").get(StatType.MIN).add(dataStats.getStatMeasurement("Srad", StatType.MIN));
-        sradList.get("SRAD").get(StatType.AVG).add(dataStats.getStatMeasurement("Srad", StatType.AVG));
-        sradList.get("SRAD").get(StatType.AVG).add(dataStats.getStatMeasurement("Srad", StatType.TOT));
+    /**
+     * Private helper method for the stations and dates of the open days
+     * 
+     * @return HashSet<FileDay> the days of the open files
+     */
+    private HashSet<FileDay> getOpenDays()
+    {
+        HashSet<FileDay> days = new HashSet<FileDay>();
+        for (String fileName : openStats.keySet())
+        {
+            days.add(fileDays.get(fileName));
+        }
+        return days;
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Private helper method for the statistics of a parameter over the merged
+     * days, merged with those of the open days
      * 
-     * @see StatisticsAbstract#getMinimumDay(java.lang.String)
+     * @param merged
+     *            the statistics of the merged days, or null if they have none
+     * @param paramId
+     *            the upper case parameter id
+     * @param inStationId
+     *            the station ID of the open days to merge, in any case, or null
+     *            for every station
+     * @return StatisticsAggregate the statistics, or null if there are none
      */
+    private StatisticsAggregate mergeOpenDays(StatisticsAggregate merged, String paramId, String inStationId)
+    {
+        StatisticsAggregate aggregate = merged;
+        for (DayDataStatistics dataStats : openStats.values())
+        {
+            int param = dataStats.getRegistry().indexOf(paramId);
+            if (param < 0 || (inStationId != null && !inStationId.equalsIgnoreCase(dataStats.getStationID())))
+            {
+                continue;
+            }
+            StatisticsAggregate day = dataStats.getAggregate(param);
+            if (day != null)
+            {
+                aggregate = aggregate == null ? day : aggregate.merge(day);
+            }
+        }
+        return aggregate;
+    }
+
     /**
-     * Method for getting the minimum statMeasurement according to day
+     * Private helper method that merges the aggregates again from the days in
+     * the cube, in file order. Only needed once a merged day was replaced or
+     * removed; a file of the same station and date as an earlier one is merged
+     * once, and the open days are left out.
+     */
+    private void assignAllStats()
+    {
+        paramAggregates.clear();
+        stationAggregates.clear();
+        HashSet<FileDay> merged = getOpenDays();
+        for (String fileName : files)
+        {
+            FileDay day = fileDays.get(fileName);
+            if (day == null || !merged.add(day))
+            {
+                continue;
+            }
+            for (Map.Entry<String, StatisticsAggregate> entry : cube.getDay(day.stationId, day.midnight).entrySet())
+            {
+                assignStats(day.stationId, entry.getKey(), entry.getValue());
+            }
+        }
+        listsChanged = false;
+    }
+
+    /**
+     * Private helper method that fills the heaps again from the days in the
+     * cube, in file order, leaving the open days out. Only needed once a kept
+     * station-day was replaced or removed, or more station-days are to be kept.
+     */
+    private void assignAllExtremes()
+    {
+        topDays.clear();
+        bottomDays.clear();
+        HashSet<FileDay> offered = getOpenDays();
+        for (String fileName : files)
+        {
+            FileDay day = fileDays.get(fileName);
+            if (day == null || !offered.add(day))
+            {
+                continue;
+            }
+            for (Map.Entry<String, StatisticsAggregate> entry : cube.getDay(day.stationId, day.midnight).entrySet())
+            {
+                offerExtremes(entry.getKey(), entry.getValue());
+            }
+        }
+        extremesChanged = false;
+    }
+
+    /**
+     * Private helper method for merging the stats of a parameter over a day into
+     * the aggregates of the parameter and of its station
+     * 
+     * @param stationId
+     *            the station ID of the day
+     * @param paramId
+     *            the upper case parameter id
+     * @param aggregate
+     *            the statistics of the parameter over the day
+     */
+    private void assignStats(String stationId, String paramId, StatisticsAggregate aggregate)
+    {
+        // earlier files come first, so their days win ties
+        paramAggregates.merge(paramId, aggregate, StatisticsAggregate::merge);
+        HashMap<String, StatisticsAggregate> stationStats =
+                getStationAggregates(StationRegistry.NETWORK.indexOf(stationId));
+        if (stationStats != null)
+        {
+            stationStats.merge(paramId, aggregate, StatisticsAggregate::merge);
+        }
+    }
+
+    /**
+     * Private helper method to get the aggregates of a station, adding them if
+     * the station has none yet
+     * 
+     * @param station
+     *            the network index of the station
+     * @return HashMap<String, StatisticsAggregate> the aggregates of the station,
+     *         or null for an unknown station
+     */
+    private HashMap<String, StatisticsAggregate> getStationAggregates(int station)
+    {
+        if (station == StationRegistry.UNKNOWN)
+        {
+            return null;
+        }
+
+        while (stationAggregates.size() <= station)
+        {
+            stationAggregates.add(null);
+        }
+        if (stationAggregates.get(station) == null)
+        {
+            stationAggregates.set(station, new HashMap<String, StatisticsAggregate>());
+        }
+        return stationAggregates.get(station);
+    }
+
+    /**
+     * Method to get the statistics of a parameter merged over every day
      * 
      * @param inParamId
-     *            the parameter ID for which to find the minimum (e.g. Tair)
-     * @return StatMeasurement a StatMeasurement object representing the minimum air
-     *         temperature day
+     *            the parameter ID, in any case
+     * @return StatisticsAggregate the merged statistics
+     * @throws WrongParameterIdException
+     *             if no statistics were calculated for the parameter
      */
-    @Override
-    public StatMeasurement getMinimumDay(String inParamId) throws WrongParameterIdException
+    public synchronized StatisticsAggregate getAggregate(String inParamId) throws WrongParameterIdException
     {
-        if (inParamId.equalsIgnoreCase("tair"))
+        // days replaced since the aggregates were merged are picked up here
+        if (listsChanged)
         {
-            return Collections.min(tairList.get("TAIR").get(StatType.MIN));
+            assignAllStats();
         }
-        else if (inParamId.equalsIgnoreCase("ta9m"))
+
+        String paramId = inParamId.toUpperCase();
+        StatisticsAggregate aggregate = mergeOpenDays(paramAggregates.get(paramId), paramId, null);
+        if (aggregate == null)
         {
-            return Collections.min(ta9mList.get("TA9M").get(StatType.MIN));
+            String msg = String.format("%s", inParamId);
+            throw new WrongParameterIdException(msg);
         }
-        else if (inParamId.equalsIgnoreCase("srad"))
+        return aggregate;
+    }
+
+    /**
+     * Method to get the statistics of a parameter merged over the days of one
+     * station
+     * 
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param inStationId
+     *            the station ID, in any case
+     * @return StatisticsAggregate the merged statistics of the station
+     * @throws WrongParameterIdException
+     *             if no statistics were calculated for the parameter at the
+     *             station
+     */
+    public synchronized StatisticsAggregate getAggregate(String inParamId, String inStationId)
+            throws WrongParameterIdException
+    {
+        if (listsChanged)
         {
-            return Collections.min(sradList.get("SRAD").get(StatType.MIN));
+            assignAllStats();
         }
-        else
+
+        String paramId = inParamId.toUpperCase();
+        StatisticsAggregate aggregate = null;
+        int station = StationRegistry.NETWORK.indexOf(inStationId);
+        if (station != StationRegistry.UNKNOWN && station < stationAggregates.size()
+                && stationAggregates.get(station) != null)
+        {
+            aggregate = stationAggregates.get(station).get(paramId);
+        }
+        aggregate = mergeOpenDays(aggregate, paramId, inStationId);
+
+        if (aggregate == null)
         {
             String msg = String.format("%s", inParamId);
             throw new WrongParameterIdException(msg);
         }
+        return aggregate;
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Method to get the statistics of a parameter at one station over any range
+     * of time, from the hours, days and months of the RollupCube. The cube keeps
+     * nothing finer than an hour, so a range that starts or ends inside an hour
+     * is widened to the whole of that hour. Ranges of whole days also have
+     * quantiles. The hours of the days the range starts or ends inside are read
+     * from their summaries if the cube was filled without them.
      * 
-     * @see StatisticsAbstract#getMaximumDay(java.lang.String)
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param inStationId
+     *            the station ID, in any case
+     * @param fromEpochMinute
+     *            the start of the range, as minutes since the epoch, inclusive
+     * @param toEpochMinute
+     *            the end of the range, as minutes since the epoch, exclusive
+     * @return StatisticsAggregate the statistics of the hours the range touches,
+     *         the empty aggregate if they hold no valid values
+     * @throws IOException
+     * @throws WrongCopyrightException
      */
+    public synchronized StatisticsAggregate getRangeAggregate(String inParamId, String inStationId,
+            long fromEpochMinute, long toEpochMinute) throws IOException, WrongCopyrightException
+    {
+        if (fromEpochMinute >= toEpochMinute)
+        {
+            return StatisticsAggregate.EMPTY;
+        }
+        long from = RollupPeriod.HOUR.getStart(fromEpochMinute);
+        long to = RollupPeriod.HOUR.getStart(toEpochMinute + 59);
+
+        // whole days are taken from the days and months, so only the first and
+        // last day can need their hours
+        long first = RollupPeriod.DAY.getStart(from);
+        if (from != first || to < first + EpochMinutes.MINUTES_PER_DAY)
+        {
+            loadHours(inStationId, first);
+        }
+        long last = RollupPeriod.DAY.getStart(to - 1);
+        if (to != last + EpochMinutes.MINUTES_PER_DAY)
+        {
+            loadHours(inStationId, last);
+        }
+        return cube.query(inStationId, inParamId, from, to);
+    }
+
     /**
-     * Method for getting the maximum statMeasurement according to day
+     * Method to merge the files of every station into a network-wide series of a
+     * parameter: for every timestamp, the minimum, mean and maximum across the
+     * stations, and which station holds each extreme. The days are merged with
+     * the parallelism of these statistics, and the rows handed to the listener
+     * in time order.
      * 
      * @param inParamId
-     *            the parameter ID for which to find the maximum (e.g. Tair)
-     * @return StatMeasurement a StatMeasurement object representing the maximum air
-     *         temperature day
+     *            the parameter ID, in any case
+     * @param listener
+     *            the listener told of every network row
+     * @throws IOException
+     * @throws WrongCopyrightException
      */
-    @Override
-    public StatMeasurement getMaximumDay(String inParamId) throws WrongParameterIdException
+    public void streamNetworkRows(String inParamId, NetworkRowListener listener)
+            throws IOException, WrongCopyrightException
+    {
+        NetworkSeries series = new NetworkSeries(inParamId);
+        series.setParallelism(parallelism);
+        series.stream(getFiles(), listener);
+    }
+
+    /**
+     * Method to get the station-days with the largest maximums of a parameter
+     * (e.g. the hottest days). Equal maximums are ordered by time, then by file.
+     * 
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param count
+     *            the number of station-days, at most getExtremeDayCount
+     * @return List<StatMeasurement> the maximums of the station-days, largest
+     *         first
+     * @throws WrongParameterIdException
+     *             if no statistics were calculated for the parameter
+     */
+    public synchronized List<StatMeasurement> getTopDays(String inParamId, int count)
+            throws WrongParameterIdException
+    {
+        return getExtremeDays(true, inParamId).getDays(count);
+    }
+
+    /**
+     * Method to get the station-days with the smallest minimums of a parameter
+     * (e.g. the coldest days). Equal minimums are ordered by time, then by file.
+     * 
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param count
+     *            the number of station-days, at most getExtremeDayCount
+     * @return List<StatMeasurement> the minimums of the station-days, smallest
+     *         first
+     * @throws WrongParameterIdException
+     *             if no statistics were calculated for the parameter
+     */
+    public synchronized List<StatMeasurement> getBottomDays(String inParamId, int count)
+            throws WrongParameterIdException
+    {
+        return getExtremeDays(false, inParamId).getDays(count);
+    }
+
+    /**
+     * Private helper method to get the extreme station-days of a parameter. The
+     * open days are offered to a copy of the heap, which is left as it is.
+     * 
+     * @param largest
+     *            true for the top days, false for the bottom days
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @return ExtremeDays the extreme station-days of the parameter
+     * @throws WrongParameterIdException
+     *             if no statistics were calculated for the parameter
+     */
+    private ExtremeDays getExtremeDays(boolean largest, String inParamId) throws WrongParameterIdException
     {
-        if (inParamId.equalsIgnoreCase("tair"))
+        // the heaps are only filled again once a kept day was dropped
+        if (extremesChanged)
         {
-            return Collections.max(tairList.get("TAIR").get(StatType.MAX));
+            assignAllExtremes();
         }
-        else if (inParamId.equalsIgnoreCase("ta9m"))
+
+        String paramId = inParamId.toUpperCase();
+        ExtremeDays kept = (largest ? topDays : bottomDays).get(paramId);
+        ExtremeDays days = null;
+        for (DayDataStatistics dataStats : openStats.values())
         {
-            return Collections.max(ta9mList.get("TA9M").get(StatType.MAX));
+            int param = dataStats.getRegistry().indexOf(paramId);
+            StatisticsAggregate aggregate = param < 0 ? null : dataStats.getAggregate(param);
+            if (aggregate == null)
+            {
+                continue;
+            }
+            if (days == null)
+            {
+                days = new ExtremeDays(extremeDayCount, largest);
+                for (StatMeasurement day : kept == null ? new ArrayList<StatMeasurement>() : kept.getDays())
+                {
+                    days.offer(day);
+                }
+            }
+            days.offer(aggregate.toStatMeasurement(paramId, largest ? StatType.MAX : StatType.MIN));
         }
-        else if (inParamId.equalsIgnoreCase("srad"))
+        if (days == null)
         {
-            return Collections.max(sradList.get("SRAD").get(StatType.MAX));
+            days = kept;
         }
-        else
+
+        if (days == null)
         {
             String msg = String.format("%s", inParamId);
             throw new WrongParameterIdException(msg);
         }
+        return days;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see StatisticsAbstract#getMinimumDay(java.lang.String)
+     */
+    /**
+     * Method for getting the minimum statMeasurement according to day
+     * 
+     * @param inParamId
+     *            the parameter ID for which to find the minimum (e.g. Tair)
+     * @return StatMeasurement a StatMeasurement object representing the minimum air
+     *         temperature day
+     */
+    @Override
+    public StatMeasurement getMinimumDay(String inParamId) throws WrongParameterIdException
+    {
+        return getAggregate(inParamId).toStatMeasurement(inParamId.toUpperCase(), StatType.MIN);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see StatisticsAbstract#getMaximumDay(java.lang.String)
+     */
+    /**
+     * Method for getting the maximum statMeasurement according to day
+     * 
+     * @param inParamId
+     *            the parameter ID for which to find the maximum (e.g. Tair)
+     * @return StatMeasurement a StatMeasurement object representing the maximum air
+     *         temperature day
+     */
+    @Override
+    public StatMeasurement getMaximumDay(String inParamId) throws WrongParameterIdException
+    {
+        return getAggregate(inParamId).toStatMeasurement(inParamId.toUpperCase(), StatType.MAX);
+    }
+
+    /**
+     * Method for getting the minimum statMeasurement of one station according to
+     * day
+     * 
+     * @param inParamId
+     *            the parameter ID for which to find the minimum (e.g. Tair)
+     * @param inStationId
+     *            the station ID (e.g. OKCN)
+     * @return StatMeasurement a StatMeasurement object representing the minimum day
+     *         of the station
+     * @throws WrongParameterIdException
+     */
+    public StatMeasurement getMinimumDay(String inParamId, String inStationId) throws WrongParameterIdException
+    {
+        return getAggregate(inParamId, inStationId).toStatMeasurement(inParamId.toUpperCase(), StatType.MIN);
+    }
+
+    /**
+     * Method for getting the maximum statMeasurement of one station according to
+     * day
+     * 
+     * @param inParamId
+     *            the parameter ID for which to find the maximum (e.g. Tair)
+     * @param inStationId
+     *            the station ID (e.g. OKCN)
+     * @return StatMeasurement a StatMeasurement object representing the maximum day
+     *         of the station
+     * @throws WrongParameterIdException
+     */
+    public StatMeasurement getMaximumDay(String inParamId, String inStationId) throws WrongParameterIdException
+    {
+        return getAggregate(inParamId, inStationId).toStatMeasurement(inParamId.toUpperCase(), StatType.MAX);
+    }
+
+    /**
+     * Method for getting a statistic of a parameter over every day. The minimum
+     * and maximum are those of the days; the other types are calculated from
+     * every valid value of every day, as if all the files were one.
+     * 
+     * @param inParamId
+     *            the parameter ID (e.g. Tair)
+     * @param type
+     *            the StatType to get
+     * @return StatMeasurement the statistic over every day
+     * @throws WrongParameterIdException
+     */
+    public StatMeasurement getStatMeasurement(String inParamId, StatType type) throws WrongParameterIdException
+    {
+        return getAggregate(inParamId).toStatMeasurement(inParamId.toUpperCase(), type);
+    }
+
+    /**
+     * Method for getting a statistic of a parameter over the days of one station
+     * 
+     * @param inParamId
+     *            the parameter ID (e.g. Tair)
+     * @param inStationId
+     *            the station ID (e.g. OKCN)
+     * @param type
+     *            the StatType to get
+     * @return StatMeasurement the statistic over the days of the station
+     * @throws WrongParameterIdException
+     */
+    public StatMeasurement getStatMeasurement(String inParamId, String inStationId, StatType type)
+            throws WrongParameterIdException
+    {
+        return getAggregate(inParamId, inStationId).toStatMeasurement(inParamId.toUpperCase(), type);
     }
 
     /**
@@ -194,28 +1418,31 @@ public class DaysStatistics extends StatisticsAbstract
      * 
      * @return String a descriptive string
      */
-    public String toString()
+    public synchronized String toString()
     {
-        String maxTair = "";
-        String minTair = "";
-        String maxTa9m = "";
-        String minTa9m = "";
-        String maxSrad = "";
-        String minSrad = "";
+        if (listsChanged)
+        {
+            assignAllStats();
+        }
+
+        ArrayList<String> lines = new ArrayList<String>();
         try
         {
-            maxTair = getMaximumDay("TAIR").toString();
-            minTair = getMinimumDay("TAIR").toString();
-            maxTa9m = getMaximumDay("TA9M").toString();
-            minTa9m = getMinimumDay("TA9M").toString();
-            maxSrad = getMaximumDay("SRAD").toString();
-            minSrad = getMinimumDay("SRAD").toString();
+            for (String paramId : new String[] { "TAIR", "TA9M", "SRAD" })
+            {
+                // parameters that were not calculated have nothing to show
+                if (mergeOpenDays(paramAggregates.get(paramId), paramId, null) != null)
+                {
+                    lines.add(getMaximumDay(paramId).toString());
+                    lines.add(getMinimumDay(paramId).toString());
+                }
+            }
         }
         catch (WrongParameterIdException e)
         {
             System.out.print(e.getMessage());
         }
 
-        return String.format("%s\n%s\n%s\n%s\n%s\n%s", maxTair, minTair, maxTa9m, minTa9m, maxSrad, minSrad);
+        return String.join("\n", lines);
     }
 }
\ No newline at end of file
@@ -2,8 +2,17 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -210,4 +219,492 @@ public class DaysStatisticsTest
         }
         Assert.assertTrue(throwException);
     }
+
+    /**
+     * Test that only the requested parameters are calculated
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testProjectedParameters()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        DaysStatistics projected = new DaysStatistics(files, Collections.singleton("ta9m"));
+        projected.findStatistics();
+
+        Assert.assertEquals("Incorrect maximum!", statTest.getMaximumDay("ta9m").toString(),
+                projected.getMaximumDay("TA9M").toString());
+        Assert.assertEquals("Incorrect minimum!", statTest.getMinimumDay("ta9m").toString(),
+                projected.getMinimumDay("TA9M").toString());
+        Assert.assertEquals("Incorrect String returned!",
+                "TA9M MAX -5.6000 STIL 2018-01-02T21:40:00 UTC\nTA9M MIN -12.4000 OKCE 2018-01-02T08:20:00 UTC",
+                projected.toString());
+
+        boolean throwException = false;
+        try
+        {
+            projected.getMaximumDay("tair");
+        }
+        catch (WrongParameterIdException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+
+    /**
+     * Test that parameters beyond TAIR, TA9M and SRAD are calculated
+     * 
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testOtherParameters() throws WrongParameterIdException
+    {
+        StatMeasurement actual = statTest.getMaximumDay("pres");
+
+        Assert.assertEquals("Incorrect value!", 1007.74, actual.getValue(), 0.0001);
+        Assert.assertEquals("Incorrect parameter ID!", "PRES", actual.getParamId());
+        Assert.assertEquals("Incorrect String returned!", "PRES MAX 1007.7400 STIL 2018-01-02T00:00:00 UTC",
+                actual.toString());
+        Assert.assertNotNull("No RELH minimum!", statTest.getMinimumDay("RELH"));
+        Assert.assertNotNull("No TR60 maximum!", statTest.getMaximumDay("Tr60"));
+    }
+
+    /**
+     * Test that the parallel mode finds exactly the sequential results
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testParallelMatchesSequential()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] allFiles = new File("data/mesonet").list();
+        Arrays.sort(allFiles);
+        for (int index = 0; index < allFiles.length; ++index)
+        {
+            allFiles[index] = "data/mesonet/" + allFiles[index];
+        }
+
+        DaysStatistics sequential = new DaysStatistics(allFiles, null, new ParseCache<DayDataStatistics>());
+        sequential.findStatistics();
+
+        DaysStatistics parallel = new DaysStatistics(allFiles, null, new ParseCache<DayDataStatistics>());
+        parallel.setParallelism(4);
+        parallel.findStatistics();
+
+        Assert.assertEquals("Wrong parallelism!", 4, parallel.getParallelism());
+        Assert.assertEquals("Incorrect String returned!", sequential.toString(), parallel.toString());
+        for (String param : new String[] { "RELH", "WSPD", "PRES", "TS10", "TR60" })
+        {
+            Assert.assertEquals("Incorrect maximum!", sequential.getMaximumDay(param).toString(),
+                    parallel.getMaximumDay(param).toString());
+            Assert.assertEquals("Incorrect minimum!", sequential.getMinimumDay(param).toString(),
+                    parallel.getMinimumDay(param).toString());
+        }
+    }
+
+    /**
+     * Test that refreshing a file only replaces that file's statistics
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testRefresh() throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        DaysStatistics refreshed = new DaysStatistics(new String[] { files[0] });
+        refreshed.findStatistics();
+        refreshed.refresh(files[1]);
+        refreshed.refresh(files[2]);
+
+        // refreshing an unchanged file reads no rows and changes nothing
+        refreshed.refresh(files[2]);
+
+        Assert.assertEquals("Incorrect value returned!", Arrays.asList(files), refreshed.getFiles());
+        Assert.assertEquals("Incorrect String returned!", statTest.toString(), refreshed.toString());
+    }
+
+    /**
+     * Test that the newest day of a station grows as rows are appended, and is
+     * merged like any other day once a later day of the station is refreshed
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testRefreshGrowingDay() throws IOException, WrongCopyrightException, ParseException,
+            WrongParameterIdException
+    {
+        String fileName = "data/mesonet/20180101okcn.mts";
+        List<String> lines = Files.readAllLines(new File(fileName).toPath());
+        File growing = File.createTempFile("20180101okcn", ".mts");
+        growing.deleteOnExit();
+        Files.write(growing.toPath(), lines.subList(0, 103));
+
+        DaysStatistics refreshed = new DaysStatistics(new String[0]);
+        refreshed.findStatistics();
+        refreshed.refresh(growing.getPath());
+        Assert.assertEquals("Incorrect value returned!", 100, refreshed.getAggregate("TAIR", "okcn").getCount());
+
+        Files.write(growing.toPath(), lines.subList(103, lines.size()), StandardOpenOption.APPEND);
+        refreshed.refresh(growing.getPath());
+        DaysStatistics whole = new DaysStatistics(new String[] { fileName });
+        whole.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", whole.getAggregate("TAIR").getCount(),
+                refreshed.getAggregate("TAIR", "okcn").getCount());
+        Assert.assertEquals("Incorrect String returned!", whole.toString(), refreshed.toString());
+
+        // the later day closes the first one
+        refreshed.refresh(files[0]);
+        DaysStatistics expected = new DaysStatistics(new String[] { fileName, files[0] });
+        expected.findStatistics();
+        Assert.assertEquals("Incorrect String returned!", expected.toString(), refreshed.toString());
+        Assert.assertEquals("Incorrect value returned!", expected.getAggregate("TAIR").getCount(),
+                refreshed.getAggregate("TAIR").getCount());
+        Assert.assertEquals("Incorrect String returned!", expected.getTopDays("TAIR", 2).toString(),
+                refreshed.getTopDays("TAIR", 2).toString());
+        Assert.assertEquals("Incorrect String returned!", expected.getBottomDays("TAIR", 2).toString(),
+                refreshed.getBottomDays("TAIR", 2).toString());
+    }
+
+    /**
+     * Test that a file of the same station and day as another is merged once,
+     * and that removing it leaves the day of the other file
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testRemoveSameDay() throws IOException, WrongCopyrightException, ParseException,
+            WrongParameterIdException
+    {
+        File copy = File.createTempFile("20180102okcn", ".mts");
+        copy.deleteOnExit();
+        Files.copy(new File(files[0]).toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        DaysStatistics single = new DaysStatistics(new String[] { files[0] });
+        single.findStatistics();
+        DaysStatistics twice = new DaysStatistics(new String[] { files[0], copy.getPath() });
+        twice.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", single.getAggregate("TAIR").getCount(),
+                twice.getAggregate("TAIR").getCount());
+
+        Assert.assertTrue("Incorrect value returned!", twice.remove(copy.getPath()));
+        Assert.assertFalse("Incorrect value returned!", twice.remove(copy.getPath()));
+        Assert.assertEquals("Incorrect value returned!", single.getAggregate("TAIR").getCount(),
+                twice.getAggregate("TAIR").getCount());
+        Assert.assertEquals("Incorrect value returned!", 1,
+                twice.getRollupCube().getBuckets("OKCN", "TAIR", RollupPeriod.DAY).size());
+        Assert.assertEquals("Incorrect value returned!", single.getTopDays("TAIR", 10).toString(),
+                twice.getTopDays("TAIR", 10).toString());
+
+        Assert.assertTrue("Incorrect value returned!", twice.remove(files[0]));
+        Assert.assertTrue("Incorrect value returned!",
+                twice.getRollupCube().getBuckets("OKCN", "TAIR", RollupPeriod.DAY).isEmpty());
+        boolean throwException = false;
+        try
+        {
+            twice.getAggregate("TAIR");
+        }
+        catch (WrongParameterIdException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+
+        throwException = false;
+        try
+        {
+            twice.getTopDays("TAIR", 10);
+        }
+        catch (WrongParameterIdException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+
+    /**
+     * Test the minimum and maximum days of one station
+     * 
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testStationDays() throws WrongParameterIdException
+    {
+        StatMeasurement okcnMax = statTest.getMaximumDay("TAIR", "okcn");
+        StatMeasurement stilMax = statTest.getMaximumDay("TAIR", "STIL");
+        Assert.assertEquals("Incorrect station returned!", "OKCN", okcnMax.toString().split(" ")[3]);
+        Assert.assertEquals("Incorrect station returned!", "STIL", stilMax.toString().split(" ")[3]);
+        Assert.assertTrue("Incorrect maximum returned!",
+                statTest.getMaximumDay("TAIR").getValue() >= Math.max(okcnMax.getValue(), stilMax.getValue()));
+        Assert.assertTrue("Incorrect minimum returned!",
+                statTest.getMinimumDay("TAIR", "OKCE").getValue() >= statTest.getMinimumDay("TAIR").getValue());
+
+        boolean throwException = false;
+        try
+        {
+            statTest.getMaximumDay("TAIR", "NRMN");
+        }
+        catch (WrongParameterIdException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+
+    /**
+     * Test that the days merged as the files are read match the days of the cube
+     * rolled up into a week and a month
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testRollups() throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] allFiles = new File("data/mesonet").list();
+        Arrays.sort(allFiles);
+        for (int index = 0; index < allFiles.length; ++index)
+        {
+            allFiles[index] = "data/mesonet/" + allFiles[index];
+        }
+        DaysStatistics all = new DaysStatistics(allFiles);
+        all.findStatistics();
+        RollupCube cube = all.getRollupCube();
+
+        // 2018-01-01 was a Monday
+        long monday = EpochMinutes.of(2018, 1, 1, 0);
+        TreeMap<Long, StatisticsAggregate> days = cube.getBuckets("stil", "tair", RollupPeriod.DAY);
+        TreeMap<Long, StatisticsAggregate> months = cube.getBuckets("stil", "tair", RollupPeriod.MONTH);
+        Assert.assertEquals("Incorrect value returned!", 5, days.size());
+        Assert.assertEquals("Incorrect value returned!", Collections.singleton(monday), months.keySet());
+
+        long count = 0;
+        for (StatisticsAggregate day : days.values())
+        {
+            count += day.getCount();
+        }
+        Assert.assertEquals("Incorrect value returned!", count, months.get(monday).getCount());
+        Assert.assertEquals("Incorrect value returned!", all.getAggregate("tair", "stil").getCount(), count);
+
+        StatisticsAggregate week = cube.query("tair", monday, EpochMinutes.of(2018, 1, 8, 0));
+        Assert.assertEquals("Incorrect value returned!", all.getAggregate("TAIR").getCount(), week.getCount());
+        Assert.assertEquals("Incorrect String returned!", all.getMaximumDay("tair").toString(),
+                week.toStatMeasurement("TAIR", StatType.MAX).toString());
+        Assert.assertEquals("Incorrect String returned!", all.getMinimumDay("tair").toString(),
+                week.toStatMeasurement("TAIR", StatType.MIN).toString());
+        Assert.assertEquals("Incorrect value returned!", "STIL", all.getAggregate("tair", "stil").getStationId());
+    }
+
+    /**
+     * Test the statistics of ranges that do not start or end on an hour, which
+     * are widened to the hours they touch
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testRangeAggregate()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] allFiles = new File("data/mesonet").list();
+        Arrays.sort(allFiles);
+        for (int index = 0; index < allFiles.length; ++index)
+        {
+            allFiles[index] = "data/mesonet/" + allFiles[index];
+        }
+        DaysStatistics all = new DaysStatistics(allFiles);
+        all.findStatistics();
+
+        long[][] ranges = { { EpochMinutes.of(2018, 1, 2, 197), EpochMinutes.of(2018, 1, 4, 1362) },
+                { EpochMinutes.of(2018, 1, 1, 0), EpochMinutes.of(2018, 1, 6, 0) },
+                { EpochMinutes.of(2018, 1, 3, 1405), EpochMinutes.of(2018, 1, 4, 35) },
+                { EpochMinutes.of(2018, 1, 3, 602), EpochMinutes.of(2018, 1, 3, 618) },
+                { EpochMinutes.of(2018, 1, 5, 1430), EpochMinutes.of(2018, 1, 7, 0) } };
+        for (long[] range : ranges)
+        {
+            StatisticsAggregate aggregate = all.getRangeAggregate("tair", "nrmn", range[0], range[1]);
+            double[] expected = RollupCubeTest.scan(allFiles, "nrmn", "TAIR", RollupPeriod.HOUR.getStart(range[0]),
+                    RollupPeriod.HOUR.getStart(range[1] + 59));
+            Assert.assertEquals("Incorrect value returned!", (long) expected[0], aggregate.getCount());
+            Assert.assertEquals("Incorrect value returned!", expected[1], aggregate.getMin(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected[2], aggregate.getMax(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected[3], aggregate.getSum(), 1e-9);
+        }
+
+        // whole days keep their quantiles, the maximum keeps its time
+        StatisticsAggregate days = all.getRangeAggregate("TAIR", "NRMN", EpochMinutes.of(2018, 1, 1, 0),
+                EpochMinutes.of(2018, 1, 6, 0));
+        Assert.assertFalse("Incorrect value returned!", Double.isNaN(days.getQuantile(0.5)));
+        Assert.assertEquals("Incorrect value returned!", all.getMaximumDay("tair", "nrmn").getEpochMinute(),
+                days.getMaxEpochMinute());
+        Assert.assertTrue("Incorrect value returned!",
+                all.getRangeAggregate("TAIR", "NRMN", EpochMinutes.of(2018, 2, 1, 0), EpochMinutes.of(2018, 3, 1, 0))
+                        .isEmpty());
+    }
+
+    /**
+     * Test the hottest and coldest station-days
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testExtremeDays()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] allFiles = new File("data/mesonet").list();
+        Arrays.sort(allFiles);
+        ArrayList<StatMeasurement> maximums = new ArrayList<StatMeasurement>();
+        ArrayList<StatMeasurement> minimums = new ArrayList<StatMeasurement>();
+        for (int index = 0; index < allFiles.length; ++index)
+        {
+            allFiles[index] = "data/mesonet/" + allFiles[index];
+            DayDataStatistics day = new DayDataStatistics(new MesonetTimeFile(allFiles[index]));
+            maximums.add(day.getStatMeasurement("TAIR", StatType.MAX));
+            minimums.add(day.getStatMeasurement("TAIR", StatType.MIN));
+        }
+        DaysStatistics all = new DaysStatistics(allFiles);
+        all.findStatistics();
+
+        // a stable sort keeps the file order of equal values
+        Collections.sort(maximums, (first, second) -> first.getValue() != second.getValue()
+                ? Double.compare(second.getValue(), first.getValue())
+                : Long.compare(first.getEpochMinute(), second.getEpochMinute()));
+        Collections.sort(minimums, (first, second) -> first.getValue() != second.getValue()
+                ? Double.compare(first.getValue(), second.getValue())
+                : Long.compare(first.getEpochMinute(), second.getEpochMinute()));
+
+        List<StatMeasurement> hottest = all.getTopDays("tair", 10);
+        List<StatMeasurement> coldest = all.getBottomDays("TAIR", 5);
+        Assert.assertEquals("Incorrect value returned!", 10, hottest.size());
+        Assert.assertEquals("Incorrect value returned!", 5, coldest.size());
+        for (int index = 0; index < hottest.size(); ++index)
+        {
+            Assert.assertEquals("Incorrect String returned!", maximums.get(index).toString(),
+                    hottest.get(index).toString());
+        }
+        for (int index = 0; index < coldest.size(); ++index)
+        {
+            Assert.assertEquals("Incorrect String returned!", minimums.get(index).toString(),
+                    coldest.get(index).toString());
+        }
+        Assert.assertEquals("Incorrect String returned!", all.getMaximumDay("TAIR").toString(),
+                hottest.get(0).toString());
+
+        // a larger count fills the heaps again
+        all.setExtremeDayCount(20);
+        Assert.assertEquals("Incorrect value returned!", 20, all.getBottomDays("tair", 20).size());
+        Assert.assertEquals("Incorrect String returned!", minimums.get(19).toString(),
+                all.getBottomDays("tair", 20).get(19).toString());
+
+        // a smaller count keeps the most extreme of the kept days
+        all.setExtremeDayCount(3);
+        Assert.assertEquals("Incorrect value returned!", 3, all.getTopDays("tair", 3).size());
+        Assert.assertEquals("Incorrect String returned!", maximums.get(2).toString(),
+                all.getTopDays("tair", 3).get(2).toString());
+    }
+
+    /**
+     * Test the network-wide series of the stations
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testNetworkRows() throws IOException, WrongCopyrightException, WrongParameterIdException
+    {
+        ArrayList<NetworkRow> rows = new ArrayList<NetworkRow>();
+        statTest.streamNetworkRows("tair", rows::add);
+
+        // the three files are of the same day
+        Assert.assertEquals("Incorrect value returned!", 288, rows.size());
+        NetworkRow hottest = rows.get(0);
+        for (NetworkRow row : rows)
+        {
+            hottest = row.getMax() > hottest.getMax() ? row : hottest;
+        }
+        StatMeasurement maximum = statTest.getMaximumDay("TAIR");
+        Assert.assertEquals("Incorrect value returned!", maximum.getValue(), hottest.getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", maximum.getEpochMinute(), hottest.getEpochMinute());
+    }
+
+    /**
+     * Test the variance, standard deviation, count and median over every day
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testMoments() throws IOException, WrongCopyrightException, WrongParameterIdException
+    {
+        // the moments of all the valid values of the three files
+        ArrayList<Double> values = new ArrayList<Double>();
+        for (String fileName : files)
+        {
+            MesonetColumns columns = new MesonetTimeFile(fileName).parseColumns();
+            int param = columns.indexOf("TAIR");
+            for (int row = 0; row < columns.getRowCount(); ++row)
+            {
+                if (columns.isValid(param, row))
+                {
+                    values.add(columns.getValue(param, row));
+                }
+            }
+        }
+        double sum = 0;
+        for (double value : values)
+        {
+            sum += value;
+        }
+        double mean = sum / values.size();
+        double m2 = 0;
+        for (double value : values)
+        {
+            m2 += (value - mean) * (value - mean);
+        }
+
+        Assert.assertEquals("Incorrect value returned!", values.size(),
+                statTest.getStatMeasurement("tair", StatType.COUNT).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", mean,
+                statTest.getStatMeasurement("tair", StatType.AVG).getValue(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", m2 / values.size(),
+                statTest.getStatMeasurement("tair", StatType.VARIANCE).getValue(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", Math.sqrt(m2 / values.size()),
+                statTest.getStatMeasurement("tair", StatType.STDDEV).getValue(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!",
+                new DayDataStatistics(new MesonetTimeFile(files[1])).getStatMeasurement("TAIR", StatType.STDDEV)
+                        .getValue(),
+                statTest.getStatMeasurement("TAIR", "STIL", StatType.STDDEV).getValue(), 1e-12);
+
+        // the merged sketches estimate the median within 2% of the rank
+        Collections.sort(values);
+        double median = statTest.getStatMeasurement("tair", StatType.MEDIAN).getValue();
+        int rank = Collections.binarySearch(values, median);
+        Assert.assertTrue("Median not among the values!", rank >= 0);
+        Assert.assertTrue("Incorrect median returned!",
+                values.lastIndexOf(median) >= values.size() * 0.48 && values.indexOf(median) <= values.size() * 0.52);
+    }
 }
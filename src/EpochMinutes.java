@@ -0,0 +1,238 @@
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Class of static methods for timestamps held as a single long: the number of
+ * minutes since 1970-01-01T00:00 UTC. The fields are derived with integer
+ * arithmetic (proleptic Gregorian calendar), so no Calendar object is needed to
+ * store, read or compare a timestamp.
+ */
+public final class EpochMinutes
+{
+    /** the number of minutes in a day */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** the number of days from 0000-03-01 to 1970-01-01 */
+    private static final long DAYS_0000_TO_1970 = 719468;
+
+    /** the number of days in a 400 year era */
+    private static final long DAYS_PER_ERA = 146097;
+
+    /** the bit position of the year in a packed date */
+    private static final int YEAR_SHIFT = 9;
+
+    /** the bit position of the month in a packed date */
+    private static final int MONTH_SHIFT = 5;
+
+    /**
+     * Constructor that prevents instances
+     */
+    private EpochMinutes()
+    {
+    }
+
+    /**
+     * Method to build a timestamp from its fields. Like a lenient
+     * GregorianCalendar, months, days and minutes out of range roll over into
+     * the next or previous unit (month 0 is December of the previous year,
+     * minute 1500 is 01:00 of the next day).
+     *
+     * @param year
+     *            the year
+     * @param month
+     *            the month, 1 for January
+     * @param day
+     *            the day of month
+     * @param minute
+     *            the minute of the day
+     * @return long the minutes since the epoch
+     */
+    public static long of(int year, int month, int day, long minute)
+    {
+        long monthIndex = month - 1L;
+        long normalYear = year + Math.floorDiv(monthIndex, 12);
+        int normalMonth = Math.floorMod(monthIndex, 12) + 1;
+        return (toEpochDay(normalYear, normalMonth, 1) + day - 1) * MINUTES_PER_DAY + minute;
+    }
+
+    /**
+     * Method to convert a calendar to a timestamp, dropping seconds
+     *
+     * @param calendar
+     *            the calendar
+     * @return long the minutes since the epoch
+     */
+    public static long of(GregorianCalendar calendar)
+    {
+        return Math.floorDiv(calendar.getTimeInMillis(), 60000L);
+    }
+
+    /**
+     * Method to build a UTC calendar showing a timestamp. A new calendar is
+     * built on every call, so callers may change it freely.
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return GregorianCalendar the calendar, in UTC
+     */
+    public static GregorianCalendar toCalendar(long epochMinute)
+    {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(toMillis(epochMinute));
+        return calendar;
+    }
+
+    /**
+     * Method to convert a timestamp to milliseconds since the epoch
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return long the milliseconds since the epoch
+     */
+    public static long toMillis(long epochMinute)
+    {
+        return epochMinute * 60000L;
+    }
+
+    /**
+     * Method to get the days since the epoch of a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return long the days since the epoch
+     */
+    public static long getEpochDay(long epochMinute)
+    {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Method to get the minute of the day of a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return int the minute of the day, 0 to 1439
+     */
+    public static int getMinuteOfDay(long epochMinute)
+    {
+        return Math.floorMod(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Method to get the year of a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return int the year
+     */
+    public static int getYear(long epochMinute)
+    {
+        return getCivilYear(getCivilDate(epochMinute));
+    }
+
+    /**
+     * Method to get the month of a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return int the month, 1 for January
+     */
+    public static int getMonth(long epochMinute)
+    {
+        return getCivilMonth(getCivilDate(epochMinute));
+    }
+
+    /**
+     * Method to get the day of month of a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return int the day of month
+     */
+    public static int getDay(long epochMinute)
+    {
+        return getCivilDay(getCivilDate(epochMinute));
+    }
+
+    /**
+     * Method to get the date of a timestamp packed into one int, so that a
+     * caller needing the year, month and day converts the day only once. The
+     * packed date is never 0, since the month is at least 1.
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return int the year, month and day packed for getCivilYear,
+     *         getCivilMonth and getCivilDay
+     */
+    public static int getCivilDate(long epochMinute)
+    {
+        long shifted = getEpochDay(epochMinute) + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year << YEAR_SHIFT | month << MONTH_SHIFT | day);
+    }
+
+    /**
+     * Method to get the year of a packed date
+     *
+     * @param civilDate
+     *            the date from getCivilDate
+     * @return int the year
+     */
+    public static int getCivilYear(int civilDate)
+    {
+        return civilDate >> YEAR_SHIFT;
+    }
+
+    /**
+     * Method to get the month of a packed date
+     *
+     * @param civilDate
+     *            the date from getCivilDate
+     * @return int the month, 1 for January
+     */
+    public static int getCivilMonth(int civilDate)
+    {
+        return (civilDate >> MONTH_SHIFT) & 15;
+    }
+
+    /**
+     * Method to get the day of month of a packed date
+     *
+     * @param civilDate
+     *            the date from getCivilDate
+     * @return int the day of month
+     */
+    public static int getCivilDay(int civilDate)
+    {
+        return civilDate & 31;
+    }
+
+    /**
+     * Private helper method for the days since the epoch of a date
+     *
+     * @param year
+     *            the year
+     * @param month
+     *            the month, 1 to 12
+     * @param day
+     *            the day of month
+     * @return long the days since the epoch
+     */
+    private static long toEpochDay(long year, int month, int day)
+    {
+        // count the year from March so that the leap day comes last
+        long marchYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(marchYear, 400);
+        long yearOfEra = marchYear - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EpochMinutesTest
+{
+    /**
+     * Method to test timestamps against a UTC GregorianCalendar over many days
+     */
+    @Test
+    public void testMatchesCalendar()
+    {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(1899, 0, 1, 0, 0, 0);
+
+        // every 17 hours and 5 minutes for over two centuries, across leap years
+        for (int step = 0; step < 110000; ++step)
+        {
+            int year = calendar.get(Calendar.YEAR);
+            int month = calendar.get(Calendar.MONTH) + 1;
+            int day = calendar.get(Calendar.DAY_OF_MONTH);
+            int minute = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+
+            long epochMinute = EpochMinutes.of(year, month, day, minute);
+            Assert.assertEquals("Incorrect value returned!", calendar.getTimeInMillis() / 60000, epochMinute);
+            Assert.assertEquals("Incorrect value returned!", epochMinute, EpochMinutes.of(calendar));
+            Assert.assertEquals("Incorrect year returned!", year, EpochMinutes.getYear(epochMinute));
+            Assert.assertEquals("Incorrect month returned!", month, EpochMinutes.getMonth(epochMinute));
+            Assert.assertEquals("Incorrect day returned!", day, EpochMinutes.getDay(epochMinute));
+            Assert.assertEquals("Incorrect minute returned!", minute, EpochMinutes.getMinuteOfDay(epochMinute));
+
+            int civilDate = EpochMinutes.getCivilDate(epochMinute);
+            Assert.assertEquals("Incorrect year returned!", year, EpochMinutes.getCivilYear(civilDate));
+            Assert.assertEquals("Incorrect month returned!", month, EpochMinutes.getCivilMonth(civilDate));
+            Assert.assertEquals("Incorrect day returned!", day, EpochMinutes.getCivilDay(civilDate));
+
+            calendar.add(Calendar.MINUTE, 17 * 60 + 5);
+        }
+    }
+
+    /**
+     * Method to test that fields out of range roll over like a lenient calendar
+     */
+    @Test
+    public void testRollOver()
+    {
+        Assert.assertEquals("Incorrect value returned!", EpochMinutes.of(2017, 12, 1, 0), EpochMinutes.of(2018, 0, 1, 0));
+        Assert.assertEquals("Incorrect value returned!", EpochMinutes.of(2019, 1, 31, 0),
+                EpochMinutes.of(2018, 13, 31, 0));
+        Assert.assertEquals("Incorrect value returned!", EpochMinutes.of(2018, 3, 1, 0), EpochMinutes.of(2018, 2, 29, 0));
+        Assert.assertEquals("Incorrect value returned!", EpochMinutes.of(2018, 1, 2, 60),
+                EpochMinutes.of(2018, 1, 1, 1500));
+        Assert.assertEquals("Incorrect value returned!", 0, EpochMinutes.of(1970, 1, 1, 0));
+    }
+
+    /**
+     * Method to test the calendar view of a timestamp
+     */
+    @Test
+    public void testToCalendar()
+    {
+        GregorianCalendar calendar = EpochMinutes.toCalendar(EpochMinutes.of(2018, 1, 2, 1300));
+        Assert.assertEquals("Incorrect time zone returned!", TimeZone.getTimeZone("UTC"), calendar.getTimeZone());
+        Assert.assertEquals("Incorrect year returned!", 2018, calendar.get(Calendar.YEAR));
+        Assert.assertEquals("Incorrect month returned!", Calendar.JANUARY, calendar.get(Calendar.MONTH));
+        Assert.assertEquals("Incorrect day returned!", 2, calendar.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals("Incorrect hour returned!", 21, calendar.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals("Incorrect minute returned!", 40, calendar.get(Calendar.MINUTE));
+        Assert.assertNotSame("Calendar was shared!", calendar, EpochMinutes.toCalendar(0));
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Class that keeps the K most extreme StatMeasurements offered to it, such as
+ * the largest daily maximums (the hottest days) or the smallest daily minimums
+ * (the coldest days). The measurements are kept in a bounded heap whose root is
+ * the one ranked last, so an offer costs O(log K) and memory is O(K) however
+ * many days are offered. Equal values rank the earlier measurement first, and
+ * equal times the one offered first.
+ */
+public class ExtremeDays
+{
+    /** the largest number of measurements kept */
+    private int capacity;
+
+    /** true to keep the largest values, false for the smallest */
+    private boolean largest;
+
+    /** the kept measurements, the one ranked last at the root */
+    private PriorityQueue<Entry> heap;
+
+    /** the number of measurements offered */
+    private long offerCount;
+
+    /**
+     * Class holding a kept measurement and the order it was offered in
+     */
+    private static class Entry
+    {
+        /** the measurement */
+        private StatMeasurement measurement;
+
+        /** the number of measurements offered before it */
+        private long sequence;
+
+        /**
+         * Constructor for Entry
+         *
+         * @param inMeasurement
+         *            the measurement
+         * @param inSequence
+         *            the number of measurements offered before it
+         */
+        private Entry(StatMeasurement inMeasurement, long inSequence)
+        {
+            measurement = inMeasurement;
+            sequence = inSequence;
+        }
+    }
+
+    /**
+     * Constructor for ExtremeDays
+     *
+     * @param inCapacity
+     *            the largest number of measurements kept, at least one
+     * @param inLargest
+     *            true to keep the largest values, false for the smallest
+     */
+    public ExtremeDays(int inCapacity, boolean inLargest)
+    {
+        if (inCapacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + inCapacity);
+        }
+        capacity = inCapacity;
+        largest = inLargest;
+
+        // the root is the entry ranked last
+        heap = new PriorityQueue<Entry>(inCapacity + 1, new Comparator<Entry>()
+        {
+            @Override
+            public int compare(Entry first, Entry second)
+            {
+                return rank(second, first);
+            }
+        });
+    }
+
+    /**
+     * Method to offer a measurement. It is kept if fewer than capacity
+     * measurements are kept, or if it ranks before the last kept one, which is
+     * then dropped. Invalid measurements are ignored.
+     *
+     * @param measurement
+     *            the measurement
+     */
+    public void offer(StatMeasurement measurement)
+    {
+        if (measurement == null || !measurement.isValid())
+        {
+            return;
+        }
+
+        Entry entry = new Entry(measurement, offerCount++);
+        if (heap.size() < capacity)
+        {
+            heap.add(entry);
+        }
+        else if (rank(entry, heap.peek()) < 0)
+        {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    /**
+     * Method to drop a kept measurement of the same value, time and station as
+     * the given one, such as the maximum of a day that was read again. The
+     * measurement that would have been kept in its place is not known, so the
+     * caller has to offer every measurement again to fill the heap.
+     *
+     * @param measurement
+     *            the measurement
+     * @return boolean true if such a measurement was kept and is dropped
+     */
+    public boolean remove(StatMeasurement measurement)
+    {
+        if (measurement == null)
+        {
+            return false;
+        }
+        for (Entry entry : heap)
+        {
+            StatMeasurement kept = entry.measurement;
+            if (Double.compare(kept.getValue(), measurement.getValue()) == 0
+                    && kept.getEpochMinute() == measurement.getEpochMinute()
+                    && kept.getStationId().equals(measurement.getStationId()))
+            {
+                return heap.remove(entry);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to get the kept measurements
+     *
+     * @return List<StatMeasurement> the measurements, the most extreme first
+     */
+    public List<StatMeasurement> getDays()
+    {
+        return getDays(capacity);
+    }
+
+    /**
+     * Method to get the most extreme of the kept measurements
+     *
+     * @param count
+     *            the number of measurements wanted, at most the capacity
+     * @return List<StatMeasurement> the measurements, the most extreme first;
+     *         fewer if fewer were offered
+     */
+    public List<StatMeasurement> getDays(int count)
+    {
+        if (count < 0 || count > capacity)
+        {
+            throw new IllegalArgumentException("Only " + capacity + " days are kept, not " + count);
+        }
+
+        ArrayList<Entry> entries = new ArrayList<Entry>(heap);
+        Collections.sort(entries, this::rank);
+        ArrayList<StatMeasurement> days = new ArrayList<StatMeasurement>();
+        for (int index = 0; index < Math.min(count, entries.size()); ++index)
+        {
+            days.add(entries.get(index).measurement);
+        }
+        return days;
+    }
+
+    /**
+     * Method to get the largest number of measurements kept
+     *
+     * @return int the capacity
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Method to check whether the largest values are kept
+     *
+     * @return boolean true for the largest values, false for the smallest
+     */
+    public boolean isLargest()
+    {
+        return largest;
+    }
+
+    /**
+     * Method to get the number of measurements kept
+     *
+     * @return int the number of measurements, at most the capacity
+     */
+    public int size()
+    {
+        return heap.size();
+    }
+
+    /**
+     * Method to get the number of measurements offered
+     *
+     * @return long the number of valid measurements offered
+     */
+    public long getOfferCount()
+    {
+        return offerCount;
+    }
+
+    /**
+     * Private helper method that ranks two entries: by value, most extreme
+     * first, then by time, earliest first, then by the order they were offered
+     *
+     * @param first
+     *            the first entry
+     * @param second
+     *            the second entry
+     * @return int negative if the first ranks before the second, positive if
+     *         after
+     */
+    private int rank(Entry first, Entry second)
+    {
+        int compare = Double.compare(first.measurement.getValue(), second.measurement.getValue());
+        if (compare != 0)
+        {
+            return largest ? -compare : compare;
+        }
+        compare = Long.compare(first.measurement.getEpochMinute(), second.measurement.getEpochMinute());
+        return compare != 0 ? compare : Long.compare(first.sequence, second.sequence);
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExtremeDaysTest
+{
+    /**
+     * Private helper method for a day maximum
+     * 
+     * @param value
+     *            the value
+     * @param day
+     *            the day of January 2018
+     * @param stationId
+     *            the station ID
+     * @return StatMeasurement the measurement
+     */
+    private static StatMeasurement day(double value, int day, String stationId)
+    {
+        return new StatMeasurement(value, EpochMinutes.of(2018, 1, day, 720), stationId, "TAIR", StatType.MAX);
+    }
+
+    /**
+     * Test keeping the largest values
+     */
+    @Test
+    public void testLargest()
+    {
+        ExtremeDays days = new ExtremeDays(3, true);
+        double[] values = { 5, 9, 1, 7, 3, 8, 2 };
+        for (int index = 0; index < values.length; ++index)
+        {
+            days.offer(day(values[index], index + 1, "NRMN"));
+        }
+        days.offer(day(Double.NaN, 20, "NRMN"));
+        days.offer(day(-999, 21, "NRMN"));
+        days.offer(null);
+
+        List<StatMeasurement> top = days.getDays();
+        Assert.assertEquals("Incorrect value returned!", 3, days.size());
+        Assert.assertEquals("Incorrect value returned!", 7, days.getOfferCount());
+        Assert.assertEquals("Incorrect value returned!", 9, top.get(0).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 8, top.get(1).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 7, top.get(2).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 2, days.getDays(2).size());
+    }
+
+    /**
+     * Test keeping the smallest values, with fewer offered than kept
+     */
+    @Test
+    public void testSmallest()
+    {
+        ExtremeDays days = new ExtremeDays(5, false);
+        days.offer(day(4, 1, "NRMN"));
+        days.offer(day(-2, 2, "NRMN"));
+        days.offer(day(3, 3, "NRMN"));
+
+        List<StatMeasurement> bottom = days.getDays();
+        Assert.assertEquals("Incorrect value returned!", 3, bottom.size());
+        Assert.assertEquals("Incorrect value returned!", -2, bottom.get(0).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 4, bottom.get(2).getValue(), 0.0);
+        Assert.assertFalse("Incorrect value returned!", days.isLargest());
+    }
+
+    /**
+     * Test that equal values are ranked by time, then by offer
+     */
+    @Test
+    public void testTies()
+    {
+        ExtremeDays days = new ExtremeDays(2, true);
+        days.offer(day(6, 4, "NRMN"));
+        days.offer(day(6, 2, "OKCE"));
+        days.offer(day(6, 2, "STIL"));
+        days.offer(day(6, 1, "OKCN"));
+
+        List<StatMeasurement> top = days.getDays();
+        Assert.assertEquals("Incorrect String returned!", "TAIR MAX 6.0000 OKCN 2018-01-01T12:00:00 UTC",
+                top.get(0).toString());
+        Assert.assertEquals("Incorrect String returned!", "TAIR MAX 6.0000 OKCE 2018-01-02T12:00:00 UTC",
+                top.get(1).toString());
+    }
+
+    /**
+     * Test dropping a kept measurement
+     */
+    @Test
+    public void testRemove()
+    {
+        ExtremeDays days = new ExtremeDays(2, true);
+        days.offer(day(5, 1, "NRMN"));
+        days.offer(day(9, 2, "NRMN"));
+        days.offer(day(7, 3, "NRMN"));
+
+        Assert.assertFalse("Incorrect value returned!", days.remove(day(5, 1, "NRMN")));
+        Assert.assertFalse("Incorrect value returned!", days.remove(day(9, 2, "OKCE")));
+        Assert.assertTrue("Incorrect value returned!", days.remove(day(9, 2, "NRMN")));
+        Assert.assertEquals("Incorrect value returned!", 1, days.size());
+        Assert.assertEquals("Incorrect value returned!", 7, days.getDays().get(0).getValue(), 0.0);
+    }
+
+    /**
+     * Test asking for more days than are kept
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooMany()
+    {
+        new ExtremeDays(2, false).getDays(3);
+    }
+}
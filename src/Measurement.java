@@ -12,6 +12,17 @@ public class Measurement
     /** Indicates whether the observation is a valid one */
     protected boolean valid = false;
 
+    /** the shared Measurements of the missing codes -900 to -999 */
+    private static final Measurement[] MISSING = new Measurement[100];
+
+    static
+    {
+        for (int index = 0; index < MISSING.length; ++index)
+        {
+            MISSING[index] = new Measurement(-900 - index);
+        }
+    }
+
     /**
      * 
      */
@@ -32,7 +43,7 @@ public class Measurement
     public Measurement(double value)
     {
 
-        if (value > -900.0)
+        if (isValidValue(value))
         {
             this.value = value;
             valid = true;
@@ -44,6 +55,40 @@ public class Measurement
         }
     }
 
+    /**
+     * Returns a Measurement of a value. Invalid values with an integer missing
+     * code (e.g. -995, -996, -998, -999) share one Measurement per code, so bulk
+     * data with many missing values does not hold a copy for every one.
+     * 
+     * @param value
+     *            The value to be stored
+     * @return Measurement the measurement of the value
+     */
+    public static Measurement of(double value)
+    {
+        if (!isValidValue(value))
+        {
+            int code = (int) value;
+            if (code == value && code >= -999)
+            {
+                return MISSING[-900 - code];
+            }
+        }
+        return new Measurement(value);
+    }
+
+    /**
+     * Indicates whether a value is a valid observation
+     * 
+     * @param value
+     *            The value to check
+     * @return True if the value is larger than -900; false otherwise
+     */
+    public static boolean isValidValue(double value)
+    {
+        return value > -900.0;
+    }
+
     /**
      * Returns the observed value
      * 
@@ -112,4 +112,27 @@ public class MeasurementTest
 
         Assert.assertEquals("Incorrect string returned!", expected, actual);
     }
+
+    /**
+     * Test that Measurement.of shares the Measurements of missing codes
+     */
+    @Test
+    public void testOf()
+    {
+        Measurement missing = Measurement.of(-995);
+        Assert.assertSame("Missing code was not shared!", missing, Measurement.of(-995.0));
+        Assert.assertFalse("Incorrect validity returned!", missing.isValid());
+        Assert.assertEquals("Incorrect value returned!", -995, missing.getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", -999, Measurement.of(-999).getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", -900, Measurement.of(-900).getValue(), 0.0);
+
+        Measurement odd = Measurement.of(-950.5);
+        Assert.assertFalse("Incorrect validity returned!", odd.isValid());
+        Assert.assertEquals("Incorrect value returned!", -950.5, odd.getValue(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", -1234, Measurement.of(-1234).getValue(), 0.0);
+
+        Measurement good = Measurement.of(goodValue);
+        Assert.assertTrue("Incorrect validity returned!", good.isValid());
+        Assert.assertEquals("Incorrect value returned!", goodValue, good.getValue(), 0.0);
+    }
 }
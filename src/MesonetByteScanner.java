@@ -0,0 +1,356 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class that tokenizes white space separated Mesonet rows directly from a byte
+ * buffer. Provides methods to read the header lines as Strings and to parse the
+ * numeric fields of a data row without creating intermediate Strings.
+ */
+public class MesonetByteScanner
+{
+    /** the buffer holding the contents of the file */
+    private ByteBuffer buffer;
+
+    /** the current read position in the buffer */
+    private int position;
+
+    /** the end of the readable contents of the buffer */
+    private int limit;
+
+    /** the start offsets of the fields on the current row */
+    private int[] fieldStart = new int[32];
+
+    /** the end offsets (exclusive) of the fields on the current row */
+    private int[] fieldEnd = new int[32];
+
+    /** the number of fields found on the current row */
+    private int fieldCount;
+
+    /** powers of ten that are exactly representable as doubles */
+    private static final double[] POWERS_OF_TEN =
+    { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+            1e19, 1e20, 1e21, 1e22 };
+
+    /** the largest mantissa a double holds exactly */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Constructor for MesonetByteScanner
+     *
+     * @param inBuffer
+     *            the buffer to scan, read from its current position to its limit
+     */
+    public MesonetByteScanner(ByteBuffer inBuffer)
+    {
+        buffer = inBuffer;
+        position = inBuffer.position();
+        limit = inBuffer.limit();
+    }
+
+    /**
+     * Method to read the next line as a String. Used for the header lines.
+     *
+     * @return String the line without its terminator, or null at the end of the
+     *         buffer
+     */
+    public String readLine()
+    {
+        if (position >= limit)
+        {
+            return null;
+        }
+
+        int start = position;
+        int end = start;
+        while (end < limit && buffer.get(end) != '\n')
+        {
+            ++end;
+        }
+        position = end + 1;
+
+        // drop the carriage return of DOS line endings
+        if (end > start && buffer.get(end - 1) == '\r')
+        {
+            --end;
+        }
+
+        byte[] bytes = new byte[end - start];
+        for (int index = 0; index < bytes.length; ++index)
+        {
+            bytes[index] = buffer.get(start + index);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Method to tokenize the next non-blank row
+     *
+     * @return boolean true if a row was found, false at the end of the buffer
+     */
+    public boolean nextRow()
+    {
+        return nextRow(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Method to tokenize the next non-blank row, stopping after a given field.
+     * The rest of the line is skipped without looking for field boundaries.
+     *
+     * @param lastField
+     *            the index of the last field that is needed
+     * @return boolean true if a row was found, false at the end of the buffer
+     */
+    public boolean nextRow(int lastField)
+    {
+        while (position < limit)
+        {
+            fieldCount = 0;
+
+            // walk the line, recording where each field starts and ends
+            while (position < limit)
+            {
+                byte current = buffer.get(position);
+                if (current == '\n')
+                {
+                    ++position;
+                    break;
+                }
+                if (isWhiteSpace(current))
+                {
+                    ++position;
+                    continue;
+                }
+                if (fieldCount > lastField)
+                {
+                    skipLine();
+                    break;
+                }
+
+                int start = position;
+                while (position < limit && !isWhiteSpace(buffer.get(position)) && buffer.get(position) != '\n')
+                {
+                    ++position;
+                }
+                addField(start, position);
+            }
+
+            if (fieldCount > 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to get the number of fields on the current row
+     *
+     * @return int the number of fields
+     */
+    public int getFieldCount()
+    {
+        return fieldCount;
+    }
+
+    /**
+     * Method to get a field of the current row as a String
+     *
+     * @param field
+     *            the index of the field
+     * @return String the field contents
+     */
+    public String getString(int field)
+    {
+        checkField(field);
+        byte[] bytes = new byte[fieldEnd[field] - fieldStart[field]];
+        for (int index = 0; index < bytes.length; ++index)
+        {
+            bytes[index] = buffer.get(fieldStart[field] + index);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Method to check whether a field of the current row holds the given text
+     *
+     * @param field
+     *            the index of the field
+     * @param text
+     *            the text to compare against
+     * @return boolean true if the field matches the text exactly
+     */
+    public boolean fieldEquals(int field, String text)
+    {
+        checkField(field);
+        int length = fieldEnd[field] - fieldStart[field];
+        if (text == null || text.length() != length)
+        {
+            return false;
+        }
+        for (int index = 0; index < length; ++index)
+        {
+            if (buffer.get(fieldStart[field] + index) != text.charAt(index))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to parse a field of the current row as an int
+     *
+     * @param field
+     *            the index of the field
+     * @return int the parsed value
+     * @throws NumberFormatException
+     */
+    public int getInt(int field)
+    {
+        checkField(field);
+        int index = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+
+        byte first = buffer.get(index);
+        if (first == '-' || first == '+')
+        {
+            negative = first == '-';
+            ++index;
+        }
+        if (index == end || end - index > 9)
+        {
+            return Integer.parseInt(getString(field));
+        }
+
+        int value = 0;
+        for (; index < end; ++index)
+        {
+            int digit = buffer.get(index) - '0';
+            if (digit < 0 || digit > 9)
+            {
+                return Integer.parseInt(getString(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Method to parse a field of the current row as a double. Plain decimals
+     * such as -8.0 or 994.35 are converted by dividing the integer mantissa by an
+     * exact power of ten, which rounds exactly like Double.parseDouble. Anything
+     * else (exponents, very long mantissas) falls back to Double.parseDouble.
+     *
+     * @param field
+     *            the index of the field
+     * @return double the parsed value
+     * @throws NumberFormatException
+     */
+    public double getDouble(int field)
+    {
+        checkField(field);
+        int index = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+
+        byte first = buffer.get(index);
+        if (first == '-' || first == '+')
+        {
+            negative = first == '-';
+            ++index;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; index < end; ++index)
+        {
+            byte current = buffer.get(index);
+            if (current == '.' && fractionDigits < 0)
+            {
+                fractionDigits = 0;
+                continue;
+            }
+
+            int digit = current - '0';
+            if (digit < 0 || digit > 9 || digits >= 18)
+            {
+                return Double.parseDouble(getString(field));
+            }
+            mantissa = mantissa * 10 + digit;
+            ++digits;
+            if (fractionDigits >= 0)
+            {
+                ++fractionDigits;
+            }
+        }
+
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length)
+        {
+            return Double.parseDouble(getString(field));
+        }
+
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Private helper method to move past the end of the current line
+     */
+    private void skipLine()
+    {
+        while (position < limit && buffer.get(position) != '\n')
+        {
+            ++position;
+        }
+        ++position;
+    }
+
+    /**
+     * Private helper method to record a field of the current row
+     *
+     * @param start
+     *            the offset of the first byte of the field
+     * @param end
+     *            the offset after the last byte of the field
+     */
+    private void addField(int start, int end)
+    {
+        if (fieldCount == fieldStart.length)
+        {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        ++fieldCount;
+    }
+
+    /**
+     * Private helper method to check that a field exists on the current row
+     *
+     * @param field
+     *            the index of the field
+     */
+    private void checkField(int field)
+    {
+        if (field < 0 || field >= fieldCount)
+        {
+            throw new NumberFormatException("Row has no field " + field);
+        }
+    }
+
+    /**
+     * Private helper method to check for the white space that separates fields
+     *
+     * @param current
+     *            the byte to check
+     * @return boolean true for spaces, tabs and carriage returns
+     */
+    private static boolean isWhiteSpace(byte current)
+    {
+        return current == ' ' || current == '\t' || current == '\r';
+    }
+}
@@ -0,0 +1,79 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for MesonetByteScanner
+ */
+public class MesonetByteScannerTest
+{
+    /**
+     * Private helper method to build a scanner over a String
+     * 
+     * @param text
+     *            the text to scan
+     * @return MesonetByteScanner a scanner over the text
+     */
+    private MesonetByteScanner scannerFor(String text)
+    {
+        return new MesonetByteScanner(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /** Method to test that header lines are returned as Strings */
+    @Test
+    public void testReadLine()
+    {
+        MesonetByteScanner scanner = scannerFor("  101 ! (c)\r\n  21 2018 01 01\n");
+
+        Assert.assertEquals("Wrong first line!", "  101 ! (c)", scanner.readLine());
+        Assert.assertEquals("Wrong second line!", "  21 2018 01 01", scanner.readLine());
+        Assert.assertNull("Line past the end!", scanner.readLine());
+    }
+
+    /** Method to test that rows are split into fields and blank lines skipped */
+    @Test
+    public void testNextRow()
+    {
+        MesonetByteScanner scanner = scannerFor(" NRMN   121     0   -8.0\n\n   \n STIL 108 5 -995\n");
+
+        Assert.assertTrue(scanner.nextRow());
+        Assert.assertEquals("Wrong field count!", 4, scanner.getFieldCount());
+        Assert.assertEquals("Wrong station!", "NRMN", scanner.getString(0));
+        Assert.assertTrue(scanner.fieldEquals(0, "NRMN"));
+        Assert.assertFalse(scanner.fieldEquals(0, "NRM"));
+        Assert.assertEquals("Wrong number!", 121, scanner.getInt(1));
+        Assert.assertEquals("Wrong value!", -8.0, scanner.getDouble(3), 0.0);
+
+        Assert.assertTrue(scanner.nextRow());
+        Assert.assertEquals("Wrong station!", "STIL", scanner.getString(0));
+        Assert.assertEquals("Wrong value!", -995.0, scanner.getDouble(3), 0.0);
+
+        Assert.assertFalse(scanner.nextRow());
+    }
+
+    /** Method to test that decimals parse exactly like Double.parseDouble */
+    @Test
+    public void testGetDoubleMatchesParseDouble()
+    {
+        String[] values =
+        { "-8.0", "994.35", "0.00", "-0.0", "1.63", "447", "-995", "+3.5", "0.1", "123456.789012", "1e3",
+                "12345678901234567890.5" };
+        StringBuilder text = new StringBuilder();
+        for (String value : values)
+        {
+            text.append(' ').append(value);
+        }
+        MesonetByteScanner scanner = scannerFor(text.toString());
+        Assert.assertTrue(scanner.nextRow());
+
+        for (int index = 0; index < values.length; ++index)
+        {
+            double expected = Double.parseDouble(values[index]);
+            double actual = scanner.getDouble(index);
+            Assert.assertEquals("Wrong bits for " + values[index] + "!", Double.doubleToRawLongBits(expected),
+                    Double.doubleToRawLongBits(actual));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class that indexes an archive of Mesonet Time Files by station and date. The
+ * root directory is scanned once and only the file names are read, which follow
+ * the yyyyMMddstid.mts convention (e.g. 20180103okcn.mts). Queries for a set of
+ * stations over a range of dates are answered from sorted maps without opening
+ * any file.
+ */
+public class MesonetCatalog
+{
+    /** the pattern of an archive file name: the date and the station id */
+    private static final Pattern FILE_NAME = Pattern.compile("(\\d{8})([A-Za-z0-9]{4})\\.mts",
+            Pattern.CASE_INSENSITIVE);
+
+    /** the root directory of the archive */
+    private File root;
+
+    /** TreeMap from upper case station id to a TreeMap from yyyyMMdd date to path */
+    private TreeMap<String, TreeMap<Integer, String>> stations = new TreeMap<String, TreeMap<Integer, String>>();
+
+    /** the number of files indexed */
+    private int fileCount;
+
+    /**
+     * Constructor for MesonetCatalog that scans the root directory and its
+     * subdirectories
+     * 
+     * @param inRoot
+     *            the root directory of the archive (e.g. data/mesonet)
+     */
+    public MesonetCatalog(String inRoot)
+    {
+        root = new File(inRoot);
+        if (!root.isDirectory())
+        {
+            throw new IllegalArgumentException("Directory " + inRoot + " does not exist!!!");
+        }
+        scan(root);
+    }
+
+    /**
+     * Method to add a file to the catalog. Files whose names do not follow the
+     * archive convention are ignored.
+     * 
+     * @param path
+     *            the path of the file
+     * @return boolean true if the file was indexed
+     */
+    public synchronized boolean add(String path)
+    {
+        Matcher matcher = FILE_NAME.matcher(new File(path).getName());
+        if (!matcher.matches())
+        {
+            return false;
+        }
+
+        int date = Integer.parseInt(matcher.group(1));
+        String station = matcher.group(2).toUpperCase();
+        TreeMap<Integer, String> dates = stations.get(station);
+        if (dates == null)
+        {
+            dates = new TreeMap<Integer, String>();
+            stations.put(station, dates);
+        }
+        if (dates.put(date, path) == null)
+        {
+            ++fileCount;
+        }
+        return true;
+    }
+
+    /**
+     * Method to get the date of a file from its name
+     * 
+     * @param path
+     *            the path of the file
+     * @return int the date, as yyyyMMdd, or -1 if the name does not follow the
+     *         archive convention
+     */
+    public static int getDate(String path)
+    {
+        Matcher matcher = FILE_NAME.matcher(new File(path).getName());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Method to find the files of some stations between two dates
+     * 
+     * @param fromDate
+     *            the first date, as yyyyMMdd (e.g. 20180101)
+     * @param toDate
+     *            the last date, as yyyyMMdd, included
+     * @param stationIds
+     *            the station ids, in any case; none for every station
+     * @return ArrayList<String> the paths of the files, by date and then station
+     */
+    public synchronized ArrayList<String> query(int fromDate, int toDate, String... stationIds)
+    {
+        TreeMap<Integer, TreeMap<String, String>> byDate = new TreeMap<Integer, TreeMap<String, String>>();
+
+        for (String station : stationIds.length == 0 ? stations.keySet() : upperCase(stationIds))
+        {
+            TreeMap<Integer, String> dates = stations.get(station);
+            if (dates == null || fromDate > toDate)
+            {
+                continue;
+            }
+            for (Map.Entry<Integer, String> entry : dates.subMap(fromDate, true, toDate, true).entrySet())
+            {
+                TreeMap<String, String> day = byDate.get(entry.getKey());
+                if (day == null)
+                {
+                    day = new TreeMap<String, String>();
+                    byDate.put(entry.getKey(), day);
+                }
+                day.put(station, entry.getValue());
+            }
+        }
+
+        ArrayList<String> paths = new ArrayList<String>();
+        for (TreeMap<String, String> day : byDate.values())
+        {
+            paths.addAll(day.values());
+        }
+        return paths;
+    }
+
+    /**
+     * Method to build a query of some stations between two dates
+     * 
+     * @param fromDate
+     *            the first date, as yyyyMMdd (e.g. 20180101)
+     * @param toDate
+     *            the last date, as yyyyMMdd, included
+     * @param stationIds
+     *            the station ids, in any case; none for every station
+     * @return CatalogQuery the query
+     */
+    public CatalogQuery select(int fromDate, int toDate, String... stationIds)
+    {
+        return new CatalogQuery(this, fromDate, toDate, stationIds);
+    }
+
+    /**
+     * Method to get the stations of the catalog
+     * 
+     * @return TreeSet<String> the upper case station ids, sorted
+     */
+    public synchronized TreeSet<String> getStations()
+    {
+        return new TreeSet<String>(stations.keySet());
+    }
+
+    /**
+     * Method to get the number of files indexed
+     * 
+     * @return int the number of files
+     */
+    public synchronized int size()
+    {
+        return fileCount;
+    }
+
+    /**
+     * Method to get the root directory
+     * 
+     * @return File the root directory of the archive
+     */
+    public File getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * Private helper method that indexes the files of a directory tree
+     * 
+     * @param directory
+     *            the directory to scan
+     */
+    private void scan(File directory)
+    {
+        File[] children = directory.listFiles();
+        if (children == null)
+        {
+            return;
+        }
+        for (File child : children)
+        {
+            if (child.isDirectory())
+            {
+                scan(child);
+            }
+            else
+            {
+                add(child.getPath());
+            }
+        }
+    }
+
+    /**
+     * Private helper method to upper case station ids
+     * 
+     * @param stationIds
+     *            the station ids
+     * @return TreeSet<String> the upper case station ids
+     */
+    private static TreeSet<String> upperCase(String[] stationIds)
+    {
+        TreeSet<String> result = new TreeSet<String>();
+        for (String station : stationIds)
+        {
+            result.add(station.toUpperCase());
+        }
+        return result;
+    }
+
+    /**
+     * Class holding a query of a catalog: some stations between two dates
+     */
+    public static class CatalogQuery
+    {
+        /** the catalog to query */
+        private MesonetCatalog catalog;
+
+        /** the first date, as yyyyMMdd */
+        private int fromDate;
+
+        /** the last date, as yyyyMMdd */
+        private int toDate;
+
+        /** the station ids; none for every station */
+        private String[] stationIds;
+
+        /**
+         * Constructor for CatalogQuery
+         * 
+         * @param inCatalog
+         *            the catalog to query
+         * @param inFromDate
+         *            the first date, as yyyyMMdd
+         * @param inToDate
+         *            the last date, as yyyyMMdd, included
+         * @param inStationIds
+         *            the station ids, in any case; none for every station
+         */
+        public CatalogQuery(MesonetCatalog inCatalog, int inFromDate, int inToDate, String... inStationIds)
+        {
+            catalog = inCatalog;
+            fromDate = inFromDate;
+            toDate = inToDate;
+            stationIds = inStationIds.clone();
+        }
+
+        /**
+         * Method to get the files matching the query
+         * 
+         * @return ArrayList<String> the paths of the files, by date and then station
+         */
+        public ArrayList<String> getFiles()
+        {
+            return catalog.query(fromDate, toDate, stationIds);
+        }
+
+        /**
+         * toString method describing the query
+         * 
+         * @return String a descriptive string
+         */
+        @Override
+        public String toString()
+        {
+            ArrayList<String> stationList = new ArrayList<String>();
+            Collections.addAll(stationList, stationIds);
+            return String.format("%d-%d %s", fromDate, toDate, stationList.isEmpty() ? "ALL" : stationList);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MesonetCatalogTest
+{
+    /** the catalog of the test data */
+    MesonetCatalog catalog;
+
+    /**
+     * Method to initialize data
+     */
+    @Before
+    public void setUp()
+    {
+        catalog = new MesonetCatalog("data/mesonet");
+    }
+
+    /**
+     * Method to test the indexed stations and files
+     */
+    @Test
+    public void testScan()
+    {
+        Assert.assertEquals("Incorrect value returned!", 20, catalog.size());
+        Assert.assertEquals("Incorrect value returned!", Arrays.asList("NRMN", "OKCE", "OKCN", "STIL"),
+                new ArrayList<String>(catalog.getStations()));
+        Assert.assertFalse("Incorrect value returned!", catalog.add("data/mesonet/readme.txt"));
+    }
+
+    /**
+     * Method to test station and date range queries
+     */
+    @Test
+    public void testQuery()
+    {
+        ArrayList<String> files = catalog.query(20180102, 20180103, "okcn", "NRMN");
+        Assert.assertEquals("Incorrect value returned!", 4, files.size());
+        Assert.assertEquals("Incorrect value returned!", "20180102nrmn.mts", new File(files.get(0)).getName());
+        Assert.assertEquals("Incorrect value returned!", "20180102okcn.mts", new File(files.get(1)).getName());
+        Assert.assertEquals("Incorrect value returned!", "20180103nrmn.mts", new File(files.get(2)).getName());
+        Assert.assertEquals("Incorrect value returned!", "20180103okcn.mts", new File(files.get(3)).getName());
+
+        Assert.assertEquals("Incorrect value returned!", 8, catalog.query(20180101, 20180102).size());
+        Assert.assertEquals("Incorrect value returned!", 0, catalog.query(20180106, 20181231, "OKCN").size());
+        Assert.assertEquals("Incorrect value returned!", 0, catalog.query(20180101, 20180105, "ZZZZ").size());
+        Assert.assertEquals("Incorrect value returned!", 0, catalog.query(20180105, 20180101).size());
+    }
+
+    /**
+     * Method to test DaysStatistics built from a catalog query
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     */
+    @Test
+    public void testDaysStatistics() throws IOException, WrongCopyrightException, ParseException
+    {
+        MesonetCatalog.CatalogQuery query = catalog.select(20180101, 20180103, "OKCN", "OKCE", "STIL");
+        DaysStatistics fromQuery = new DaysStatistics(query);
+        fromQuery.findStatistics();
+
+        DaysStatistics fromPaths = new DaysStatistics(new String[] { "data/mesonet/20180101okce.mts",
+                "data/mesonet/20180101okcn.mts", "data/mesonet/20180101stil.mts", "data/mesonet/20180102okce.mts",
+                "data/mesonet/20180102okcn.mts", "data/mesonet/20180102stil.mts", "data/mesonet/20180103okce.mts",
+                "data/mesonet/20180103okcn.mts", "data/mesonet/20180103stil.mts" });
+        fromPaths.findStatistics();
+
+        Assert.assertEquals("Incorrect value returned!", fromPaths.toString(), fromQuery.toString());
+    }
+}
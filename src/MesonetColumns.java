@@ -0,0 +1,781 @@
+import java.util.Arrays;
+
+/**
+ * Class that holds the data of a Mesonet Time File in columns of primitives.
+ * Every parameter gets a double array, the rows share an int array of minute
+ * offsets from the start of the file's day, and a bitmap per parameter records
+ * which values are valid. Invalid values are stored as NaN, and their missing
+ * codes (e.g. -995, -996) are kept aside, as the rows that have one and the
+ * code of each as a short, so they take space by the invalid value rather than
+ * by the row. With ColumnStorage.QUANTIZED, parameters with a
+ * scale in ParameterScales are stored as scaled shorts (or ints when the
+ * values do not fit), a quarter of the size of doubles, and decoded exactly.
+ * Used instead of a list of TimeData objects when a lot of data has to stay in
+ * memory.
+ */
+public class MesonetColumns
+{
+    /** the number of rows reserved up front, one day of 5 minute rows */
+    private static final int INITIAL_CAPACITY = 288;
+
+    /** a String representing the station ID */
+    private String stationId;
+
+    /** the year of the file */
+    private int year;
+
+    /** the month of the file */
+    private int month;
+
+    /** the day of the file */
+    private int day;
+
+    /** the registry numbering the columns */
+    private ParameterRegistry registry;
+
+    /** the parameter ids, in the order of the columns */
+    private String[] paramIds;
+
+    /** a column stored as doubles */
+    private static final int STORED_DOUBLE = 0;
+
+    /** a column stored as scaled shorts */
+    private static final int STORED_SHORT = 1;
+
+    /** a column stored as scaled ints */
+    private static final int STORED_INT = 2;
+
+    /** the short code of an invalid value */
+    private static final short SHORT_MISSING = Short.MIN_VALUE;
+
+    /** the int code of an invalid value */
+    private static final int INT_MISSING = Integer.MIN_VALUE;
+
+    /** the code returned by encode for a value that cannot be held exactly */
+    private static final long NOT_EXACT = Long.MIN_VALUE;
+
+    /** the way the columns were asked to be stored */
+    private ColumnStorage storage;
+
+    /** the way every column is stored: STORED_DOUBLE, STORED_SHORT or STORED_INT */
+    private int[] storedAs;
+
+    /** the scale of every column stored as integers */
+    private double[] scales;
+
+    /** the values of every column stored as doubles, null for other columns */
+    private double[][] values;
+
+    /** the codes of every column stored as shorts, null for other columns */
+    private short[][] shortCodes;
+
+    /** the codes of every column stored as ints, null for other columns */
+    private int[][] intCodes;
+
+    /** one validity bitmap per parameter, a set bit marks a valid value */
+    private long[][] validity;
+
+    /** the missing codes of every parameter, null until it has an invalid value */
+    private MissingCodes[] missingCodes;
+
+    /** the minute offset of every row */
+    private int[] minutes;
+
+    /** the number of rows held */
+    private int rowCount;
+
+    /**
+     * Class holding the missing codes of one parameter: the rows with an invalid
+     * value, in row order, and the code of each. Codes that are whole numbers in
+     * the range of a short, like every Mesonet code, are kept as shorts; any
+     * other code is kept exactly in a double array only allocated for it.
+     */
+    private static class MissingCodes
+    {
+        /** the short marking a code kept in exactCodes */
+        private static final short EXACT = Short.MIN_VALUE;
+
+        /** the rows with an invalid value, in row order */
+        private int[] rows = new int[8];
+
+        /** the code of every row, or EXACT */
+        private short[] codes = new short[8];
+
+        /** the codes that are not shorts, null until there is one */
+        private double[] exactCodes;
+
+        /** the number of rows held */
+        private int count;
+
+        /**
+         * Method to add the code of a row after the rows held
+         *
+         * @param row
+         *            the row index
+         * @param code
+         *            the missing code
+         */
+        private void add(int row, double code)
+        {
+            if (count == rows.length)
+            {
+                rows = Arrays.copyOf(rows, count * 2);
+                codes = Arrays.copyOf(codes, count * 2);
+            }
+
+            short shortCode = (short) code;
+            if (shortCode == code && shortCode != EXACT)
+            {
+                codes[count] = shortCode;
+            }
+            else
+            {
+                if (exactCodes == null || exactCodes.length < rows.length)
+                {
+                    exactCodes = exactCodes == null ? new double[rows.length] : Arrays.copyOf(exactCodes, rows.length);
+                }
+                codes[count] = EXACT;
+                exactCodes[count] = code;
+            }
+            rows[count++] = row;
+        }
+
+        /**
+         * Method to get the code of a row
+         *
+         * @param row
+         *            the row index, of a row with an invalid value
+         * @return double the missing code
+         */
+        private double get(int row)
+        {
+            return getCode(Arrays.binarySearch(rows, 0, count, row));
+        }
+
+        /**
+         * Method to copy the codes into the rows of a column
+         *
+         * @param into
+         *            the column of every row
+         */
+        private void copyInto(double[] into)
+        {
+            for (int index = 0; index < count; ++index)
+            {
+                into[rows[index]] = getCode(index);
+            }
+        }
+
+        /**
+         * Private helper method for the code of a held row
+         *
+         * @param index
+         *            the position of the row among the rows held
+         * @return double the missing code
+         */
+        private double getCode(int index)
+        {
+            return codes[index] == EXACT ? exactCodes[index] : codes[index];
+        }
+    }
+
+    /**
+     * Constructor for MesonetColumns
+     *
+     * @param inStationId
+     *            the station ID
+     * @param inYear
+     *            the year of the file
+     * @param inMonth
+     *            the month of the file
+     * @param inDay
+     *            the day of the file
+     * @param inRegistry
+     *            the registry numbering the columns
+     */
+    public MesonetColumns(String inStationId, int inYear, int inMonth, int inDay, ParameterRegistry inRegistry)
+    {
+        this(inStationId, inYear, inMonth, inDay, inRegistry, ColumnStorage.DOUBLE);
+    }
+
+    /**
+     * Constructor for MesonetColumns with a choice of storage
+     *
+     * @param inStationId
+     *            the station ID
+     * @param inYear
+     *            the year of the file
+     * @param inMonth
+     *            the month of the file
+     * @param inDay
+     *            the day of the file
+     * @param inRegistry
+     *            the registry numbering the columns
+     * @param inStorage
+     *            the way to store the values
+     */
+    public MesonetColumns(String inStationId, int inYear, int inMonth, int inDay, ParameterRegistry inRegistry,
+            ColumnStorage inStorage)
+    {
+        stationId = inStationId;
+        year = inYear;
+        month = inMonth;
+        day = inDay;
+        registry = inRegistry;
+        paramIds = inRegistry.getParamIds();
+        storage = inStorage;
+
+        storedAs = new int[paramIds.length];
+        scales = new double[paramIds.length];
+        values = new double[paramIds.length][];
+        shortCodes = new short[paramIds.length][];
+        intCodes = new int[paramIds.length][];
+        for (int param = 0; param < paramIds.length; ++param)
+        {
+            int scale = ParameterScales.getScale(paramIds[param]);
+            if (storage == ColumnStorage.QUANTIZED && scale > 0)
+            {
+                storedAs[param] = STORED_SHORT;
+                scales[param] = scale;
+                shortCodes[param] = new short[INITIAL_CAPACITY];
+            }
+            else
+            {
+                values[param] = new double[INITIAL_CAPACITY];
+            }
+        }
+
+        validity = new long[paramIds.length][bitmapLength(INITIAL_CAPACITY)];
+        missingCodes = new MissingCodes[paramIds.length];
+        minutes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Method to add a row
+     *
+     * @param minute
+     *            the minute offset of the row
+     * @param rowValues
+     *            the values of the row, in the order of the parameter ids
+     */
+    public void addRow(int minute, double[] rowValues)
+    {
+        if (rowCount == minutes.length)
+        {
+            grow();
+        }
+
+        minutes[rowCount] = minute;
+        for (int param = 0; param < paramIds.length; ++param)
+        {
+            if (Measurement.isValidValue(rowValues[param]))
+            {
+                store(param, rowValues[param]);
+                validity[param][rowCount >>> 6] |= 1L << rowCount;
+            }
+            else
+            {
+                store(param, Double.NaN);
+                if (missingCodes[param] == null)
+                {
+                    missingCodes[param] = new MissingCodes();
+                }
+                missingCodes[param].add(rowCount, rowValues[param]);
+            }
+        }
+        ++rowCount;
+    }
+
+    /**
+     * Method to set the station ID
+     *
+     * @param inStationId
+     *            the station ID
+     */
+    public void setStationID(String inStationId)
+    {
+        stationId = inStationId;
+    }
+
+    /**
+     * Method to get the station ID
+     *
+     * @return String a string representing the station ID
+     */
+    public String getStationID()
+    {
+        return stationId;
+    }
+
+    /**
+     * Method to get the year of the file
+     *
+     * @return int the year
+     */
+    public int getYear()
+    {
+        return year;
+    }
+
+    /**
+     * Method to get the month of the file
+     *
+     * @return int the month
+     */
+    public int getMonth()
+    {
+        return month;
+    }
+
+    /**
+     * Method to get the day of the file
+     *
+     * @return int the day of month
+     */
+    public int getDay()
+    {
+        return day;
+    }
+
+    /**
+     * Method to get the number of rows
+     *
+     * @return int the number of rows
+     */
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Method to get the parameter ids
+     *
+     * @return String[] the parameter ids, in column order
+     */
+    public String[] getParamIds()
+    {
+        return paramIds.clone();
+    }
+
+    /**
+     * Method to find the column of a parameter
+     *
+     * @param param
+     *            the parameter id, in any case
+     * @return int the column index, or -1 if the parameter is not held
+     */
+    public int indexOf(String param)
+    {
+        return registry.indexOf(param);
+    }
+
+    /**
+     * Method to get the registry numbering the columns
+     *
+     * @return ParameterRegistry the registry
+     */
+    public ParameterRegistry getRegistry()
+    {
+        return registry;
+    }
+
+    /**
+     * Method to get the values of a column by index. For a column stored as
+     * doubles the array is the backing storage and only the first getRowCount()
+     * entries are rows; a column stored as integers is decoded into a new array
+     * of getRowCount() entries. Invalid values are NaN.
+     *
+     * @param column
+     *            the column index
+     * @return double[] the values of the column
+     */
+    public double[] getColumn(int column)
+    {
+        if (storedAs[column] == STORED_DOUBLE)
+        {
+            return values[column];
+        }
+
+        double[] decoded = new double[rowCount];
+        for (int row = 0; row < rowCount; ++row)
+        {
+            decoded[row] = decode(column, row);
+        }
+        return decoded;
+    }
+
+    /**
+     * Method to get the values of a parameter, as getColumn(int) does. Invalid
+     * values are NaN.
+     *
+     * @param param
+     *            the parameter id
+     * @return double[] the values of the parameter
+     * @throws IllegalArgumentException
+     *             if the parameter is not held
+     */
+    public double[] getColumn(String param)
+    {
+        return getColumn(columnOf(param));
+    }
+
+    /**
+     * Method to get the validity bitmap of a column by index. Bit (row % 64) of
+     * word (row / 64) is set when the value of that row is valid.
+     *
+     * @param column
+     *            the column index
+     * @return long[] the validity bitmap of the column
+     */
+    public long[] getValidity(int column)
+    {
+        return validity[column];
+    }
+
+    /**
+     * Method to get the validity bitmap of a parameter. Bit (row % 64) of word
+     * (row / 64) is set when the value of that row is valid.
+     *
+     * @param param
+     *            the parameter id
+     * @return long[] the validity bitmap of the parameter
+     * @throws IllegalArgumentException
+     *             if the parameter is not held
+     */
+    public long[] getValidity(String param)
+    {
+        return validity[columnOf(param)];
+    }
+
+    /**
+     * Method to get the minute offsets of the rows. The array is the backing
+     * storage; only the first getRowCount() entries are rows.
+     *
+     * @return int[] the minute offsets
+     */
+    public int[] getMinutes()
+    {
+        return minutes;
+    }
+
+    /**
+     * Method to get a single value as it was read, with the missing code of an
+     * invalid value
+     *
+     * @param column
+     *            the column index
+     * @param row
+     *            the row index
+     * @return double the value
+     */
+    public double getValue(int column, int row)
+    {
+        return isValid(column, row) ? decode(column, row) : missingCodes[column].get(row);
+    }
+
+    /**
+     * Method to get a single value as a Measurement
+     *
+     * @param column
+     *            the column index
+     * @param row
+     *            the row index
+     * @return Measurement the measurement, shared for missing codes
+     */
+    public Measurement getMeasurement(int column, int row)
+    {
+        return Measurement.of(getValue(column, row));
+    }
+
+    /**
+     * Method to copy the values of a column as they were read, with the missing
+     * codes of invalid values
+     *
+     * @param column
+     *            the column index
+     * @param into
+     *            the array to copy into, at least getRowCount() long
+     * @return double[] the array copied into
+     */
+    public double[] copyRawColumn(int column, double[] into)
+    {
+        if (storedAs[column] == STORED_DOUBLE)
+        {
+            System.arraycopy(values[column], 0, into, 0, rowCount);
+        }
+        else
+        {
+            for (int row = 0; row < rowCount; ++row)
+            {
+                into[row] = decode(column, row);
+            }
+        }
+
+        if (missingCodes[column] != null)
+        {
+            missingCodes[column].copyInto(into);
+        }
+        return into;
+    }
+
+    /**
+     * Method to check whether a single value is valid
+     *
+     * @param column
+     *            the column index
+     * @param row
+     *            the row index
+     * @return boolean true if the value is valid
+     */
+    public boolean isValid(int column, int row)
+    {
+        return (validity[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Method to count the valid values of a column
+     *
+     * @param column
+     *            the column index
+     * @return int the number of valid values
+     */
+    public int countValid(int column)
+    {
+        int count = 0;
+        for (long word : validity[column])
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Method to get the way the columns were asked to be stored
+     *
+     * @return ColumnStorage the storage
+     */
+    public ColumnStorage getStorage()
+    {
+        return storage;
+    }
+
+    /**
+     * Method to check whether a column is stored as scaled integers
+     *
+     * @param column
+     *            the column index
+     * @return boolean true for shorts or ints, false for doubles
+     */
+    public boolean isQuantized(int column)
+    {
+        return storedAs[column] != STORED_DOUBLE;
+    }
+
+    /**
+     * Method to get the number of bytes the values of the columns take, leaving
+     * out the validity bitmaps and missing codes
+     *
+     * @return long the number of bytes of the value arrays
+     */
+    public long getValueBytes()
+    {
+        long bytes = 0;
+        for (int param = 0; param < paramIds.length; ++param)
+        {
+            if (storedAs[param] == STORED_SHORT)
+            {
+                bytes += 2L * shortCodes[param].length;
+            }
+            else if (storedAs[param] == STORED_INT)
+            {
+                bytes += 4L * intCodes[param].length;
+            }
+            else
+            {
+                bytes += 8L * values[param].length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Private helper method that stores the value of a column on the row being
+     * added, widening the column when the value does not fit its codes
+     *
+     * @param column
+     *            the column index
+     * @param value
+     *            the value, NaN for an invalid value
+     */
+    private void store(int column, double value)
+    {
+        long code = 0;
+        if (storedAs[column] != STORED_DOUBLE && !Double.isNaN(value))
+        {
+            code = encode(column, value);
+            if (code == NOT_EXACT)
+            {
+                toDoubles(column);
+            }
+            else if (storedAs[column] == STORED_SHORT && (code <= SHORT_MISSING || code > Short.MAX_VALUE))
+            {
+                toInts(column);
+            }
+            if (storedAs[column] == STORED_INT && (code <= INT_MISSING || code > Integer.MAX_VALUE))
+            {
+                toDoubles(column);
+            }
+        }
+
+        boolean missing = Double.isNaN(value);
+        switch (storedAs[column])
+        {
+        case STORED_SHORT:
+            shortCodes[column][rowCount] = missing ? SHORT_MISSING : (short) code;
+            break;
+        case STORED_INT:
+            intCodes[column][rowCount] = missing ? INT_MISSING : (int) code;
+            break;
+        default:
+            values[column][rowCount] = value;
+        }
+    }
+
+    /**
+     * Private helper method that scales a value to an integer code
+     *
+     * @param column
+     *            the column index
+     * @param value
+     *            the valid value
+     * @return long the code, or NOT_EXACT if decoding the code would not give
+     *         back exactly the value
+     */
+    private long encode(int column, double value)
+    {
+        double scaled = value * scales[column];
+        if (Math.abs(scaled) > Long.MAX_VALUE / 2)
+        {
+            return NOT_EXACT;
+        }
+
+        long code = Math.round(scaled);
+        return Double.doubleToLongBits(code / scales[column]) == Double.doubleToLongBits(value) ? code : NOT_EXACT;
+    }
+
+    /**
+     * Private helper method that decodes the value of a row
+     *
+     * @param column
+     *            the column index
+     * @param row
+     *            the row index
+     * @return double the value, NaN for an invalid value
+     */
+    private double decode(int column, int row)
+    {
+        switch (storedAs[column])
+        {
+        case STORED_SHORT:
+            short shortCode = shortCodes[column][row];
+            return shortCode == SHORT_MISSING ? Double.NaN : shortCode / scales[column];
+        case STORED_INT:
+            int intCode = intCodes[column][row];
+            return intCode == INT_MISSING ? Double.NaN : intCode / scales[column];
+        default:
+            return values[column][row];
+        }
+    }
+
+    /**
+     * Private helper method that moves a column from shorts to ints
+     *
+     * @param column
+     *            the column index
+     */
+    private void toInts(int column)
+    {
+        int[] codes = new int[minutes.length];
+        for (int row = 0; row < rowCount; ++row)
+        {
+            short code = shortCodes[column][row];
+            codes[row] = code == SHORT_MISSING ? INT_MISSING : code;
+        }
+        intCodes[column] = codes;
+        shortCodes[column] = null;
+        storedAs[column] = STORED_INT;
+    }
+
+    /**
+     * Private helper method that moves a column from integers to doubles
+     *
+     * @param column
+     *            the column index
+     */
+    private void toDoubles(int column)
+    {
+        double[] decoded = new double[minutes.length];
+        for (int row = 0; row < rowCount; ++row)
+        {
+            decoded[row] = decode(column, row);
+        }
+        values[column] = decoded;
+        shortCodes[column] = null;
+        intCodes[column] = null;
+        storedAs[column] = STORED_DOUBLE;
+    }
+
+    /**
+     * Private helper method to find a column, throwing if it is not held
+     *
+     * @param param
+     *            the parameter id
+     * @return int the column index
+     */
+    private int columnOf(String param)
+    {
+        int column = indexOf(param);
+        if (column < 0)
+        {
+            throw new IllegalArgumentException("Parameter " + param + " is not held");
+        }
+        return column;
+    }
+
+    /**
+     * Private helper method to double the row capacity
+     */
+    private void grow()
+    {
+        int capacity = minutes.length * 2;
+        minutes = Arrays.copyOf(minutes, capacity);
+        for (int param = 0; param < paramIds.length; ++param)
+        {
+            if (storedAs[param] == STORED_SHORT)
+            {
+                shortCodes[param] = Arrays.copyOf(shortCodes[param], capacity);
+            }
+            else if (storedAs[param] == STORED_INT)
+            {
+                intCodes[param] = Arrays.copyOf(intCodes[param], capacity);
+            }
+            else
+            {
+                values[param] = Arrays.copyOf(values[param], capacity);
+            }
+            validity[param] = Arrays.copyOf(validity[param], bitmapLength(capacity));
+        }
+    }
+
+    /**
+     * Private helper method for the number of words a bitmap needs
+     *
+     * @param capacity
+     *            the number of rows
+     * @return int the number of longs
+     */
+    private static int bitmapLength(int capacity)
+    {
+        return (capacity + 63) >>> 6;
+    }
+}
@@ -0,0 +1,334 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that watches a directory of Mesonet Time Files (e.g. data/mesonet) and
+ * keeps a DaysStatistics object up to date. New and modified .mts files are
+ * refreshed on a pool of worker threads once they have been quiet for the
+ * debounce delay, so a burst of writes to one file is parsed once, and deleted
+ * ones are removed. Only the changed files are recomputed.
+ */
+public class MesonetDirectoryWatcher implements Closeable
+{
+    /** the default time a file must be quiet before it is parsed, in milliseconds */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    /** the directory watched */
+    private File directory;
+
+    /** the statistics kept up to date */
+    private DaysStatistics stats;
+
+    /** the time a file must be quiet before it is parsed, in nanoseconds */
+    private long debounceNanos;
+
+    /** the watch service of the directory */
+    private WatchService watchService;
+
+    /** the threads parsing the changed files */
+    private ExecutorService workers;
+
+    /** the thread collecting the events */
+    private Thread eventThread;
+
+    /** HashMap from changed file name to the time of its last event, in nanoseconds */
+    private HashMap<String, Long> pending = new HashMap<String, Long>();
+
+    /** the file names being parsed by a worker */
+    private Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** the number of files refreshed */
+    private AtomicInteger refreshCount = new AtomicInteger();
+
+    /** the number of refreshes that failed */
+    private AtomicInteger failureCount = new AtomicInteger();
+
+    /** the listener told of the refreshes that failed, or null */
+    private volatile RefreshFailureListener failureListener;
+
+    /** whether the watcher was closed */
+    private volatile boolean closed;
+
+    /**
+     * Constructor for MesonetDirectoryWatcher with the default debounce delay and
+     * a worker per processor
+     *
+     * @param inDirectory
+     *            the directory to watch
+     * @param inStats
+     *            the statistics to keep up to date
+     */
+    public MesonetDirectoryWatcher(String inDirectory, DaysStatistics inStats)
+    {
+        this(inDirectory, inStats, DEFAULT_DEBOUNCE_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for MesonetDirectoryWatcher
+     *
+     * @param inDirectory
+     *            the directory to watch
+     * @param inStats
+     *            the statistics to keep up to date
+     * @param debounceMillis
+     *            the time a file must be quiet before it is parsed, in
+     *            milliseconds
+     * @param workerCount
+     *            the number of files parsed at the same time
+     */
+    public MesonetDirectoryWatcher(String inDirectory, DaysStatistics inStats, long debounceMillis,
+            int workerCount)
+    {
+        directory = new File(inDirectory);
+        if (!directory.isDirectory())
+        {
+            throw new IllegalArgumentException("Directory " + inDirectory + " does not exist!!!");
+        }
+        if (debounceMillis < 0 || workerCount < 1)
+        {
+            throw new IllegalArgumentException("Invalid debounce delay or worker count");
+        }
+
+        stats = inStats;
+        debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    /**
+     * Method to start watching the directory
+     *
+     * @throws IOException
+     */
+    public synchronized void start() throws IOException
+    {
+        if (eventThread != null)
+        {
+            throw new IllegalStateException("Watcher already started");
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        eventThread = new Thread(this::watch, "mesonet-watcher");
+        eventThread.setDaemon(true);
+        eventThread.start();
+    }
+
+    /**
+     * Method to stop watching and wait for the files being parsed
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        if (watchService != null)
+        {
+            watchService.close();
+        }
+        workers.shutdown();
+        try
+        {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method to get the number of files refreshed
+     *
+     * @return int the number of successful refreshes and removals
+     */
+    public int getRefreshCount()
+    {
+        return refreshCount.get();
+    }
+
+    /**
+     * Method to get the number of refreshes that failed
+     *
+     * @return int the number of failed refreshes
+     */
+    public int getFailureCount()
+    {
+        return failureCount.get();
+    }
+
+    /**
+     * Method to set the listener told of the refreshes that fail
+     *
+     * @param listener
+     *            the listener, or null to only count the failures
+     */
+    public void setFailureListener(RefreshFailureListener listener)
+    {
+        failureListener = listener;
+    }
+
+    /**
+     * Private helper method run by the event thread: collects the events and
+     * hands the files that have been quiet long enough to the workers
+     */
+    private void watch()
+    {
+        try
+        {
+            while (!closed)
+            {
+                WatchKey key = watchService.poll(Math.max(1, debounceNanos / 2), TimeUnit.NANOSECONDS);
+                long now = System.nanoTime();
+                if (key != null)
+                {
+                    collectEvents(key, now);
+                }
+                dispatchQuietFiles(now);
+            }
+        }
+        catch (ClosedWatchServiceException e)
+        {
+            // closed while waiting for events
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Private helper method that records the .mts files named by the events of a
+     * key
+     *
+     * @param key
+     *            the signalled key
+     * @param now
+     *            the time of the events, in nanoseconds
+     */
+    private void collectEvents(WatchKey key, long now)
+    {
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+            {
+                // events were lost, so look at every file again, deleted ones too
+                File[] children = directory.listFiles();
+                for (File child : children == null ? new File[0] : children)
+                {
+                    markChanged(child.getName(), now);
+                }
+                for (String fileName : stats.getFiles())
+                {
+                    File known = new File(fileName);
+                    if (directory.equals(known.getParentFile()))
+                    {
+                        markChanged(known.getName(), now);
+                    }
+                }
+                continue;
+            }
+            markChanged(((Path) event.context()).getFileName().toString(), now);
+        }
+        key.reset();
+    }
+
+    /**
+     * Private helper method that records a changed file if it is a Mesonet Time
+     * File
+     *
+     * @param name
+     *            the name of the file in the directory
+     * @param now
+     *            the time of the change, in nanoseconds
+     */
+    private void markChanged(String name, long now)
+    {
+        if (name.toLowerCase().endsWith(".mts"))
+        {
+            pending.put(new File(directory, name).getPath(), now);
+        }
+    }
+
+    /**
+     * Private helper method that hands the files without events during the
+     * debounce delay to the workers. A file already being parsed waits for the
+     * next round, so one file is never parsed by two workers.
+     *
+     * @param now
+     *            the current time, in nanoseconds
+     */
+    private void dispatchQuietFiles(long now)
+    {
+        Iterator<Map.Entry<String, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext())
+        {
+            Map.Entry<String, Long> entry = entries.next();
+            String fileName = entry.getKey();
+            if (now - entry.getValue() < debounceNanos || !inFlight.add(fileName))
+            {
+                continue;
+            }
+
+            entries.remove();
+            workers.execute(() -> refresh(fileName));
+        }
+    }
+
+    /**
+     * Private helper method run by a worker to refresh one file. The file is
+     * looked at when it is quiet, so a file deleted and written again is
+     * refreshed, and one that is gone is removed. A failure is counted and
+     * handed to the failure listener.
+     *
+     * @param fileName
+     *            the file that was created, changed or deleted
+     */
+    private void refresh(String fileName)
+    {
+        try
+        {
+            if (new File(fileName).isFile())
+            {
+                stats.refresh(fileName);
+            }
+            else
+            {
+                stats.remove(fileName);
+            }
+            refreshCount.incrementAndGet();
+        }
+        catch (IOException | WrongCopyrightException | RuntimeException e)
+        {
+            failureCount.incrementAndGet();
+            RefreshFailureListener listener = failureListener;
+            if (listener != null)
+            {
+                listener.refreshFailed(fileName, e);
+            }
+        }
+        finally
+        {
+            inFlight.remove(fileName);
+        }
+    }
+}
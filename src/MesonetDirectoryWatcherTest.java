@@ -0,0 +1,172 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for MesonetDirectoryWatcher
+ */
+public class MesonetDirectoryWatcherTest
+{
+    /**
+     * Method to test that files copied into a watched directory are ingested
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws InterruptedException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testIngestNewFiles() throws IOException, WrongCopyrightException, ParseException,
+            InterruptedException, WrongParameterIdException
+    {
+        File directory = Files.createTempDirectory("mesonet").toFile();
+        directory.deleteOnExit();
+
+        DaysStatistics watched = new DaysStatistics(new String[0]);
+        watched.findStatistics();
+
+        try (MesonetDirectoryWatcher watcher = new MesonetDirectoryWatcher(directory.getPath(), watched, 100, 2))
+        {
+            watcher.start();
+            for (String name : new String[] { "20180101okcn.mts", "20180102okcn.mts", "readme.txt" })
+            {
+                File copy = new File(directory, name);
+                copy.deleteOnExit();
+                Files.copy(new File("data/mesonet/" + (name.endsWith(".mts") ? name : "20180103okcn.mts")).toPath(),
+                        copy.toPath());
+            }
+
+            // wait for the debounce delay and the parsing
+            for (int wait = 0; wait < 200 && watcher.getRefreshCount() < 2; ++wait)
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("Incorrect value returned!", 2, watcher.getRefreshCount());
+            Assert.assertEquals("Incorrect value returned!", 0, watcher.getFailureCount());
+        }
+
+        DaysStatistics expected = new DaysStatistics(
+                new String[] { "data/mesonet/20180101okcn.mts", "data/mesonet/20180102okcn.mts" });
+        expected.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", 2, watched.getFiles().size());
+        Assert.assertEquals("Incorrect value returned!", expected.getMaximumDay("TAIR").getValue(),
+                watched.getMaximumDay("TAIR").getValue(), 0.0001);
+        Assert.assertEquals("Incorrect value returned!", expected.getMinimumDay("TAIR").getValue(),
+                watched.getMinimumDay("TAIR").getValue(), 0.0001);
+        Assert.assertEquals("Incorrect date returned!", expected.getMinimumDay("TAIR").getDateTimeOfMeasurment(),
+                watched.getMinimumDay("TAIR").getDateTimeOfMeasurment());
+    }
+
+    /**
+     * Method to test that a file replaced in a watched directory is read again
+     * and a deleted file is dropped
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws InterruptedException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testReplaceAndDeleteFiles() throws IOException, WrongCopyrightException, ParseException,
+            InterruptedException, WrongParameterIdException
+    {
+        File directory = Files.createTempDirectory("mesonet").toFile();
+        directory.deleteOnExit();
+        File first = new File(directory, "20180101okcn.mts");
+        File second = new File(directory, "20180102okcn.mts");
+        first.deleteOnExit();
+        second.deleteOnExit();
+        Files.copy(new File("data/mesonet/20180101okcn.mts").toPath(), first.toPath());
+        Files.copy(new File("data/mesonet/20180102okcn.mts").toPath(), second.toPath());
+
+        DaysStatistics watched = new DaysStatistics(new String[] { first.getPath(), second.getPath() });
+        watched.findStatistics();
+        watched.refresh(first.getPath());
+
+        try (MesonetDirectoryWatcher watcher = new MesonetDirectoryWatcher(directory.getPath(), watched, 100, 2))
+        {
+            watcher.start();
+
+            // the first day is overwritten in place by another station's day
+            Files.copy(new File("data/mesonet/20180101okce.mts").toPath(), first.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            for (int wait = 0; wait < 200 && watcher.getRefreshCount() < 1; ++wait)
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("Incorrect value returned!", 1, watcher.getRefreshCount());
+
+            Assert.assertTrue("Incorrect value returned!", second.delete());
+            for (int wait = 0; wait < 200 && watcher.getRefreshCount() < 2; ++wait)
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("Incorrect value returned!", 2, watcher.getRefreshCount());
+            Assert.assertEquals("Incorrect value returned!", 0, watcher.getFailureCount());
+        }
+
+        DaysStatistics expected = new DaysStatistics(new String[] { "data/mesonet/20180101okce.mts" });
+        expected.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", 1, watched.getFiles().size());
+        Assert.assertEquals("Incorrect value returned!", expected.getMaximumDay("TAIR").getValue(),
+                watched.getMaximumDay("TAIR").getValue(), 0.0001);
+        Assert.assertEquals("Incorrect value returned!", expected.getMinimumDay("TAIR").getValue(),
+                watched.getMinimumDay("TAIR").getValue(), 0.0001);
+        Assert.assertEquals("Incorrect value returned!", expected.getAggregate("TAIR").getCount(),
+                watched.getAggregate("TAIR").getCount());
+        Assert.assertEquals("Incorrect value returned!", 1, watched.getTopDays("TAIR", 10).size());
+        Assert.assertTrue("Incorrect value returned!",
+                watched.getRollupCube().getBuckets("OKCN", "TAIR", RollupPeriod.DAY).isEmpty());
+    }
+
+    /**
+     * Method to test that a file that cannot be read is counted and handed to the
+     * failure listener
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testFailureListener() throws IOException, WrongCopyrightException, ParseException,
+            InterruptedException
+    {
+        File directory = Files.createTempDirectory("mesonet").toFile();
+        directory.deleteOnExit();
+        File broken = new File(directory, "20180101okcn.mts");
+        broken.deleteOnExit();
+
+        DaysStatistics watched = new DaysStatistics(new String[0]);
+        watched.findStatistics();
+        List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+
+        try (MesonetDirectoryWatcher watcher = new MesonetDirectoryWatcher(directory.getPath(), watched, 100, 2))
+        {
+            watcher.setFailureListener((fileName, cause) -> failed.add(fileName));
+            watcher.start();
+            // a whole header, without the copyright line
+            Files.write(broken.toPath(), "not a Mesonet Time File\n 2018 01 01\n STID STNM TIME TAIR\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+
+            for (int wait = 0; wait < 200 && watcher.getFailureCount() < 1; ++wait)
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("Incorrect value returned!", 1, watcher.getFailureCount());
+            Assert.assertEquals("Incorrect value returned!", 0, watcher.getRefreshCount());
+        }
+        Assert.assertEquals("Incorrect value returned!", Collections.singletonList(broken.getPath()), failed);
+    }
+}
@@ -3,7 +3,9 @@ import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
@@ -46,6 +48,21 @@ public class MesonetFrame extends JFrame
     /** a JButton object for exiting */
     private JButton exitButton;
 
+    /** the day statistics of files already parsed, reused by every calculation */
+    private ParseCache<DayDataStatistics> parseCache = new ParseCache<DayDataStatistics>();
+
+    /**
+     * the directory the summaries of parsed files are kept in between runs, in
+     * the user's cache directory whatever directory the frame is started in;
+     * summaries are named after the directory of their file, so files of any
+     * data directory share it
+     */
+    private static final String SUMMARY_DIRECTORY =
+            new File(System.getProperty("user.home"), ".cache/mesonet/summaries").getPath();
+
+    /** the store of the summaries of parsed files, or null if it could not be opened */
+    private SummaryStore summaryStore;
+
     /** Constructor for MesonetFrame */
     public MesonetFrame()
     {
@@ -58,6 +75,16 @@ public class MesonetFrame extends JFrame
         // set the layout manager
         setLayout(new BorderLayout());
 
+        // files summarized in earlier runs are not parsed again
+        try
+        {
+            summaryStore = new SummaryStore(SUMMARY_DIRECTORY);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Summaries are not kept: " + e.getMessage());
+        }
+
         // Menu Bar
         fileMenuBar = new FileMenuBar();
         setJMenuBar(fileMenuBar);
@@ -134,7 +161,10 @@ public class MesonetFrame extends JFrame
 
             try
             {
-                DaysStatistics days = new DaysStatistics(fileArray);
+                // only the selected parameters are parsed from the files
+                DaysStatistics days = new DaysStatistics(fileArray, new HashSet<String>(paramType), parseCache);
+                days.setParallelism(Runtime.getRuntime().availableProcessors());
+                days.setSummaryStore(summaryStore);
                 days.findStatistics();
 
                 // loop through the parameter ArrayList and print information
@@ -0,0 +1,34 @@
+/**
+ * An interface for receiving the rows of a Mesonet Time File one at a time, as
+ * they are parsed, instead of as a list once the whole file has been read.
+ */
+public interface MesonetRowVisitor
+{
+    /**
+     * the visitHeader method, called once the header lines have been parsed and
+     * before the first row
+     *
+     * @param registry
+     *            the registry numbering the parameters of the rows
+     * @param year
+     *            the year of the file
+     * @param month
+     *            the month of the file
+     * @param day
+     *            the day of the file
+     */
+    void visitHeader(ParameterRegistry registry, int year, int month, int day);
+
+    /**
+     * the visitRow method, called for every row. The values array is reused for
+     * the next row, so it must be copied if it is kept.
+     *
+     * @param stationId
+     *            the station ID of the row
+     * @param minute
+     *            the minute offset of the row from the start of the file's day
+     * @param values
+     *            the values of the row, indexed by the registry
+     */
+    void visitRow(String stationId, int minute, double[] values);
+}
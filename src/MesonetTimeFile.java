@@ -1,9 +1,16 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.zip.CRC32;
 
 /**
  * Class that takes a Mesonet Time File and parses the data contained
@@ -42,44 +49,47 @@ public class MesonetTimeFile extends CsFile
     /** constant for second of file */
     private static final int SECOND = 6;
 
-    /** constant for tair parameter id */
-    private static final String TAIR = "TAIR";
+    /** the registry numbering the parameters decoded from the header */
+    private ParameterRegistry registry;
 
-    /** constant for ta9m parameter id */
-    private static final String TA9M = "TA9M";
+    /** variable representing the location of the minute in the Array(List) */
+    private int minutePosition = -1;
 
-    /** constant for srad parameter id */
-    private static final String SRAD = "SRAD";
+    /** variable representing the location of the station id in the Array(List) */
+    private int stidPosition = -1;
 
-    /** constant for time parameter id */
-    private static final String TIME = "TIME";
+    /** GregorianCalendar representing the date and time */
+    private GregorianCalendar dateTime;
 
-    /** constant for station id parameter id */
-    private static final String STID = "STID";
+    /** the way the file is read by parseFile */
+    private ParseMode parseMode = ParseMode.MAPPED;
 
-    /**
-     * variable representing the location of the tair measurement in the Array(List)
-     */
-    private int tairPosition = -1;
+    /** the station id of the last row, reused while the next rows match it */
+    private String lastStationId;
 
-    /**
-     * variable representing the location of the ta9m measurement in the Array(List)
-     */
-    private int ta9mPosition = -1;
+    /** the upper case parameter ids to decode, or null to decode all of them */
+    private Set<String> projection;
 
-    /**
-     * variable representing the location of the srad measurement in the Array(List)
-     */
-    private int sradPosition = -1;
+    /** the byte offset after the last complete row read by parseNewRows */
+    private long tailOffset;
 
-    /** variable representing the location of the minute in the Array(List) */
-    private int minutePosition = -1;
+    /** the modification time of the file when parseNewRows last read it */
+    private long tailModified;
 
-    /** variable representing the location of the station id in the Array(List) */
-    private int stidPosition = -1;
+    /** the checksum of the bytes around the start and the tail offset */
+    private long tailChecksum;
 
-    /** GregorianCalendar representing the date and time */
-    private GregorianCalendar dateTime;
+    /** the largest window a file can be mapped in, a mapping is limited to 2GB */
+    public static final long MAX_WINDOW_BYTES = Integer.MAX_VALUE;
+
+    /** the largest number of bytes mapped at once */
+    private long windowBytes = MAX_WINDOW_BYTES;
+
+    /** the byte offset after the window of the file mapped last by mapFile or scanFile */
+    private long windowEnd;
+
+    /** the number of bytes at the start and before the tail offset checksummed */
+    private static final int CHECKSUM_BYTES = 1024;
 
     /**
      * Class to hold the date and time of the header.
@@ -160,42 +170,628 @@ public class MesonetTimeFile extends CsFile
      */
     public ArrayList<TimeData> parseFile() throws IOException, WrongCopyrightException
     {
-        BufferedReader br = null;
-        String line = "";
+        return parseFile(null);
+    }
 
-        if (file.exists())
+    /**
+     * Method that parses a file, decoding only the requested parameters. The
+     * TimeData objects hold a Measurement for every parameter of the header that
+     * was requested.
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them
+     * @return ArrayList<TimeData> an ArrayList resulting from parsing the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws NumberFormatException
+     */
+    public ArrayList<TimeData> parseFile(Set<String> params) throws IOException, WrongCopyrightException
+    {
+        setProjection(params);
+        checkExists();
+
+        if (parseMode == ParseMode.MAPPED)
+        {
+            parseMappedFile();
+        }
+        else
         {
-            // Construct and use BufferedReader object to get relevant lines
-            br = new BufferedReader(new FileReader(fileName));
+            parseReaderFile();
+        }
+        return data;
+    }
 
-            // read the first line to check copyright
-            line = br.readLine();
-            copyrightIsCorrect(line);
+    /**
+     * Method to get the registry of the parameters decoded by the last parse
+     * 
+     * @return ParameterRegistry the registry, or null before parsing
+     */
+    public ParameterRegistry getRegistry()
+    {
+        return registry;
+    }
 
-            // read the next line to parse date header
-            line = br.readLine();
-            parseDateTimeHeader(line);
+    /**
+     * Method to set the way parseFile reads the file
+     * 
+     * @param inParseMode
+     *            the ParseMode to use
+     */
+    public void setParseMode(ParseMode inParseMode)
+    {
+        parseMode = inParseMode;
+    }
+
+    /**
+     * Method to get the way parseFile reads the file
+     * 
+     * @return ParseMode the current ParseMode
+     */
+    public ParseMode getParseMode()
+    {
+        return parseMode;
+    }
+
+    /**
+     * Method to set the largest number of bytes mapped at once. Larger files are
+     * mapped one window at a time, each ending after a complete line. The first
+     * window must hold the three header lines.
+     * 
+     * @param inWindowBytes
+     *            the window size, at most MAX_WINDOW_BYTES
+     */
+    public void setWindowBytes(long inWindowBytes)
+    {
+        if (inWindowBytes < 1 || inWindowBytes > MAX_WINDOW_BYTES)
+        {
+            throw new IllegalArgumentException("Invalid window size: " + inWindowBytes);
+        }
+        windowBytes = inWindowBytes;
+    }
 
-            // read the next line to parse parameter header
+    /**
+     * Method to get the largest number of bytes mapped at once
+     * 
+     * @return long the window size
+     */
+    public long getWindowBytes()
+    {
+        return windowBytes;
+    }
+
+    /**
+     * Private helper method for parseFile that reads the file line by line and
+     * splits every row on white space
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private void parseReaderFile() throws IOException, WrongCopyrightException
+    {
+        // Construct and use BufferedReader object to get relevant lines
+        BufferedReader br = new BufferedReader(new FileReader(fileName));
+        String line = "";
+
+        // read the first line to check copyright
+        line = br.readLine();
+        copyrightIsCorrect(line);
+
+        // read the next line to parse date header
+        line = br.readLine();
+        parseDateTimeHeader(line);
+
+        // read the next line to parse parameter header
+        line = br.readLine();
+        parseParamHeader(line);
+
+        // only read in data while line is not null
+        while (line != null)
+        {
+            // read in the line of data and parse it
             line = br.readLine();
-            parseParamHeader(line);
+            parseData(line);
+        }
+
+        br.close();
+    }
+
+    /**
+     * Private helper method for parseFile that memory maps the file and
+     * tokenizes the rows directly from the mapped bytes
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private void parseMappedFile() throws IOException, WrongCopyrightException
+    {
+        scanFile(mapFile(), new MesonetRowVisitor()
+        {
+            public void visitHeader(ParameterRegistry inRegistry, int year, int month, int day)
+            {
+                // the header fields are already held by this file
+            }
+
+            public void visitRow(String stationId, int minute, double[] values)
+            {
+                Measurement[] measurements = new Measurement[values.length];
+                for (int index = 0; index < measurements.length; ++index)
+                {
+                    measurements[index] = Measurement.of(values[index]);
+                }
+
+                data.add(new TimeData(stationId, headerDateTime.year, headerDateTime.month, headerDateTime.day,
+                        minute, registry, measurements));
+            }
+        });
+    }
+
+    /**
+     * Method that parses a file and passes every row to a visitor as it is read.
+     * Nothing is accumulated, so memory use does not grow with the length of the
+     * file.
+     * 
+     * @param visitor
+     *            the visitor to receive the header and the rows
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public void parseRows(MesonetRowVisitor visitor) throws IOException, WrongCopyrightException
+    {
+        parseRows(null, visitor);
+    }
+
+    /**
+     * Method that parses a file, decoding only the requested parameters, and
+     * passes every row to a visitor as it is read.
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them
+     * @param visitor
+     *            the visitor to receive the header and the rows
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public void parseRows(Set<String> params, MesonetRowVisitor visitor) throws IOException, WrongCopyrightException
+    {
+        setProjection(params);
+        checkExists();
+
+        MesonetByteScanner scanner = mapFile();
+        visitor.visitHeader(registry, headerDateTime.year, headerDateTime.month, headerDateTime.day);
+        scanFile(scanner, visitor);
+    }
+
+    /**
+     * Method that passes the rows appended to the file since the last call to a
+     * visitor. The first call reads the header, calls visitHeader and reads every
+     * complete row; later calls keep the header and only read the new rows, so
+     * the cost of an update depends on the number of new rows and not on the
+     * length of the file. A row that is still being written (no line terminator
+     * yet) is left for the next call, and so is the header until its three lines
+     * are complete. At most one window of new rows is read per call. If the
+     * file shrank, its modification time went back, or the bytes at its start or
+     * before the tail offset changed, it was rewritten and is read again from
+     * the start.
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them;
+     *            only used when the header is read
+     * @param visitor
+     *            the visitor to receive the header and the new rows
+     * @return int the number of rows passed to the visitor
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public int parseNewRows(Set<String> params, MesonetRowVisitor visitor) throws IOException, WrongCopyrightException
+    {
+        checkExists();
+        long modified = file.lastModified();
+        if (tailOffset > 0)
+        {
+            if (modified == tailModified && file.length() == tailOffset)
+            {
+                return 0;
+            }
+            if (file.length() < tailOffset || modified < tailModified || checksumAt(tailOffset) != tailChecksum)
+            {
+                tailOffset = 0;
+            }
+        }
+
+        MappedByteBuffer buffer = mapLines(tailOffset, false);
+        if (buffer == null || (tailOffset == 0 && !hasHeader(buffer)))
+        {
+            return 0;
+        }
+        MesonetByteScanner scanner = new MesonetByteScanner(buffer);
+
+        if (tailOffset == 0)
+        {
+            setProjection(params);
+            parseHeader(scanner);
+            visitor.visitHeader(registry, headerDateTime.year, headerDateTime.month, headerDateTime.day);
+        }
+        tailOffset += buffer.limit();
+        int rows = scanRows(scanner, visitor);
+        tailModified = modified;
+        tailChecksum = checksumAt(tailOffset);
+        return rows;
+    }
+
+    /**
+     * Method to make the next call to parseNewRows read the file from the start
+     */
+    public void resetNewRows()
+    {
+        tailOffset = 0;
+        tailModified = 0;
+        tailChecksum = 0;
+    }
+
+    /**
+     * Method to get the byte offset up to which parseNewRows has read the file
+     * 
+     * @return long the offset after the last complete row read
+     */
+    public long getTailOffset()
+    {
+        return tailOffset;
+    }
+
+    /**
+     * Method that parses a file into columns of primitives instead of TimeData
+     * objects. Every parameter of the header other than STID, STNM and TIME gets
+     * a column, numbered by the registry of the header.
+     * 
+     * @return MesonetColumns the columns resulting from parsing the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public MesonetColumns parseColumns() throws IOException, WrongCopyrightException
+    {
+        return parseColumns(null);
+    }
+
+    /**
+     * Method that parses a file into columns of primitives, decoding only the
+     * requested parameters. Fields of other parameters are skipped in the bytes
+     * and never converted.
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them
+     * @return MesonetColumns the columns resulting from parsing the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public MesonetColumns parseColumns(Set<String> params) throws IOException, WrongCopyrightException
+    {
+        return parseColumns(params, ColumnStorage.DOUBLE);
+    }
+
+    /**
+     * Method that parses a file into columns of primitives, decoding only the
+     * requested parameters and storing them as asked.
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them
+     * @param storage
+     *            the way the columns store their values
+     * @return MesonetColumns the columns resulting from parsing the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public MesonetColumns parseColumns(Set<String> params, ColumnStorage storage)
+            throws IOException, WrongCopyrightException
+    {
+        setProjection(params);
+        checkExists();
+
+        MesonetByteScanner scanner = mapFile();
+        final MesonetColumns columns = new MesonetColumns(null, headerDateTime.year, headerDateTime.month,
+                headerDateTime.day, registry, storage);
 
-            // only read in data while line is not null
-            while (line != null)
+        scanFile(scanner, new MesonetRowVisitor()
+        {
+            public void visitHeader(ParameterRegistry inRegistry, int year, int month, int day)
             {
-                // read in the line of data and parse it
-                line = br.readLine();
-                parseData(line);
+                // the columns were built from the header above
             }
+
+            public void visitRow(String stationId, int minute, double[] values)
+            {
+                if (columns.getStationID() == null)
+                {
+                    columns.setStationID(stationId);
+                }
+                columns.addRow(minute, values);
+            }
+        });
+        return columns;
+    }
+
+    /**
+     * Private helper method that records which parameters to decode
+     * 
+     * @param params
+     *            the parameter ids to decode, in any case, or null for all of them
+     */
+    private void setProjection(Set<String> params)
+    {
+        if (params == null)
+        {
+            projection = null;
+            return;
+        }
+
+        projection = new HashSet<String>();
+        for (String param : params)
+        {
+            projection.add(param.toUpperCase());
+        }
+    }
+
+    /**
+     * Private helper method that memory maps the first window of the file and
+     * parses its three header lines
+     * 
+     * @return MesonetByteScanner a scanner positioned on the first data row
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private MesonetByteScanner mapFile() throws IOException, WrongCopyrightException
+    {
+        ByteBuffer buffer = mapLines(0, true);
+        if (buffer == null)
+        {
+            buffer = ByteBuffer.allocate(0);
+        }
+        windowEnd = buffer.limit();
+        if (windowEnd < file.length() && !hasHeader(buffer))
+        {
+            throw new IOException("The header of " + fileName + " is longer than " + windowBytes + " bytes");
+        }
+        MesonetByteScanner scanner = new MesonetByteScanner(buffer);
+        parseHeader(scanner);
+        return scanner;
+    }
+
+    /**
+     * Private helper method that passes the rows of the file to a visitor, those
+     * of the window mapped by mapFile first and then those of every later window
+     * 
+     * @param scanner
+     *            the scanner of the first window, positioned on the first data row
+     * @param visitor
+     *            the visitor to receive the rows
+     * @return int the number of rows passed to the visitor
+     * @throws IOException
+     */
+    private int scanFile(MesonetByteScanner scanner, MesonetRowVisitor visitor) throws IOException
+    {
+        int rows = scanRows(scanner, visitor);
+        MappedByteBuffer buffer;
+        while ((buffer = mapLines(windowEnd, true)) != null)
+        {
+            windowEnd += buffer.limit();
+            rows += scanRows(new MesonetByteScanner(buffer), visitor);
+        }
+        return rows;
+    }
+
+    /**
+     * Private helper method that parses the three header lines
+     * 
+     * @param scanner
+     *            the scanner positioned on the first header line; left on the
+     *            first data row
+     * @throws WrongCopyrightException
+     */
+    private void parseHeader(MesonetByteScanner scanner) throws WrongCopyrightException
+    {
+        // the three header lines are few, so they are read as Strings
+        copyrightIsCorrect(scanner.readLine());
+        parseDateTimeHeader(scanner.readLine());
+        parseParamHeader(scanner.readLine());
+    }
+
+    /**
+     * Private helper method that memory maps a window of the file from an offset
+     * up to the end of its last complete line
+     * 
+     * @param offset
+     *            the byte offset to map from
+     * @param lastLine
+     *            true to keep a last line of the file without a line terminator,
+     *            false to leave it for later since it may still be written
+     * @return MappedByteBuffer the mapped lines, or null if no line follows the
+     *         offset
+     * @throws IOException
+     *             also if a line is longer than the window
+     */
+    private MappedByteBuffer mapLines(long offset, boolean lastLine) throws IOException
+    {
+        MappedByteBuffer buffer;
+        long size;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            size = channel.size();
+            long length = Math.min(size - offset, windowBytes);
+            if (length <= 0)
+            {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        if (lastLine && offset + buffer.limit() == size)
+        {
+            return buffer;
+        }
+
+        // stop after the last line terminator, the rest of the line is in the
+        // next window or still being written
+        int end = buffer.limit();
+        while (end > 0 && buffer.get(end - 1) != '\n')
+        {
+            --end;
+        }
+        if (end == 0)
+        {
+            if (buffer.limit() == windowBytes)
+            {
+                throw new IOException("A line of " + fileName + " is longer than " + windowBytes + " bytes");
+            }
+            return null;
+        }
+        buffer.limit(end);
+        return buffer;
+    }
+
+    /**
+     * Private helper method that checks whether mapped lines hold the three
+     * header lines
+     * 
+     * @param buffer
+     *            the lines mapped from the start of the file
+     * @return boolean true if there are at least three line terminators
+     */
+    private static boolean hasHeader(ByteBuffer buffer)
+    {
+        int lines = 0;
+        for (int index = 0; index < buffer.limit() && lines < 3; ++index)
+        {
+            if (buffer.get(index) == '\n')
+            {
+                ++lines;
+            }
+        }
+        return lines == 3;
+    }
+
+    /**
+     * Private helper method for the checksum of the bytes at the start of the
+     * file and the bytes before an offset, so a rewrite of the part already
+     * read is noticed without reading all of it again
+     * 
+     * @param offset
+     *            the byte offset
+     * @return long the CRC32 of the bytes
+     * @throws IOException
+     */
+    private long checksumAt(long offset) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            int headLength = (int) Math.min(offset, CHECKSUM_BYTES);
+            int tailLength = (int) Math.min(offset - headLength, CHECKSUM_BYTES);
+            ByteBuffer bytes = ByteBuffer.allocate(headLength + tailLength);
+            bytes.limit(headLength);
+            readFully(channel, bytes, 0);
+            bytes.limit(headLength + tailLength);
+            readFully(channel, bytes, offset - tailLength);
+            crc.update(bytes.array(), 0, bytes.position());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Private helper method that fills a buffer from a channel
+     * 
+     * @param channel
+     *            the channel to read
+     * @param bytes
+     *            the buffer, filled from its position to its limit
+     * @param position
+     *            the offset in the file to read from
+     * @throws IOException
+     */
+    private static void readFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException
+    {
+        long filePosition = position;
+        while (bytes.hasRemaining())
+        {
+            int read = channel.read(bytes, filePosition);
+            if (read < 0)
+            {
+                // a file that shrank meanwhile checksums differently
+                return;
+            }
+            filePosition += read;
+        }
+    }
+
+    /**
+     * Private helper method that decodes the rows of a mapped file and passes
+     * them to a visitor. The values array is reused for every row.
+     * 
+     * @param scanner
+     *            the scanner positioned on the first data row
+     * @param visitor
+     *            the visitor to receive the rows
+     * @return int the number of rows passed to the visitor
+     */
+    private int scanRows(MesonetByteScanner scanner, MesonetRowVisitor visitor)
+    {
+        // nothing after the last decoded field needs to be tokenized
+        int lastField = registry.getLastPosition();
+        double[] values = new double[registry.size()];
+        int rows = 0;
+
+        while (scanner.nextRow(lastField))
+        {
+            // a file holds one station, so only look it up when it changes
+            if (!scanner.fieldEquals(stidPosition, lastStationId))
+            {
+                lookUpStation(scanner);
+            }
+
+            for (int index = 0; index < values.length; ++index)
+            {
+                values[index] = scanner.getDouble(registry.getPosition(index));
+            }
+            visitor.visitRow(lastStationId, scanner.getInt(minutePosition), values);
+            ++rows;
+        }
+        return rows;
+    }
+
+    /**
+     * Private helper method that finds the station of the current row in the
+     * network registry, by station number when the file has one, and registers
+     * it if it is new. The registry's String is reused, so rows of the same
+     * station share one station id.
+     * 
+     * @param scanner
+     *            the scanner positioned on the row
+     */
+    private void lookUpStation(MesonetByteScanner scanner)
+    {
+        StationRegistry stations = StationRegistry.NETWORK;
+        int stnmPosition = registry.getStnmPosition();
+        int stationNumber = stnmPosition >= 0 ? scanner.getInt(stnmPosition) : StationRegistry.UNKNOWN;
+
+        int station = stations.indexOfNumber(stationNumber);
+        if (station != StationRegistry.UNKNOWN && scanner.fieldEquals(stidPosition, stations.getStationId(station)))
+        {
+            lastStationId = stations.getStationId(station);
         }
         else
+        {
+            lastStationId = scanner.getString(stidPosition);
+            stations.intern(lastStationId, stationNumber);
+        }
+    }
+
+    /**
+     * Private helper method that throws if the file does not exist
+     */
+    private void checkExists()
+    {
+        if (!file.exists())
         {
             String msg = String.format("[%s] %s", getDateTimeString(), "File " + fileName + " does not exist!!!");
             throw new IllegalArgumentException(msg);
         }
-
-        br.close();
-        return data;
     }
 
     /**
@@ -210,12 +806,25 @@ public class MesonetTimeFile extends CsFile
         {
             String[] input = line.trim().split("\\s+");
 
+            Measurement[] measurements = new Measurement[registry.size()];
+            for (int index = 0; index < measurements.length; ++index)
+            {
+                measurements[index] = Measurement.of(Double.parseDouble(input[registry.getPosition(index)]));
+            }
+
+            // rows of the same station share one station id
+            if (!input[stidPosition].equals(lastStationId))
+            {
+                int stnmPosition = registry.getStnmPosition();
+                int station = StationRegistry.NETWORK.intern(input[stidPosition],
+                        stnmPosition >= 0 ? Integer.parseInt(input[stnmPosition]) : StationRegistry.UNKNOWN);
+                String registered = StationRegistry.NETWORK.getStationId(station);
+                lastStationId = registered.equals(input[stidPosition]) ? registered : input[stidPosition];
+            }
+
             // add the values to create a TimeData object and add it to the data ArrayList
-            TimeData values = new TimeData(input[stidPosition], headerDateTime.year, headerDateTime.month,
-                    headerDateTime.day, Integer.parseInt(input[minutePosition]),
-                    new Measurement(Double.parseDouble(input[tairPosition])),
-                    new Measurement(Double.parseDouble(input[ta9mPosition])),
-                    new Measurement(Double.parseDouble(input[sradPosition])));
+            TimeData values = new TimeData(lastStationId, headerDateTime.year, headerDateTime.month,
+                    headerDateTime.day, Integer.parseInt(input[minutePosition]), registry, measurements);
             data.add(values);
         }
     }
@@ -231,18 +840,19 @@ public class MesonetTimeFile extends CsFile
         // create String array and split data by white spaces
         String[] splitArray = inParamStr.trim().split("\\s+");
 
+        // start over if the file is parsed again
+        paramIds.clear();
+
         // loop through the Array and add the results to the paramIds ArrayList
         for (int index = 0; index < splitArray.length; ++index)
         {
             paramIds.add(splitArray[index]);
         }
 
-        // set the positions, in the data, for the ArrayList
-        minutePosition = paramIds.indexOf(TIME);
-        tairPosition = paramIds.indexOf(TAIR);
-        ta9mPosition = paramIds.indexOf(TA9M);
-        sradPosition = paramIds.indexOf(SRAD);
-        stidPosition = paramIds.indexOf(STID);
+        // number the decoded parameters and set the positions of the id columns
+        registry = ParameterRegistry.fromHeader(paramIds, projection);
+        minutePosition = registry.getTimePosition();
+        stidPosition = registry.getStidPosition();
     }
 
     /**
@@ -1,5 +1,7 @@
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -84,4 +86,293 @@ public class MesonetTimeFileTest
         }
         Assert.assertTrue(throwException);
     }
+
+    /**
+     * Test that the mapped parser produces the same rows as the reader parser
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testParseModesMatch() throws IOException, WrongCopyrightException
+    {
+        String[] files =
+        { "data/mesonet/20180101nrmn.mts", "data/mesonet/20180102stil.mts", "data/mesonet/20180103okce.mts",
+                "data/mesonet/20180105okcn.mts" };
+
+        for (String fileName : files)
+        {
+            MesonetTimeFile readerFile = new MesonetTimeFile(fileName);
+            readerFile.setParseMode(ParseMode.READER);
+            ArrayList<TimeData> expected = readerFile.parseFile();
+
+            MesonetTimeFile mappedFile = new MesonetTimeFile(fileName);
+            Assert.assertEquals("Wrong default mode!", ParseMode.MAPPED, mappedFile.getParseMode());
+            ArrayList<TimeData> actual = mappedFile.parseFile();
+
+            Assert.assertEquals("Wrong number of rows!", expected.size(), actual.size());
+            for (int index = 0; index < expected.size(); ++index)
+            {
+                TimeData expectedRow = expected.get(index);
+                TimeData actualRow = actual.get(index);
+
+                Assert.assertEquals("Wrong station!", expectedRow.getStationID(), actualRow.getStationID());
+                Assert.assertEquals("Wrong time!", expectedRow.getMeasurementDateTime().getTimeInMillis() / 60000,
+                        actualRow.getMeasurementDateTime().getTimeInMillis() / 60000);
+                for (String param : new String[] { "TAIR", "TA9M", "SRAD" })
+                {
+                    Assert.assertEquals("Wrong " + param + "!", expectedRow.getMeasurement(param).getValue(),
+                            actualRow.getMeasurement(param).getValue(), 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that parseColumns holds every measurement column of the file
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testParseColumns() throws IOException, WrongCopyrightException
+    {
+        ArrayList<TimeData> rows = new MesonetTimeFile("data/mesonet/20180102stil.mts").parseFile();
+        MesonetColumns columns = testMesonetFile.parseColumns();
+
+        Assert.assertEquals("Wrong station!", "STIL", columns.getStationID());
+        Assert.assertEquals("Wrong date!", 2018, columns.getYear());
+        Assert.assertEquals("Wrong date!", 1, columns.getMonth());
+        Assert.assertEquals("Wrong date!", 2, columns.getDay());
+        Assert.assertEquals("Wrong number of rows!", rows.size(), columns.getRowCount());
+        Assert.assertEquals("Wrong number of columns!", 21, columns.getParamIds().length);
+        Assert.assertEquals("Id columns kept!", -1, columns.indexOf("STID"));
+
+        double[] tair = columns.getColumn("tair");
+        for (int row = 0; row < rows.size(); ++row)
+        {
+            Assert.assertEquals("Wrong TAIR!", rows.get(row).getMeasurement("TAIR").getValue(), tair[row], 0.0);
+            Assert.assertEquals("Wrong minute!", row * 5, columns.getMinutes()[row]);
+        }
+
+        // soil temperatures are only reported every 15 minutes
+        int ts10 = columns.indexOf("TS10");
+        Assert.assertTrue(columns.isValid(ts10, 0));
+        Assert.assertFalse(columns.isValid(ts10, 1));
+        Assert.assertEquals("Wrong missing code!", -995.0, columns.getValue(ts10, 1), 0.0);
+        Assert.assertTrue("Missing value not NaN!", Double.isNaN(columns.getColumn(ts10)[1]));
+        Assert.assertSame("Missing code not shared!", Measurement.of(-995), columns.getMeasurement(ts10, 1));
+        Assert.assertEquals("Wrong valid count!", (rows.size() + 2) / 3, columns.countValid(ts10));
+        Assert.assertEquals("Wrong valid count!", rows.size(), columns.countValid(columns.indexOf("TAIR")));
+
+        double[] raw = columns.copyRawColumn(ts10, new double[rows.size()]);
+        for (int row = 0; row < rows.size(); ++row)
+        {
+            Assert.assertEquals("Wrong TS10!", rows.get(row).getMeasurement("TS10").getValue(), raw[row], 0.0);
+        }
+    }
+
+    /**
+     * Test that quantized columns decode to exactly the values of double columns
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testQuantizedColumns() throws IOException, WrongCopyrightException
+    {
+        for (String name : new File("data/mesonet").list())
+        {
+            MesonetTimeFile file = new MesonetTimeFile("data/mesonet/" + name);
+            MesonetColumns doubles = file.parseColumns(null, ColumnStorage.DOUBLE);
+            MesonetColumns quantized = file.parseColumns(null, ColumnStorage.QUANTIZED);
+
+            Assert.assertEquals("Wrong storage!", ColumnStorage.QUANTIZED, quantized.getStorage());
+            Assert.assertEquals("Wrong number of rows!", doubles.getRowCount(), quantized.getRowCount());
+            for (int column = 0; column < doubles.getParamIds().length; ++column)
+            {
+                Assert.assertTrue("Column not quantized!", quantized.isQuantized(column));
+                Assert.assertFalse("Column quantized!", doubles.isQuantized(column));
+
+                double[] expected = doubles.copyRawColumn(column, new double[doubles.getRowCount()]);
+                double[] actual = quantized.copyRawColumn(column, new double[quantized.getRowCount()]);
+                double[] decoded = quantized.getColumn(column);
+                for (int row = 0; row < expected.length; ++row)
+                {
+                    Assert.assertEquals("Wrong value!", Double.doubleToLongBits(expected[row]),
+                            Double.doubleToLongBits(actual[row]));
+                    Assert.assertEquals("Wrong value!", Double.doubleToLongBits(doubles.getColumn(column)[row]),
+                            Double.doubleToLongBits(decoded[row]));
+                    Assert.assertEquals("Wrong validity!", doubles.isValid(column, row),
+                            quantized.isValid(column, row));
+                }
+            }
+
+            // shorts for every column but PRES, which needs ints
+            Assert.assertTrue("Columns too large!", quantized.getValueBytes() * 3 < doubles.getValueBytes());
+        }
+    }
+
+    /**
+     * Test that a quantized column widens when its values do not fit
+     */
+    @Test
+    public void testQuantizedWidening()
+    {
+        MesonetColumns columns = new MesonetColumns("OKCN", 2018, 1, 1, ParameterRegistry.of("TAIR", "PRES", "FOO"),
+                ColumnStorage.QUANTIZED);
+        columns.addRow(0, new double[] { -16.1, 1007.74, 1.5 });
+        columns.addRow(5, new double[] { -995, 980.18, 2.5 });
+        Assert.assertTrue(columns.isQuantized(0));
+        Assert.assertTrue(columns.isQuantized(1));
+        Assert.assertFalse(columns.isQuantized(2));
+
+        // a value beyond a short widens to ints, one with more digits to doubles
+        columns.addRow(10, new double[] { 4000.5, 1007.745, 3.5 });
+        Assert.assertTrue(columns.isQuantized(0));
+        Assert.assertFalse(columns.isQuantized(1));
+
+        double[][] expected = { { -16.1, -995, 4000.5 }, { 1007.74, 980.18, 1007.745 }, { 1.5, 2.5, 3.5 } };
+        for (int column = 0; column < expected.length; ++column)
+        {
+            for (int row = 0; row < 3; ++row)
+            {
+                Assert.assertEquals("Wrong value!", expected[column][row], columns.getValue(column, row), 0.0);
+            }
+        }
+        Assert.assertTrue("Missing value not NaN!", Double.isNaN(columns.getColumn("TAIR")[1]));
+    }
+
+    /**
+     * Test that the missing codes of every invalid value are kept, including
+     * codes that are not whole numbers
+     */
+    @Test
+    public void testMissingCodes()
+    {
+        MesonetColumns columns = new MesonetColumns("OKCN", 2018, 1, 1, ParameterRegistry.of("TAIR", "PRES"),
+                ColumnStorage.QUANTIZED);
+        double[] codes = { -995, -996, -998, -999, -990, -950000.5, -995, -996, -999, -996, -999.25, -995 };
+        for (int row = 0; row < 3 * codes.length; ++row)
+        {
+            // every third row is valid
+            double code = codes[row / 3];
+            columns.addRow(5 * row, new double[] { row % 3 == 0 ? 1.5 : code, row % 3 == 0 ? code : 990.5 });
+        }
+
+        double[] raw = columns.copyRawColumn(0, new double[columns.getRowCount()]);
+        for (int row = 0; row < columns.getRowCount(); ++row)
+        {
+            double expected = row % 3 == 0 ? 1.5 : codes[row / 3];
+            Assert.assertEquals("Wrong missing code!", expected, columns.getValue(0, row), 0.0);
+            Assert.assertEquals("Wrong missing code!", expected, raw[row], 0.0);
+            Assert.assertEquals("Wrong missing code!", row % 3 == 0 ? codes[row / 3] : 990.5, columns.getValue(1, row),
+                    0.0);
+        }
+        Assert.assertEquals("Wrong number of valid values!", codes.length, columns.countValid(0));
+    }
+
+    /**
+     * Test that a projected parse only decodes the requested parameters
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testProjection() throws IOException, WrongCopyrightException
+    {
+        ArrayList<TimeData> all = new MesonetTimeFile("data/mesonet/20180102stil.mts").parseFile();
+        ArrayList<TimeData> projected = testMesonetFile.parseFile(Collections.singleton("srad"));
+
+        Assert.assertEquals("Wrong number of rows!", all.size(), projected.size());
+        Assert.assertNull("TAIR decoded!", projected.get(0).getMeasurement("TAIR"));
+        Assert.assertNull("TA9M decoded!", projected.get(0).getMeasurement("TA9M"));
+        for (int row = 0; row < all.size(); ++row)
+        {
+            Assert.assertEquals("Wrong SRAD!", all.get(row).getMeasurement("SRAD").getValue(),
+                    projected.get(row).getMeasurement("SRAD").getValue(), 0.0);
+            Assert.assertEquals("Wrong minute!", all.get(row).getMinute(), projected.get(row).getMinute());
+        }
+
+        MesonetColumns columns = new MesonetTimeFile("data/mesonet/20180102stil.mts")
+                .parseColumns(Collections.singleton("Tair"));
+        Assert.assertEquals("Wrong number of columns!", 1, columns.getParamIds().length);
+        Assert.assertEquals("Wrong column!", "TAIR", columns.getParamIds()[0]);
+        Assert.assertEquals("Wrong station!", "STIL", columns.getStationID());
+        Assert.assertEquals("Wrong number of rows!", all.size(), columns.getRowCount());
+    }
+
+    /**
+     * Test that parseRows passes the header and every row to a visitor
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testParseRows() throws IOException, WrongCopyrightException
+    {
+        final ArrayList<TimeData> rows = new MesonetTimeFile("data/mesonet/20180102stil.mts").parseFile();
+        final int[] visited = new int[2];
+
+        testMesonetFile.parseRows(Collections.singleton("TAIR"), new MesonetRowVisitor()
+        {
+            public void visitHeader(ParameterRegistry registry, int year, int month, int day)
+            {
+                Assert.assertEquals("Wrong number of parameters!", 1, registry.size());
+                Assert.assertEquals("Wrong date!", 2, day);
+                ++visited[0];
+            }
+
+            public void visitRow(String stationId, int minute, double[] values)
+            {
+                TimeData expected = rows.get(visited[1]);
+                Assert.assertEquals("Wrong station!", "STIL", stationId);
+                Assert.assertEquals("Wrong minute!", visited[1] * 5, minute);
+                Assert.assertEquals("Wrong TAIR!", expected.getMeasurement("TAIR").getValue(), values[0], 0.0);
+                ++visited[1];
+            }
+        });
+
+        Assert.assertEquals("Header not visited once!", 1, visited[0]);
+        Assert.assertEquals("Wrong number of rows!", rows.size(), visited[1]);
+    }
+
+    /**
+     * Test that a file mapped in small windows parses like one mapped whole
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testWindows() throws IOException, WrongCopyrightException
+    {
+        MesonetColumns whole = new MesonetTimeFile("data/mesonet/20180102stil.mts").parseColumns();
+        ArrayList<TimeData> rows = new MesonetTimeFile("data/mesonet/20180102stil.mts").parseFile();
+
+        MesonetTimeFile windowed = new MesonetTimeFile("data/mesonet/20180102stil.mts");
+        windowed.setWindowBytes(1000);
+        Assert.assertEquals("Wrong window size!", 1000, windowed.getWindowBytes());
+        MesonetColumns columns = windowed.parseColumns();
+        Assert.assertEquals("Wrong number of rows!", whole.getRowCount(), columns.getRowCount());
+        int tair = whole.indexOf("TAIR");
+        for (int row = 0; row < whole.getRowCount(); ++row)
+        {
+            Assert.assertEquals("Wrong minute!", whole.getMinutes()[row], columns.getMinutes()[row]);
+            Assert.assertEquals("Wrong TAIR!", whole.getValue(tair, row), columns.getValue(tair, row), 0.0);
+        }
+        Assert.assertEquals("Wrong number of rows!", rows.size(), windowed.parseFile().size());
+
+        // a header longer than the window cannot be mapped
+        windowed.setWindowBytes(100);
+        boolean throwException = false;
+        try
+        {
+            windowed.parseColumns();
+        }
+        catch (IOException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
 }
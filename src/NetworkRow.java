@@ -0,0 +1,158 @@
+/**
+ * Class holding the statistics of one parameter across every station of the
+ * network at one timestamp: the number of stations with a valid value, their
+ * mean, and the minimum and maximum with the station holding each.
+ */
+public final class NetworkRow
+{
+    /** the time of the row, as minutes since the epoch */
+    private long epochMinute;
+
+    /** the upper case parameter ID */
+    private String paramId;
+
+    /** the number of stations with a valid value */
+    private int stationCount;
+
+    /** the mean of the valid values */
+    private double mean;
+
+    /** the smallest value */
+    private double min;
+
+    /** the station of the smallest value */
+    private String minStationId;
+
+    /** the largest value */
+    private double max;
+
+    /** the station of the largest value */
+    private String maxStationId;
+
+    /**
+     * Constructor for NetworkRow
+     *
+     * @param inEpochMinute
+     *            the time of the row, as minutes since the epoch
+     * @param inParamId
+     *            the upper case parameter ID
+     * @param inStationCount
+     *            the number of stations with a valid value
+     * @param inMean
+     *            the mean of the valid values, NaN if there are none
+     * @param inMin
+     *            the smallest value, NaN if there are none
+     * @param inMinStationId
+     *            the station of the smallest value, null if there are none
+     * @param inMax
+     *            the largest value, NaN if there are none
+     * @param inMaxStationId
+     *            the station of the largest value, null if there are none
+     */
+    public NetworkRow(long inEpochMinute, String inParamId, int inStationCount, double inMean, double inMin,
+            String inMinStationId, double inMax, String inMaxStationId)
+    {
+        epochMinute = inEpochMinute;
+        paramId = inParamId;
+        stationCount = inStationCount;
+        mean = inMean;
+        min = inMin;
+        minStationId = inMinStationId;
+        max = inMax;
+        maxStationId = inMaxStationId;
+    }
+
+    /**
+     * Method to get the time of the row
+     *
+     * @return long the minutes since the epoch
+     */
+    public long getEpochMinute()
+    {
+        return epochMinute;
+    }
+
+    /**
+     * Method to get the parameter of the row
+     *
+     * @return String the upper case parameter ID
+     */
+    public String getParamId()
+    {
+        return paramId;
+    }
+
+    /**
+     * Method to get the number of stations with a valid value
+     *
+     * @return int the number of stations
+     */
+    public int getStationCount()
+    {
+        return stationCount;
+    }
+
+    /**
+     * Method to get the mean across the stations
+     *
+     * @return double the mean, NaN if no station has a valid value
+     */
+    public double getMean()
+    {
+        return mean;
+    }
+
+    /**
+     * Method to get the smallest value across the stations
+     *
+     * @return double the smallest value, NaN if no station has a valid value
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Method to get the station of the smallest value
+     *
+     * @return String the upper case station ID, null if no station has a valid
+     *         value
+     */
+    public String getMinStationId()
+    {
+        return minStationId;
+    }
+
+    /**
+     * Method to get the largest value across the stations
+     *
+     * @return double the largest value, NaN if no station has a valid value
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Method to get the station of the largest value
+     *
+     * @return String the upper case station ID, null if no station has a valid
+     *         value
+     */
+    public String getMaxStationId()
+    {
+        return maxStationId;
+    }
+
+    /**
+     * toString method for NetworkRow
+     *
+     * @return String the time, the count, and the minimum, mean and maximum
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s %d: %d stations, min %.4f %s, mean %.4f, max %.4f %s", paramId, epochMinute,
+                stationCount, min, minStationId, mean, max, maxStationId);
+    }
+}
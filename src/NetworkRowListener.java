@@ -0,0 +1,15 @@
+/**
+ * An interface for receiving the rows of a NetworkSeries, in time order, as
+ * they are merged.
+ */
+public interface NetworkRowListener
+{
+    /**
+     * the rowMerged method, called once the values of every station at a time
+     * have been merged
+     *
+     * @param row
+     *            the statistics across the stations at that time
+     */
+    void rowMerged(NetworkRow row);
+}
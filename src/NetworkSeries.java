@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Class that merges the series of every station into one network-wide series
+ * of a parameter: for every timestamp, the number of stations with a valid
+ * value, their mean, and the minimum and maximum with the station holding
+ * each. The station files of a day are merged by a k-way merge on time, with a
+ * cursor per station in a PriorityQueue, so rows are aligned without building
+ * a table of stations by timestamp. Days are merged in parallel and handed to
+ * the listener in time order, with only a few days held at once.
+ */
+public class NetworkSeries
+{
+    /** the upper case parameter ID */
+    private String paramId;
+
+    /** the number of days merged at the same time, 1 for sequential */
+    private int parallelism = 1;
+
+    /**
+     * Class holding the position of the merge in the rows of one station
+     */
+    private static class Cursor
+    {
+        /** the columns of the station's file */
+        private MesonetColumns columns;
+
+        /** the column of the parameter */
+        private int column;
+
+        /** the start of the file's day, as minutes since the epoch */
+        private long midnight;
+
+        /** the next row */
+        private int row;
+
+        /** the position of the file among the files of the day */
+        private int order;
+
+        /**
+         * Method to get the time of the next row
+         *
+         * @return long the minutes since the epoch
+         */
+        private long getEpochMinute()
+        {
+            return midnight + columns.getMinutes()[row];
+        }
+    }
+
+    /**
+     * Constructor for NetworkSeries
+     *
+     * @param inParamId
+     *            the parameter ID, in any case
+     */
+    public NetworkSeries(String inParamId)
+    {
+        paramId = inParamId.toUpperCase();
+    }
+
+    /**
+     * Method to set the number of days merged at the same time
+     *
+     * @param inParallelism
+     *            the number of worker threads, 1 to merge one day at a time
+     */
+    public void setParallelism(int inParallelism)
+    {
+        if (inParallelism < 1)
+        {
+            throw new IllegalArgumentException("Parallelism must be positive: " + inParallelism);
+        }
+        parallelism = inParallelism;
+    }
+
+    /**
+     * Method to get the number of days merged at the same time
+     *
+     * @return int the number of worker threads
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Method to merge the series of a set of station files and hand every
+     * network row to a listener, in time order, on the calling thread. The files
+     * are grouped by the date in their name, so they must follow the archive
+     * convention (e.g. 20180103okcn.mts).
+     *
+     * @param files
+     *            the station files, of any stations and days
+     * @param listener
+     *            the listener told of every row
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public void stream(List<String> files, NetworkRowListener listener) throws IOException, WrongCopyrightException
+    {
+        TreeMap<Integer, ArrayList<String>> days = new TreeMap<Integer, ArrayList<String>>();
+        for (String fileName : files)
+        {
+            int date = MesonetCatalog.getDate(fileName);
+            if (date < 0)
+            {
+                throw new IllegalArgumentException("No date in the name of " + fileName);
+            }
+            if (!days.containsKey(date))
+            {
+                days.put(date, new ArrayList<String>());
+            }
+            days.get(date).add(fileName);
+        }
+
+        if (parallelism == 1)
+        {
+            for (ArrayList<String> dayFiles : days.values())
+            {
+                deliver(mergeFiles(dayFiles), listener);
+            }
+            return;
+        }
+
+        // a few days ahead are merged while the earliest is delivered
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            ArrayDeque<Future<ArrayList<NetworkRow>>> pending = new ArrayDeque<Future<ArrayList<NetworkRow>>>();
+            for (ArrayList<String> dayFiles : days.values())
+            {
+                if (pending.size() == 2 * parallelism)
+                {
+                    deliver(pending.poll().get(), listener);
+                }
+                pending.add(pool.submit(() -> mergeFiles(dayFiles)));
+            }
+            while (!pending.isEmpty())
+            {
+                deliver(pending.poll().get(), listener);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging files", e);
+        }
+        catch (ExecutionException e)
+        {
+            // hand back the exception the day would have thrown sequentially
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof WrongCopyrightException)
+            {
+                throw (WrongCopyrightException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Method to merge the series of parsed station files. Equal minimums and
+     * maximums go to the station given first. Timestamps where no station has a
+     * valid value give a row with a count of zero.
+     *
+     * @param stations
+     *            the columns of the station files, each in time order
+     * @return ArrayList<NetworkRow> the network rows, in time order
+     */
+    public ArrayList<NetworkRow> merge(List<MesonetColumns> stations)
+    {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<Cursor>(Math.max(1, stations.size()),
+                new Comparator<Cursor>()
+                {
+                    @Override
+                    public int compare(Cursor first, Cursor second)
+                    {
+                        int compare = Long.compare(first.getEpochMinute(), second.getEpochMinute());
+                        return compare != 0 ? compare : Integer.compare(first.order, second.order);
+                    }
+                });
+        for (int order = 0; order < stations.size(); ++order)
+        {
+            Cursor cursor = new Cursor();
+            cursor.columns = stations.get(order);
+            cursor.column = cursor.columns.indexOf(paramId);
+            cursor.midnight = EpochMinutes.of(cursor.columns.getYear(), cursor.columns.getMonth(),
+                    cursor.columns.getDay(), 0);
+            cursor.order = order;
+
+            // stations without the parameter add nothing
+            if (cursor.column >= 0 && cursor.columns.getRowCount() > 0)
+            {
+                cursors.add(cursor);
+            }
+        }
+
+        ArrayList<NetworkRow> rows = new ArrayList<NetworkRow>();
+        while (!cursors.isEmpty())
+        {
+            long epochMinute = cursors.peek().getEpochMinute();
+            int count = 0;
+            double sum = 0;
+            double min = Double.NaN;
+            double max = Double.NaN;
+            String minStationId = null;
+            String maxStationId = null;
+
+            // every station at this time, in the order given
+            while (!cursors.isEmpty() && cursors.peek().getEpochMinute() == epochMinute)
+            {
+                Cursor cursor = cursors.poll();
+                if (cursor.columns.isValid(cursor.column, cursor.row))
+                {
+                    double value = cursor.columns.getValue(cursor.column, cursor.row);
+                    if (count == 0 || value < min)
+                    {
+                        min = value;
+                        minStationId = cursor.columns.getStationID().toUpperCase();
+                    }
+                    if (count == 0 || value > max)
+                    {
+                        max = value;
+                        maxStationId = cursor.columns.getStationID().toUpperCase();
+                    }
+                    sum += value;
+                    ++count;
+                }
+
+                if (++cursor.row < cursor.columns.getRowCount())
+                {
+                    cursors.add(cursor);
+                }
+            }
+            rows.add(new NetworkRow(epochMinute, paramId, count, count == 0 ? Double.NaN : sum / count, min,
+                    minStationId, max, maxStationId));
+        }
+        return rows;
+    }
+
+    /**
+     * Private helper method that parses the parameter of the station files of a
+     * day and merges them
+     *
+     * @param dayFiles
+     *            the station files of the day
+     * @return ArrayList<NetworkRow> the network rows of the day, in time order
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private ArrayList<NetworkRow> mergeFiles(List<String> dayFiles) throws IOException, WrongCopyrightException
+    {
+        ArrayList<MesonetColumns> stations = new ArrayList<MesonetColumns>();
+        for (String fileName : dayFiles)
+        {
+            stations.add(new MesonetTimeFile(fileName).parseColumns(Collections.singleton(paramId)));
+        }
+        return merge(stations);
+    }
+
+    /**
+     * Private helper method that hands rows to the listener
+     *
+     * @param rows
+     *            the rows, in time order
+     * @param listener
+     *            the listener
+     */
+    private static void deliver(List<NetworkRow> rows, NetworkRowListener listener)
+    {
+        for (NetworkRow row : rows)
+        {
+            listener.rowMerged(row);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NetworkSeriesTest
+{
+    /** every file of the test archive, in name order */
+    List<String> files;
+
+    /**
+     * Method to list the files
+     */
+    @Before
+    public void setUp()
+    {
+        String[] names = new File("data/mesonet").list();
+        Arrays.sort(names);
+        files = new ArrayList<String>();
+        for (String name : names)
+        {
+            files.add("data/mesonet/" + name);
+        }
+    }
+
+    /**
+     * Test the merged rows against the values of every station at every time
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testStream() throws IOException, WrongCopyrightException
+    {
+        // the valid values of every time, by station, in file order
+        HashMap<Long, ArrayList<double[]>> values = new HashMap<Long, ArrayList<double[]>>();
+        HashMap<Long, ArrayList<String>> stations = new HashMap<Long, ArrayList<String>>();
+        for (String fileName : files)
+        {
+            MesonetColumns columns = new MesonetTimeFile(fileName).parseColumns();
+            long midnight = EpochMinutes.of(columns.getYear(), columns.getMonth(), columns.getDay(), 0);
+            int param = columns.indexOf("TAIR");
+            for (int row = 0; row < columns.getRowCount(); ++row)
+            {
+                long epochMinute = midnight + columns.getMinutes()[row];
+                values.putIfAbsent(epochMinute, new ArrayList<double[]>());
+                stations.putIfAbsent(epochMinute, new ArrayList<String>());
+                if (columns.isValid(param, row))
+                {
+                    values.get(epochMinute).add(new double[] { columns.getValue(param, row) });
+                    stations.get(epochMinute).add(columns.getStationID().toUpperCase());
+                }
+            }
+        }
+
+        ArrayList<NetworkRow> rows = new ArrayList<NetworkRow>();
+        NetworkSeries series = new NetworkSeries("tair");
+        series.setParallelism(3);
+        series.stream(files, rows::add);
+
+        Assert.assertEquals("Incorrect value returned!", values.size(), rows.size());
+        for (int index = 0; index < rows.size(); ++index)
+        {
+            NetworkRow row = rows.get(index);
+            if (index > 0)
+            {
+                Assert.assertTrue("Rows out of order!", row.getEpochMinute() > rows.get(index - 1).getEpochMinute());
+            }
+
+            ArrayList<double[]> rowValues = values.get(row.getEpochMinute());
+            Assert.assertEquals("Incorrect value returned!", rowValues.size(), row.getStationCount());
+            Assert.assertEquals("Incorrect value returned!", "TAIR", row.getParamId());
+            int minIndex = 0;
+            int maxIndex = 0;
+            double sum = 0;
+            for (int station = 0; station < rowValues.size(); ++station)
+            {
+                double value = rowValues.get(station)[0];
+                minIndex = value < rowValues.get(minIndex)[0] ? station : minIndex;
+                maxIndex = value > rowValues.get(maxIndex)[0] ? station : maxIndex;
+                sum += value;
+            }
+            Assert.assertEquals("Incorrect value returned!", rowValues.get(minIndex)[0], row.getMin(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", rowValues.get(maxIndex)[0], row.getMax(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", sum / rowValues.size(), row.getMean(), 1e-9);
+            Assert.assertEquals("Incorrect value returned!", stations.get(row.getEpochMinute()).get(minIndex),
+                    row.getMinStationId());
+            Assert.assertEquals("Incorrect value returned!", stations.get(row.getEpochMinute()).get(maxIndex),
+                    row.getMaxStationId());
+        }
+
+        // sequential gives the same rows
+        ArrayList<NetworkRow> sequential = new ArrayList<NetworkRow>();
+        new NetworkSeries("TAIR").stream(files, sequential::add);
+        Assert.assertEquals("Incorrect value returned!", rows.size(), sequential.size());
+        Assert.assertEquals("Incorrect String returned!", rows.get(500).toString(), sequential.get(500).toString());
+    }
+
+    /**
+     * Test merging stations with missing rows and values
+     */
+    @Test
+    public void testMerge()
+    {
+        ParameterRegistry registry = ParameterRegistry.of("TAIR");
+        MesonetColumns first = new MesonetColumns("NRMN", 2018, 1, 1, registry);
+        first.addRow(0, new double[] { 1.5 });
+        first.addRow(5, new double[] { -996 });
+        first.addRow(15, new double[] { 4.0 });
+        MesonetColumns second = new MesonetColumns("OKCE", 2018, 1, 1, registry);
+        second.addRow(0, new double[] { 1.5 });
+        second.addRow(10, new double[] { 2.0 });
+        second.addRow(15, new double[] { 6.0 });
+        MesonetColumns other = new MesonetColumns("STIL", 2018, 1, 1, ParameterRegistry.of("SRAD"));
+        other.addRow(0, new double[] { 100 });
+
+        ArrayList<NetworkRow> rows = new NetworkSeries("TAIR").merge(Arrays.asList(first, second, other));
+        long midnight = EpochMinutes.of(2018, 1, 1, 0);
+        Assert.assertEquals("Incorrect value returned!", 4, rows.size());
+        Assert.assertEquals("Incorrect value returned!", midnight + 5, rows.get(1).getEpochMinute());
+
+        // equal values go to the station given first
+        Assert.assertEquals("Incorrect value returned!", 2, rows.get(0).getStationCount());
+        Assert.assertEquals("Incorrect value returned!", "NRMN", rows.get(0).getMinStationId());
+        Assert.assertEquals("Incorrect value returned!", "NRMN", rows.get(0).getMaxStationId());
+
+        Assert.assertEquals("Incorrect value returned!", 0, rows.get(1).getStationCount());
+        Assert.assertTrue("Incorrect value returned!", Double.isNaN(rows.get(1).getMean()));
+        Assert.assertNull("Incorrect value returned!", rows.get(1).getMaxStationId());
+        Assert.assertEquals("Incorrect value returned!", 2.0, rows.get(2).getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 5.0, rows.get(3).getMean(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", "OKCE", rows.get(3).getMaxStationId());
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Class that finds exact order statistics (median, percentiles) of samples
+ * held as a value and a minute offset each. The samples are copied into a
+ * primitive scratch buffer that is kept between calls, and the requested rank
+ * is found by introselect: quickselect with a median-of-three pivot, falling
+ * back to a heap sort of the remaining range if the partitions keep coming out
+ * lopsided. Samples are ordered by value (as Double.compare), then by minute,
+ * so ties always pick the same sample. Nothing is boxed and the samples are
+ * never fully sorted.
+ */
+public class OrderStatistics
+{
+    /** the values of the samples being selected from */
+    private double[] values = new double[0];
+
+    /** the minute offsets of the samples being selected from */
+    private int[] minutes = new int[0];
+
+    /** the number of samples loaded */
+    private int size;
+
+    /**
+     * Method to load samples into the scratch buffer, replacing those loaded
+     * before
+     *
+     * @param inValues
+     *            the values of the samples
+     * @param inMinutes
+     *            the minute offsets of the samples
+     * @param count
+     *            the number of samples, from the start of the arrays
+     */
+    public void load(double[] inValues, int[] inMinutes, int count)
+    {
+        if (values.length < count)
+        {
+            values = new double[count];
+            minutes = new int[count];
+        }
+        System.arraycopy(inValues, 0, values, 0, count);
+        System.arraycopy(inMinutes, 0, minutes, 0, count);
+        size = count;
+    }
+
+    /**
+     * Method to get the number of samples loaded
+     *
+     * @return int the number of samples
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Method to get the nearest rank of a fraction: the index of the smallest
+     * sample with at least fraction * count samples at or below it
+     *
+     * @param fraction
+     *            the fraction, 0 to 1
+     * @param count
+     *            the number of samples, at least one
+     * @return int the zero based rank
+     */
+    public static int rankOf(double fraction, int count)
+    {
+        if (fraction < 0 || fraction > 1 || Double.isNaN(fraction))
+        {
+            throw new IllegalArgumentException("Fraction out of range: " + fraction);
+        }
+        return Math.max(0, (int) Math.ceil(fraction * count) - 1);
+    }
+
+    /**
+     * Method to move the sample of a rank to its sorted position, with no
+     * larger samples before it and no smaller ones after it
+     *
+     * @param rank
+     *            the zero based rank
+     * @return int the rank, for use with getValue and getMinute
+     */
+    public int select(int rank)
+    {
+        if (rank < 0 || rank >= size)
+        {
+            throw new IndexOutOfBoundsException("No rank " + rank + " among " + size + " samples");
+        }
+
+        int low = 0;
+        int high = size - 1;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(size));
+        while (high > low)
+        {
+            if (depthLimit-- == 0)
+            {
+                // too many bad pivots: finish the range in O(n log n)
+                heapSort(low, high);
+                return rank;
+            }
+
+            int pivot = partition(low, high, medianOfThree(low, (low + high) >>> 1, high));
+            if (pivot == rank)
+            {
+                return rank;
+            }
+            else if (rank < pivot)
+            {
+                high = pivot - 1;
+            }
+            else
+            {
+                low = pivot + 1;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Method to get the value of a sample in the scratch buffer
+     *
+     * @param index
+     *            the index of the sample
+     * @return double the value
+     */
+    public double getValue(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Method to get the minute offset of a sample in the scratch buffer
+     *
+     * @param index
+     *            the index of the sample
+     * @return int the minute offset
+     */
+    public int getMinute(int index)
+    {
+        return minutes[index];
+    }
+
+    /**
+     * Private helper method that compares two samples by value, then minute
+     *
+     * @param first
+     *            the index of the first sample
+     * @param second
+     *            the index of the second sample
+     * @return boolean true if the first sample orders before the second
+     */
+    private boolean less(int first, int second)
+    {
+        int compare = Double.compare(values[first], values[second]);
+        return compare < 0 || (compare == 0 && minutes[first] < minutes[second]);
+    }
+
+    /**
+     * Private helper method that swaps two samples
+     *
+     * @param first
+     *            the index of the first sample
+     * @param second
+     *            the index of the second sample
+     */
+    private void swap(int first, int second)
+    {
+        double value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+        int minute = minutes[first];
+        minutes[first] = minutes[second];
+        minutes[second] = minute;
+    }
+
+    /**
+     * Private helper method for the index of the median of three samples
+     *
+     * @param first
+     *            the index of the first sample
+     * @param second
+     *            the index of the second sample
+     * @param third
+     *            the index of the third sample
+     * @return int the index of the sample ordering between the other two
+     */
+    private int medianOfThree(int first, int second, int third)
+    {
+        if (less(first, second))
+        {
+            return less(second, third) ? second : (less(first, third) ? third : first);
+        }
+        return less(first, third) ? first : (less(second, third) ? third : second);
+    }
+
+    /**
+     * Private helper method that partitions a range around a pivot sample
+     *
+     * @param low
+     *            the first index of the range
+     * @param high
+     *            the last index of the range
+     * @param pivot
+     *            the index of the pivot sample
+     * @return int the final index of the pivot sample
+     */
+    private int partition(int low, int high, int pivot)
+    {
+        swap(pivot, high);
+        int store = low;
+        for (int index = low; index < high; ++index)
+        {
+            if (less(index, high))
+            {
+                swap(index, store++);
+            }
+        }
+        swap(store, high);
+        return store;
+    }
+
+    /**
+     * Private helper method that heap sorts a range
+     *
+     * @param low
+     *            the first index of the range
+     * @param high
+     *            the last index of the range
+     */
+    private void heapSort(int low, int high)
+    {
+        int count = high - low + 1;
+        for (int parent = count / 2 - 1; parent >= 0; --parent)
+        {
+            siftDown(low, parent, count);
+        }
+        for (int end = count - 1; end > 0; --end)
+        {
+            swap(low, low + end);
+            siftDown(low, 0, end);
+        }
+    }
+
+    /**
+     * Private helper method that restores the max heap below a node
+     *
+     * @param low
+     *            the index of the heap's root in the buffer
+     * @param node
+     *            the node to sift down, relative to low
+     * @param count
+     *            the number of nodes in the heap
+     */
+    private void siftDown(int low, int node, int count)
+    {
+        while (2 * node + 1 < count)
+        {
+            int child = 2 * node + 1;
+            if (child + 1 < count && less(low + child, low + child + 1))
+            {
+                ++child;
+            }
+            if (!less(low + node, low + child))
+            {
+                return;
+            }
+            swap(low + node, low + child);
+            node = child;
+        }
+    }
+}
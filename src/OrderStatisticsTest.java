@@ -0,0 +1,85 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderStatisticsTest
+{
+    /**
+     * Method to test that every rank of random samples matches a sort
+     */
+    @Test
+    public void testSelect()
+    {
+        Random random = new Random(17);
+        OrderStatistics selector = new OrderStatistics();
+        for (int count : new int[] { 1, 2, 3, 10, 288, 1000 })
+        {
+            double[] values = new double[count];
+            int[] minutes = new int[count];
+            long[] keys = new long[count];
+            for (int index = 0; index < count; ++index)
+            {
+                // few distinct values so there are many ties
+                values[index] = random.nextInt(15) - 7;
+                minutes[index] = index * 5;
+                keys[index] = (long) values[index] * 100000 + minutes[index];
+            }
+            Arrays.sort(keys);
+
+            for (int rank = 0; rank < count; rank += Math.max(1, count / 50))
+            {
+                selector.load(values, minutes, count);
+                int index = selector.select(rank);
+                Assert.assertEquals("Incorrect value returned!", Math.floorDiv(keys[rank], 100000),
+                        (long) selector.getValue(index));
+                Assert.assertEquals("Incorrect minute returned!", Math.floorMod(keys[rank], 100000),
+                        selector.getMinute(index));
+            }
+        }
+    }
+
+    /**
+     * Method to test samples that all compare equal, where quickselect gives up
+     * and heap sorts
+     */
+    @Test
+    public void testAllEqual()
+    {
+        double[] values = new double[500];
+        int[] minutes = new int[500];
+        Arrays.fill(values, 2.5);
+
+        OrderStatistics selector = new OrderStatistics();
+        selector.load(values, minutes, values.length);
+        int index = selector.select(250);
+        Assert.assertEquals("Incorrect value returned!", 2.5, selector.getValue(index), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 500, selector.size());
+    }
+
+    /**
+     * Method to test the nearest ranks of fractions
+     */
+    @Test
+    public void testRankOf()
+    {
+        Assert.assertEquals("Incorrect rank returned!", 0, OrderStatistics.rankOf(0.0, 288));
+        Assert.assertEquals("Incorrect rank returned!", 143, OrderStatistics.rankOf(0.5, 288));
+        Assert.assertEquals("Incorrect rank returned!", 14, OrderStatistics.rankOf(0.05, 288));
+        Assert.assertEquals("Incorrect rank returned!", 273, OrderStatistics.rankOf(0.95, 288));
+        Assert.assertEquals("Incorrect rank returned!", 287, OrderStatistics.rankOf(1.0, 288));
+        Assert.assertEquals("Incorrect rank returned!", 1, OrderStatistics.rankOf(0.5, 3));
+
+        boolean throwException = false;
+        try
+        {
+            OrderStatistics.rankOf(1.5, 3);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+}
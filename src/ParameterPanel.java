@@ -22,8 +22,8 @@ public class ParameterPanel extends JPanel
     /** constant for Srad */
     public final String SRAD = "SRAD";
 
-    /// ** constant for WSPD */
-    // public final String WSPD = "WSPD";
+    /** constant for Wspd */
+    public final String WSPD = "WSPD";
 
     // Check boxes for the available parameters
     /** a JCheckBox object for air temperature */
@@ -35,8 +35,8 @@ public class ParameterPanel extends JPanel
     /** a JCheckBox object for srad */
     private JCheckBox srad;
 
-    // /** a JCheckBox object for wspd */
-    // private JCheckBox wspd;
+    /** a JCheckBox object for wspd */
+    private JCheckBox wspd;
 
     /** Constructor for ParameterPanel */
     public ParameterPanel()
@@ -52,7 +52,7 @@ public class ParameterPanel extends JPanel
         airTemp = new JCheckBox(TAIR);
         ta9m = new JCheckBox(TA9M);
         srad = new JCheckBox(SRAD);
-        // wspd = new JCheckBox(WSPD);
+        wspd = new JCheckBox(WSPD);
 
         airTemp.setSelected(true);
 
@@ -61,7 +61,7 @@ public class ParameterPanel extends JPanel
         add(airTemp);
         add(ta9m);
         add(srad);
-        // add(wspd);
+        add(wspd);
     }
 
     /** Method to get the parameter IDs */
@@ -81,10 +81,10 @@ public class ParameterPanel extends JPanel
         {
             result.add(SRAD);
         }
-        // if (wspd.isSelected())
-        // {
-        // result.add(WSPD);
-        // }
+        if (wspd.isSelected())
+        {
+            result.add(WSPD);
+        }
         return result;
     }
 }
@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class that numbers the measurement parameters of a Mesonet Time File. It is
+ * built from the parameter header once per file so that data can be stored and
+ * looked up by an int index instead of by parameter name. The id columns STID,
+ * STNM and TIME are not measurements and only their positions are kept.
+ */
+public class ParameterRegistry
+{
+    /** constant for station id parameter id */
+    public static final String STID = "STID";
+
+    /** constant for station number parameter id */
+    public static final String STNM = "STNM";
+
+    /** constant for time parameter id */
+    public static final String TIME = "TIME";
+
+    /** the registry used by TimeData objects built from tair, ta9m and srad */
+    public static final ParameterRegistry DEFAULT = new ParameterRegistry(new String[] { "TAIR", "TA9M", "SRAD" },
+            new int[] { -1, -1, -1 }, -1, -1, -1);
+
+    /** the upper case parameter ids, in index order */
+    private String[] paramIds;
+
+    /** the header position of every parameter */
+    private int[] positions;
+
+    /** HashMap from upper case parameter id to index */
+    private HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+
+    /** the header position of the station id */
+    private int stidPosition;
+
+    /** the header position of the station number */
+    private int stnmPosition;
+
+    /** the header position of the time */
+    private int timePosition;
+
+    /**
+     * Constructor for ParameterRegistry
+     *
+     * @param inParamIds
+     *            the parameter ids, in index order
+     * @param inPositions
+     *            the header position of every parameter
+     * @param inStidPosition
+     *            the header position of the station id
+     * @param inStnmPosition
+     *            the header position of the station number
+     * @param inTimePosition
+     *            the header position of the time
+     */
+    private ParameterRegistry(String[] inParamIds, int[] inPositions, int inStidPosition, int inStnmPosition,
+            int inTimePosition)
+    {
+        paramIds = inParamIds;
+        positions = inPositions;
+        stidPosition = inStidPosition;
+        stnmPosition = inStnmPosition;
+        timePosition = inTimePosition;
+
+        for (int index = 0; index < paramIds.length; ++index)
+        {
+            paramIds[index] = paramIds[index].toUpperCase();
+            indexes.put(paramIds[index], index);
+        }
+    }
+
+    /**
+     * Method to build a registry from a parameter header
+     *
+     * @param headerIds
+     *            the ids of the header, in column order
+     * @return ParameterRegistry the registry of the header's measurements
+     */
+    public static ParameterRegistry fromHeader(List<String> headerIds)
+    {
+        return fromHeader(headerIds, null);
+    }
+
+    /**
+     * Method to build a registry from a parameter header, keeping only some of
+     * its measurements
+     *
+     * @param headerIds
+     *            the ids of the header, in column order
+     * @param projection
+     *            the upper case parameter ids to keep, or null to keep all of them
+     * @return ParameterRegistry the registry of the kept measurements
+     */
+    public static ParameterRegistry fromHeader(List<String> headerIds, Set<String> projection)
+    {
+        ArrayList<String> ids = new ArrayList<String>();
+        ArrayList<Integer> columns = new ArrayList<Integer>();
+        int stid = -1;
+        int stnm = -1;
+        int time = -1;
+
+        for (int column = 0; column < headerIds.size(); ++column)
+        {
+            String id = headerIds.get(column).toUpperCase();
+            if (id.equals(STID))
+            {
+                stid = column;
+            }
+            else if (id.equals(STNM))
+            {
+                stnm = column;
+            }
+            else if (id.equals(TIME))
+            {
+                time = column;
+            }
+            else if ((projection == null || projection.contains(id)) && !ids.contains(id))
+            {
+                ids.add(id);
+                columns.add(column);
+            }
+        }
+
+        int[] positions = new int[columns.size()];
+        for (int index = 0; index < positions.length; ++index)
+        {
+            positions[index] = columns.get(index);
+        }
+        return new ParameterRegistry(ids.toArray(new String[ids.size()]), positions, stid, stnm, time);
+    }
+
+    /**
+     * Method to build a registry that is not tied to a header
+     *
+     * @param inParamIds
+     *            the parameter ids, in index order
+     * @return ParameterRegistry the registry of the parameters
+     */
+    public static ParameterRegistry of(String... inParamIds)
+    {
+        int[] positions = new int[inParamIds.length];
+        for (int index = 0; index < positions.length; ++index)
+        {
+            positions[index] = -1;
+        }
+        return new ParameterRegistry(inParamIds.clone(), positions, -1, -1, -1);
+    }
+
+    /**
+     * Method to get the number of parameters
+     *
+     * @return int the number of parameters
+     */
+    public int size()
+    {
+        return paramIds.length;
+    }
+
+    /**
+     * Method to get the id of a parameter
+     *
+     * @param index
+     *            the index of the parameter
+     * @return String the upper case parameter id
+     */
+    public String getParamId(int index)
+    {
+        return paramIds[index];
+    }
+
+    /**
+     * Method to get all parameter ids
+     *
+     * @return String[] the upper case parameter ids, in index order
+     */
+    public String[] getParamIds()
+    {
+        return paramIds.clone();
+    }
+
+    /**
+     * Method to find the index of a parameter. Upper case ids are found with a
+     * single hash lookup and nothing is allocated for other cases.
+     *
+     * @param paramId
+     *            the parameter id, in any case
+     * @return int the index, or -1 if the parameter is not registered
+     */
+    public int indexOf(String paramId)
+    {
+        Integer index = indexes.get(paramId);
+        if (index != null)
+        {
+            return index;
+        }
+
+        for (int other = 0; other < paramIds.length; ++other)
+        {
+            if (paramIds[other].equalsIgnoreCase(paramId))
+            {
+                return other;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the header position of a parameter
+     *
+     * @param index
+     *            the index of the parameter
+     * @return int the header position, or -1 if not built from a header
+     */
+    public int getPosition(int index)
+    {
+        return positions[index];
+    }
+
+    /**
+     * Method to get the header position of the station id
+     *
+     * @return int the header position
+     */
+    public int getStidPosition()
+    {
+        return stidPosition;
+    }
+
+    /**
+     * Method to get the header position of the station number
+     *
+     * @return int the header position
+     */
+    public int getStnmPosition()
+    {
+        return stnmPosition;
+    }
+
+    /**
+     * Method to get the header position of the time
+     *
+     * @return int the header position
+     */
+    public int getTimePosition()
+    {
+        return timePosition;
+    }
+
+    /**
+     * Method to get the last header position any registered column needs
+     *
+     * @return int the largest header position
+     */
+    public int getLastPosition()
+    {
+        int last = Math.max(stidPosition, Math.max(stnmPosition, timePosition));
+        for (int position : positions)
+        {
+            last = Math.max(last, position);
+        }
+        return last;
+    }
+}
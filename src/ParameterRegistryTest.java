@@ -0,0 +1,48 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for ParameterRegistry
+ */
+public class ParameterRegistryTest
+{
+    /** a parameter header to build registries from */
+    private List<String> header = Arrays.asList("STID", "STNM", "TIME", "RELH", "TAIR", "WSPD", "PRES", "SRAD");
+
+    /** Method to test a registry built from a header */
+    @Test
+    public void testFromHeader()
+    {
+        ParameterRegistry registry = ParameterRegistry.fromHeader(header);
+
+        Assert.assertEquals("Wrong number of parameters!", 5, registry.size());
+        Assert.assertEquals("Wrong station id position!", 0, registry.getStidPosition());
+        Assert.assertEquals("Wrong station number position!", 1, registry.getStnmPosition());
+        Assert.assertEquals("Wrong time position!", 2, registry.getTimePosition());
+        Assert.assertEquals("Wrong index!", 1, registry.indexOf("TAIR"));
+        Assert.assertEquals("Wrong index!", 1, registry.indexOf("tair"));
+        Assert.assertEquals("Wrong id!", "TAIR", registry.getParamId(1));
+        Assert.assertEquals("Wrong position!", 4, registry.getPosition(1));
+        Assert.assertEquals("Id column registered!", -1, registry.indexOf("STID"));
+        Assert.assertEquals("Unknown parameter found!", -1, registry.indexOf("TA9M"));
+        Assert.assertEquals("Wrong last position!", 7, registry.getLastPosition());
+    }
+
+    /** Method to test a registry that keeps only some parameters */
+    @Test
+    public void testProjection()
+    {
+        ParameterRegistry registry = ParameterRegistry.fromHeader(header,
+                new HashSet<String>(Arrays.asList("WSPD", "RELH")));
+
+        Assert.assertEquals("Wrong number of parameters!", 2, registry.size());
+        Assert.assertEquals("Wrong id!", "RELH", registry.getParamId(0));
+        Assert.assertEquals("Wrong id!", "WSPD", registry.getParamId(1));
+        Assert.assertEquals("Dropped parameter found!", -1, registry.indexOf("SRAD"));
+        Assert.assertEquals("Wrong last position!", 5, registry.getLastPosition());
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.HashMap;
+
+/**
+ * Class holding the resolution Mesonet reports every parameter at, as the power
+ * of ten a value is multiplied by to make it an integer (10 for 0.1 degrees C,
+ * 100 for 0.01 hPa). Used to store values as scaled integers.
+ */
+public final class ParameterScales
+{
+    /** HashMap from upper case parameter id to scale */
+    private static final HashMap<String, Integer> SCALES = new HashMap<String, Integer>();
+
+    static
+    {
+        // whole numbers: percent, degrees, W/m^2
+        for (String param : new String[] { "RELH", "WDIR", "SRAD" })
+        {
+            SCALES.put(param, 1);
+        }
+
+        // tenths: degrees C and m/s
+        for (String param : new String[] { "TAIR", "TA9M", "WSPD", "WVEC", "WDSD", "WSSD", "WMAX", "WS2M", "TS10",
+                "TB10", "TS05", "TS25", "TS60" })
+        {
+            SCALES.put(param, 10);
+        }
+
+        // hundredths: hPa, mm and the calibrated soil temperature differences
+        for (String param : new String[] { "PRES", "RAIN", "TR05", "TR25", "TR60" })
+        {
+            SCALES.put(param, 100);
+        }
+    }
+
+    /**
+     * Constructor that prevents instances
+     */
+    private ParameterScales()
+    {
+    }
+
+    /**
+     * Method to get the scale of a parameter
+     *
+     * @param paramId
+     *            the parameter id, in any case
+     * @return int the scale, or 0 if the parameter has none
+     */
+    public static int getScale(String paramId)
+    {
+        Integer scale = SCALES.get(paramId.toUpperCase());
+        return scale == null ? 0 : scale;
+    }
+}
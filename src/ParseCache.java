@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Class that keeps the results of parsing files so that a file is only parsed
+ * again once it changes. Entries are keyed on the path, modification time and
+ * size of the file, so an edited file misses automatically. The least recently
+ * used entry is evicted once the cache is full. Safe to share between threads.
+ * 
+ * @param <V>
+ *            the type of the parse result
+ */
+public class ParseCache<V>
+{
+    /** the number of entries kept by the default constructor */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** a LinkedHashMap in access order, holding the results by key */
+    private LinkedHashMap<String, V> entries;
+
+    /** the largest number of entries kept */
+    private int capacity;
+
+    /** the number of lookups answered from the cache */
+    private long hitCount;
+
+    /** the number of lookups that had to parse */
+    private long missCount;
+
+    /** the number of entries evicted */
+    private long evictionCount;
+
+    /**
+     * An interface for parsing a file on a cache miss
+     * 
+     * @param <V>
+     *            the type of the parse result
+     */
+    public interface Loader<V>
+    {
+        /**
+         * the load method, called when the result is not cached
+         * 
+         * @return V the parse result
+         * @throws IOException
+         * @throws WrongCopyrightException
+         */
+        V load() throws IOException, WrongCopyrightException;
+    }
+
+    /**
+     * Constructor for ParseCache holding DEFAULT_CAPACITY entries
+     */
+    public ParseCache()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for ParseCache
+     * 
+     * @param inCapacity
+     *            the largest number of entries to keep
+     */
+    public ParseCache(int inCapacity)
+    {
+        if (inCapacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + inCapacity);
+        }
+        capacity = inCapacity;
+        entries = new LinkedHashMap<String, V>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+            {
+                if (size() > capacity)
+                {
+                    ++evictionCount;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Method to get the parse result of a file, parsing it on a miss
+     * 
+     * @param file
+     *            the file that is parsed
+     * @param params
+     *            the parameter ids the result was parsed for, or null for all of
+     *            them
+     * @param loader
+     *            the loader that parses the file on a miss
+     * @return V the cached or freshly parsed result
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    public V get(CsAbstractFile file, Set<String> params, Loader<V> loader)
+            throws IOException, WrongCopyrightException
+    {
+        String key = keyOf(file, params);
+        synchronized (this)
+        {
+            V result = entries.get(key);
+            if (result != null)
+            {
+                ++hitCount;
+                return result;
+            }
+            ++missCount;
+        }
+
+        // parse outside the lock so other files can be served meanwhile
+        V result = loader.load();
+        synchronized (this)
+        {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Method to drop every entry
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Method to get the number of entries
+     * 
+     * @return int the number of cached results
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Method to get the largest number of entries kept
+     * 
+     * @return int the capacity
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Method to get the number of lookups answered from the cache
+     * 
+     * @return long the hit count
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Method to get the number of lookups that had to parse
+     * 
+     * @return long the miss count
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Method to get the number of entries evicted
+     * 
+     * @return long the eviction count
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * toString method describing the use of the cache
+     * 
+     * @return String a descriptive string
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("ParseCache: %d/%d entries, %d hits, %d misses, %d evictions", entries.size(),
+                capacity, hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Private helper method to build the key of a file
+     * 
+     * @param file
+     *            the file that is parsed
+     * @param params
+     *            the parameter ids the result was parsed for, or null for all of
+     *            them
+     * @return String the key of the file's current contents
+     */
+    private static String keyOf(CsAbstractFile file, Set<String> params)
+    {
+        String projection = "*";
+        if (params != null)
+        {
+            TreeSet<String> sorted = new TreeSet<String>();
+            for (String param : params)
+            {
+                sorted.add(param.toUpperCase());
+            }
+            projection = sorted.toString();
+        }
+        return String.format("%s|%d|%d|%s", file.file.getAbsolutePath(), file.getDateModified(), file.getSize(),
+                projection);
+    }
+}
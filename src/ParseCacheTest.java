@@ -0,0 +1,90 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for ParseCache
+ */
+public class ParseCacheTest
+{
+    /** a cache to test */
+    private ParseCache<DayDataStatistics> cache;
+
+    /** the number of times a loader was run */
+    private int loads;
+
+    /**
+     * the setup before running the tests. Initializes the variables
+     */
+    @Before
+    public void setUp()
+    {
+        cache = new ParseCache<DayDataStatistics>(2);
+        loads = 0;
+    }
+
+    /**
+     * Private helper method to get a file's statistics through the cache
+     * 
+     * @param fileName
+     *            the file to parse
+     * @return DayDataStatistics the statistics of the file
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    private DayDataStatistics lookup(String fileName) throws IOException, WrongCopyrightException
+    {
+        final MesonetTimeFile file = new MesonetTimeFile(fileName);
+        return cache.get(file, Collections.singleton("TAIR"), () -> {
+            ++loads;
+            return new DayDataStatistics(file, Collections.singleton("TAIR"));
+        });
+    }
+
+    /** Method to test hits, misses and LRU eviction */
+    @Test
+    public void testHitsMissesAndEviction() throws IOException, WrongCopyrightException
+    {
+        DayDataStatistics first = lookup("data/mesonet/20180102stil.mts");
+        Assert.assertSame("Cached result not returned!", first, lookup("data/mesonet/20180102stil.mts"));
+        Assert.assertEquals("Wrong hit count!", 1, cache.getHitCount());
+        Assert.assertEquals("Wrong miss count!", 1, cache.getMissCount());
+
+        lookup("data/mesonet/20180102okce.mts");
+        lookup("data/mesonet/20180102stil.mts");
+        lookup("data/mesonet/20180102okcn.mts");
+
+        // okce was the least recently used, so it was evicted
+        Assert.assertEquals("Wrong eviction count!", 1, cache.getEvictionCount());
+        Assert.assertEquals("Wrong size!", 2, cache.size());
+        lookup("data/mesonet/20180102stil.mts");
+        Assert.assertEquals("Wrong number of loads!", 3, loads);
+        lookup("data/mesonet/20180102okce.mts");
+        Assert.assertEquals("Wrong number of loads!", 4, loads);
+    }
+
+    /** Method to test that a modified file is parsed again */
+    @Test
+    public void testModifiedFileMisses() throws IOException, WrongCopyrightException
+    {
+        File copy = File.createTempFile("20180102stil", ".mts");
+        copy.deleteOnExit();
+        Files.copy(new File("data/mesonet/20180102stil.mts").toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        copy.setLastModified(1000000L);
+        lookup(copy.getPath());
+        lookup(copy.getPath());
+        Assert.assertEquals("Wrong number of loads!", 1, loads);
+
+        copy.setLastModified(2000000L);
+        lookup(copy.getPath());
+        Assert.assertEquals("Modified file not parsed again!", 2, loads);
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * an enum holding the ways a MesonetTimeFile can be read
+ */
+public enum ParseMode
+{
+    /** read line by line and split each row on white space */
+    READER,
+
+    /** memory map the file and tokenize the rows directly from the bytes */
+    MAPPED;
+}
@@ -0,0 +1,378 @@
+import java.util.Arrays;
+
+/**
+ * Class holding a KLL quantile sketch (Karnin, Lang and Liberty, 2016) of a
+ * stream of values. The values are kept in levels of compactors; an item of
+ * level h stands for 2^h values. When the sketch is full, the lowest level over
+ * its capacity is sorted and every other item (from a random offset) is moved up
+ * a level, so the sketch keeps about 3k items however many values it sees.
+ * Sketches merge by joining their levels and compacting again, so the sketches
+ * of days combine into months and years.
+ * <p>
+ * Error bounds: while no more than k values were added the sketch is exact.
+ * After that the rank of a returned quantile is off by at most about 1.7% of
+ * the count, with 99% confidence, for the default k of 200 (the error shrinks
+ * as 1/k). The minimum and maximum are always exact. Compaction uses a fixed
+ * seed, so the same values in the same order give the same answers.
+ */
+public class QuantileSketch
+{
+    /** the default size of the top compactor */
+    public static final int DEFAULT_K = 200;
+
+    /** the smallest size of a compactor */
+    private static final int MIN_CAPACITY = 8;
+
+    /** the ratio of the capacities of two adjacent levels */
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    /** the size of the top compactor */
+    private int k;
+
+    /** the items of every level, level 0 first */
+    private double[][] levels;
+
+    /** the number of items in every level */
+    private int[] sizes;
+
+    /** the number of values added */
+    private long count;
+
+    /** the smallest value added */
+    private double min = Double.NaN;
+
+    /** the largest value added */
+    private double max = Double.NaN;
+
+    /** the state of the xorshift generator choosing the compaction offsets */
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Constructor for QuantileSketch with the default k
+     */
+    public QuantileSketch()
+    {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructor for QuantileSketch
+     *
+     * @param inK
+     *            the size of the top compactor, at least 8; larger is more
+     *            accurate
+     */
+    public QuantileSketch(int inK)
+    {
+        if (inK < MIN_CAPACITY)
+        {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + inK);
+        }
+        k = inK;
+        levels = new double[][] { new double[MIN_CAPACITY] };
+        sizes = new int[1];
+    }
+
+    /**
+     * Copy constructor for QuantileSketch
+     *
+     * @param other
+     *            the sketch to copy
+     */
+    public QuantileSketch(QuantileSketch other)
+    {
+        k = other.k;
+        levels = new double[other.levels.length][];
+        for (int level = 0; level < levels.length; ++level)
+        {
+            levels[level] = Arrays.copyOf(other.levels[level], Math.max(other.sizes[level], MIN_CAPACITY));
+        }
+        sizes = other.sizes.clone();
+        count = other.count;
+        min = other.min;
+        max = other.max;
+        randomState = other.randomState;
+    }
+
+    /**
+     * Method to add a value to the sketch
+     *
+     * @param value
+     *            the value, not NaN
+     */
+    public void update(double value)
+    {
+        if (count == 0 || value < min)
+        {
+            min = value;
+        }
+        if (count == 0 || value > max)
+        {
+            max = value;
+        }
+        ++count;
+
+        append(0, value);
+        if (getRetainedItems() > getTotalCapacity())
+        {
+            compress();
+        }
+    }
+
+    /**
+     * Method to merge this sketch with another one. Neither sketch is changed.
+     *
+     * @param other
+     *            the sketch to merge with, with the same k
+     * @return QuantileSketch a new sketch of the values of both
+     */
+    public QuantileSketch merge(QuantileSketch other)
+    {
+        if (other.k != k)
+        {
+            throw new IllegalArgumentException("Cannot merge sketches of k " + k + " and " + other.k);
+        }
+
+        QuantileSketch merged = new QuantileSketch(this);
+        if (other.count == 0)
+        {
+            return merged;
+        }
+
+        for (int level = 0; level < other.sizes.length; ++level)
+        {
+            for (int item = 0; item < other.sizes[level]; ++item)
+            {
+                merged.append(level, other.levels[level][item]);
+            }
+        }
+        merged.min = count == 0 || other.min < min ? other.min : min;
+        merged.max = count == 0 || other.max > max ? other.max : max;
+        merged.count = count + other.count;
+
+        // mix the generators, so the result depends on both sketches only
+        merged.randomState = Long.rotateLeft(randomState, 17) ^ other.randomState;
+        while (merged.getRetainedItems() > merged.getTotalCapacity())
+        {
+            merged.compress();
+        }
+        return merged;
+    }
+
+    /**
+     * Method to get a quantile of the values, by nearest rank: the smallest
+     * value whose rank is at least fraction * count
+     *
+     * @param fraction
+     *            the fraction of the values at or below the quantile, 0 to 1
+     * @return double the quantile, NaN if no values were added
+     */
+    public double getQuantile(double fraction)
+    {
+        if (fraction < 0 || fraction > 1 || Double.isNaN(fraction))
+        {
+            throw new IllegalArgumentException("Fraction out of range: " + fraction);
+        }
+        if (count == 0)
+        {
+            return Double.NaN;
+        }
+        if (fraction == 0)
+        {
+            return min;
+        }
+        if (fraction == 1)
+        {
+            return max;
+        }
+
+        // walk the sorted levels together, adding the weights of the items
+        long target = Math.max(1, (long) Math.ceil(fraction * count));
+        double[][] sorted = new double[sizes.length][];
+        int[] positions = new int[sizes.length];
+        for (int level = 0; level < sizes.length; ++level)
+        {
+            sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted[level]);
+        }
+
+        long rank = 0;
+        while (true)
+        {
+            int lowest = -1;
+            for (int level = 0; level < sorted.length; ++level)
+            {
+                if (positions[level] < sorted[level].length
+                        && (lowest < 0 || sorted[level][positions[level]] < sorted[lowest][positions[lowest]]))
+                {
+                    lowest = level;
+                }
+            }
+            if (lowest < 0)
+            {
+                return max;
+            }
+
+            double value = sorted[lowest][positions[lowest]++];
+            rank += 1L << lowest;
+            if (rank >= target)
+            {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Method to get the number of values added
+     *
+     * @return long the number of values
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Method to get the smallest value added
+     *
+     * @return double the smallest value, NaN if no values were added
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Method to get the largest value added
+     *
+     * @return double the largest value, NaN if no values were added
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Method to get the size of the top compactor
+     *
+     * @return int k
+     */
+    public int getK()
+    {
+        return k;
+    }
+
+    /**
+     * Method to get the number of items kept
+     *
+     * @return int the number of items in every level
+     */
+    public int getRetainedItems()
+    {
+        int retained = 0;
+        for (int size : sizes)
+        {
+            retained += size;
+        }
+        return retained;
+    }
+
+    /**
+     * Private helper method to add an item to a level, adding the level if
+     * needed
+     *
+     * @param level
+     *            the level
+     * @param item
+     *            the item
+     */
+    private void append(int level, double item)
+    {
+        if (level == sizes.length)
+        {
+            levels = Arrays.copyOf(levels, level + 1);
+            levels[level] = new double[MIN_CAPACITY];
+            sizes = Arrays.copyOf(sizes, level + 1);
+        }
+        if (sizes[level] == levels[level].length)
+        {
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+        }
+        levels[level][sizes[level]++] = item;
+    }
+
+    /**
+     * Private helper method for the capacity of a level; the top level holds k
+     * items and every level below two thirds of the one above
+     *
+     * @param level
+     *            the level
+     * @return int the number of items the level may hold
+     */
+    private int getCapacity(int level)
+    {
+        int depth = sizes.length - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+    /**
+     * Private helper method for the capacity of the whole sketch
+     *
+     * @return int the number of items the levels may hold
+     */
+    private int getTotalCapacity()
+    {
+        int capacity = 0;
+        for (int level = 0; level < sizes.length; ++level)
+        {
+            capacity += getCapacity(level);
+        }
+        return capacity;
+    }
+
+    /**
+     * Private helper method that compacts the lowest level over its capacity:
+     * half of its sorted items move up a level with twice the weight, and an odd
+     * item out stays behind, so the total weight is kept.
+     */
+    private void compress()
+    {
+        for (int level = 0; level < sizes.length; ++level)
+        {
+            if (sizes[level] < getCapacity(level))
+            {
+                continue;
+            }
+
+            double[] items = levels[level];
+            int size = sizes[level];
+            Arrays.sort(items, 0, size);
+
+            // the lowest item stays behind when the level is odd
+            int first = size % 2;
+            int offset = nextBit();
+            for (int item = first + offset; item < size; item += 2)
+            {
+                append(level + 1, items[item]);
+            }
+
+            // appending may have added a level, but not replaced this one
+            levels[level][0] = items[0];
+            sizes[level] = first;
+            return;
+        }
+    }
+
+    /**
+     * Private helper method for a random bit from the xorshift generator
+     *
+     * @return int 0 or 1
+     */
+    private int nextBit()
+    {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QuantileSketchTest
+{
+    /**
+     * Method to test that a sketch of no more than k values is exact
+     */
+    @Test
+    public void testExact()
+    {
+        QuantileSketch sketch = new QuantileSketch();
+        Assert.assertTrue("Incorrect value returned!", Double.isNaN(sketch.getQuantile(0.5)));
+        for (double value : new double[] { 10.0, 1.0, 78.0, -3.5 })
+        {
+            sketch.update(value);
+        }
+
+        Assert.assertEquals("Incorrect value returned!", 4, sketch.getCount());
+        Assert.assertEquals("Incorrect value returned!", -3.5, sketch.getQuantile(0.0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", -3.5, sketch.getQuantile(0.05), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 1.0, sketch.getQuantile(0.5), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 10.0, sketch.getQuantile(0.51), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 78.0, sketch.getQuantile(0.95), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 78.0, sketch.getQuantile(1.0), 0.0);
+    }
+
+    /**
+     * Method to test the rank error of a long stream and of merged sketches
+     */
+    @Test
+    public void testRankError()
+    {
+        Random random = new Random(11);
+        double[] values = new double[100000];
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch merged = new QuantileSketch();
+        QuantileSketch day = new QuantileSketch();
+        for (int index = 0; index < values.length; ++index)
+        {
+            values[index] = Math.round(random.nextGaussian() * 100) / 10.0;
+            whole.update(values[index]);
+            day.update(values[index]);
+
+            // sketches of 288 values, as for a day of five minute rows
+            if (index % 288 == 287 || index == values.length - 1)
+            {
+                merged = merged.merge(day);
+                day = new QuantileSketch();
+            }
+        }
+        Arrays.sort(values);
+
+        Assert.assertEquals("Incorrect value returned!", values.length, merged.getCount());
+        Assert.assertTrue("Too many items kept!", whole.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+        Assert.assertTrue("Too many items kept!", merged.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+        for (double fraction : new double[] { 0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99 })
+        {
+            assertRank(values, fraction, whole.getQuantile(fraction));
+            assertRank(values, fraction, merged.getQuantile(fraction));
+        }
+        Assert.assertEquals("Incorrect value returned!", values[0], merged.getQuantile(0.0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", values[values.length - 1], merged.getQuantile(1.0), 0.0);
+    }
+
+    /**
+     * Method to test that merging and copying leave the sketches alone
+     */
+    @Test
+    public void testMergeCopies()
+    {
+        QuantileSketch first = new QuantileSketch(8);
+        QuantileSketch second = new QuantileSketch(8);
+        ArrayList<Double> values = new ArrayList<Double>();
+        for (int value = 0; value < 100; ++value)
+        {
+            values.add((double) value);
+        }
+        Collections.shuffle(values, new Random(5));
+        for (int index = 0; index < values.size(); ++index)
+        {
+            (index < 50 ? first : second).update(values.get(index));
+        }
+
+        QuantileSketch copy = new QuantileSketch(first);
+        double median = first.getQuantile(0.5);
+        QuantileSketch merged = first.merge(second);
+        copy.update(1000.0);
+
+        Assert.assertEquals("Incorrect value returned!", 50, first.getCount());
+        Assert.assertEquals("Incorrect value returned!", median, first.getQuantile(0.5), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 100, merged.getCount());
+        Assert.assertEquals("Incorrect value returned!", 99.0, merged.getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 1000.0, copy.getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", merged.getQuantile(0.5),
+                first.merge(second).getQuantile(0.5), 0.0);
+
+        boolean throwException = false;
+        try
+        {
+            first.merge(new QuantileSketch());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+    }
+
+    /**
+     * Private helper method that checks the rank of an estimated quantile is
+     * within 2% of the count of the requested rank
+     *
+     * @param sorted
+     *            the values, sorted
+     * @param fraction
+     *            the requested fraction
+     * @param estimate
+     *            the estimated quantile
+     */
+    private void assertRank(double[] sorted, double fraction, double estimate)
+    {
+        // the values below and at the estimate bracket its rank
+        int below = 0;
+        while (below < sorted.length && sorted[below] < estimate)
+        {
+            ++below;
+        }
+        int atOrBelow = below;
+        while (atOrBelow < sorted.length && sorted[atOrBelow] == estimate)
+        {
+            ++atOrBelow;
+        }
+
+        double target = fraction * sorted.length;
+        double error = target < below ? below - target : Math.max(0, target - atOrBelow);
+        Assert.assertTrue("Rank error too large at " + fraction + ": " + error, error <= 0.02 * sorted.length);
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * An interface for being told of the files a MesonetDirectoryWatcher could not
+ * refresh, instead of the failures being printed.
+ */
+public interface RefreshFailureListener
+{
+    /**
+     * the refreshFailed method, called on the worker thread after the failure
+     * was counted
+     *
+     * @param fileName
+     *            the file that could not be refreshed or removed
+     * @param cause
+     *            the exception the refresh threw
+     */
+    void refreshFailed(String fileName, Exception cause);
+}
@@ -0,0 +1,457 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Class holding pre-aggregated buckets of every station and parameter: one
+ * StatisticsAggregate per hour, per day and per month, keyed by the start of
+ * the bucket. The buckets are filled from the DayDataStatistics of every file
+ * as it is read, and a range is answered by merging the coarsest buckets that
+ * fit in it, so a year takes about a dozen merges instead of a pass over
+ * every row. Hours keep no quantile sketch, so quantiles are only known for
+ * ranges made of whole days.
+ */
+public class RollupCube
+{
+    /**
+     * HashMaps from upper case parameter id to the buckets of one station,
+     * indexed by the station's network index
+     */
+    private ArrayList<HashMap<String, Buckets>> stations = new ArrayList<HashMap<String, Buckets>>();
+
+    /**
+     * Class holding the hourly, daily and monthly buckets of one station and
+     * parameter, keyed by their start as minutes since the epoch
+     */
+    private static class Buckets
+    {
+        /** the statistics of every hour with valid values */
+        private TreeMap<Long, StatisticsAggregate> hours = new TreeMap<Long, StatisticsAggregate>();
+
+        /** the statistics of every day with valid values */
+        private TreeMap<Long, StatisticsAggregate> days = new TreeMap<Long, StatisticsAggregate>();
+
+        /** the statistics of every month with valid values */
+        private TreeMap<Long, StatisticsAggregate> months = new TreeMap<Long, StatisticsAggregate>();
+
+        /**
+         * Method to get the buckets of a period
+         *
+         * @param period
+         *            HOUR, DAY or MONTH
+         * @return TreeMap<Long, StatisticsAggregate> the buckets
+         */
+        private TreeMap<Long, StatisticsAggregate> get(RollupPeriod period)
+        {
+            switch (period)
+            {
+                case HOUR:
+                    return hours;
+                case DAY:
+                    return days;
+                case MONTH:
+                    return months;
+                default:
+                    throw new IllegalArgumentException("No " + period + " buckets are kept");
+            }
+        }
+    }
+
+    /**
+     * Method to put the statistics of a station's day in the cube, replacing the
+     * hours and day the station had at that date. A new day is merged into its
+     * month; the month is only merged again from its days when a day is
+     * replaced, or when the new day falls between days the month already has,
+     * so that the days of a month are always merged in time order.
+     *
+     * @param dataStats
+     *            the statistics of the day
+     * @return boolean true if the station already had statistics at that date
+     */
+    public synchronized boolean putDay(DayDataStatistics dataStats)
+    {
+        int station = dataStats.getStationIndex();
+        if (station == StationRegistry.UNKNOWN)
+        {
+            return false;
+        }
+        HashMap<String, Buckets> stationBuckets = getStationBuckets(station);
+
+        // parameters missing from the new statistics lose the day as well
+        long midnight = dataStats.getStartEpochMinute();
+        HashSet<String> replaced = new HashSet<String>();
+        for (Map.Entry<String, Buckets> entry : stationBuckets.entrySet())
+        {
+            Buckets buckets = entry.getValue();
+            buckets.hours.subMap(midnight, midnight + EpochMinutes.MINUTES_PER_DAY).clear();
+            if (buckets.days.remove(midnight) != null)
+            {
+                replaced.add(entry.getKey());
+            }
+        }
+
+        ParameterRegistry registry = dataStats.getRegistry();
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            StatisticsAggregate dayAggregate = dataStats.getAggregate(param);
+            if (dayAggregate == null)
+            {
+                continue;
+            }
+
+            Buckets buckets = stationBuckets.get(registry.getParamId(param));
+            if (buckets == null)
+            {
+                buckets = new Buckets();
+                stationBuckets.put(registry.getParamId(param), buckets);
+            }
+            buckets.days.put(midnight, dayAggregate);
+            for (int hour = 0; hour < dataStats.getHourCount(); ++hour)
+            {
+                StatisticsAggregate hourAggregate = dataStats.getHourlyAggregate(hour, param);
+                if (hourAggregate != null)
+                {
+                    buckets.hours.put(hourAggregate.getStartEpochMinute(), hourAggregate);
+                }
+            }
+        }
+
+        long monthStart = RollupPeriod.MONTH.getStart(midnight);
+        long monthEnd = getNextMonth(monthStart);
+        for (Map.Entry<String, Buckets> entry : stationBuckets.entrySet())
+        {
+            Buckets buckets = entry.getValue();
+            StatisticsAggregate dayAggregate = buckets.days.get(midnight);
+            if (replaced.contains(entry.getKey()))
+            {
+                mergeMonth(buckets, monthStart, monthEnd);
+                continue;
+            }
+            if (dayAggregate == null)
+            {
+                continue;
+            }
+
+            // the new day goes after the days of the month, or before them
+            SortedMap<Long, StatisticsAggregate> monthDays = buckets.days.subMap(monthStart, monthEnd);
+            StatisticsAggregate month = buckets.months.get(monthStart);
+            if (month == null || monthDays.lastKey() == midnight)
+            {
+                buckets.months.put(monthStart, month == null ? dayAggregate : month.merge(dayAggregate));
+            }
+            else if (monthDays.firstKey() == midnight)
+            {
+                buckets.months.put(monthStart, dayAggregate.merge(month));
+            }
+            else
+            {
+                mergeMonth(buckets, monthStart, monthEnd);
+            }
+        }
+        return !replaced.isEmpty();
+    }
+
+    /**
+     * Method to put the hours of a station's day in the cube, replacing the
+     * hours the station had at that date but leaving its days and months
+     * alone, for a day put without its hours
+     *
+     * @param dataStats
+     *            the statistics of the day, with their hours
+     */
+    public synchronized void putHours(DayDataStatistics dataStats)
+    {
+        int station = dataStats.getStationIndex();
+        if (station == StationRegistry.UNKNOWN)
+        {
+            return;
+        }
+        HashMap<String, Buckets> stationBuckets = getStationBuckets(station);
+
+        long midnight = dataStats.getStartEpochMinute();
+        for (Buckets buckets : stationBuckets.values())
+        {
+            buckets.hours.subMap(midnight, midnight + EpochMinutes.MINUTES_PER_DAY).clear();
+        }
+        ParameterRegistry registry = dataStats.getRegistry();
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            Buckets buckets = stationBuckets.get(registry.getParamId(param));
+            for (int hour = 0; buckets != null && hour < dataStats.getHourCount(); ++hour)
+            {
+                StatisticsAggregate hourAggregate = dataStats.getHourlyAggregate(hour, param);
+                if (hourAggregate != null)
+                {
+                    buckets.hours.put(hourAggregate.getStartEpochMinute(), hourAggregate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to take the hours and day of a station at a date out of the cube.
+     * The months the day was in are merged again from the days that are left.
+     *
+     * @param inStationId
+     *            the station ID, in any case
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @return boolean true if the station had statistics at that date
+     */
+    public synchronized boolean removeDay(String inStationId, long midnight)
+    {
+        int station = StationRegistry.NETWORK.indexOf(inStationId);
+        if (station == StationRegistry.UNKNOWN || station >= stations.size() || stations.get(station) == null)
+        {
+            return false;
+        }
+
+        boolean removed = false;
+        long monthStart = RollupPeriod.MONTH.getStart(midnight);
+        for (Buckets buckets : stations.get(station).values())
+        {
+            buckets.hours.subMap(midnight, midnight + EpochMinutes.MINUTES_PER_DAY).clear();
+            if (buckets.days.remove(midnight) != null)
+            {
+                mergeMonth(buckets, monthStart, getNextMonth(monthStart));
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Method to get the statistics of every parameter of a station at a date
+     *
+     * @param inStationId
+     *            the station ID, in any case
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @return HashMap<String, StatisticsAggregate> map from upper case
+     *         parameter id to the statistics of the day, empty if the station
+     *         has none at that date
+     */
+    public synchronized HashMap<String, StatisticsAggregate> getDay(String inStationId, long midnight)
+    {
+        HashMap<String, StatisticsAggregate> day = new HashMap<String, StatisticsAggregate>();
+        int station = StationRegistry.NETWORK.indexOf(inStationId);
+        if (station == StationRegistry.UNKNOWN || station >= stations.size() || stations.get(station) == null)
+        {
+            return day;
+        }
+        for (Map.Entry<String, Buckets> entry : stations.get(station).entrySet())
+        {
+            StatisticsAggregate dayAggregate = entry.getValue().days.get(midnight);
+            if (dayAggregate != null)
+            {
+                day.put(entry.getKey(), dayAggregate);
+            }
+        }
+        return day;
+    }
+
+    /**
+     * Private helper method that merges a month of a station and parameter
+     * again from its days, in time order
+     *
+     * @param buckets
+     *            the buckets of the station and parameter
+     * @param monthStart
+     *            the start of the month, as minutes since the epoch
+     * @param monthEnd
+     *            the start of the next month, as minutes since the epoch
+     */
+    private static void mergeMonth(Buckets buckets, long monthStart, long monthEnd)
+    {
+        StatisticsAggregate month = StatisticsAggregate.EMPTY;
+        for (StatisticsAggregate dayAggregate : buckets.days.subMap(monthStart, monthEnd).values())
+        {
+            month = month.merge(dayAggregate);
+        }
+        if (month.isEmpty())
+        {
+            buckets.months.remove(monthStart);
+        }
+        else
+        {
+            buckets.months.put(monthStart, month);
+        }
+    }
+
+    /**
+     * Method to get the statistics of a station and parameter over the whole
+     * hours of a range. Months, then days, then hours are taken, whichever is the
+     * coarsest bucket that starts at the next uncovered minute and ends inside
+     * the range.
+     *
+     * @param inStationId
+     *            the station ID, in any case
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param fromEpochMinute
+     *            the start of the range, as minutes since the epoch, inclusive
+     * @param toEpochMinute
+     *            the end of the range, as minutes since the epoch, exclusive
+     * @return StatisticsAggregate the statistics of the hours that lie wholly in
+     *         the range, the empty aggregate if there are none
+     */
+    public synchronized StatisticsAggregate query(String inStationId, String inParamId, long fromEpochMinute,
+            long toEpochMinute)
+    {
+        Buckets buckets = getBuckets(inStationId, inParamId);
+        if (buckets == null)
+        {
+            return StatisticsAggregate.EMPTY;
+        }
+
+        StatisticsAggregate merged = StatisticsAggregate.EMPTY;
+        long start = RollupPeriod.HOUR.getStart(fromEpochMinute + 59);
+        while (start + 60 <= toEpochMinute)
+        {
+            long end;
+            TreeMap<Long, StatisticsAggregate> level;
+            if (start == RollupPeriod.MONTH.getStart(start) && getNextMonth(start) <= toEpochMinute)
+            {
+                end = getNextMonth(start);
+                level = buckets.months;
+            }
+            else if (start == RollupPeriod.DAY.getStart(start) && start + EpochMinutes.MINUTES_PER_DAY <= toEpochMinute)
+            {
+                end = start + EpochMinutes.MINUTES_PER_DAY;
+                level = buckets.days;
+            }
+            else
+            {
+                end = start + 60;
+                level = buckets.hours;
+            }
+
+            // a missing bucket had no valid values
+            StatisticsAggregate bucket = level.get(start);
+            if (bucket != null)
+            {
+                merged = merged.merge(bucket);
+            }
+            start = end;
+        }
+        return merged;
+    }
+
+    /**
+     * Method to get the statistics of a parameter over the whole hours of a
+     * range, at every station. The stations are merged in network order, so a
+     * tie between stations goes to the one registered first.
+     *
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param fromEpochMinute
+     *            the start of the range, as minutes since the epoch, inclusive
+     * @param toEpochMinute
+     *            the end of the range, as minutes since the epoch, exclusive
+     * @return StatisticsAggregate the statistics of the hours that lie wholly in
+     *         the range, the empty aggregate if there are none
+     */
+    public synchronized StatisticsAggregate query(String inParamId, long fromEpochMinute, long toEpochMinute)
+    {
+        StatisticsAggregate merged = StatisticsAggregate.EMPTY;
+        for (int station = 0; station < stations.size(); ++station)
+        {
+            if (stations.get(station) != null)
+            {
+                merged = merged.merge(query(StationRegistry.NETWORK.getStationId(station), inParamId,
+                        fromEpochMinute, toEpochMinute));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Method to get a copy of the buckets of a station and parameter
+     *
+     * @param inStationId
+     *            the station ID, in any case
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @param period
+     *            HOUR, DAY or MONTH
+     * @return TreeMap<Long, StatisticsAggregate> map from the start of every
+     *         bucket with valid values, as minutes since the epoch, to its
+     *         statistics
+     */
+    public synchronized TreeMap<Long, StatisticsAggregate> getBuckets(String inStationId, String inParamId,
+            RollupPeriod period)
+    {
+        Buckets buckets = getBuckets(inStationId, inParamId);
+        if (buckets == null)
+        {
+            // checks the period even so
+            return new TreeMap<Long, StatisticsAggregate>(new Buckets().get(period));
+        }
+        return new TreeMap<Long, StatisticsAggregate>(buckets.get(period));
+    }
+
+    /**
+     * Method to empty the cube
+     */
+    public synchronized void clear()
+    {
+        stations.clear();
+    }
+
+    /**
+     * Private helper method to get the buckets of a station and parameter
+     *
+     * @param inStationId
+     *            the station ID, in any case
+     * @param inParamId
+     *            the parameter ID, in any case
+     * @return Buckets the buckets, or null if the cube holds none
+     */
+    private Buckets getBuckets(String inStationId, String inParamId)
+    {
+        int station = StationRegistry.NETWORK.indexOf(inStationId);
+        if (station == StationRegistry.UNKNOWN || station >= stations.size() || stations.get(station) == null)
+        {
+            return null;
+        }
+        return stations.get(station).get(inParamId.toUpperCase());
+    }
+
+    /**
+     * Private helper method to get the buckets of a station, adding them if the
+     * station has none yet
+     *
+     * @param station
+     *            the network index of the station
+     * @return HashMap<String, Buckets> the buckets of the station
+     */
+    private HashMap<String, Buckets> getStationBuckets(int station)
+    {
+        while (stations.size() <= station)
+        {
+            stations.add(null);
+        }
+        if (stations.get(station) == null)
+        {
+            stations.set(station, new HashMap<String, Buckets>());
+        }
+        return stations.get(station);
+    }
+
+    /**
+     * Private helper method for the start of the month after the one a month
+     * start is in
+     *
+     * @param monthStart
+     *            the start of a month, as minutes since the epoch
+     * @return long the start of the next month
+     */
+    private static long getNextMonth(long monthStart)
+    {
+        int civilDate = EpochMinutes.getCivilDate(monthStart);
+        return EpochMinutes.of(EpochMinutes.getCivilYear(civilDate), EpochMinutes.getCivilMonth(civilDate) + 1, 1, 0);
+    }
+}
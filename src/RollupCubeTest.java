@@ -0,0 +1,240 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RollupCubeTest
+{
+    /** the cube of every station-day file */
+    RollupCube cube;
+
+    /** the files of the cube, in order */
+    String[] files;
+
+    /**
+     * Method to fill the cube with every file
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Before
+    public void setUp() throws IOException, WrongCopyrightException
+    {
+        files = new File("data/mesonet").list();
+        Arrays.sort(files);
+        cube = new RollupCube();
+        for (int index = 0; index < files.length; ++index)
+        {
+            files[index] = "data/mesonet/" + files[index];
+            cube.putDay(new DayDataStatistics(new MesonetTimeFile(files[index])));
+        }
+    }
+
+    /**
+     * Private helper method that scans the files of a station for the values of
+     * a parameter in a range
+     * 
+     * @param files
+     *            the files to scan
+     * @param stationId
+     *            the lower case station ID
+     * @param paramId
+     *            the parameter ID
+     * @param from
+     *            the start of the range, inclusive
+     * @param to
+     *            the end of the range, exclusive
+     * @return double[] the count, minimum, maximum and sum of the valid values
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    static double[] scan(String[] files, String stationId, String paramId, long from, long to)
+            throws IOException, WrongCopyrightException
+    {
+        double[] result = { 0, Double.NaN, Double.NaN, 0 };
+        for (String fileName : files)
+        {
+            if (!fileName.endsWith(stationId + ".mts"))
+            {
+                continue;
+            }
+            MesonetColumns columns = new MesonetTimeFile(fileName).parseColumns();
+            long midnight = EpochMinutes.of(columns.getYear(), columns.getMonth(), columns.getDay(), 0);
+            int param = columns.indexOf(paramId);
+            for (int row = 0; row < columns.getRowCount(); ++row)
+            {
+                long epochMinute = midnight + columns.getMinutes()[row];
+                if (epochMinute >= from && epochMinute < to && columns.isValid(param, row))
+                {
+                    double value = columns.getValue(param, row);
+                    result[1] = result[0] == 0 || value < result[1] ? value : result[1];
+                    result[2] = result[0] == 0 || value > result[2] ? value : result[2];
+                    result[3] += value;
+                    ++result[0];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Test the hourly, daily and monthly buckets
+     */
+    @Test
+    public void testBuckets()
+    {
+        TreeMap<Long, StatisticsAggregate> hours = cube.getBuckets("nrmn", "tair", RollupPeriod.HOUR);
+        TreeMap<Long, StatisticsAggregate> days = cube.getBuckets("NRMN", "TAIR", RollupPeriod.DAY);
+        TreeMap<Long, StatisticsAggregate> months = cube.getBuckets("nrmn", "Tair", RollupPeriod.MONTH);
+
+        long january = EpochMinutes.of(2018, 1, 1, 0);
+        Assert.assertEquals("Incorrect value returned!", 5 * 24, hours.size());
+        Assert.assertEquals("Incorrect value returned!", 5, days.size());
+        Assert.assertEquals("Incorrect value returned!", 1, months.size());
+        Assert.assertEquals("Incorrect value returned!", january, (long) months.firstKey());
+
+        // every bucket holds the rows of its period
+        long hourCount = 0;
+        for (StatisticsAggregate hour : hours.values())
+        {
+            Assert.assertTrue("Incorrect value returned!", hour.getCount() <= 12);
+            hourCount += hour.getCount();
+        }
+        long dayCount = 0;
+        for (StatisticsAggregate day : days.values())
+        {
+            dayCount += day.getCount();
+        }
+        Assert.assertEquals("Incorrect value returned!", dayCount, hourCount);
+        Assert.assertEquals("Incorrect value returned!", dayCount, months.get(january).getCount());
+        Assert.assertFalse("Incorrect value returned!", Double.isNaN(months.get(january).getQuantile(0.5)));
+        Assert.assertTrue("Incorrect value returned!", Double.isNaN(hours.firstEntry().getValue().getQuantile(0.5)));
+
+        Assert.assertTrue("Incorrect value returned!", cube.getBuckets("nrmn", "nope", RollupPeriod.DAY).isEmpty());
+    }
+
+    /**
+     * Test answering ranges from the buckets
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testQuery() throws IOException, WrongCopyrightException
+    {
+        long[][] ranges = { { EpochMinutes.of(2018, 1, 1, 0), EpochMinutes.of(2018, 2, 1, 0) },
+                { EpochMinutes.of(2017, 1, 1, 0), EpochMinutes.of(2019, 1, 1, 0) },
+                { EpochMinutes.of(2018, 1, 2, 0), EpochMinutes.of(2018, 1, 4, 0) },
+                { EpochMinutes.of(2018, 1, 1, 300), EpochMinutes.of(2018, 1, 3, 1020) },
+                { EpochMinutes.of(2018, 1, 3, 660), EpochMinutes.of(2018, 1, 3, 720) } };
+
+        for (long[] range : ranges)
+        {
+            StatisticsAggregate aggregate = cube.query("okce", "TAIR", range[0], range[1]);
+            double[] expected = scan(files, "okce", "TAIR", range[0], range[1]);
+            Assert.assertEquals("Incorrect value returned!", (long) expected[0], aggregate.getCount());
+            Assert.assertEquals("Incorrect value returned!", expected[1], aggregate.getMin(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected[2], aggregate.getMax(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected[3], aggregate.getSum(), 1e-9);
+            Assert.assertEquals("Incorrect value returned!", "OKCE", aggregate.getMaxStationId());
+        }
+
+        // only whole hours are answered
+        long start = EpochMinutes.of(2018, 1, 3, 0);
+        Assert.assertTrue("Incorrect value returned!", cube.query("okce", "TAIR", start + 5, start + 60).isEmpty());
+        Assert.assertEquals("Incorrect value returned!", cube.query("okce", "TAIR", start + 60, start + 120).getCount(),
+                cube.query("okce", "TAIR", start + 5, start + 125).getCount());
+
+        // every station together
+        long january = EpochMinutes.of(2018, 1, 1, 0);
+        long february = EpochMinutes.of(2018, 2, 1, 0);
+        long count = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (String station : new String[] { "nrmn", "okce", "okcn", "stil" })
+        {
+            count += (long) scan(files, station, "TAIR", january, february)[0];
+            max = Math.max(max, scan(files, station, "TAIR", january, february)[2]);
+        }
+        StatisticsAggregate network = cube.query("tair", january, february);
+        Assert.assertEquals("Incorrect value returned!", count, network.getCount());
+        Assert.assertEquals("Incorrect value returned!", max, network.getMax(), 0.0);
+    }
+
+    /**
+     * Test putting a day again
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testReplaceDay() throws IOException, WrongCopyrightException
+    {
+        long january = EpochMinutes.of(2018, 1, 1, 0);
+        long count = cube.getBuckets("stil", "SRAD", RollupPeriod.MONTH).get(january).getCount();
+        cube.putDay(new DayDataStatistics(new MesonetTimeFile("data/mesonet/20180103stil.mts")));
+
+        Assert.assertEquals("Incorrect value returned!", count,
+                cube.getBuckets("stil", "SRAD", RollupPeriod.MONTH).get(january).getCount());
+        Assert.assertEquals("Incorrect value returned!", 5, cube.getBuckets("stil", "SRAD", RollupPeriod.DAY).size());
+
+        cube.clear();
+        Assert.assertTrue("Incorrect value returned!", cube.query("stil", "SRAD", january, january + 1440).isEmpty());
+    }
+
+    /**
+     * Test that the months are the same whatever order the days are put in
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testDayOrder() throws IOException, WrongCopyrightException
+    {
+        long january = EpochMinutes.of(2018, 1, 1, 0);
+        RollupCube shuffled = new RollupCube();
+        for (int day : new int[] { 3, 5, 1, 4, 2 })
+        {
+            shuffled.putDay(new DayDataStatistics(new MesonetTimeFile("data/mesonet/2018010" + day + "okce.mts")));
+        }
+
+        for (String paramId : new String[] { "TAIR", "SRAD", "PRES" })
+        {
+            StatisticsAggregate expected = cube.getBuckets("okce", paramId, RollupPeriod.MONTH).get(january);
+            StatisticsAggregate actual = shuffled.getBuckets("okce", paramId, RollupPeriod.MONTH).get(january);
+            Assert.assertEquals("Incorrect value returned!", expected.getCount(), actual.getCount());
+            Assert.assertEquals("Incorrect value returned!", expected.getMean(), actual.getMean(), 1e-9);
+            Assert.assertEquals("Incorrect value returned!", expected.getMin(), actual.getMin(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected.getMinEpochMinute(), actual.getMinEpochMinute());
+            Assert.assertEquals("Incorrect value returned!", expected.getMax(), actual.getMax(), 0.0);
+            Assert.assertEquals("Incorrect value returned!", expected.getMaxEpochMinute(), actual.getMaxEpochMinute());
+        }
+    }
+
+    /**
+     * Test that a row at the next midnight stays in the last hour of its day
+     */
+    @Test
+    public void testNextMidnight()
+    {
+        ArrayList<TimeData> rows = new ArrayList<TimeData>();
+        ParameterRegistry registry = ParameterRegistry.of("TAIR");
+        rows.add(new TimeData("OKCE", 2018, 1, 6, 1435, registry, new Measurement[] { Measurement.of(1.5) }));
+        rows.add(new TimeData("OKCE", 2018, 1, 6, 1440, registry, new Measurement[] { Measurement.of(2.5) }));
+        DayDataStatistics dataStats = new DayDataStatistics(rows);
+        Assert.assertEquals("Incorrect value returned!", 24, dataStats.getHourCount());
+        Assert.assertEquals("Incorrect value returned!", 2, dataStats.getHourlyAggregate(23, 0).getCount());
+
+        RollupCube nextDay = new RollupCube();
+        nextDay.putDay(dataStats);
+        long midnight = EpochMinutes.of(2018, 1, 7, 0);
+        Assert.assertNull("Incorrect value returned!",
+                nextDay.getBuckets("okce", "TAIR", RollupPeriod.HOUR).get(midnight));
+        Assert.assertEquals("Incorrect value returned!", 2,
+                nextDay.query("okce", "TAIR", midnight - 60, midnight).getCount());
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * an enum holding the periods day statistics can be rolled up into. Every
+ * period maps a timestamp to the start of the period holding it, in UTC.
+ */
+public enum RollupPeriod
+{
+    /** an hour */
+    HOUR
+    {
+        @Override
+        public long getStart(long epochMinute)
+        {
+            return Math.floorDiv(epochMinute, 60) * 60;
+        }
+    },
+
+    /** a calendar day */
+    DAY
+    {
+        @Override
+        public long getStart(long epochMinute)
+        {
+            return EpochMinutes.getEpochDay(epochMinute) * EpochMinutes.MINUTES_PER_DAY;
+        }
+    },
+
+    /** an ISO week, starting on Monday */
+    WEEK
+    {
+        @Override
+        public long getStart(long epochMinute)
+        {
+            // 1970-01-01 was a Thursday, three days after a Monday
+            long epochDay = EpochMinutes.getEpochDay(epochMinute);
+            return (epochDay - Math.floorMod(epochDay + 3, 7)) * EpochMinutes.MINUTES_PER_DAY;
+        }
+    },
+
+    /** a calendar month */
+    MONTH
+    {
+        @Override
+        public long getStart(long epochMinute)
+        {
+            int civilDate = EpochMinutes.getCivilDate(epochMinute);
+            return EpochMinutes.of(EpochMinutes.getCivilYear(civilDate), EpochMinutes.getCivilMonth(civilDate), 1, 0);
+        }
+    },
+
+    /** a calendar year */
+    YEAR
+    {
+        @Override
+        public long getStart(long epochMinute)
+        {
+            return EpochMinutes.of(EpochMinutes.getYear(epochMinute), 1, 1, 0);
+        }
+    };
+
+    /**
+     * Method to get the start of the period holding a timestamp
+     *
+     * @param epochMinute
+     *            the minutes since the epoch
+     * @return long the start of the period, as minutes since the epoch
+     */
+    public abstract long getStart(long epochMinute);
+}
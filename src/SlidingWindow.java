@@ -0,0 +1,308 @@
+/**
+ * Class holding the minimum, maximum and mean of one series over a sliding
+ * window of time: at time t the window holds the valid values timed after t
+ * minus the window length, up to t. The values of the window are kept in a ring
+ * buffer, the candidates for the minimum and maximum in monotonic deques, and
+ * the sum is kept running, so every step is amortized O(1) and nothing is
+ * allocated once the buffers fit the window. The series may continue from one
+ * file to the next, as long as time never goes backwards.
+ */
+public class SlidingWindow
+{
+    /** the length of the window, in minutes */
+    private int windowMinutes;
+
+    /** the values of the window, at index (sequence number % capacity) */
+    private double[] values;
+
+    /** the times of the values, as minutes since the epoch */
+    private long[] times;
+
+    /** the sequence number of the oldest value in the window */
+    private long first;
+
+    /** the sequence number the next value gets */
+    private long next;
+
+    /**
+     * the sequence numbers of the increasing candidates for the minimum, at
+     * index (position % capacity)
+     */
+    private long[] minQueue;
+
+    /** the position of the front of the minimum deque */
+    private long minFront;
+
+    /** the position after the back of the minimum deque */
+    private long minBack;
+
+    /** the sequence numbers of the decreasing candidates for the maximum */
+    private long[] maxQueue;
+
+    /** the position of the front of the maximum deque */
+    private long maxFront;
+
+    /** the position after the back of the maximum deque */
+    private long maxBack;
+
+    /** the running sum of the window */
+    private double sum;
+
+    /** the compensation of the running sum */
+    private double compensation;
+
+    /** the time the window ends at, as minutes since the epoch */
+    private long now = Long.MIN_VALUE;
+
+    /**
+     * Constructor for SlidingWindow sized for five minute observations
+     *
+     * @param inWindowMinutes
+     *            the length of the window, in minutes
+     */
+    public SlidingWindow(int inWindowMinutes)
+    {
+        if (inWindowMinutes < 1)
+        {
+            throw new IllegalArgumentException("Window must be positive: " + inWindowMinutes);
+        }
+        windowMinutes = inWindowMinutes;
+
+        // the buffers grow if the observations are closer together
+        int capacity = inWindowMinutes / 5 + 1;
+        values = new double[capacity];
+        times = new long[capacity];
+        minQueue = new long[capacity];
+        maxQueue = new long[capacity];
+    }
+
+    /**
+     * Method to move the window to a time and add the value observed then.
+     * Invalid values (see Measurement.isValidValue) and NaN only move the window.
+     *
+     * @param epochMinute
+     *            the time of the value, as minutes since the epoch, not before the
+     *            previous one
+     * @param value
+     *            the value
+     */
+    public void add(long epochMinute, double value)
+    {
+        advance(epochMinute);
+        if (!Measurement.isValidValue(value))
+        {
+            return;
+        }
+
+        if (next - first == values.length)
+        {
+            grow();
+        }
+        int index = (int) (next % values.length);
+        values[index] = value;
+        times[index] = epochMinute;
+
+        // later values that are no larger (smaller) make the earlier ones useless;
+        // equal values are kept so the first one stays at the front
+        while (minBack > minFront && values[slot(minQueue, minBack - 1)] > value)
+        {
+            --minBack;
+        }
+        minQueue[(int) (minBack++ % minQueue.length)] = next;
+        while (maxBack > maxFront && values[slot(maxQueue, maxBack - 1)] < value)
+        {
+            --maxBack;
+        }
+        maxQueue[(int) (maxBack++ % maxQueue.length)] = next;
+
+        double corrected = value - compensation;
+        double total = sum + corrected;
+        compensation = (total - sum) - corrected;
+        sum = total;
+        ++next;
+    }
+
+    /**
+     * Method to move the window to a time, dropping the values that fall out
+     *
+     * @param epochMinute
+     *            the time the window ends at, as minutes since the epoch, not
+     *            before the previous one
+     */
+    public void advance(long epochMinute)
+    {
+        if (epochMinute < now)
+        {
+            throw new IllegalArgumentException("Time went backwards: " + epochMinute + " after " + now);
+        }
+        now = epochMinute;
+
+        long start = epochMinute - windowMinutes;
+        while (first < next && times[(int) (first % times.length)] <= start)
+        {
+            double corrected = -values[(int) (first % values.length)] - compensation;
+            double total = sum + corrected;
+            compensation = (total - sum) - corrected;
+            sum = total;
+            ++first;
+        }
+        while (minBack > minFront && minQueue[(int) (minFront % minQueue.length)] < first)
+        {
+            ++minFront;
+        }
+        while (maxBack > maxFront && maxQueue[(int) (maxFront % maxQueue.length)] < first)
+        {
+            ++maxFront;
+        }
+
+        // an empty window starts its sum again, so rounding cannot build up
+        if (first == next)
+        {
+            sum = 0;
+            compensation = 0;
+        }
+    }
+
+    /**
+     * Method to empty the window, for a new series
+     */
+    public void reset()
+    {
+        first = next;
+        minFront = minBack;
+        maxFront = maxBack;
+        sum = 0;
+        compensation = 0;
+        now = Long.MIN_VALUE;
+    }
+
+    /**
+     * Method to get the length of the window
+     *
+     * @return int the length, in minutes
+     */
+    public int getWindowMinutes()
+    {
+        return windowMinutes;
+    }
+
+    /**
+     * Method to get the number of valid values in the window
+     *
+     * @return int the number of values
+     */
+    public int getCount()
+    {
+        return (int) (next - first);
+    }
+
+    /**
+     * Method to get the smallest value in the window
+     *
+     * @return double the smallest value, NaN if the window is empty
+     */
+    public double getMin()
+    {
+        return first == next ? Double.NaN : values[slot(minQueue, minFront)];
+    }
+
+    /**
+     * Method to get the time of the first smallest value in the window
+     *
+     * @return long the minutes since the epoch, Long.MIN_VALUE if the window is
+     *         empty
+     */
+    public long getMinEpochMinute()
+    {
+        return first == next ? Long.MIN_VALUE : times[slot(minQueue, minFront)];
+    }
+
+    /**
+     * Method to get the largest value in the window
+     *
+     * @return double the largest value, NaN if the window is empty
+     */
+    public double getMax()
+    {
+        return first == next ? Double.NaN : values[slot(maxQueue, maxFront)];
+    }
+
+    /**
+     * Method to get the time of the first largest value in the window
+     *
+     * @return long the minutes since the epoch, Long.MIN_VALUE if the window is
+     *         empty
+     */
+    public long getMaxEpochMinute()
+    {
+        return first == next ? Long.MIN_VALUE : times[slot(maxQueue, maxFront)];
+    }
+
+    /**
+     * Method to get the mean of the window
+     *
+     * @return double the mean, NaN if the window is empty
+     */
+    public double getMean()
+    {
+        return first == next ? Double.NaN : (sum - compensation) / (next - first);
+    }
+
+    /**
+     * Private helper method for the buffer index of the value a deque entry
+     * refers to
+     *
+     * @param queue
+     *            the deque
+     * @param position
+     *            the position in the deque
+     * @return int the index of the value in the ring buffer
+     */
+    private int slot(long[] queue, long position)
+    {
+        return (int) (queue[(int) (position % queue.length)] % values.length);
+    }
+
+    /**
+     * Private helper method that doubles the buffers, keeping every value and
+     * deque entry at the index of its sequence number or position
+     */
+    private void grow()
+    {
+        int capacity = values.length * 2;
+        double[] newValues = new double[capacity];
+        long[] newTimes = new long[capacity];
+        for (long sequence = first; sequence < next; ++sequence)
+        {
+            newValues[(int) (sequence % capacity)] = values[(int) (sequence % values.length)];
+            newTimes[(int) (sequence % capacity)] = times[(int) (sequence % times.length)];
+        }
+        minQueue = growQueue(minQueue, minFront, minBack, capacity);
+        maxQueue = growQueue(maxQueue, maxFront, maxBack, capacity);
+        values = newValues;
+        times = newTimes;
+    }
+
+    /**
+     * Private helper method for a deque copied into a larger buffer
+     *
+     * @param queue
+     *            the deque
+     * @param front
+     *            the position of its front
+     * @param back
+     *            the position after its back
+     * @param capacity
+     *            the new size of the buffer
+     * @return long[] the larger deque
+     */
+    private static long[] growQueue(long[] queue, long front, long back, int capacity)
+    {
+        long[] grown = new long[capacity];
+        for (long position = front; position < back; ++position)
+        {
+            grown[(int) (position % capacity)] = queue[(int) (position % queue.length)];
+        }
+        return grown;
+    }
+}
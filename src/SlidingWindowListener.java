@@ -0,0 +1,17 @@
+/**
+ * An interface for receiving the sliding windows of SlidingWindowStatistics
+ * after every row, as the rows are read.
+ */
+public interface SlidingWindowListener
+{
+    /**
+     * the windowsUpdated method, called once every window has moved to the time
+     * of a row and taken its values
+     *
+     * @param epochMinute
+     *            the time of the row, as minutes since the epoch
+     * @param windows
+     *            the windows, read with getWindow
+     */
+    void windowsUpdated(long epochMinute, SlidingWindowStatistics windows);
+}
@@ -0,0 +1,295 @@
+import java.util.List;
+
+/**
+ * Class that computes rolling statistics of a station's series: the minimum,
+ * maximum and mean of every parameter over sliding windows (by default 1, 3
+ * and 24 hours of TAIR, TA9M and SRAD) at every row. Rows are taken as a
+ * MesonetRowVisitor, from MesonetColumns or from TimeData lists. The windows
+ * carry on from one file to the next, so consecutive station-day files must be
+ * given in time order; a row of another station starts the windows again.
+ */
+public class SlidingWindowStatistics implements MesonetRowVisitor
+{
+    /** the length of a one hour window, in minutes */
+    public static final int ONE_HOUR = 60;
+
+    /** the length of a three hour window, in minutes */
+    public static final int THREE_HOURS = 180;
+
+    /** the length of a 24 hour window, in minutes */
+    public static final int ONE_DAY = 1440;
+
+    /** the parameters rolled by default */
+    private static final String[] DEFAULT_PARAMS = { "TAIR", "TA9M", "SRAD" };
+
+    /** the upper case parameter ids rolled */
+    private String[] params;
+
+    /** the lengths of the windows, in minutes */
+    private int[] windowMinutes;
+
+    /** the windows, indexed by parameter and then by length */
+    private SlidingWindow[][] windows;
+
+    /** the registry index of every parameter in the current file, -1 if absent */
+    private int[] columns;
+
+    /** the start of the current file's day, as minutes since the epoch */
+    private long midnight;
+
+    /** the upper case station id of the series, or null before the first row */
+    private String stationId;
+
+    /** the listener told after every row, or null */
+    private SlidingWindowListener listener;
+
+    /**
+     * Constructor for SlidingWindowStatistics of TAIR, TA9M and SRAD over 1, 3
+     * and 24 hours
+     *
+     * @param inListener
+     *            the listener told after every row, or null
+     */
+    public SlidingWindowStatistics(SlidingWindowListener inListener)
+    {
+        this(DEFAULT_PARAMS, new int[] { ONE_HOUR, THREE_HOURS, ONE_DAY }, inListener);
+    }
+
+    /**
+     * Constructor for SlidingWindowStatistics
+     *
+     * @param inParams
+     *            the parameter ids to roll, in any case
+     * @param inWindowMinutes
+     *            the lengths of the windows, in minutes
+     * @param inListener
+     *            the listener told after every row, or null
+     */
+    public SlidingWindowStatistics(String[] inParams, int[] inWindowMinutes, SlidingWindowListener inListener)
+    {
+        params = new String[inParams.length];
+        for (int param = 0; param < params.length; ++param)
+        {
+            params[param] = inParams[param].toUpperCase();
+        }
+        windowMinutes = inWindowMinutes.clone();
+        listener = inListener;
+
+        windows = new SlidingWindow[params.length][windowMinutes.length];
+        for (int param = 0; param < params.length; ++param)
+        {
+            for (int window = 0; window < windowMinutes.length; ++window)
+            {
+                windows[param][window] = new SlidingWindow(windowMinutes[window]);
+            }
+        }
+        columns = new int[params.length];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see MesonetRowVisitor#visitHeader(ParameterRegistry, int, int, int)
+     */
+    /**
+     * Method that finds the rolled parameters in the next file
+     *
+     * @param registry
+     *            the registry numbering the parameters of the rows
+     * @param year
+     *            the year of the file
+     * @param month
+     *            the month of the file
+     * @param day
+     *            the day of the file
+     */
+    @Override
+    public void visitHeader(ParameterRegistry registry, int year, int month, int day)
+    {
+        for (int param = 0; param < params.length; ++param)
+        {
+            columns[param] = registry.indexOf(params[param]);
+        }
+        midnight = EpochMinutes.of(year, month, day, 0);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see MesonetRowVisitor#visitRow(java.lang.String, int, double[])
+     */
+    /**
+     * Method that moves every window to a row and adds its values
+     *
+     * @param inStationId
+     *            the station ID of the row
+     * @param minute
+     *            the minute offset of the row
+     * @param values
+     *            the values of the row, indexed by the registry
+     */
+    @Override
+    public void visitRow(String inStationId, int minute, double[] values)
+    {
+        startSeries(inStationId);
+
+        long epochMinute = midnight + minute;
+        for (int param = 0; param < params.length; ++param)
+        {
+            double value = columns[param] < 0 ? Double.NaN : values[columns[param]];
+            for (SlidingWindow window : windows[param])
+            {
+                window.add(epochMinute, value);
+            }
+        }
+        if (listener != null)
+        {
+            listener.windowsUpdated(epochMinute, this);
+        }
+    }
+
+    /**
+     * Method to roll the rows of a parsed file
+     *
+     * @param data
+     *            the columns of a Mesonet Time File
+     */
+    public void accept(MesonetColumns data)
+    {
+        // a file without rows has no station to start a series for
+        if (data.getRowCount() == 0)
+        {
+            return;
+        }
+        visitHeader(data.getRegistry(), data.getYear(), data.getMonth(), data.getDay());
+        startSeries(data.getStationID());
+
+        int[] minutes = data.getMinutes();
+        for (int row = 0; row < data.getRowCount(); ++row)
+        {
+            long epochMinute = midnight + minutes[row];
+            for (int param = 0; param < params.length; ++param)
+            {
+                // missing codes and absent parameters only move the window
+                double value = columns[param] < 0 ? Double.NaN : data.getValue(columns[param], row);
+                for (SlidingWindow window : windows[param])
+                {
+                    window.add(epochMinute, value);
+                }
+            }
+            if (listener != null)
+            {
+                listener.windowsUpdated(epochMinute, this);
+            }
+        }
+    }
+
+    /**
+     * Method to roll a list of rows, in time order
+     *
+     * @param data
+     *            the rows, all of one station
+     */
+    public void accept(List<TimeData> data)
+    {
+        ParameterRegistry registry = null;
+        for (TimeData timeData : data)
+        {
+            startSeries(timeData.getStationID());
+
+            // the rows of a file share a registry, so the parameters are found
+            // again only when it changes
+            if (timeData.getRegistry() != registry)
+            {
+                registry = timeData.getRegistry();
+                for (int param = 0; param < params.length; ++param)
+                {
+                    columns[param] = registry.indexOf(params[param]);
+                }
+            }
+
+            long epochMinute = timeData.getEpochMinute();
+            for (int param = 0; param < params.length; ++param)
+            {
+                Measurement measurement = columns[param] < 0 ? null : timeData.getMeasurement(columns[param]);
+                double value = measurement == null ? Double.NaN : measurement.getValue();
+                for (SlidingWindow window : windows[param])
+                {
+                    window.add(epochMinute, value);
+                }
+            }
+            if (listener != null)
+            {
+                listener.windowsUpdated(epochMinute, this);
+            }
+        }
+    }
+
+    /**
+     * Method to get the window of a parameter
+     *
+     * @param param
+     *            the parameter ID, in any case
+     * @param minutes
+     *            the length of the window, in minutes
+     * @return SlidingWindow the window, at the last row
+     */
+    public SlidingWindow getWindow(String param, int minutes)
+    {
+        for (int index = 0; index < params.length; ++index)
+        {
+            if (params[index].equalsIgnoreCase(param))
+            {
+                for (SlidingWindow window : windows[index])
+                {
+                    if (window.getWindowMinutes() == minutes)
+                    {
+                        return window;
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("No " + minutes + " minute window of " + param);
+    }
+
+    /**
+     * Method to get the station of the series
+     *
+     * @return String the upper case station ID, or null before the first row
+     */
+    public String getStationID()
+    {
+        return stationId;
+    }
+
+    /**
+     * Method to empty every window, for a new series
+     */
+    public void reset()
+    {
+        for (SlidingWindow[] paramWindows : windows)
+        {
+            for (SlidingWindow window : paramWindows)
+            {
+                window.reset();
+            }
+        }
+        stationId = null;
+    }
+
+    /**
+     * Private helper method that starts the windows again when the station
+     * changes
+     *
+     * @param inStationId
+     *            the station ID of the next row
+     */
+    private void startSeries(String inStationId)
+    {
+        if (stationId == null || !stationId.equalsIgnoreCase(inStationId))
+        {
+            reset();
+            stationId = inStationId.toUpperCase();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowStatisticsTest
+{
+    /**
+     * Method to test that the 24 hour window spans two days of one station and
+     * matches a scan of both files
+     *
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testAcrossFiles() throws IOException, WrongCopyrightException
+    {
+        MesonetColumns first = new MesonetTimeFile("data/mesonet/20180101okcn.mts").parseColumns();
+        MesonetColumns second = new MesonetTimeFile("data/mesonet/20180102okcn.mts").parseColumns();
+
+        // every valid TAIR value of both days, with its time
+        ArrayList<long[]> samples = new ArrayList<long[]>();
+        for (MesonetColumns columns : new MesonetColumns[] { first, second })
+        {
+            long midnight = EpochMinutes.of(columns.getYear(), columns.getMonth(), columns.getDay(), 0);
+            int column = columns.indexOf("TAIR");
+            for (int row = 0; row < columns.getRowCount(); ++row)
+            {
+                if (columns.isValid(column, row))
+                {
+                    samples.add(new long[] { midnight + columns.getMinutes()[row],
+                            Math.round(columns.getValue(column, row) * 10) });
+                }
+            }
+        }
+
+        int[] rows = new int[1];
+        SlidingWindowStatistics stats = new SlidingWindowStatistics((epochMinute, windows) ->
+        {
+            ++rows[0];
+            SlidingWindow day = windows.getWindow("tair", SlidingWindowStatistics.ONE_DAY);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            long sum = 0;
+            int count = 0;
+            for (long[] sample : samples)
+            {
+                if (sample[0] > epochMinute - SlidingWindowStatistics.ONE_DAY && sample[0] <= epochMinute)
+                {
+                    min = Math.min(min, sample[1]);
+                    max = Math.max(max, sample[1]);
+                    sum += sample[1];
+                    ++count;
+                }
+            }
+            Assert.assertEquals("Incorrect count returned!", count, day.getCount());
+            Assert.assertEquals("Incorrect min returned!", min / 10.0, day.getMin(), 1e-9);
+            Assert.assertEquals("Incorrect max returned!", max / 10.0, day.getMax(), 1e-9);
+            Assert.assertEquals("Incorrect mean returned!", sum / 10.0 / count, day.getMean(), 1e-9);
+        });
+        stats.accept(first);
+        stats.accept(second);
+
+        Assert.assertEquals("Incorrect row count!", first.getRowCount() + second.getRowCount(), rows[0]);
+        Assert.assertEquals("Incorrect count returned!", 12, stats.getWindow("TAIR", 60).getCount());
+        Assert.assertEquals("Incorrect count returned!", 36, stats.getWindow("SRAD", 180).getCount());
+        Assert.assertEquals("Incorrect station returned!", "OKCN", stats.getStationID());
+    }
+
+    /**
+     * Method to test that streamed rows, columns and TimeData lists give the
+     * same windows, and that another station starts the windows again
+     *
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testSources() throws IOException, WrongCopyrightException
+    {
+        String fileName = "data/mesonet/20180102stil.mts";
+        SlidingWindowStatistics streamed = new SlidingWindowStatistics(null);
+        SlidingWindowStatistics fromColumns = new SlidingWindowStatistics(null);
+        SlidingWindowStatistics fromList = new SlidingWindowStatistics(null);
+        streamed.accept(new MesonetTimeFile("data/mesonet/20180101okcn.mts").parseColumns());
+        new MesonetTimeFile(fileName).parseRows(streamed);
+        fromColumns.accept(new MesonetTimeFile(fileName).parseColumns());
+        fromList.accept(new MesonetTimeFile(fileName).parseFile());
+
+        for (String param : new String[] { "TAIR", "TA9M", "SRAD" })
+        {
+            for (int minutes : new int[] { 60, 180, 1440 })
+            {
+                SlidingWindow expected = fromColumns.getWindow(param, minutes);
+                for (SlidingWindowStatistics actual : new SlidingWindowStatistics[] { streamed, fromList })
+                {
+                    SlidingWindow window = actual.getWindow(param, minutes);
+                    Assert.assertEquals("Incorrect count returned!", expected.getCount(), window.getCount());
+                    Assert.assertEquals("Incorrect min returned!", expected.getMin(), window.getMin(), 0.0);
+                    Assert.assertEquals("Incorrect max returned!", expected.getMax(), window.getMax(), 0.0);
+                    Assert.assertEquals("Incorrect mean returned!", expected.getMean(), window.getMean(), 1e-9);
+                }
+            }
+        }
+        Assert.assertEquals("Incorrect station returned!", "STIL", streamed.getStationID());
+    }
+
+    /**
+     * Method to test that a file without rows leaves the windows alone
+     *
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testEmptyColumns() throws IOException, WrongCopyrightException
+    {
+        SlidingWindowStatistics stats = new SlidingWindowStatistics(null);
+        stats.accept(new MesonetColumns(null, 2018, 1, 2, ParameterRegistry.of("TAIR")));
+        Assert.assertNull("Incorrect station returned!", stats.getStationID());
+
+        stats.accept(new MesonetTimeFile("data/mesonet/20180102stil.mts").parseColumns());
+        int count = stats.getWindow("TAIR", 60).getCount();
+        stats.accept(new MesonetColumns(null, 2018, 1, 3, ParameterRegistry.of("TAIR")));
+        Assert.assertEquals("Incorrect station returned!", "STIL", stats.getStationID());
+        Assert.assertEquals("Incorrect count returned!", count, stats.getWindow("TAIR", 60).getCount());
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowTest
+{
+    /**
+     * Method to test the window against a scan of every value in it, with
+     * missing values, gaps and observations closer than five minutes
+     */
+    @Test
+    public void testMatchesScan()
+    {
+        Random random = new Random(23);
+        int count = 3000;
+        long[] times = new long[count];
+        double[] values = new double[count];
+        long time = 1000;
+        for (int index = 0; index < count; ++index)
+        {
+            // mostly five minutes apart, sometimes one minute, sometimes a gap
+            int step = random.nextInt(20);
+            time += step == 0 ? 600 : (step < 4 ? 1 : 5);
+            times[index] = time;
+            values[index] = random.nextInt(10) == 0 ? -995 : random.nextInt(61) - 30;
+        }
+
+        for (int minutes : new int[] { 5, 60, 180, 1440 })
+        {
+            SlidingWindow window = new SlidingWindow(minutes);
+            for (int index = 0; index < count; ++index)
+            {
+                window.add(times[index], values[index]);
+
+                // the valid values timed in (t - minutes, t]
+                int valid = 0;
+                double min = Double.NaN;
+                double max = Double.NaN;
+                long minTime = Long.MIN_VALUE;
+                long maxTime = Long.MIN_VALUE;
+                double sum = 0;
+                for (int other = 0; other <= index; ++other)
+                {
+                    if (times[other] <= times[index] - minutes || values[other] == -995)
+                    {
+                        continue;
+                    }
+                    if (valid == 0 || values[other] < min)
+                    {
+                        min = values[other];
+                        minTime = times[other];
+                    }
+                    if (valid == 0 || values[other] > max)
+                    {
+                        max = values[other];
+                        maxTime = times[other];
+                    }
+                    sum += values[other];
+                    ++valid;
+                }
+
+                Assert.assertEquals("Incorrect count returned!", valid, window.getCount());
+                Assert.assertEquals("Incorrect min returned!", min, window.getMin(), 0.0);
+                Assert.assertEquals("Incorrect max returned!", max, window.getMax(), 0.0);
+                Assert.assertEquals("Incorrect min time returned!", minTime, window.getMinEpochMinute());
+                Assert.assertEquals("Incorrect max time returned!", maxTime, window.getMaxEpochMinute());
+                Assert.assertEquals("Incorrect mean returned!", valid == 0 ? Double.NaN : sum / valid,
+                        window.getMean(), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Method to test that time may not go backwards and that reset empties the
+     * window
+     */
+    @Test
+    public void testOrder()
+    {
+        SlidingWindow window = new SlidingWindow(60);
+        window.add(100, 1.0);
+        window.add(105, 3.0);
+        Assert.assertEquals("Incorrect mean returned!", 2.0, window.getMean(), 0.0);
+
+        boolean throwException = false;
+        try
+        {
+            window.add(104, 2.0);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+
+        window.reset();
+        Assert.assertEquals("Incorrect count returned!", 0, window.getCount());
+        Assert.assertTrue("Incorrect mean returned!", Double.isNaN(window.getMean()));
+        window.add(50, 4.0);
+        Assert.assertEquals("Incorrect max returned!", 4.0, window.getMax(), 0.0);
+    }
+}
@@ -12,7 +12,13 @@ import java.util.TimeZone;
  */
 public class StatMeasurement extends Measurement implements TimeComparable, Comparable<StatMeasurement>
 {
-    /** a variable for holding the date and time of measurement */
+    /** the date and time of measurement, as minutes since the epoch in UTC */
+    private long epochMinute;
+
+    /** whether the StatMeasurement has a date and time of measurement */
+    private boolean hasDateTime;
+
+    /** the calendar of the date and time of measurement, null until first asked for */
     private GregorianCalendar dateTimeOfMeasurment;
 
     /** a variable for holding the parameter Id */
@@ -57,31 +63,74 @@ public class StatMeasurement extends Measurement implements TimeComparable, Comp
     {
         super(inValue);
 
-        dateTimeOfMeasurment = new GregorianCalendar(0, 0, 0);
+        // the month of the calendar is taken as one-based, as DayDataStatistics
+        // has always built it
         int year = obsDateTime.get(Calendar.YEAR);
-        int month = obsDateTime.get(Calendar.MONTH) - 1;
+        int month = obsDateTime.get(Calendar.MONTH);
         int day = obsDateTime.get(Calendar.DAY_OF_MONTH);
         int hour = obsDateTime.get(Calendar.HOUR_OF_DAY);
         int minute = obsDateTime.get(Calendar.MINUTE);
 
-        dateTimeOfMeasurment.set(year, month, day, hour, minute, 0);
-        dateTimeOfMeasurment.setTimeZone(TimeZone.getTimeZone("UTC"));
+        epochMinute = EpochMinutes.of(year, month, day, hour * 60 + minute);
+        hasDateTime = true;
+        stationId = inStationId;
+        paramId = inParamId;
+        statType = inStatType;
+    }
+
+    /**
+     * constructor for StatMeasurement that takes the date and time as a timestamp
+     * 
+     * @param inValue
+     *            value of the measurement
+     * @param inEpochMinute
+     *            the date and time of the observation, as minutes since the epoch
+     *            in UTC
+     * @param inStationId
+     *            the station to check
+     * @param inParamId
+     *            the parameter to check
+     * @param inStatType
+     *            the statistic type
+     */
+    public StatMeasurement(double inValue, long inEpochMinute, String inStationId, String inParamId,
+            StatType inStatType)
+    {
+        super(inValue);
+
+        epochMinute = inEpochMinute;
+        hasDateTime = true;
         stationId = inStationId;
         paramId = inParamId;
         statType = inStatType;
     }
 
     /**
-     * method for getting the date and time of measurement
+     * method for getting the date and time of measurement. The calendar is built
+     * on the first call and the same one is returned after that.
      * 
      * @return GregorianCalendar a calendar object holding the date and time of
-     *         measurement
+     *         measurement, in UTC, or null if there is none
      */
     public GregorianCalendar getDateTimeOfMeasurment()
     {
+        if (hasDateTime && dateTimeOfMeasurment == null)
+        {
+            dateTimeOfMeasurment = EpochMinutes.toCalendar(epochMinute);
+        }
         return dateTimeOfMeasurment;
     }
 
+    /**
+     * method for getting the date and time of measurement as a timestamp
+     * 
+     * @return long the minutes since the epoch, in UTC
+     */
+    public long getEpochMinute()
+    {
+        return epochMinute;
+    }
+
     /**
      * method for setting the parameter
      * 
@@ -103,6 +152,16 @@ public class StatMeasurement extends Measurement implements TimeComparable, Comp
         return paramId;
     }
 
+    /**
+     * method for getting the station ID
+     * 
+     * @return String a string representing the station ID
+     */
+    public String getStationId()
+    {
+        return stationId;
+    }
+
     /**
      * method for setting the stat type
      * 
@@ -231,7 +290,7 @@ public class StatMeasurement extends Measurement implements TimeComparable, Comp
         DateFormat format = new SimpleDateFormat(CsAbstractFile.dateTimeFormat);
         format.setTimeZone(TimeZone.getTimeZone("UTC"));
         Date dateString = format.parse(inDateTime);
-        int value = dateTimeOfMeasurment.getTime().compareTo(dateString);
+        int value = Long.compare(EpochMinutes.toMillis(epochMinute), dateString.getTime());
 
         if (value > 0)
         {
@@ -262,7 +321,7 @@ public class StatMeasurement extends Measurement implements TimeComparable, Comp
     {
         DateFormat format = new SimpleDateFormat(CsAbstractFile.dateTimeFormat);
         format.setTimeZone(TimeZone.getTimeZone("UTC"));
-        String date = format.format(dateTimeOfMeasurment.getTime());
+        String date = format.format(new Date(EpochMinutes.toMillis(epochMinute)));
         return String.format("%s %s %.4f %s %s", paramId.toUpperCase(), this.statType, this.value,
                 stationId.toUpperCase(), date);
     }
@@ -13,5 +13,23 @@ public enum StatType
     AVG,
 
     /** the total constant */
-    TOT;
+    TOT,
+
+    /** the population variance constant */
+    VARIANCE,
+
+    /** the population standard deviation constant */
+    STDDEV,
+
+    /** the number of valid values constant */
+    COUNT,
+
+    /** the median constant, estimated by a QuantileSketch */
+    MEDIAN,
+
+    /** the 5th percentile constant, estimated by a QuantileSketch */
+    P05,
+
+    /** the 95th percentile constant, estimated by a QuantileSketch */
+    P95;
 }
@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class that numbers the stations of the Mesonet network. Every station id
+ * (STID) is given a small int the first time it is seen, and its station number
+ * (STNM) is recorded with it, so per-station data can be kept in arrays indexed
+ * by that int instead of maps keyed by String. The network has about 120
+ * stations, so the registry stays small.
+ */
+public class StationRegistry
+{
+    /** the registry shared by every file parsed */
+    public static final StationRegistry NETWORK = new StationRegistry();
+
+    /** constant for a station or station number that is not registered */
+    public static final int UNKNOWN = -1;
+
+    /** the upper case station ids, in index order */
+    private ArrayList<String> stationIds = new ArrayList<String>();
+
+    /** HashMap from upper case station id to index */
+    private HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+
+    /** the station number of every station, UNKNOWN if not seen yet */
+    private int[] stationNumbers = new int[128];
+
+    /** the index of every station number, UNKNOWN if not registered */
+    private int[] numberIndexes = new int[0];
+
+    /**
+     * Method to get the index of a station, registering it if it is new
+     *
+     * @param stationId
+     *            the station id, in any case
+     * @return int the index of the station
+     */
+    public int intern(String stationId)
+    {
+        return intern(stationId, UNKNOWN);
+    }
+
+    /**
+     * Method to get the index of a station, registering it if it is new, and to
+     * record its station number
+     *
+     * @param stationId
+     *            the station id, in any case
+     * @param stationNumber
+     *            the station number, or UNKNOWN
+     * @return int the index of the station
+     */
+    public synchronized int intern(String stationId, int stationNumber)
+    {
+        int index = indexOf(stationId);
+        if (index == UNKNOWN)
+        {
+            index = stationIds.size();
+            String upperCase = stationId.toUpperCase();
+            stationIds.add(upperCase);
+            indexes.put(upperCase, index);
+
+            if (index == stationNumbers.length)
+            {
+                stationNumbers = Arrays.copyOf(stationNumbers, index * 2);
+            }
+            stationNumbers[index] = UNKNOWN;
+        }
+
+        if (stationNumber >= 0)
+        {
+            stationNumbers[index] = stationNumber;
+            if (stationNumber >= numberIndexes.length)
+            {
+                int oldLength = numberIndexes.length;
+                numberIndexes = Arrays.copyOf(numberIndexes, Math.max(stationNumber + 1, oldLength * 2));
+                Arrays.fill(numberIndexes, oldLength, numberIndexes.length, UNKNOWN);
+            }
+            numberIndexes[stationNumber] = index;
+        }
+        return index;
+    }
+
+    /**
+     * Method to find the index of a station. Upper case ids are found with a
+     * single hash lookup and nothing is allocated for other cases.
+     *
+     * @param stationId
+     *            the station id, in any case
+     * @return int the index, or UNKNOWN if the station is not registered
+     */
+    public synchronized int indexOf(String stationId)
+    {
+        Integer index = indexes.get(stationId);
+        if (index != null)
+        {
+            return index;
+        }
+
+        for (int other = 0; other < stationIds.size(); ++other)
+        {
+            if (stationIds.get(other).equalsIgnoreCase(stationId))
+            {
+                return other;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Method to find the index of a station by its station number
+     *
+     * @param stationNumber
+     *            the station number
+     * @return int the index, or UNKNOWN if the number is not registered
+     */
+    public synchronized int indexOfNumber(int stationNumber)
+    {
+        if (stationNumber < 0 || stationNumber >= numberIndexes.length)
+        {
+            return UNKNOWN;
+        }
+        return numberIndexes[stationNumber];
+    }
+
+    /**
+     * Method to get the id of a station
+     *
+     * @param index
+     *            the index of the station
+     * @return String the upper case station id
+     */
+    public synchronized String getStationId(int index)
+    {
+        return stationIds.get(index);
+    }
+
+    /**
+     * Method to get the station number of a station
+     *
+     * @param index
+     *            the index of the station
+     * @return int the station number, or UNKNOWN if it was not seen
+     */
+    public synchronized int getStationNumber(int index)
+    {
+        if (index < 0 || index >= stationIds.size())
+        {
+            throw new IndexOutOfBoundsException("No station " + index);
+        }
+        return stationNumbers[index];
+    }
+
+    /**
+     * Method to get the number of stations
+     *
+     * @return int the number of stations registered
+     */
+    public synchronized int size()
+    {
+        return stationIds.size();
+    }
+}
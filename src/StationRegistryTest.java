@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StationRegistryTest
+{
+    /**
+     * Method to test registering stations
+     */
+    @Test
+    public void testIntern()
+    {
+        StationRegistry registry = new StationRegistry();
+        Assert.assertEquals("Incorrect value returned!", 0, registry.intern("OKCN", 128));
+        Assert.assertEquals("Incorrect value returned!", 1, registry.intern("nrmn"));
+        Assert.assertEquals("Incorrect value returned!", 0, registry.intern("okcn"));
+        Assert.assertEquals("Incorrect value returned!", 2, registry.size());
+
+        Assert.assertEquals("Incorrect value returned!", "NRMN", registry.getStationId(1));
+        Assert.assertEquals("Incorrect value returned!", 1, registry.indexOf("Nrmn"));
+        Assert.assertEquals("Incorrect value returned!", StationRegistry.UNKNOWN, registry.indexOf("STIL"));
+    }
+
+    /**
+     * Method to test looking stations up by station number
+     */
+    @Test
+    public void testStationNumbers()
+    {
+        StationRegistry registry = new StationRegistry();
+        registry.intern("OKCN", 128);
+        registry.intern("NRMN");
+
+        Assert.assertEquals("Incorrect value returned!", 0, registry.indexOfNumber(128));
+        Assert.assertEquals("Incorrect value returned!", 128, registry.getStationNumber(0));
+        Assert.assertEquals("Incorrect value returned!", StationRegistry.UNKNOWN, registry.getStationNumber(1));
+        Assert.assertEquals("Incorrect value returned!", StationRegistry.UNKNOWN, registry.indexOfNumber(5));
+        Assert.assertEquals("Incorrect value returned!", StationRegistry.UNKNOWN, registry.indexOfNumber(-1));
+
+        // the number is recorded when it is seen later
+        registry.intern("nrmn", 1000);
+        Assert.assertEquals("Incorrect value returned!", 1, registry.indexOfNumber(1000));
+        Assert.assertEquals("Incorrect value returned!", 0, registry.indexOfNumber(128));
+    }
+
+    /**
+     * Method to test that parsed rows share the registered station id
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testParsedRowsShareStationId() throws Exception
+    {
+        for (ParseMode mode : ParseMode.values())
+        {
+            MesonetTimeFile file = new MesonetTimeFile("data/mesonet/20180101stil.mts");
+            file.setParseMode(mode);
+            ArrayList<TimeData> data = file.parseFile();
+
+            int station = StationRegistry.NETWORK.indexOf("STIL");
+            Assert.assertTrue("Station was not registered!", station != StationRegistry.UNKNOWN);
+            Assert.assertSame("Station ID was not shared!", StationRegistry.NETWORK.getStationId(station),
+                    data.get(0).getStationID());
+            Assert.assertSame("Station ID was not shared!", data.get(0).getStationID(),
+                    data.get(data.size() - 1).getStationID());
+        }
+    }
+}
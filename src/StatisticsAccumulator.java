@@ -0,0 +1,482 @@
+import java.util.Arrays;
+
+/**
+ * Class that accumulates the count, sum, moments, minimum, maximum and a
+ * quantile sketch of every parameter of a day, with the minute offsets of the
+ * minimum and maximum, in a single pass over primitive values. Invalid values (see Measurement.isValidValue) and
+ * NaN are skipped, so missing codes such as -995 never become a minimum.
+ */
+public class StatisticsAccumulator
+{
+    /** the number of rows in a day of five minute observations */
+    private static final int ROWS_PER_DAY = 288;
+
+    /** the number of valid values of every parameter */
+    private int[] counts;
+
+    /** the compensated sum of every parameter */
+    private double[] sums;
+
+    /** the compensation term of every sum */
+    private double[] compensations;
+
+    /** the running mean of every parameter, for the moments */
+    private double[] means;
+
+    /** the sum of the squared deviations from the mean of every parameter */
+    private double[] m2s;
+
+    /** the smallest value of every parameter */
+    private double[] mins;
+
+    /** the minute offset of the first row holding the smallest value */
+    private int[] minMinutes;
+
+    /** the largest value of every parameter */
+    private double[] maxes;
+
+    /** the minute offset of the first row holding the largest value */
+    private int[] maxMinutes;
+
+    /** the quantile sketch of every parameter, null until a value is added */
+    private QuantileSketch[] sketches;
+
+    /** whether a sketch was handed out, so it is copied before it changes */
+    private boolean[] sketchShared;
+
+    /** whether quantile sketches are kept */
+    private boolean sketching;
+
+    /** whether the valid values are kept, for exact order statistics */
+    private boolean keepSamples;
+
+    /** the valid values of every parameter, if they are kept */
+    private double[][] sampleValues;
+
+    /** the minute offsets of the valid values of every parameter, if kept */
+    private int[][] sampleMinutes;
+
+    /** the kernel reducing whole columns */
+    private StatisticsKernel kernel = StatisticsKernel.getDefault();
+
+    /**
+     * Constructor for StatisticsAccumulator
+     *
+     * @param paramCount
+     *            the number of parameters, as numbered by a ParameterRegistry
+     */
+    public StatisticsAccumulator(int paramCount)
+    {
+        this(paramCount, true);
+    }
+
+    /**
+     * Constructor for StatisticsAccumulator that may leave out the quantile
+     * sketches, for short periods such as hours
+     *
+     * @param paramCount
+     *            the number of parameters, as numbered by a ParameterRegistry
+     * @param inSketching
+     *            true to keep a quantile sketch of every parameter
+     */
+    public StatisticsAccumulator(int paramCount, boolean inSketching)
+    {
+        sketching = inSketching;
+        counts = new int[paramCount];
+        sums = new double[paramCount];
+        compensations = new double[paramCount];
+        means = new double[paramCount];
+        m2s = new double[paramCount];
+        mins = new double[paramCount];
+        minMinutes = new int[paramCount];
+        maxes = new double[paramCount];
+        maxMinutes = new int[paramCount];
+        sketches = new QuantileSketch[paramCount];
+        sketchShared = new boolean[paramCount];
+    }
+
+    /**
+     * Method to add a row holding a value for every parameter
+     *
+     * @param minute
+     *            the minute offset of the row
+     * @param values
+     *            the values of the row, indexed by the registry
+     */
+    public void addRow(int minute, double[] values)
+    {
+        for (int param = 0; param < counts.length; ++param)
+        {
+            add(param, values[param], minute);
+        }
+    }
+
+    /**
+     * Method to add the valid values of a column. The column is reduced by the
+     * kernel, which finds the valid rows from the validity bitmap.
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @param values
+     *            the values of the column
+     * @param validity
+     *            the validity bitmap of the column, bit (row % 64) of word (row /
+     *            64) set for a valid row
+     * @param minutes
+     *            the minute offset of every row
+     * @param count
+     *            the number of rows
+     */
+    public void addColumn(int param, double[] values, long[] validity, int[] minutes, int count)
+    {
+        ColumnSummary summary = kernel.summarize(values, validity, count);
+        if (summary.getCount() == 0)
+        {
+            return;
+        }
+
+        // the column's rows come after the values already added
+        if (counts[param] == 0 || summary.getMin() < mins[param])
+        {
+            mins[param] = summary.getMin();
+            minMinutes[param] = minutes[summary.getMinRow()];
+        }
+        if (counts[param] == 0 || summary.getMax() > maxes[param])
+        {
+            maxes[param] = summary.getMax();
+            maxMinutes[param] = minutes[summary.getMaxRow()];
+        }
+
+        // the sketch sees the valid rows in row order
+        QuantileSketch sketch = sketching ? getWritableSketch(param) : null;
+        int sampleCount = counts[param];
+        for (int start = 0; start < count && (sketching || keepSamples); start += 64)
+        {
+            long bits = validity[start >>> 6];
+            while (bits != 0)
+            {
+                int row = start + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (row >= count)
+                {
+                    break;
+                }
+                if (sketching)
+                {
+                    sketch.update(values[row]);
+                }
+                if (keepSamples)
+                {
+                    addSample(param, sampleCount++, values[row], minutes[row]);
+                }
+            }
+        }
+
+        // the moments of the column are merged as in Chan et al.
+        int oldCount = counts[param];
+        int newCount = oldCount + summary.getCount();
+        double delta = summary.getSum() / summary.getCount() - means[param];
+        means[param] += delta * summary.getCount() / newCount;
+        m2s[param] += summary.getM2() + delta * delta * ((double) oldCount * summary.getCount() / newCount);
+
+        double corrected = summary.getSum() - compensations[param];
+        double total = sums[param] + corrected;
+        compensations[param] = (total - sums[param]) - corrected;
+        sums[param] = total;
+        counts[param] = newCount;
+    }
+
+    /**
+     * Method to set the kernel reducing whole columns
+     *
+     * @param inKernel
+     *            the kernel to use
+     */
+    public void setKernel(StatisticsKernel inKernel)
+    {
+        kernel = inKernel;
+    }
+
+    /**
+     * Method to add one value of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @param value
+     *            the value, skipped if it is not valid
+     * @param minute
+     *            the minute offset of the row
+     */
+    public void add(int param, double value, int minute)
+    {
+        // NaN fails the comparison as well
+        if (!Measurement.isValidValue(value))
+        {
+            return;
+        }
+
+        if (counts[param] == 0 || value < mins[param])
+        {
+            mins[param] = value;
+            minMinutes[param] = minute;
+        }
+        if (counts[param] == 0 || value > maxes[param])
+        {
+            maxes[param] = value;
+            maxMinutes[param] = minute;
+        }
+
+        // Kahan summation, as used by DoubleStream.sum
+        double corrected = value - compensations[param];
+        double total = sums[param] + corrected;
+        compensations[param] = (total - sums[param]) - corrected;
+        sums[param] = total;
+        ++counts[param];
+
+        // Welford's update of the moments
+        double delta = value - means[param];
+        means[param] += delta / counts[param];
+        m2s[param] += delta * (value - means[param]);
+
+        if (sketching)
+        {
+            getWritableSketch(param).update(value);
+        }
+        if (keepSamples)
+        {
+            addSample(param, counts[param] - 1, value, minute);
+        }
+    }
+
+    /**
+     * Method to keep the valid values, so exact order statistics can be found.
+     * It must be called before any value is added.
+     *
+     * @param inKeepSamples
+     *            true to keep the values
+     */
+    public void setKeepSamples(boolean inKeepSamples)
+    {
+        for (int count : counts)
+        {
+            if (count > 0)
+            {
+                throw new IllegalStateException("Values were added before samples were kept");
+            }
+        }
+
+        keepSamples = inKeepSamples;
+        if (keepSamples && sampleValues == null)
+        {
+            sampleValues = new double[counts.length][];
+            sampleMinutes = new int[counts.length][];
+        }
+    }
+
+    /**
+     * Method to check whether the valid values are kept
+     *
+     * @return boolean true if the values are kept
+     */
+    public boolean isKeepingSamples()
+    {
+        return keepSamples;
+    }
+
+    /**
+     * Method to get the valid values kept of a parameter. Only the first
+     * getCount(param) entries are used, in the order they were added.
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double[] the values, or null if none were kept
+     */
+    public double[] getSampleValues(int param)
+    {
+        return sampleValues == null ? null : sampleValues[param];
+    }
+
+    /**
+     * Method to get the minute offsets of the valid values kept of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return int[] the minute offsets, or null if none were kept
+     */
+    public int[] getSampleMinutes(int param)
+    {
+        return sampleMinutes == null ? null : sampleMinutes[param];
+    }
+
+    /**
+     * Private helper method that stores a valid value
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @param index
+     *            the index of the value among the valid values
+     * @param value
+     *            the value
+     * @param minute
+     *            the minute offset of the row
+     */
+    private void addSample(int param, int index, double value, int minute)
+    {
+        if (sampleValues[param] == null)
+        {
+            sampleValues[param] = new double[ROWS_PER_DAY];
+            sampleMinutes[param] = new int[ROWS_PER_DAY];
+        }
+        else if (index == sampleValues[param].length)
+        {
+            sampleValues[param] = Arrays.copyOf(sampleValues[param], index * 2);
+            sampleMinutes[param] = Arrays.copyOf(sampleMinutes[param], index * 2);
+        }
+        sampleValues[param][index] = value;
+        sampleMinutes[param][index] = minute;
+    }
+
+    /**
+     * Method to get the quantile sketch of a parameter. The sketch is not copied;
+     * values added later go to a copy, so the sketch returned never changes.
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return QuantileSketch the sketch of the valid values, null if there are
+     *         none or sketches are not kept
+     */
+    public QuantileSketch getSketch(int param)
+    {
+        sketchShared[param] = sketches[param] != null;
+        return sketches[param];
+    }
+
+    /**
+     * Private helper method for the sketch of a parameter that values may be
+     * added to
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return QuantileSketch the sketch, created or copied if needed
+     */
+    private QuantileSketch getWritableSketch(int param)
+    {
+        if (sketches[param] == null)
+        {
+            sketches[param] = new QuantileSketch();
+        }
+        else if (sketchShared[param])
+        {
+            sketches[param] = new QuantileSketch(sketches[param]);
+            sketchShared[param] = false;
+        }
+        return sketches[param];
+    }
+
+    /**
+     * Method to get the number of parameters
+     *
+     * @return int the number of parameters
+     */
+    public int size()
+    {
+        return counts.length;
+    }
+
+    /**
+     * Method to get the number of valid values of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return int the number of valid values
+     */
+    public int getCount(int param)
+    {
+        return counts[param];
+    }
+
+    /**
+     * Method to get the sum of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double the compensated sum of the valid values
+     */
+    public double getSum(int param)
+    {
+        return sums[param] - compensations[param];
+    }
+
+    /**
+     * Method to get the mean of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double the mean of the valid values, NaN if there are none
+     */
+    public double getMean(int param)
+    {
+        return counts[param] == 0 ? Double.NaN : getSum(param) / counts[param];
+    }
+
+    /**
+     * Method to get the sum of the squared deviations from the mean of a
+     * parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double the second central moment times the count
+     */
+    public double getM2(int param)
+    {
+        return m2s[param];
+    }
+
+    /**
+     * Method to get the smallest value of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double the smallest valid value
+     */
+    public double getMin(int param)
+    {
+        return mins[param];
+    }
+
+    /**
+     * Method to get the minute offset of the smallest value of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return int the minute offset of the first row holding the smallest value
+     */
+    public int getMinMinute(int param)
+    {
+        return minMinutes[param];
+    }
+
+    /**
+     * Method to get the largest value of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return double the largest valid value
+     */
+    public double getMax(int param)
+    {
+        return maxes[param];
+    }
+
+    /**
+     * Method to get the minute offset of the largest value of a parameter
+     *
+     * @param param
+     *            the registry index of the parameter
+     * @return int the minute offset of the first row holding the largest value
+     */
+    public int getMaxMinute(int param)
+    {
+        return maxMinutes[param];
+    }
+}
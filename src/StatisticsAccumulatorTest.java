@@ -0,0 +1,73 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticsAccumulatorTest
+{
+    /**
+     * Method to test accumulating rows of several parameters
+     */
+    @Test
+    public void testAddRow()
+    {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator(2);
+        accumulator.addRow(0, new double[] { 3.0, -995 });
+        accumulator.addRow(5, new double[] { -1.5, 2.0 });
+        accumulator.addRow(10, new double[] { 3.0, Double.NaN });
+        accumulator.addRow(15, new double[] { -1.5, 4.0 });
+
+        Assert.assertEquals("Incorrect value returned!", 4, accumulator.getCount(0));
+        Assert.assertEquals("Incorrect value returned!", 3.0, accumulator.getSum(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 0.75, accumulator.getMean(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 20.25, accumulator.getM2(0), 1e-12);
+
+        // ties keep the first row
+        Assert.assertEquals("Incorrect value returned!", 3.0, accumulator.getMax(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 0, accumulator.getMaxMinute(0));
+        Assert.assertEquals("Incorrect value returned!", -1.5, accumulator.getMin(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 5, accumulator.getMinMinute(0));
+
+        // missing codes and NaN are skipped
+        Assert.assertEquals("Incorrect value returned!", 2, accumulator.getCount(1));
+        Assert.assertEquals("Incorrect value returned!", 2.0, accumulator.getMin(1), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 15, accumulator.getMaxMinute(1));
+    }
+
+    /**
+     * Method to test accumulating a column from its validity bitmap
+     */
+    @Test
+    public void testAddColumn()
+    {
+        double[] values = new double[130];
+        int[] minutes = new int[130];
+        long[] validity = new long[3];
+        for (int row = 0; row < values.length; ++row)
+        {
+            minutes[row] = row * 5;
+            values[row] = row % 3 == 0 ? row : -995;
+            if (row % 3 == 0)
+            {
+                validity[row >>> 6] |= 1L << row;
+            }
+        }
+
+        StatisticsAccumulator accumulator = new StatisticsAccumulator(1);
+        accumulator.addColumn(0, values, validity, minutes, values.length);
+
+        Assert.assertEquals("Incorrect value returned!", 44, accumulator.getCount(0));
+        Assert.assertEquals("Incorrect value returned!", 0.0, accumulator.getMin(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 129.0, accumulator.getMax(0), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 645, accumulator.getMaxMinute(0));
+        Assert.assertEquals("Incorrect value returned!", 2838.0, accumulator.getSum(0), 0.0);
+
+        // 0, 3, ..., 129 deviate from their mean 64.5 by 3 * (k - 21.5)
+        Assert.assertEquals("Incorrect value returned!", 63855.0, accumulator.getM2(0), 1e-9);
+
+        // a second column is merged with the first one's moments
+        accumulator.addColumn(0, values, validity, minutes, values.length);
+        Assert.assertEquals("Incorrect value returned!", 127710.0, accumulator.getM2(0), 1e-9);
+
+        StatisticsAccumulator empty = new StatisticsAccumulator(1);
+        Assert.assertTrue("Incorrect value returned!", Double.isNaN(empty.getMean(0)));
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * Class holding the partial statistics of one parameter over any set of rows: a
+ * day of one station, or many days and stations merged together. It keeps the
+ * count, the compensated sum, the moments about the mean, the minimum and
+ * maximum with the time and station holding each, and a QuantileSketch for the
+ * median and percentiles. Aggregates are immutable and
+ * merge is associative, so per-file results can be combined in any grouping
+ * (sequentially, as a reduction tree, or into week, month and year rollups)
+ * without keeping the StatMeasurements of every day.
+ */
+public final class StatisticsAggregate
+{
+    /** the aggregate of no values, the identity of merge */
+    public static final StatisticsAggregate EMPTY = new StatisticsAggregate();
+
+    /** the number of valid values */
+    private long count;
+
+    /** the sum of the valid values */
+    private double sum;
+
+    /** the compensation of the sum, from merging */
+    private double compensation;
+
+    /** the sum of the squared deviations from the mean */
+    private double m2;
+
+    /** the smallest value */
+    private double min = Double.NaN;
+
+    /** the time of the smallest value, as minutes since the epoch */
+    private long minEpochMinute;
+
+    /** the station of the smallest value */
+    private String minStationId;
+
+    /** the largest value */
+    private double max = Double.NaN;
+
+    /** the time of the largest value, as minutes since the epoch */
+    private long maxEpochMinute;
+
+    /** the station of the largest value */
+    private String maxStationId;
+
+    /** the earliest start of the merged periods, as minutes since the epoch */
+    private long startEpochMinute;
+
+    /** the station of every merged value, or null if they come from several */
+    private String stationId;
+
+    /** the sketch of the values, or null if quantiles are not kept */
+    private QuantileSketch sketch;
+
+    /**
+     * Constructor for the empty aggregate
+     */
+    private StatisticsAggregate()
+    {
+    }
+
+    /**
+     * Constructor for StatisticsAggregate holding the statistics of one station
+     * over one period
+     *
+     * @param inCount
+     *            the number of valid values, at least one
+     * @param inSum
+     *            the sum of the valid values
+     * @param inM2
+     *            the sum of the squared deviations from the mean
+     * @param inMin
+     *            the smallest value
+     * @param inMinEpochMinute
+     *            the time of the smallest value, as minutes since the epoch
+     * @param inMax
+     *            the largest value
+     * @param inMaxEpochMinute
+     *            the time of the largest value, as minutes since the epoch
+     * @param inStartEpochMinute
+     *            the start of the period, as minutes since the epoch
+     * @param inStationId
+     *            the station of the values
+     */
+    public StatisticsAggregate(long inCount, double inSum, double inM2, double inMin, long inMinEpochMinute,
+            double inMax, long inMaxEpochMinute, long inStartEpochMinute, String inStationId)
+    {
+        this(inCount, inSum, inM2, inMin, inMinEpochMinute, inMax, inMaxEpochMinute, inStartEpochMinute,
+                inStationId, null);
+    }
+
+    /**
+     * Constructor for StatisticsAggregate holding the statistics of one station
+     * over one period, with a sketch of the values for quantiles
+     *
+     * @param inCount
+     *            the number of valid values, at least one
+     * @param inSum
+     *            the sum of the valid values
+     * @param inM2
+     *            the sum of the squared deviations from the mean
+     * @param inMin
+     *            the smallest value
+     * @param inMinEpochMinute
+     *            the time of the smallest value, as minutes since the epoch
+     * @param inMax
+     *            the largest value
+     * @param inMaxEpochMinute
+     *            the time of the largest value, as minutes since the epoch
+     * @param inStartEpochMinute
+     *            the start of the period, as minutes since the epoch
+     * @param inStationId
+     *            the station of the values
+     * @param inSketch
+     *            the sketch of the values, which must not change afterwards, or
+     *            null
+     */
+    public StatisticsAggregate(long inCount, double inSum, double inM2, double inMin, long inMinEpochMinute,
+            double inMax, long inMaxEpochMinute, long inStartEpochMinute, String inStationId,
+            QuantileSketch inSketch)
+    {
+        if (inCount < 1)
+        {
+            throw new IllegalArgumentException("An aggregate needs a value, use EMPTY instead");
+        }
+
+        count = inCount;
+        sum = inSum;
+        m2 = inM2;
+        min = inMin;
+        minEpochMinute = inMinEpochMinute;
+        minStationId = inStationId;
+        max = inMax;
+        maxEpochMinute = inMaxEpochMinute;
+        maxStationId = inStationId;
+        startEpochMinute = inStartEpochMinute;
+        stationId = inStationId;
+        sketch = inSketch;
+    }
+
+    /**
+     * Method to merge this aggregate with the aggregate of later values. Equal
+     * minimums and maximums keep the one of this aggregate, so merging in file
+     * order picks the same day as Collections.min and Collections.max did.
+     *
+     * @param later
+     *            the aggregate to merge with
+     * @return StatisticsAggregate a new aggregate of the values of both
+     */
+    public StatisticsAggregate merge(StatisticsAggregate later)
+    {
+        if (later.count == 0)
+        {
+            return this;
+        }
+        if (count == 0)
+        {
+            return later;
+        }
+
+        StatisticsAggregate merged = new StatisticsAggregate();
+        merged.count = count + later.count;
+
+        // Neumaier's two-sum of the sums, keeping both compensations
+        double total = sum + later.sum;
+        double error = Math.abs(sum) >= Math.abs(later.sum) ? (sum - total) + later.sum
+                : (later.sum - total) + sum;
+        merged.sum = total;
+        merged.compensation = compensation + later.compensation + error;
+
+        // the moments are merged as in Chan et al.
+        double delta = later.getMean() - getMean();
+        merged.m2 = m2 + later.m2 + delta * delta * ((double) count * later.count / merged.count);
+
+        StatisticsAggregate minSide = later.min < min ? later : this;
+        merged.min = minSide.min;
+        merged.minEpochMinute = minSide.minEpochMinute;
+        merged.minStationId = minSide.minStationId;
+
+        StatisticsAggregate maxSide = later.max > max ? later : this;
+        merged.max = maxSide.max;
+        merged.maxEpochMinute = maxSide.maxEpochMinute;
+        merged.maxStationId = maxSide.maxStationId;
+
+        merged.startEpochMinute = Math.min(startEpochMinute, later.startEpochMinute);
+        merged.stationId = stationId != null && stationId.equals(later.stationId) ? stationId : null;
+
+        // quantiles are only known if both sides kept them
+        merged.sketch = sketch != null && later.sketch != null ? sketch.merge(later.sketch) : null;
+        return merged;
+    }
+
+    /**
+     * Method to check whether the aggregate holds any values
+     *
+     * @return boolean true for the aggregate of no values
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Method to get the number of valid values
+     *
+     * @return long the number of valid values
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Method to get the sum of the valid values
+     *
+     * @return double the compensated sum
+     */
+    public double getSum()
+    {
+        return sum + compensation;
+    }
+
+    /**
+     * Method to get the mean of the valid values
+     *
+     * @return double the mean, NaN for the empty aggregate
+     */
+    public double getMean()
+    {
+        return count == 0 ? Double.NaN : getSum() / count;
+    }
+
+    /**
+     * Method to get the sum of the squared deviations from the mean
+     *
+     * @return double the second central moment times the count
+     */
+    public double getM2()
+    {
+        return m2;
+    }
+
+    /**
+     * Method to get the population variance of the valid values
+     *
+     * @return double the variance, NaN for the empty aggregate
+     */
+    public double getVariance()
+    {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * Method to get the population standard deviation of the valid values
+     *
+     * @return double the standard deviation, NaN for the empty aggregate
+     */
+    public double getStandardDeviation()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Method to estimate a quantile of the valid values from the sketch; see
+     * QuantileSketch for the error bounds
+     *
+     * @param fraction
+     *            the fraction of the values at or below the quantile, 0 to 1
+     * @return double the quantile, NaN if the aggregate keeps no sketch
+     */
+    public double getQuantile(double fraction)
+    {
+        return sketch == null ? Double.NaN : sketch.getQuantile(fraction);
+    }
+
+    /**
+     * Method to get the smallest value
+     *
+     * @return double the smallest value, NaN for the empty aggregate
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Method to get the time of the smallest value
+     *
+     * @return long the minutes since the epoch
+     */
+    public long getMinEpochMinute()
+    {
+        return minEpochMinute;
+    }
+
+    /**
+     * Method to get the station of the smallest value
+     *
+     * @return String the station ID, null for the empty aggregate
+     */
+    public String getMinStationId()
+    {
+        return minStationId;
+    }
+
+    /**
+     * Method to get the largest value
+     *
+     * @return double the largest value, NaN for the empty aggregate
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Method to get the time of the largest value
+     *
+     * @return long the minutes since the epoch
+     */
+    public long getMaxEpochMinute()
+    {
+        return maxEpochMinute;
+    }
+
+    /**
+     * Method to get the station of the largest value
+     *
+     * @return String the station ID, null for the empty aggregate
+     */
+    public String getMaxStationId()
+    {
+        return maxStationId;
+    }
+
+    /**
+     * Method to get the earliest start of the merged periods
+     *
+     * @return long the minutes since the epoch
+     */
+    public long getStartEpochMinute()
+    {
+        return startEpochMinute;
+    }
+
+    /**
+     * Method to get the station shared by every merged value
+     *
+     * @return String the station ID, or null if the values come from several
+     */
+    public String getStationId()
+    {
+        return stationId;
+    }
+
+    /**
+     * Method to build the StatMeasurement of one StatType. The minimum and
+     * maximum carry their own time and station; the other types carry the start
+     * of the period.
+     *
+     * @param paramId
+     *            the parameter ID
+     * @param type
+     *            the StatType to build
+     * @return StatMeasurement the statistic, or null for the empty aggregate
+     */
+    public StatMeasurement toStatMeasurement(String paramId, StatType type)
+    {
+        if (count == 0)
+        {
+            return null;
+        }
+
+        String station = stationId == null ? "nada" : stationId;
+        switch (type)
+        {
+            case MIN:
+                return new StatMeasurement(min, minEpochMinute, minStationId, paramId, type);
+            case MAX:
+                return new StatMeasurement(max, maxEpochMinute, maxStationId, paramId, type);
+            case AVG:
+                return new StatMeasurement(getMean(), startEpochMinute, station, paramId, type);
+            case TOT:
+                return new StatMeasurement(getSum(), startEpochMinute, station, paramId, type);
+            case VARIANCE:
+                return new StatMeasurement(getVariance(), startEpochMinute, station, paramId, type);
+            case STDDEV:
+                return new StatMeasurement(getStandardDeviation(), startEpochMinute, station, paramId, type);
+            case COUNT:
+                return new StatMeasurement(count, startEpochMinute, station, paramId, type);
+            case MEDIAN:
+                return new StatMeasurement(getQuantile(0.5), startEpochMinute, station, paramId, type);
+            case P05:
+                return new StatMeasurement(getQuantile(0.05), startEpochMinute, station, paramId, type);
+            case P95:
+                return new StatMeasurement(getQuantile(0.95), startEpochMinute, station, paramId, type);
+            default:
+                throw new IllegalArgumentException("Unknown StatType " + type);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticsAggregateTest
+{
+    /**
+     * Method to test that merging gives the statistics of all the values
+     */
+    @Test
+    public void testMerge()
+    {
+        StatisticsAggregate first = aggregate(new double[] { 2.0, 4.0, 6.0 }, 0, "OKCN");
+        StatisticsAggregate second = aggregate(new double[] { -1.0, 6.0 }, 1440, "STIL");
+        StatisticsAggregate merged = first.merge(second);
+
+        Assert.assertEquals("Incorrect value returned!", 5, merged.getCount());
+        Assert.assertEquals("Incorrect value returned!", 17.0, merged.getSum(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", 3.4, merged.getMean(), 1e-12);
+        Assert.assertEquals("Incorrect value returned!", 35.2, merged.getM2(), 1e-12);
+        Assert.assertEquals("Incorrect value returned!", -1.0, merged.getMin(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", "STIL", merged.getMinStationId());
+        Assert.assertEquals("Incorrect value returned!", 1440, merged.getMinEpochMinute());
+
+        // the earlier aggregate wins ties
+        Assert.assertEquals("Incorrect value returned!", "OKCN", merged.getMaxStationId());
+        Assert.assertEquals("Incorrect value returned!", 10, merged.getMaxEpochMinute());
+        Assert.assertEquals("Incorrect value returned!", "STIL", second.merge(first).getMaxStationId());
+
+        Assert.assertEquals("Incorrect value returned!", 0, merged.getStartEpochMinute());
+        Assert.assertNull("Incorrect value returned!", merged.getStationId());
+        Assert.assertEquals("Incorrect value returned!", "OKCN", first.merge(first).getStationId());
+    }
+
+    /**
+     * Method to test that the empty aggregate is the identity of merge
+     */
+    @Test
+    public void testEmpty()
+    {
+        StatisticsAggregate values = aggregate(new double[] { 1.5 }, 0, "OKCN");
+        Assert.assertSame("Incorrect value returned!", values, values.merge(StatisticsAggregate.EMPTY));
+        Assert.assertSame("Incorrect value returned!", values, StatisticsAggregate.EMPTY.merge(values));
+        Assert.assertTrue("Incorrect value returned!", StatisticsAggregate.EMPTY.isEmpty());
+        Assert.assertTrue("Incorrect value returned!", Double.isNaN(StatisticsAggregate.EMPTY.getMean()));
+        Assert.assertNull("Incorrect value returned!", StatisticsAggregate.EMPTY.toStatMeasurement("TAIR",
+                StatType.MAX));
+    }
+
+    /**
+     * Method to test that a reduction tree gives the result of merging in order
+     */
+    @Test
+    public void testAssociative()
+    {
+        Random random = new Random(3);
+        ArrayList<StatisticsAggregate> days = new ArrayList<StatisticsAggregate>();
+        for (int day = 0; day < 37; ++day)
+        {
+            double[] values = new double[1 + random.nextInt(288)];
+            for (int row = 0; row < values.length; ++row)
+            {
+                values[row] = random.nextInt(400) / 10.0 - 20.0;
+            }
+            days.add(aggregate(values, day * 1440L, day % 2 == 0 ? "OKCN" : "STIL"));
+        }
+
+        StatisticsAggregate sequential = StatisticsAggregate.EMPTY;
+        for (StatisticsAggregate day : days)
+        {
+            sequential = sequential.merge(day);
+        }
+        StatisticsAggregate tree = reduce(days, 0, days.size());
+
+        Assert.assertEquals("Incorrect value returned!", sequential.getCount(), tree.getCount());
+        Assert.assertEquals("Incorrect value returned!", sequential.getSum(), tree.getSum(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", sequential.getM2(), tree.getM2(), 1e-6);
+        Assert.assertEquals("Incorrect value returned!", sequential.getMin(), tree.getMin(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", sequential.getMinEpochMinute(), tree.getMinEpochMinute());
+        Assert.assertEquals("Incorrect value returned!", sequential.getMax(), tree.getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", sequential.getMaxEpochMinute(), tree.getMaxEpochMinute());
+        Assert.assertEquals("Incorrect String returned!", sequential.toStatMeasurement("TAIR", StatType.MAX)
+                .toString(), tree.toStatMeasurement("TAIR", StatType.MAX).toString());
+    }
+
+    /**
+     * Private helper method that merges a range of aggregates as a balanced tree
+     *
+     * @param days
+     *            the aggregates
+     * @param from
+     *            the first index of the range
+     * @param to
+     *            the index after the range
+     * @return StatisticsAggregate the merged range
+     */
+    private StatisticsAggregate reduce(ArrayList<StatisticsAggregate> days, int from, int to)
+    {
+        if (to - from == 1)
+        {
+            return days.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return reduce(days, from, middle).merge(reduce(days, middle, to));
+    }
+
+    /**
+     * Private helper method for the aggregate of values five minutes apart
+     *
+     * @param values
+     *            the values
+     * @param start
+     *            the time of the first value, as minutes since the epoch
+     * @param stationId
+     *            the station of the values
+     * @return StatisticsAggregate the aggregate
+     */
+    private StatisticsAggregate aggregate(double[] values, long start, String stationId)
+    {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator(1);
+        for (int row = 0; row < values.length; ++row)
+        {
+            accumulator.add(0, values[row], row * 5);
+        }
+        return new StatisticsAggregate(accumulator.getCount(0), accumulator.getSum(0), accumulator.getM2(0),
+                accumulator.getMin(0), start + accumulator.getMinMinute(0), accumulator.getMax(0),
+                start + accumulator.getMaxMinute(0), start, stationId);
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * an enum holding the implementations of the column reduction behind
+ * DayDataStatistics: count, sum, squared deviations from the mean, min/argmin
+ * and max/argmax of the valid values of a column, with validity given by a
+ * bitmap (bit (row % 64) of word (row / 64) set for a valid row). The kernel
+ * is chosen at runtime with the mesonet.kernel system property (SCALAR, LANES
+ * or AUTO). AUTO, the default, uses SCALAR and only hands dense columns to
+ * LANES, which is faster when (nearly) every row is valid but slower on the
+ * sparse columns, such as the soil temperatures, that are mostly missing.
+ */
+public enum StatisticsKernel
+{
+    /** one value at a time, in row order */
+    SCALAR
+    {
+        @Override
+        public ColumnSummary summarize(double[] values, long[] validity, int count)
+        {
+            ColumnSummary summary = new ColumnSummary();
+            double compensation = 0;
+            for (int row = 0; row < count; ++row)
+            {
+                if ((validity[row >>> 6] & (1L << row)) == 0)
+                {
+                    continue;
+                }
+
+                double value = values[row];
+                if (summary.count == 0 || value < summary.min)
+                {
+                    summary.min = value;
+                    summary.minRow = row;
+                }
+                if (summary.count == 0 || value > summary.max)
+                {
+                    summary.max = value;
+                    summary.maxRow = row;
+                }
+
+                double corrected = value - compensation;
+                double total = summary.sum + corrected;
+                compensation = (total - summary.sum) - corrected;
+                summary.sum = total;
+                ++summary.count;
+            }
+            summary.sum -= compensation;
+
+            // a second pass about the mean, which loses less than summing squares
+            for (int row = 0; row < count && summary.count > 0; ++row)
+            {
+                if ((validity[row >>> 6] & (1L << row)) != 0)
+                {
+                    double deviation = values[row] - summary.sum / summary.count;
+                    summary.m2 += deviation * deviation;
+                }
+            }
+            return summary;
+        }
+    },
+
+    /**
+     * four independent lanes over every whole 64 row word, without branches or
+     * loop-carried dependencies between lanes. Invalid rows are masked by
+     * blending their lane to the identity (+inf for the min, -inf for the max, 0
+     * for the sums), so words with missing values stay on the unrolled path; only
+     * the last partial word is walked bit by bit. Each word is summed on its own
+     * and the word sums are compensated. The rows of the min and max are found
+     * afterwards.
+     */
+    LANES
+    {
+        @Override
+        public ColumnSummary summarize(double[] values, long[] validity, int count)
+        {
+            double min0 = Double.POSITIVE_INFINITY;
+            double min1 = Double.POSITIVE_INFINITY;
+            double min2 = Double.POSITIVE_INFINITY;
+            double min3 = Double.POSITIVE_INFINITY;
+            double max0 = Double.NEGATIVE_INFINITY;
+            double max1 = Double.NEGATIVE_INFINITY;
+            double max2 = Double.NEGATIVE_INFINITY;
+            double max3 = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            double compensation = 0;
+            int valid = 0;
+
+            for (int start = 0; start < count; start += 64)
+            {
+                long bits = validity[start >>> 6];
+                double wordSum = 0;
+
+                if (bits == 0)
+                {
+                    continue;
+                }
+                if (start + 64 <= count)
+                {
+                    // a whole word: 16 rounds of 4 lanes, invalid lanes blended
+                    // to the identities
+                    double sum0 = 0;
+                    double sum1 = 0;
+                    double sum2 = 0;
+                    double sum3 = 0;
+                    for (int row = start; row < start + 64; row += 4)
+                    {
+                        long lanes = bits >>> (row - start);
+                        boolean valid0 = (lanes & 1) != 0;
+                        boolean valid1 = (lanes & 2) != 0;
+                        boolean valid2 = (lanes & 4) != 0;
+                        boolean valid3 = (lanes & 8) != 0;
+                        double value0 = valid0 ? values[row] : 0;
+                        double value1 = valid1 ? values[row + 1] : 0;
+                        double value2 = valid2 ? values[row + 2] : 0;
+                        double value3 = valid3 ? values[row + 3] : 0;
+                        double low0 = valid0 ? value0 : Double.POSITIVE_INFINITY;
+                        double low1 = valid1 ? value1 : Double.POSITIVE_INFINITY;
+                        double low2 = valid2 ? value2 : Double.POSITIVE_INFINITY;
+                        double low3 = valid3 ? value3 : Double.POSITIVE_INFINITY;
+                        double high0 = valid0 ? value0 : Double.NEGATIVE_INFINITY;
+                        double high1 = valid1 ? value1 : Double.NEGATIVE_INFINITY;
+                        double high2 = valid2 ? value2 : Double.NEGATIVE_INFINITY;
+                        double high3 = valid3 ? value3 : Double.NEGATIVE_INFINITY;
+                        min0 = low0 < min0 ? low0 : min0;
+                        min1 = low1 < min1 ? low1 : min1;
+                        min2 = low2 < min2 ? low2 : min2;
+                        min3 = low3 < min3 ? low3 : min3;
+                        max0 = high0 > max0 ? high0 : max0;
+                        max1 = high1 > max1 ? high1 : max1;
+                        max2 = high2 > max2 ? high2 : max2;
+                        max3 = high3 > max3 ? high3 : max3;
+                        sum0 += value0;
+                        sum1 += value1;
+                        sum2 += value2;
+                        sum3 += value3;
+                    }
+                    wordSum = (sum0 + sum1) + (sum2 + sum3);
+                    valid += Long.bitCount(bits);
+                }
+                else
+                {
+                    // the last partial word
+                    while (bits != 0)
+                    {
+                        int row = start + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (row >= count)
+                        {
+                            break;
+                        }
+
+                        double value = values[row];
+                        min0 = value < min0 ? value : min0;
+                        max0 = value > max0 ? value : max0;
+                        wordSum += value;
+                        ++valid;
+                    }
+                }
+
+                // the words are added with Kahan summation, as used by
+                // DoubleStream.sum
+                double corrected = wordSum - compensation;
+                double total = sum + corrected;
+                compensation = (total - sum) - corrected;
+                sum = total;
+            }
+
+            ColumnSummary summary = new ColumnSummary();
+            summary.count = valid;
+            if (valid == 0)
+            {
+                return summary;
+            }
+            summary.sum = sum - compensation;
+
+            // the first valid rows holding the min and the max; 0.0 and -0.0 are
+            // equal, so the value is taken from the row
+            summary.minRow = firstRow(values, validity, count,
+                    Math.min(Math.min(min0, min1), Math.min(min2, min3)));
+            summary.maxRow = firstRow(values, validity, count,
+                    Math.max(Math.max(max0, max1), Math.max(max2, max3)));
+            summary.min = values[summary.minRow];
+            summary.max = values[summary.maxRow];
+            summary.m2 = squaredDeviations(values, validity, count, summary.sum / valid);
+            return summary;
+        }
+    },
+
+    /** LANES for columns with few invalid rows, SCALAR for the others */
+    AUTO
+    {
+        @Override
+        public ColumnSummary summarize(double[] values, long[] validity, int count)
+        {
+            long valid = 0;
+            for (int word = 0; word < ((count + 63) >>> 6); ++word)
+            {
+                valid += Long.bitCount(validity[word]);
+            }
+            StatisticsKernel kernel = valid * 64 >= (long) count * DENSE_64THS ? LANES : SCALAR;
+            return kernel.summarize(values, validity, count);
+        }
+    };
+
+    /** the system property naming the kernel to use */
+    public static final String PROPERTY = "mesonet.kernel";
+
+    /** the least share of valid rows, in 64ths, for AUTO to use LANES */
+    private static final int DENSE_64THS = 60;
+
+    /**
+     * Method to reduce a column
+     *
+     * @param values
+     *            the values of the column
+     * @param validity
+     *            the validity bitmap of the column
+     * @param count
+     *            the number of rows
+     * @return ColumnSummary the count, sum, min and max of the valid values
+     */
+    public abstract ColumnSummary summarize(double[] values, long[] validity, int count);
+
+    /**
+     * Method to get the kernel named by the mesonet.kernel system property
+     *
+     * @return StatisticsKernel the kernel to use, AUTO if the property is not
+     *         set or names no kernel
+     */
+    public static StatisticsKernel getDefault()
+    {
+        String name = System.getProperty(PROPERTY, AUTO.name());
+        for (StatisticsKernel kernel : values())
+        {
+            if (kernel.name().equalsIgnoreCase(name))
+            {
+                return kernel;
+            }
+        }
+        return AUTO;
+    }
+
+    /**
+     * Private helper method for the sum of the squared deviations of the valid
+     * values from their mean, in four masked lanes over the whole words
+     *
+     * @param values
+     *            the values of the column
+     * @param validity
+     *            the validity bitmap of the column
+     * @param count
+     *            the number of rows
+     * @param mean
+     *            the mean of the valid values
+     * @return double the sum of the squared deviations
+     */
+    private static double squaredDeviations(double[] values, long[] validity, int count, double mean)
+    {
+        double m2 = 0;
+        for (int start = 0; start < count; start += 64)
+        {
+            long bits = validity[start >>> 6];
+            if (bits != 0 && start + 64 <= count)
+            {
+                double m20 = 0;
+                double m21 = 0;
+                double m22 = 0;
+                double m23 = 0;
+                for (int row = start; row < start + 64; row += 4)
+                {
+                    long lanes = bits >>> (row - start);
+                    double deviation0 = (lanes & 1) != 0 ? values[row] - mean : 0;
+                    double deviation1 = (lanes & 2) != 0 ? values[row + 1] - mean : 0;
+                    double deviation2 = (lanes & 4) != 0 ? values[row + 2] - mean : 0;
+                    double deviation3 = (lanes & 8) != 0 ? values[row + 3] - mean : 0;
+                    m20 += deviation0 * deviation0;
+                    m21 += deviation1 * deviation1;
+                    m22 += deviation2 * deviation2;
+                    m23 += deviation3 * deviation3;
+                }
+                m2 += (m20 + m21) + (m22 + m23);
+                continue;
+            }
+
+            while (bits != 0)
+            {
+                int row = start + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (row >= count)
+                {
+                    break;
+                }
+                double deviation = values[row] - mean;
+                m2 += deviation * deviation;
+            }
+        }
+        return m2;
+    }
+
+    /**
+     * Private helper method to find the first valid row holding a value
+     *
+     * @param values
+     *            the values of the column
+     * @param validity
+     *            the validity bitmap of the column
+     * @param count
+     *            the number of rows
+     * @param target
+     *            the value to find
+     * @return int the first valid row holding the value, -1 if there is none
+     */
+    private static int firstRow(double[] values, long[] validity, int count, double target)
+    {
+        for (int row = 0; row < count; ++row)
+        {
+            if (values[row] == target && (validity[row >>> 6] & (1L << row)) != 0)
+            {
+                return row;
+            }
+        }
+        return -1;
+    }
+}
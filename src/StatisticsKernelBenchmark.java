@@ -0,0 +1,62 @@
+import java.util.Random;
+
+/**
+ * Driver class that times the statistics kernels on synthetic columns, one fully
+ * valid like TAIR, one with a row out of sixteen missing, and one with two rows
+ * out of three missing like TS10. Run with the number of rows as the first
+ * argument (default 10 years of 5 minute rows).
+ */
+public class StatisticsKernelBenchmark
+{
+    /** the number of timed rounds per kernel */
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args)
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10 * 365 * 288;
+
+        Random random = new Random(42);
+        double[] values = new double[rows];
+        long[] allValid = new long[(rows + 63) >>> 6];
+        long[] mostlyValid = new long[allValid.length];
+        long[] sparse = new long[allValid.length];
+        for (int row = 0; row < rows; ++row)
+        {
+            values[row] = Math.round((random.nextGaussian() * 10 + 15) * 10) / 10.0;
+            allValid[row >>> 6] |= 1L << row;
+            if (random.nextInt(16) != 0)
+            {
+                mostlyValid[row >>> 6] |= 1L << row;
+            }
+            if (row % 3 == 0)
+            {
+                sparse[row >>> 6] |= 1L << row;
+            }
+        }
+
+        for (long[] validity : new long[][] { allValid, mostlyValid, sparse })
+        {
+            String name = validity == allValid ? "all valid"
+                    : validity == mostlyValid ? "15 in 16 valid" : "1 in 3 valid";
+            for (StatisticsKernel kernel : StatisticsKernel.values())
+            {
+                // warm up so the JIT compiles the kernel first
+                double check = 0;
+                for (int round = 0; round < ROUNDS; ++round)
+                {
+                    check += kernel.summarize(values, validity, rows).getSum();
+                }
+
+                long start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; ++round)
+                {
+                    check += kernel.summarize(values, validity, rows).getSum();
+                }
+                long elapsed = System.nanoTime() - start;
+
+                System.out.println(String.format("%-14s %-6s %8.3f ns/row (%d rows, check %.1f)", name, kernel,
+                        (double) elapsed / ROUNDS / rows, rows, check));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticsKernelTest
+{
+    /**
+     * Method to test that every kernel reduces random columns the same way
+     */
+    @Test
+    public void testKernelsMatch()
+    {
+        Random random = new Random(7);
+        for (int count : new int[] { 0, 1, 63, 64, 65, 288, 1000 })
+        {
+            for (int density = 0; density <= 4; ++density)
+            {
+                double[] values = new double[count];
+                long[] validity = new long[(count + 63) >>> 6];
+                for (int row = 0; row < count; ++row)
+                {
+                    // few distinct values so the min and max occur more than once
+                    values[row] = random.nextInt(21) - 10;
+                    if (random.nextInt(4) < density)
+                    {
+                        validity[row >>> 6] |= 1L << row;
+                    }
+                    else
+                    {
+                        // invalid rows hold NaN, or a missing code left in place
+                        values[row] = row % 2 == 0 ? Double.NaN : -995;
+                    }
+                }
+
+                ColumnSummary expected = StatisticsKernel.SCALAR.summarize(values, validity, count);
+                for (StatisticsKernel kernel : new StatisticsKernel[] { StatisticsKernel.LANES, StatisticsKernel.AUTO })
+                {
+                    ColumnSummary actual = kernel.summarize(values, validity, count);
+                    Assert.assertEquals("Incorrect count returned!", expected.getCount(), actual.getCount());
+                    Assert.assertEquals("Incorrect sum returned!", expected.getSum(), actual.getSum(), 1e-9);
+                    Assert.assertEquals("Incorrect m2 returned!", expected.getM2(), actual.getM2(), 1e-6);
+                    Assert.assertEquals("Incorrect min returned!", expected.getMin(), actual.getMin(), 0.0);
+                    Assert.assertEquals("Incorrect min row returned!", expected.getMinRow(), actual.getMinRow());
+                    Assert.assertEquals("Incorrect max returned!", expected.getMax(), actual.getMax(), 0.0);
+                    Assert.assertEquals("Incorrect max row returned!", expected.getMaxRow(), actual.getMaxRow());
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to test the kernel chosen by the system property
+     */
+    @Test
+    public void testGetDefault()
+    {
+        String old = System.getProperty(StatisticsKernel.PROPERTY);
+        try
+        {
+            System.setProperty(StatisticsKernel.PROPERTY, "scalar");
+            Assert.assertEquals("Incorrect kernel returned!", StatisticsKernel.SCALAR, StatisticsKernel.getDefault());
+            System.setProperty(StatisticsKernel.PROPERTY, "nonsense");
+            Assert.assertEquals("Incorrect kernel returned!", StatisticsKernel.AUTO, StatisticsKernel.getDefault());
+            System.clearProperty(StatisticsKernel.PROPERTY);
+            Assert.assertEquals("Incorrect kernel returned!", StatisticsKernel.AUTO, StatisticsKernel.getDefault());
+        }
+        finally
+        {
+            if (old != null)
+            {
+                System.setProperty(StatisticsKernel.PROPERTY, old);
+            }
+        }
+    }
+}
@@ -0,0 +1,553 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * Class that keeps the statistics of station-day files on disk, so they are
+ * not parsed again in later runs. Every source file gets two files in the
+ * store directory, named after it and the directory it is in, made of
+ * fixed-width binary records. The summary file has a header with the
+ * modification time and size of the source and one record per parameter with
+ * the count, sum, moments, minimum and maximum (with their times) of the day.
+ * The hours file has the same header and then one such record per hour of
+ * every parameter, and is only read when the hours are asked for. Both are read
+ * back through a memory map. A summary whose source has changed since it was
+ * written is stale and is ignored. Quantile sketches are not kept, so
+ * statistics read back have no median or percentiles.
+ */
+public class SummaryStore
+{
+    /** the extension of the summary files */
+    public static final String EXTENSION = ".sum";
+
+    /** the extension of the hours files */
+    public static final String HOURS_EXTENSION = ".hrs";
+
+    /** the first four bytes of a summary file, "MSUM" */
+    private static final int MAGIC = 0x4D53554D;
+
+    /** the first four bytes of an hours file, "MHRS" */
+    private static final int HOURS_MAGIC = 0x4D485253;
+
+    /** the version of the layout */
+    private static final int VERSION = 2;
+
+    /** the length of the header, in bytes */
+    private static final int HEADER_BYTES = 64;
+
+    /** the length of a record, in bytes */
+    private static final int RECORD_BYTES = 56;
+
+    /** the length of the padded station and parameter ids, in bytes */
+    private static final int ID_BYTES = 8;
+
+    /** the directory holding the summary files */
+    private File directory;
+
+    /** the number of summaries read back */
+    private long readCount;
+
+    /** the number of hours files read back */
+    private long hoursReadCount;
+
+    /** the number of summaries written */
+    private long writeCount;
+
+    /**
+     * Constructor for SummaryStore
+     *
+     * @param inDirectory
+     *            the directory holding the summary files, created if needed
+     * @throws IOException
+     *             if the directory cannot be created
+     */
+    public SummaryStore(String inDirectory) throws IOException
+    {
+        directory = new File(inDirectory);
+        Files.createDirectories(directory.toPath());
+    }
+
+    /**
+     * Method to read the statistics of the days of a source file back from its
+     * summary, without their hours
+     *
+     * @param source
+     *            the source file
+     * @param params
+     *            the upper case parameter ids to read, or null for all of them
+     * @return DayDataStatistics the statistics, or null if there is no summary
+     *         or the source changed since it was written
+     * @throws IOException
+     */
+    public DayDataStatistics read(CsAbstractFile source, Set<String> params) throws IOException
+    {
+        return read(source, params, false);
+    }
+
+    /**
+     * Method to read the statistics of a source file back from its summary
+     *
+     * @param source
+     *            the source file
+     * @param params
+     *            the upper case parameter ids to read, or null for all of them
+     * @param withHours
+     *            true to read the hours file as well, false to leave the hours
+     *            of the statistics unknown
+     * @return DayDataStatistics the statistics, or null if there is no summary,
+     *         or no hours file when the hours are asked for, or the source
+     *         changed since they were written
+     * @throws IOException
+     */
+    public DayDataStatistics read(CsAbstractFile source, Set<String> params, boolean withHours)
+            throws IOException
+    {
+        ByteBuffer buffer = map(getSummaryFile(source), MAGIC, source);
+        if (buffer == null)
+        {
+            return null;
+        }
+        long midnight = buffer.getLong(24);
+        String stationId = getId(buffer, 32);
+        int paramCount = buffer.getInt(40);
+        int hourCount = buffer.getInt(44);
+        if (paramCount < 0 || hourCount < 0 || buffer.capacity() != HEADER_BYTES + (long) paramCount * RECORD_BYTES)
+        {
+            return null;
+        }
+
+        // the hours file has to be of the same summary
+        ByteBuffer hoursBuffer = null;
+        if (withHours)
+        {
+            hoursBuffer = map(getHoursFile(source), HOURS_MAGIC, source);
+            if (hoursBuffer == null || hoursBuffer.getLong(24) != midnight || hoursBuffer.getInt(40) != paramCount
+                    || hoursBuffer.getInt(44) != hourCount
+                    || hoursBuffer.capacity() != HEADER_BYTES + (long) paramCount * hourCount * RECORD_BYTES)
+            {
+                return null;
+            }
+        }
+
+        // only the requested parameters are registered
+        ArrayList<String> ids = new ArrayList<String>();
+        ArrayList<Integer> records = new ArrayList<Integer>();
+        for (int record = 0; record < paramCount; ++record)
+        {
+            String paramId = getId(buffer, HEADER_BYTES + record * RECORD_BYTES);
+            if (params == null || params.contains(paramId))
+            {
+                ids.add(paramId);
+                records.add(record);
+            }
+        }
+
+        ParameterRegistry registry = ParameterRegistry.of(ids.toArray(new String[ids.size()]));
+        StatisticsAggregate[] aggregates = new StatisticsAggregate[ids.size()];
+        StatisticsAggregate[][] hourAggregates = withHours ? new StatisticsAggregate[hourCount][ids.size()] : null;
+        for (int param = 0; param < aggregates.length; ++param)
+        {
+            int record = records.get(param);
+            aggregates[param] = getAggregate(buffer, HEADER_BYTES + record * RECORD_BYTES, midnight, midnight,
+                    stationId);
+            int hours = HEADER_BYTES + record * hourCount * RECORD_BYTES;
+            for (int hour = 0; withHours && hour < hourCount; ++hour)
+            {
+                hourAggregates[hour][param] = getAggregate(hoursBuffer, hours + hour * RECORD_BYTES, midnight,
+                        midnight + hour * 60L, stationId);
+            }
+        }
+
+        synchronized (this)
+        {
+            ++readCount;
+            if (withHours)
+            {
+                ++hoursReadCount;
+            }
+        }
+        return new DayDataStatistics(registry, stationId, midnight, aggregates, hourAggregates);
+    }
+
+    /**
+     * Method to write the summary and hours files of a source file, replacing
+     * the ones there were. Each is written next to its final name and moved
+     * over it, so readers never see half of one, and the hours file is moved
+     * first. Statistics of a station or parameter id longer than 8 characters
+     * are not written. The files are stamped with the modification time and
+     * size the source had before it was parsed, so rows appended while it was
+     * parsed leave the summary stale rather than stored as fresh.
+     *
+     * @param source
+     *            the source file the statistics were read from
+     * @param modified
+     *            the modification time of the source before it was parsed
+     * @param size
+     *            the size of the source before it was parsed
+     * @param dataStats
+     *            the statistics of every parameter of the source, with their
+     *            hours
+     * @return boolean true if the summary was written
+     * @throws IOException
+     */
+    public boolean write(CsAbstractFile source, long modified, long size, DayDataStatistics dataStats)
+            throws IOException
+    {
+        ParameterRegistry registry = dataStats.getRegistry();
+        if (dataStats.getStationID().length() > ID_BYTES || !dataStats.hasHourlyAggregates())
+        {
+            return false;
+        }
+
+        // parameters without valid values get no record
+        ArrayList<Integer> params = new ArrayList<Integer>();
+        for (int param = 0; param < registry.size(); ++param)
+        {
+            if (registry.getParamId(param).length() > ID_BYTES)
+            {
+                return false;
+            }
+            if (dataStats.getAggregate(param) != null)
+            {
+                params.add(param);
+            }
+        }
+        int hourCount = dataStats.getHourCount();
+        long midnight = dataStats.getStartEpochMinute();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + params.size() * RECORD_BYTES);
+        putHeader(buffer, MAGIC, modified, size, dataStats, params.size());
+        ByteBuffer hoursBuffer = ByteBuffer.allocate(HEADER_BYTES + params.size() * hourCount * RECORD_BYTES);
+        putHeader(hoursBuffer, HOURS_MAGIC, modified, size, dataStats, params.size());
+        for (int record = 0; record < params.size(); ++record)
+        {
+            int param = params.get(record);
+            String paramId = registry.getParamId(param);
+            putAggregate(buffer, HEADER_BYTES + record * RECORD_BYTES, paramId, -1, dataStats.getAggregate(param),
+                    midnight);
+            int hours = HEADER_BYTES + record * hourCount * RECORD_BYTES;
+            for (int hour = 0; hour < hourCount; ++hour)
+            {
+                putAggregate(hoursBuffer, hours + hour * RECORD_BYTES, paramId, hour,
+                        dataStats.getHourlyAggregate(hour, param), midnight);
+            }
+        }
+
+        // a summary never points to the hours of an older source
+        replace(getHoursFile(source), hoursBuffer);
+        replace(getSummaryFile(source), buffer);
+
+        synchronized (this)
+        {
+            ++writeCount;
+        }
+        return true;
+    }
+
+    /**
+     * Method to get the summary file of a source file. The file is named after
+     * the source and a hash of the directory it is in, so sources of the same
+     * name in different directories get different summaries.
+     *
+     * @param source
+     *            the source file
+     * @return File the summary file, which may not exist
+     */
+    public File getSummaryFile(CsAbstractFile source)
+    {
+        return new File(directory, getKey(source) + EXTENSION);
+    }
+
+    /**
+     * Method to get the hours file of a source file
+     *
+     * @param source
+     *            the source file
+     * @return File the hours file, which may not exist
+     */
+    public File getHoursFile(CsAbstractFile source)
+    {
+        return new File(directory, getKey(source) + HOURS_EXTENSION);
+    }
+
+    /**
+     * Method to get the number of summaries read back
+     *
+     * @return long the number of summaries
+     */
+    public synchronized long getReadCount()
+    {
+        return readCount;
+    }
+
+    /**
+     * Method to get the number of hours files read back
+     *
+     * @return long the number of hours files
+     */
+    public synchronized long getHoursReadCount()
+    {
+        return hoursReadCount;
+    }
+
+    /**
+     * Method to get the number of summaries written
+     *
+     * @return long the number of summaries
+     */
+    public synchronized long getWriteCount()
+    {
+        return writeCount;
+    }
+
+    /**
+     * Private helper method for the name of the files of a source file: its
+     * name and the first 8 bytes of the SHA-1 hash of the absolute path of its
+     * directory
+     *
+     * @param source
+     *            the source file
+     * @return String the name, without extension
+     */
+    private static String getKey(CsAbstractFile source)
+    {
+        Path path = source.file.toPath().toAbsolutePath().normalize();
+        Path parent = path.getParent();
+        byte[] hash;
+        try
+        {
+            hash = MessageDigest.getInstance("SHA-1")
+                    .digest((parent == null ? "" : parent.toString()).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // every Java platform has SHA-1
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder key = new StringBuilder(path.getFileName().toString()).append('-');
+        for (int index = 0; index < 8; ++index)
+        {
+            key.append(String.format("%02x", hash[index]));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Private helper method that maps a summary or hours file, if it is of this
+     * layout and of the source as it is now
+     *
+     * @param file
+     *            the summary or hours file
+     * @param magic
+     *            the first four bytes the file has to start with
+     * @param source
+     *            the source file
+     * @return ByteBuffer the contents of the file, or null if it is missing,
+     *         of another layout or stale
+     * @throws IOException
+     */
+    private static ByteBuffer map(File file, int magic, CsAbstractFile source) throws IOException
+    {
+        if (!file.isFile() || file.length() < HEADER_BYTES)
+        {
+            return null;
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        // a file of another version, or of an older source, is not used
+        if (buffer.getInt(0) != magic || buffer.getInt(4) != VERSION || buffer.getLong(8) != source.getDateModified()
+                || buffer.getLong(16) != source.getSize())
+        {
+            return null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Private helper method that writes the header of a summary or hours file
+     *
+     * @param buffer
+     *            the buffer of the file
+     * @param magic
+     *            the first four bytes of the file
+     * @param modified
+     *            the modification time of the source before it was parsed
+     * @param size
+     *            the size of the source before it was parsed
+     * @param dataStats
+     *            the statistics of the source
+     * @param paramCount
+     *            the number of parameters with a record
+     */
+    private static void putHeader(ByteBuffer buffer, int magic, long modified, long size,
+            DayDataStatistics dataStats, int paramCount)
+    {
+        buffer.putInt(0, magic);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, modified);
+        buffer.putLong(16, size);
+        buffer.putLong(24, dataStats.getStartEpochMinute());
+        putId(buffer, 32, dataStats.getStationID());
+        buffer.putInt(40, paramCount);
+        buffer.putInt(44, dataStats.getHourCount());
+    }
+
+    /**
+     * Private helper method that writes a file next to its final name and
+     * moves it over the file there was
+     *
+     * @param file
+     *            the file to replace
+     * @param buffer
+     *            the contents of the file
+     * @throws IOException
+     */
+    private void replace(File file, ByteBuffer buffer) throws IOException
+    {
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+        try
+        {
+            try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.WRITE))
+            {
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+            }
+            try
+            {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    /**
+     * Private helper method that writes a record
+     *
+     * @param buffer
+     *            the buffer of the summary or hours file
+     * @param offset
+     *            the offset of the record
+     * @param paramId
+     *            the parameter id
+     * @param hour
+     *            the hour of the record, -1 for the day
+     * @param aggregate
+     *            the statistics, or null if there are no valid values
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     */
+    private static void putAggregate(ByteBuffer buffer, int offset, String paramId, int hour,
+            StatisticsAggregate aggregate, long midnight)
+    {
+        putId(buffer, offset, paramId);
+        buffer.putInt(offset + 12, hour);
+        if (aggregate == null)
+        {
+            buffer.putInt(offset + 8, 0);
+            return;
+        }
+        buffer.putInt(offset + 8, (int) aggregate.getCount());
+        buffer.putDouble(offset + 16, aggregate.getSum());
+        buffer.putDouble(offset + 24, aggregate.getM2());
+        buffer.putDouble(offset + 32, aggregate.getMin());
+        buffer.putDouble(offset + 40, aggregate.getMax());
+        buffer.putInt(offset + 48, (int) (aggregate.getMinEpochMinute() - midnight));
+        buffer.putInt(offset + 52, (int) (aggregate.getMaxEpochMinute() - midnight));
+    }
+
+    /**
+     * Private helper method that reads a record
+     *
+     * @param buffer
+     *            the buffer of the summary or hours file
+     * @param offset
+     *            the offset of the record
+     * @param midnight
+     *            the start of the day, as minutes since the epoch
+     * @param start
+     *            the start of the period of the record, as minutes since the
+     *            epoch
+     * @param stationId
+     *            the station ID
+     * @return StatisticsAggregate the statistics, or null if there are no valid
+     *         values
+     */
+    private static StatisticsAggregate getAggregate(ByteBuffer buffer, int offset, long midnight, long start,
+            String stationId)
+    {
+        int count = buffer.getInt(offset + 8);
+        if (count == 0)
+        {
+            return null;
+        }
+        return new StatisticsAggregate(count, buffer.getDouble(offset + 16), buffer.getDouble(offset + 24),
+                buffer.getDouble(offset + 32), midnight + buffer.getInt(offset + 48), buffer.getDouble(offset + 40),
+                midnight + buffer.getInt(offset + 52), start, stationId);
+    }
+
+    /**
+     * Private helper method that writes an id, padded with spaces
+     *
+     * @param buffer
+     *            the buffer of the summary
+     * @param offset
+     *            the offset of the id
+     * @param id
+     *            the id, at most 8 ASCII characters
+     */
+    private static void putId(ByteBuffer buffer, int offset, String id)
+    {
+        byte[] bytes = id.getBytes(StandardCharsets.US_ASCII);
+        for (int index = 0; index < ID_BYTES; ++index)
+        {
+            buffer.put(offset + index, index < bytes.length ? bytes[index] : (byte) ' ');
+        }
+    }
+
+    /**
+     * Private helper method that reads an id, dropping the padding
+     *
+     * @param buffer
+     *            the buffer of the summary
+     * @param offset
+     *            the offset of the id
+     * @return String the id
+     */
+    private static String getId(ByteBuffer buffer, int offset)
+    {
+        byte[] bytes = new byte[ID_BYTES];
+        for (int index = 0; index < ID_BYTES; ++index)
+        {
+            bytes[index] = buffer.get(offset + index);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,285 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SummaryStoreTest
+{
+    /** the directory of the store */
+    File directory;
+
+    /** the store under test */
+    SummaryStore store;
+
+    /**
+     * Method to open a store in an empty directory
+     * 
+     * @throws IOException
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("summaries").toFile();
+        store = new SummaryStore(directory.getPath());
+    }
+
+    /**
+     * Method to delete the store
+     */
+    @After
+    public void tearDown()
+    {
+        for (File file : directory.listFiles())
+        {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Test writing a summary and reading it back
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testRoundTrip() throws IOException, WrongCopyrightException
+    {
+        MesonetTimeFile file = new MesonetTimeFile("data/mesonet/20180102okcn.mts");
+        DayDataStatistics parsed = new DayDataStatistics(file);
+        Assert.assertNull("Incorrect value returned!", store.read(file, null));
+        Assert.assertTrue("Incorrect value returned!",
+                store.write(file, file.getDateModified(), file.getSize(), parsed));
+        Assert.assertTrue("Incorrect value returned!", store.getSummaryFile(file).isFile());
+        Assert.assertTrue("Incorrect value returned!", store.getHoursFile(file).isFile());
+
+        // the summary holds one record per parameter; the hours are apart
+        DayDataStatistics days = store.read(file, null);
+        Assert.assertEquals("Incorrect value returned!", 64 + 56 * days.getRegistry().size(),
+                store.getSummaryFile(file).length());
+        Assert.assertFalse("Incorrect value returned!", days.hasHourlyAggregates());
+        Assert.assertEquals("Incorrect value returned!", 0, days.getHourCount());
+        Assert.assertEquals("Incorrect String returned!", parsed.getStatMeasurement("TAIR", StatType.MAX).toString(),
+                days.getStatMeasurement("TAIR", StatType.MAX).toString());
+        Assert.assertEquals("Incorrect value returned!", 0, store.getHoursReadCount());
+
+        DayDataStatistics read = store.read(file, null, true);
+        Assert.assertEquals("Incorrect value returned!", 2, store.getReadCount());
+        Assert.assertEquals("Incorrect value returned!", 1, store.getHoursReadCount());
+        Assert.assertEquals("Incorrect value returned!", parsed.getStationID(), read.getStationID());
+        Assert.assertEquals("Incorrect value returned!", parsed.getStartEpochMinute(), read.getStartEpochMinute());
+        Assert.assertEquals("Incorrect value returned!", parsed.getHourCount(), read.getHourCount());
+        for (String paramId : new String[] { "TAIR", "TA9M", "SRAD", "PRES" })
+        {
+            for (StatType type : new StatType[] { StatType.MIN, StatType.MAX, StatType.AVG, StatType.TOT,
+                    StatType.VARIANCE, StatType.COUNT })
+            {
+                Assert.assertEquals("Incorrect String returned!", parsed.getStatMeasurement(paramId, type).toString(),
+                        read.getStatMeasurement(paramId, type).toString());
+            }
+
+            int parsedParam = parsed.getRegistry().indexOf(paramId);
+            int readParam = read.getRegistry().indexOf(paramId);
+            for (int hour = 0; hour < parsed.getHourCount(); ++hour)
+            {
+                StatisticsAggregate expected = parsed.getHourlyAggregate(hour, parsedParam);
+                StatisticsAggregate actual = read.getHourlyAggregate(hour, readParam);
+                Assert.assertEquals("Incorrect value returned!", expected.getCount(), actual.getCount());
+                Assert.assertEquals("Incorrect value returned!", expected.getMax(), actual.getMax(), 0.0);
+                Assert.assertEquals("Incorrect value returned!", expected.getMaxEpochMinute(),
+                        actual.getMaxEpochMinute());
+                Assert.assertEquals("Incorrect value returned!", expected.getStartEpochMinute(),
+                        actual.getStartEpochMinute());
+            }
+        }
+
+        // parameters without valid values are left out; quantiles are not kept
+        Assert.assertNull("Incorrect value returned!", read.getStatMeasurement("TR05", StatType.MAX));
+        Assert.assertTrue("Incorrect value returned!",
+                Double.isNaN(read.getStatMeasurement("TAIR", StatType.MEDIAN).getValue()));
+
+        // only the requested parameters are read
+        DayDataStatistics projected = store.read(file, Collections.singleton("SRAD"), true);
+        Assert.assertEquals("Incorrect value returned!", 1, projected.getRegistry().size());
+        Assert.assertNull("Incorrect value returned!", projected.getStatMeasurement("TAIR", StatType.MAX));
+        Assert.assertEquals("Incorrect value returned!",
+                parsed.getHourlyAggregate(12, parsed.getRegistry().indexOf("SRAD")).getMax(),
+                projected.getHourlyAggregate(12, 0).getMax(), 0.0);
+
+        // a summary without its hours file is not read with hours
+        store.getHoursFile(file).delete();
+        Assert.assertNull("Incorrect value returned!", store.read(file, null, true));
+        Assert.assertNotNull("Incorrect value returned!", store.read(file, null));
+    }
+
+    /**
+     * Test that files of the same name in different directories get different
+     * summaries
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testSameName() throws IOException, WrongCopyrightException
+    {
+        File other = new File(directory, "other");
+        other.mkdir();
+        File copy = new File(other, "20180102okcn.mts");
+        Files.copy(new File("data/mesonet/20180103stil.mts").toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        MesonetTimeFile file = new MesonetTimeFile("data/mesonet/20180102okcn.mts");
+        MesonetTimeFile sameName = new MesonetTimeFile(copy.getPath());
+        Assert.assertFalse("Incorrect value returned!",
+                store.getSummaryFile(file).equals(store.getSummaryFile(sameName)));
+
+        store.write(file, file.getDateModified(), file.getSize(), new DayDataStatistics(file));
+        store.write(sameName, sameName.getDateModified(), sameName.getSize(), new DayDataStatistics(sameName));
+        Assert.assertEquals("Incorrect value returned!", "OKCN", store.read(file, null).getStationID());
+        Assert.assertEquals("Incorrect value returned!", "STIL", store.read(sameName, null).getStationID());
+
+        copy.delete();
+        other.delete();
+    }
+
+    /**
+     * Test that a summary is ignored once its source changes
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     */
+    @Test
+    public void testStale() throws IOException, WrongCopyrightException
+    {
+        File copy = new File(directory, "20180103stil.mts");
+        Files.copy(new File("data/mesonet/20180103stil.mts").toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        copy.setLastModified(1000000000000L);
+
+        MesonetTimeFile file = new MesonetTimeFile(copy.getPath());
+        store.write(file, file.getDateModified(), file.getSize(), new DayDataStatistics(file));
+        Assert.assertNotNull("Incorrect value returned!", store.read(file, null));
+
+        copy.setLastModified(1000000060000L);
+        Assert.assertNull("Incorrect value returned!", store.read(new MesonetTimeFile(copy.getPath()), null));
+
+        // a source appended after it was parsed is not stamped with its new size
+        long modified = file.getDateModified();
+        long size = file.getSize();
+        DayDataStatistics parsed = new DayDataStatistics(file);
+        Files.write(copy.toPath(), Files.readAllLines(copy.toPath()).subList(3, 4), StandardOpenOption.APPEND);
+        store.write(file, modified, size, parsed);
+        Assert.assertNull("Incorrect value returned!", store.read(new MesonetTimeFile(copy.getPath()), null));
+    }
+
+    /**
+     * Test that DaysStatistics of a few parameters writes no summaries but reads
+     * those of every parameter
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testProjectedDaysStatistics()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] files = { "data/mesonet/20180102okcn.mts", "data/mesonet/20180103stil.mts" };
+        DaysStatistics first = new DaysStatistics(files, Collections.singleton("tair"),
+                new ParseCache<DayDataStatistics>());
+        first.setSummaryStore(store);
+        first.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", 0, store.getWriteCount());
+
+        // the parameters that were not asked for are not calculated
+        boolean throwException = false;
+        try
+        {
+            first.getAggregate("SRAD");
+        }
+        catch (WrongParameterIdException e)
+        {
+            throwException = true;
+        }
+        Assert.assertTrue(throwException);
+
+        DaysStatistics all = new DaysStatistics(files, null, new ParseCache<DayDataStatistics>());
+        all.setSummaryStore(store);
+        all.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getWriteCount());
+
+        DaysStatistics second = new DaysStatistics(files, Collections.singleton("SRAD"),
+                new ParseCache<DayDataStatistics>());
+        second.setSummaryStore(store);
+        second.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getWriteCount());
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getReadCount());
+
+        DaysStatistics parsed = new DaysStatistics(files, Collections.singleton("SRAD"),
+                new ParseCache<DayDataStatistics>());
+        parsed.findStatistics();
+        Assert.assertEquals("Incorrect String returned!", parsed.getMaximumDay("SRAD").toString(),
+                second.getMaximumDay("SRAD").toString());
+    }
+
+    /**
+     * Test that DaysStatistics reads the summaries of a previous run
+     * 
+     * @throws IOException
+     * @throws WrongCopyrightException
+     * @throws ParseException
+     * @throws WrongParameterIdException
+     */
+    @Test
+    public void testDaysStatistics()
+            throws IOException, WrongCopyrightException, ParseException, WrongParameterIdException
+    {
+        String[] files = new File("data/mesonet").list();
+        Arrays.sort(files);
+        for (int index = 0; index < files.length; ++index)
+        {
+            files[index] = "data/mesonet/" + files[index];
+        }
+
+        DaysStatistics first = new DaysStatistics(files, null, new ParseCache<DayDataStatistics>());
+        first.setSummaryStore(store);
+        first.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getWriteCount());
+        Assert.assertEquals("Incorrect value returned!", 0, store.getReadCount());
+
+        DaysStatistics second = new DaysStatistics(files, null, new ParseCache<DayDataStatistics>());
+        second.setSummaryStore(store);
+        second.findStatistics();
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getWriteCount());
+        Assert.assertEquals("Incorrect value returned!", files.length, store.getReadCount());
+
+        for (String paramId : new String[] { "TAIR", "SRAD", "WSPD" })
+        {
+            Assert.assertEquals("Incorrect String returned!", first.getMaximumDay(paramId).toString(),
+                    second.getMaximumDay(paramId).toString());
+            Assert.assertEquals("Incorrect String returned!", first.getMinimumDay(paramId, "okce").toString(),
+                    second.getMinimumDay(paramId, "okce").toString());
+            Assert.assertEquals("Incorrect value returned!", first.getAggregate(paramId).getMean(),
+                    second.getAggregate(paramId).getMean(), 1e-9);
+        }
+        Assert.assertEquals("Incorrect value returned!", 0, store.getHoursReadCount());
+
+        // only the day the range starts inside has its hours read
+        long from = EpochMinutes.of(2018, 1, 2, 130);
+        long to = EpochMinutes.of(2018, 1, 4, 0);
+        Assert.assertEquals("Incorrect value returned!", first.getRangeAggregate("TAIR", "stil", from, to).getMax(),
+                second.getRangeAggregate("TAIR", "stil", from, to).getMax(), 0.0);
+        Assert.assertEquals("Incorrect value returned!", first.getRangeAggregate("TAIR", "stil", from, to).getMean(),
+                second.getRangeAggregate("TAIR", "stil", from, to).getMean(), 1e-9);
+        Assert.assertEquals("Incorrect value returned!", 1, store.getHoursReadCount());
+    }
+}
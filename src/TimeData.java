@@ -1,6 +1,5 @@
 import java.util.Calendar;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.TimeZone;
 
 /**
@@ -9,14 +8,23 @@ import java.util.TimeZone;
  */
 public class TimeData
 {
-    /** a GregorianCalendar holding the measurement date and time in UTC format */
+    /** the measurement date and time, as minutes since the epoch in UTC */
+    private long epochMinute;
+
+    /** the packed date of measurement, 0 until first asked for */
+    private int civilDate;
+
+    /** the calendar of the measurement date and time, null until first asked for */
     private GregorianCalendar measurementDateTimeUTC;
 
     /** a String representing the station ID */
     private String stationID = "nada";
 
-    /** HashMap to hold the Measurement objects */
-    HashMap<String, Measurement> measurements = new HashMap<String, Measurement>();
+    /** the registry numbering the parameters of the measurements */
+    private ParameterRegistry registry;
+
+    /** the Measurement objects, indexed by the registry */
+    private Measurement[] measurements;
 
     /**
      * constructor for the time data class. Calls private helper methods.
@@ -42,9 +50,6 @@ public class TimeData
             Measurement solarRadiation)
     {
         // initialize the data
-        measurementDateTimeUTC = new GregorianCalendar();
-        measurementDateTimeUTC.setTimeZone(TimeZone.getTimeZone("UTC"));
-
         this.stationID = stationID;
 
         // call the setDateTime method
@@ -54,6 +59,37 @@ public class TimeData
         setMeasurements(tair, ta9m, solarRadiation);
     }
 
+    /**
+     * constructor for the time data class that holds any number of parameters
+     * 
+     * @param stationID
+     *            the station ID
+     * @param year
+     *            the year of measurement
+     * @param month
+     *            the month of measurement
+     * @param day
+     *            the day of measurement
+     * @param minute
+     *            the minute of measurement
+     * @param inRegistry
+     *            the registry numbering the parameters
+     * @param inMeasurements
+     *            the measurements, indexed by the registry; null for a parameter
+     *            that was not parsed
+     */
+    public TimeData(String stationID, int year, int month, int day, int minute, ParameterRegistry inRegistry,
+            Measurement[] inMeasurements)
+    {
+        // initialize the data
+        this.stationID = stationID;
+        registry = inRegistry;
+        measurements = inMeasurements;
+
+        // call the setDateTime method
+        setDateTimeComponents(year, month, day, minute);
+    }
+
     /**
      * a constructor for the TimeData class that takes a GregorianCalendar and
      * extracts the relevant data
@@ -73,8 +109,6 @@ public class TimeData
             Measurement solarRadiation) throws WrongTimeZoneException
     {
         // Initialize the data
-        measurementDateTimeUTC = new GregorianCalendar(0, 0, 0);
-        measurementDateTimeUTC.setTimeZone(TimeZone.getTimeZone("UTC"));
         stationID = inStationID;
 
         // call the setMeasurements method
@@ -97,15 +131,30 @@ public class TimeData
     }
 
     /**
-     * method for getting the date and time of measurement
+     * method for getting the date and time of measurement. The calendar is built
+     * on the first call and the same one is returned after that.
      * 
-     * @return GregorianCalendar representing the date and time
+     * @return GregorianCalendar representing the date and time, in UTC
      */
     public GregorianCalendar getMeasurementDateTime()
     {
+        if (measurementDateTimeUTC == null)
+        {
+            measurementDateTimeUTC = EpochMinutes.toCalendar(epochMinute);
+        }
         return measurementDateTimeUTC;
     }
 
+    /**
+     * method for getting the date and time of measurement as a timestamp
+     * 
+     * @return long the minutes since the epoch, in UTC
+     */
+    public long getEpochMinute()
+    {
+        return epochMinute;
+    }
+
     /**
      * private helper method for setting the date and time components
      * 
@@ -120,11 +169,12 @@ public class TimeData
      */
     private void setDateTimeComponents(int year, int month, int day, int minute)
     {
-        measurementDateTimeUTC.set(year, (month - 1), day, 0, minute, 0);
+        epochMinute = EpochMinutes.of(year, month, day, minute);
     }
 
     /**
-     * private helper method for setting the measurements
+     * private helper method for setting the measurements. A null measurement is
+     * one that was not parsed and is left out.
      * 
      * @param inTair
      *            the tair measurement
@@ -135,15 +185,43 @@ public class TimeData
      */
     private void setMeasurements(Measurement inTair, Measurement inTa9m, Measurement inSolarRadiation)
     {
-        measurements.put("TAIR", inTair);
-        measurements.put("TA9M", inTa9m);
-        measurements.put("SRAD", inSolarRadiation);
+        registry = ParameterRegistry.DEFAULT;
+        measurements = new Measurement[] { inTair, inTa9m, inSolarRadiation };
     }
 
+    /**
+     * method for getting a measurement by parameter id
+     * 
+     * @param param
+     *            the parameter id, in any case
+     * @return Measurement the measurement, or null if it was not parsed
+     */
     public Measurement getMeasurement(String param)
     {
-        param = param.toUpperCase();
-        return measurements.get(param);
+        int index = registry.indexOf(param);
+        return index < 0 ? null : measurements[index];
+    }
+
+    /**
+     * method for getting a measurement by registry index
+     * 
+     * @param index
+     *            the index of the parameter in the registry
+     * @return Measurement the measurement, or null if it was not parsed
+     */
+    public Measurement getMeasurement(int index)
+    {
+        return measurements[index];
+    }
+
+    /**
+     * method for getting the registry numbering the measurements
+     * 
+     * @return ParameterRegistry the registry
+     */
+    public ParameterRegistry getRegistry()
+    {
+        return registry;
     }
 
     /**
@@ -159,11 +237,11 @@ public class TimeData
     /**
      * method for getting the minute of measurement
      * 
-     * @return int an int representing the minute
+     * @return int an int representing the minute of the hour
      */
     public int getMinute()
     {
-        return measurementDateTimeUTC.get(Calendar.MINUTE);
+        return EpochMinutes.getMinuteOfDay(epochMinute) % 60;
     }
 
     /**
@@ -173,7 +251,7 @@ public class TimeData
      */
     public int getMonth()
     {
-        return measurementDateTimeUTC.get(Calendar.MONTH) + 1;
+        return EpochMinutes.getCivilMonth(getCivilDate());
     }
 
     /**
@@ -183,7 +261,7 @@ public class TimeData
      */
     public int getDay()
     {
-        return measurementDateTimeUTC.get(Calendar.DAY_OF_MONTH);
+        return EpochMinutes.getCivilDay(getCivilDate());
     }
 
     /**
@@ -193,6 +271,21 @@ public class TimeData
      */
     public int getYear()
     {
-        return measurementDateTimeUTC.get(Calendar.YEAR);
+        return EpochMinutes.getCivilYear(getCivilDate());
+    }
+
+    /**
+     * Private helper method for the packed date of measurement, converted from
+     * the timestamp on the first call only
+     * 
+     * @return int the date from EpochMinutes.getCivilDate
+     */
+    private int getCivilDate()
+    {
+        if (civilDate == 0)
+        {
+            civilDate = EpochMinutes.getCivilDate(epochMinute);
+        }
+        return civilDate;
     }
 }
\ No newline at end of file
@@ -99,5 +99,30 @@ public class TimeDataTest
         System.out.println(actual);
 
         Assert.assertEquals("Check your date, fool!", expected, actual);
+        Assert.assertSame("Calendar was rebuilt!", time.getMeasurementDateTime(), time.getMeasurementDateTime());
+        Assert.assertEquals("Incorrect year returned!", year, time.getYear());
+        Assert.assertEquals("Incorrect month returned!", month, time.getMonth());
+        Assert.assertEquals("Incorrect day returned!", day, time.getDay());
+    }
+
+    /**
+     * Method to test the TimeData constructor that takes a ParameterRegistry
+     */
+    @Test
+    public void registryConstructorTest()
+    {
+        ParameterRegistry registry = ParameterRegistry.of("RELH", "WSPD", "PRES");
+        Measurement[] measurements =
+        { new Measurement(39), new Measurement(6.0), null };
+
+        TimeData time = new TimeData("nrmn", 2018, 1, 1, 5, registry, measurements);
+
+        Assert.assertEquals("Incorrect registry returned!", registry, time.getRegistry());
+        Assert.assertEquals("Incorrect relh returned!", 39.0, time.getMeasurement("RELH").getValue(), 0.001);
+        Assert.assertEquals("Incorrect wspd returned!", 6.0, time.getMeasurement("wspd").getValue(), 0.001);
+        Assert.assertEquals("Incorrect wspd returned!", 6.0, time.getMeasurement(1).getValue(), 0.001);
+        Assert.assertNull("Unparsed pres returned!", time.getMeasurement("PRES"));
+        Assert.assertNull("Unknown tair returned!", time.getMeasurement("TAIR"));
+        Assert.assertEquals("Incorrect minute returned!", 5, time.getMinute());
     }
 }